@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.alts.internal;
+
+import com.google.common.collect.ImmutableList;
+import io.grpc.Channel;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.alts.internal.AltsProtocolNegotiator.ClientAltsProtocolNegotiatorFactory;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.FixedObjectPool;
+import io.grpc.internal.ObjectPool;
+import io.grpc.netty.InternalNettyChannelBuilder;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * ALTS handshakes per second against a local {@link FakeHandshakerService}, for bursts of
+ * connections opened at the same time. The {@code handshakes} counter is the rate of completed
+ * connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AltsHandshakeBenchmark {
+
+  @Param({"1", "64"})
+  public int connectionsPerBurst;
+
+  private final FakeHandshakerService handshakerService = new FakeHandshakerService();
+  private Server handshakerServer;
+  private ManagedChannel handshakerChannel;
+  private Server server;
+  private ClientAltsProtocolNegotiatorFactory negotiatorFactory;
+
+  /** Counts the completed handshakes. */
+  @AuxCounters
+  @State(Scope.Thread)
+  public static class Counters {
+    public long handshakes;
+
+    @Setup(Level.Iteration)
+    public void clean() {
+      handshakes = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    String handshakerName = "alts-handshake-benchmark";
+    handshakerServer = InProcessServerBuilder.forName(handshakerName)
+        .addService(handshakerService)
+        .directExecutor()
+        .build()
+        .start();
+    handshakerChannel = InProcessChannelBuilder.forName(handshakerName).directExecutor().build();
+    ObjectPool<Channel> handshakerChannelPool = new FixedObjectPool<Channel>(handshakerChannel);
+    server = NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+        .protocolNegotiator(
+            AltsProtocolNegotiator.serverAltsProtocolNegotiator(handshakerChannelPool))
+        .build()
+        .start();
+    negotiatorFactory = new ClientAltsProtocolNegotiatorFactory(
+        ImmutableList.<String>of(), handshakerChannelPool);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    server.shutdownNow();
+    if (!server.awaitTermination(1, TimeUnit.MINUTES)) {
+      throw new RuntimeException("server failed to shut down in a timely fashion");
+    }
+    handshakerChannel.shutdownNow();
+    handshakerServer.shutdownNow();
+  }
+
+  /** Opens a burst of channels and waits for all of their handshakes to complete. */
+  @Benchmark
+  public void connectBurst(Counters counters) throws Exception {
+    List<ManagedChannel> channels = new ArrayList<>(connectionsPerBurst);
+    final CountDownLatch ready = new CountDownLatch(connectionsPerBurst);
+    try {
+      for (int i = 0; i < connectionsPerBurst; i++) {
+        NettyChannelBuilder builder = NettyChannelBuilder.forAddress("localhost", server.getPort());
+        InternalNettyChannelBuilder.setProtocolNegotiatorFactory(builder, negotiatorFactory);
+        ManagedChannel channel = builder.build();
+        channels.add(channel);
+        notifyWhenReady(channel, ready);
+      }
+      if (!ready.await(1, TimeUnit.MINUTES)) {
+        throw new IllegalStateException("Handshakes did not complete in time");
+      }
+      counters.handshakes += connectionsPerBurst;
+    } finally {
+      for (ManagedChannel channel : channels) {
+        channel.shutdownNow();
+      }
+    }
+  }
+
+  private static void notifyWhenReady(final ManagedChannel channel, final CountDownLatch ready) {
+    ConnectivityState state = channel.getState(true);
+    if (state == ConnectivityState.READY) {
+      ready.countDown();
+      return;
+    }
+    if (state == ConnectivityState.TRANSIENT_FAILURE) {
+      throw new IllegalStateException("Failed to connect");
+    }
+    channel.notifyWhenStateChanged(state, new Runnable() {
+      @Override
+      public void run() {
+        notifyWhenReady(channel, ready);
+      }
+    });
+  }
+}
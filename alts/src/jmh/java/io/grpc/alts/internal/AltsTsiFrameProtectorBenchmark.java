@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.alts.internal;
+
+import io.grpc.alts.internal.TsiFrameProtector.Consumer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Throughput of ALTS record protection by frame size. The {@code bytes} counter is the plaintext
+ * throughput in bytes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AltsTsiFrameProtectorBenchmark {
+
+  @Param({"16384", "65536", "131072"})
+  public int frameSize;
+
+  @Param({"1024", "1048576"})
+  public int payloadBytes;
+
+  private final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+  private final List<ByteBuf> protectedBufs = new ArrayList<>();
+  private final List<Object> unprotectedBufs = new ArrayList<>();
+  private final Consumer<ByteBuf> ctxWrite = new Consumer<ByteBuf>() {
+    @Override
+    public void accept(ByteBuf buf) {
+      protectedBufs.add(buf);
+    }
+  };
+  private AltsTsiFrameProtector clientProtector;
+  private AltsTsiFrameProtector serverProtector;
+  private ByteBuf payload;
+
+  /** Counts the plaintext bytes protected. */
+  @AuxCounters
+  @State(Scope.Thread)
+  public static class Counters {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void clean() {
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    byte[] key = new byte[AltsChannelCrypter.getKeyLength()];
+    clientProtector = new AltsTsiFrameProtector(
+        frameSize, new AltsChannelCrypter(key, true), alloc);
+    serverProtector = new AltsTsiFrameProtector(
+        frameSize, new AltsChannelCrypter(key, false), alloc);
+    byte[] bytes = new byte[payloadBytes];
+    new Random(1).nextBytes(bytes);
+    payload = alloc.directBuffer(payloadBytes).writeBytes(bytes);
+  }
+
+  @TearDown
+  public void tearDown() {
+    clientProtector.destroy();
+    serverProtector.destroy();
+    payload.release();
+  }
+
+  /** Protects the payload, as done for each flush. */
+  @Benchmark
+  public void protect(Counters counters) throws GeneralSecurityException {
+    clientProtector.protectFlush(
+        Collections.singletonList(payload.retainedDuplicate()), ctxWrite, alloc);
+    releaseAll(protectedBufs);
+    counters.bytes += payloadBytes;
+  }
+
+  /** Protects the payload and unprotects it at the peer. */
+  @Benchmark
+  public void protectUnprotect(Counters counters) throws GeneralSecurityException {
+    clientProtector.protectFlush(
+        Collections.singletonList(payload.retainedDuplicate()), ctxWrite, alloc);
+    for (ByteBuf buf : protectedBufs) {
+      serverProtector.unprotect(buf, unprotectedBufs, alloc);
+    }
+    releaseAll(protectedBufs);
+    releaseAll(unprotectedBufs);
+    counters.bytes += payloadBytes;
+  }
+
+  private static void releaseAll(List<?> bufs) {
+    for (Object buf : bufs) {
+      ((ByteBuf) buf).release();
+    }
+    bufs.clear();
+  }
+}
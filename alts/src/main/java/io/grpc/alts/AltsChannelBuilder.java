@@ -16,6 +16,8 @@
 
 package io.grpc.alts;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.grpc.CallOptions;
@@ -28,6 +30,7 @@ import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
+import io.grpc.alts.internal.AltsProtocolNegotiator;
 import io.grpc.alts.internal.AltsProtocolNegotiator.ClientAltsProtocolNegotiatorFactory;
 import io.grpc.internal.GrpcUtil;
 import io.grpc.internal.ObjectPool;
@@ -53,6 +56,7 @@ public final class AltsChannelBuilder extends ForwardingChannelBuilder<AltsChann
   private ObjectPool<Channel> handshakerChannelPool =
       SharedResourcePool.forResource(HandshakerServiceChannel.SHARED_HANDSHAKER_CHANNEL);
   private boolean enableUntrustedAlts;
+  private int maxConcurrentHandshakes = AltsProtocolNegotiator.DEFAULT_MAX_CONCURRENT_HANDSHAKES;
 
   /** "Overrides" the static method in {@link ManagedChannelBuilder}. */
   public static final AltsChannelBuilder forTarget(String target) {
@@ -77,6 +81,19 @@ public final class AltsChannelBuilder extends ForwardingChannelBuilder<AltsChann
     return this;
   }
 
+  /**
+   * Sets the maximum number of ALTS handshakes the channel runs at once. Each handshake in progress
+   * holds a stream to the handshaker service; connections beyond the limit wait for one of them to
+   * finish. Defaults to {@value AltsProtocolNegotiator#DEFAULT_MAX_CONCURRENT_HANDSHAKES}.
+   *
+   * @param maxConcurrentHandshakes the maximum number of handshakes, must be positive
+   */
+  public AltsChannelBuilder maxConcurrentHandshakes(int maxConcurrentHandshakes) {
+    checkArgument(maxConcurrentHandshakes > 0, "maxConcurrentHandshakes must be positive");
+    this.maxConcurrentHandshakes = maxConcurrentHandshakes;
+    return this;
+  }
+
   /**
    * Enables untrusted ALTS for testing. If this function is called, we will not check whether ALTS
    * is running on Google Cloud Platform.
@@ -118,7 +135,7 @@ public final class AltsChannelBuilder extends ForwardingChannelBuilder<AltsChann
     InternalNettyChannelBuilder.setProtocolNegotiatorFactory(
         delegate(),
         new ClientAltsProtocolNegotiatorFactory(
-            targetServiceAccountsBuilder.build(), handshakerChannelPool));
+            targetServiceAccountsBuilder.build(), handshakerChannelPool, maxConcurrentHandshakes));
 
     return delegate().build();
   }
@@ -127,7 +144,7 @@ public final class AltsChannelBuilder extends ForwardingChannelBuilder<AltsChann
   @Nullable
   ProtocolNegotiator getProtocolNegotiatorForTest() {
     return new ClientAltsProtocolNegotiatorFactory(
-        targetServiceAccountsBuilder.build(), handshakerChannelPool)
+        targetServiceAccountsBuilder.build(), handshakerChannelPool, maxConcurrentHandshakes)
             .buildProtocolNegotiator();
   }
 
@@ -16,6 +16,8 @@
 
 package io.grpc.alts;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import io.grpc.BindableService;
 import io.grpc.Channel;
 import io.grpc.CompressorRegistry;
@@ -56,6 +58,7 @@ public final class AltsServerBuilder extends ServerBuilder<AltsServerBuilder> {
   private ObjectPool<Channel> handshakerChannelPool =
       SharedResourcePool.forResource(HandshakerServiceChannel.SHARED_HANDSHAKER_CHANNEL);
   private boolean enableUntrustedAlts;
+  private int maxConcurrentHandshakes = AltsProtocolNegotiator.DEFAULT_MAX_CONCURRENT_HANDSHAKES;
 
   private AltsServerBuilder(NettyServerBuilder nettyDelegate) {
     this.delegate = nettyDelegate;
@@ -67,6 +70,19 @@ public final class AltsServerBuilder extends ServerBuilder<AltsServerBuilder> {
     return new AltsServerBuilder(nettyDelegate);
   }
 
+  /**
+   * Sets the maximum number of ALTS handshakes the server runs at once. Each handshake in progress
+   * holds a stream to the handshaker service; connections beyond the limit wait for one of them to
+   * finish. Defaults to {@value AltsProtocolNegotiator#DEFAULT_MAX_CONCURRENT_HANDSHAKES}.
+   *
+   * @param maxConcurrentHandshakes the maximum number of handshakes, must be positive
+   */
+  public AltsServerBuilder maxConcurrentHandshakes(int maxConcurrentHandshakes) {
+    checkArgument(maxConcurrentHandshakes > 0, "maxConcurrentHandshakes must be positive");
+    this.maxConcurrentHandshakes = maxConcurrentHandshakes;
+    return this;
+  }
+
   /**
    * Enables untrusted ALTS for testing. If this function is called, we will not check whether ALTS
    * is running on Google Cloud Platform.
@@ -186,7 +202,8 @@ public final class AltsServerBuilder extends ServerBuilder<AltsServerBuilder> {
     }
 
     delegate.protocolNegotiator(
-        AltsProtocolNegotiator.serverAltsProtocolNegotiator(handshakerChannelPool));
+        AltsProtocolNegotiator.serverAltsProtocolNegotiator(
+            handshakerChannelPool, maxConcurrentHandshakes));
     return delegate.build();
   }
 
@@ -23,6 +23,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
+import java.util.Arrays;
 import java.util.List;
 
 /** Performs encryption and decryption with AES-GCM using JCE. All methods are thread-compatible. */
@@ -38,6 +39,11 @@ final class AltsChannelCrypter implements ChannelCrypterNetty {
   private final byte[] outCounter = new byte[COUNTER_LENGTH];
   private final byte[] inCounter = new byte[COUNTER_LENGTH];
   private final byte[] oldCounter = new byte[COUNTER_LENGTH];
+  // Frames are encrypted and decrypted in place in this array, which is reused so that frames do
+  // not allocate. Grows to the largest frame seen, at most the 1 MiB frame size limit, and is
+  // zeroed after each frame. Passing direct buffers to the cipher instead is slower, even with
+  // Conscrypt, as the providers copy them into temporary arrays.
+  private byte[] scratch = new byte[0];
 
   AltsChannelCrypter(byte[] key, boolean isClient) {
     checkArgument(key.length == KEY_LENGTH);
@@ -56,72 +62,95 @@ final class AltsChannelCrypter implements ChannelCrypterNetty {
 
   @Override
   public void encrypt(ByteBuf outBuf, List<ByteBuf> plainBufs) throws GeneralSecurityException {
-    byte[] tempArr = new byte[outBuf.writableBytes()];
-
-    // Copy plaintext into tempArr.
-    {
-      ByteBuf tempBuf = Unpooled.wrappedBuffer(tempArr, 0, tempArr.length - TAG_LENGTH);
-      tempBuf.resetWriterIndex();
-      for (ByteBuf plainBuf : plainBufs) {
-        tempBuf.writeBytes(plainBuf);
+    int outLen = outBuf.writableBytes();
+    int plainLen = outLen - TAG_LENGTH;
+    byte[] tempArr = scratch(outLen);
+    try {
+      // Copy plaintext into tempArr.
+      {
+        ByteBuf tempBuf = Unpooled.wrappedBuffer(tempArr, 0, plainLen);
+        tempBuf.resetWriterIndex();
+        for (ByteBuf plainBuf : plainBufs) {
+          tempBuf.writeBytes(plainBuf);
+        }
       }
-    }
 
-    // Encrypt into tempArr.
-    {
-      ByteBuffer out = ByteBuffer.wrap(tempArr);
-      ByteBuffer plain = ByteBuffer.wrap(tempArr, 0, tempArr.length - TAG_LENGTH);
+      // Encrypt in place in tempArr.
+      {
+        ByteBuffer out = ByteBuffer.wrap(tempArr, 0, outLen);
+        ByteBuffer plain = ByteBuffer.wrap(tempArr, 0, plainLen);
 
-      byte[] counter = incrementOutCounter();
-      aeadCrypter.encrypt(out, plain, counter);
+        byte[] counter = incrementOutCounter();
+        aeadCrypter.encrypt(out, plain, counter);
+      }
+      outBuf.writeBytes(tempArr, 0, outLen);
+    } finally {
+      // The plaintext is still there if encryption failed
+      wipe(tempArr, outLen);
     }
-    outBuf.writeBytes(tempArr);
   }
 
   @Override
   public void decrypt(ByteBuf outBuf, ByteBuf tagBuf, List<ByteBuf> ciphertextBufs)
       throws GeneralSecurityException {
     // There is enough space for the ciphertext including the tag in outBuf.
-    byte[] tempArr = new byte[outBuf.writableBytes()];
-
-    // Copy ciphertext and tag into tempArr.
-    {
-      ByteBuf tempBuf = Unpooled.wrappedBuffer(tempArr);
-      tempBuf.resetWriterIndex();
-      for (ByteBuf ciphertextBuf : ciphertextBufs) {
-        tempBuf.writeBytes(ciphertextBuf);
+    int ciphertextAndTagLen = outBuf.writableBytes();
+    byte[] tempArr = scratch(ciphertextAndTagLen);
+    try {
+      // Copy ciphertext and tag into tempArr.
+      {
+        ByteBuf tempBuf = Unpooled.wrappedBuffer(tempArr, 0, ciphertextAndTagLen);
+        tempBuf.resetWriterIndex();
+        for (ByteBuf ciphertextBuf : ciphertextBufs) {
+          tempBuf.writeBytes(ciphertextBuf);
+        }
+        tempBuf.writeBytes(tagBuf);
       }
-      tempBuf.writeBytes(tagBuf);
-    }
 
-    decryptInternal(outBuf, tempArr);
+      decryptInternal(outBuf, tempArr, ciphertextAndTagLen);
+    } finally {
+      wipe(tempArr, ciphertextAndTagLen);
+    }
   }
 
   @Override
   public void decrypt(
       ByteBuf outBuf, ByteBuf ciphertextAndTagDirect) throws GeneralSecurityException {
-    byte[] tempArr = new byte[ciphertextAndTagDirect.readableBytes()];
-
-    // Copy ciphertext and tag into tempArr.
-    {
-      ByteBuf tempBuf = Unpooled.wrappedBuffer(tempArr);
-      tempBuf.resetWriterIndex();
-      tempBuf.writeBytes(ciphertextAndTagDirect);
+    int ciphertextAndTagLen = ciphertextAndTagDirect.readableBytes();
+    byte[] tempArr = scratch(ciphertextAndTagLen);
+    try {
+      // Copy ciphertext and tag into tempArr.
+      ciphertextAndTagDirect.readBytes(tempArr, 0, ciphertextAndTagLen);
+
+      decryptInternal(outBuf, tempArr, ciphertextAndTagLen);
+    } finally {
+      wipe(tempArr, ciphertextAndTagLen);
     }
-
-    decryptInternal(outBuf, tempArr);
   }
 
-  private void decryptInternal(ByteBuf outBuf, byte[] tempArr) throws GeneralSecurityException {
+  private void decryptInternal(ByteBuf outBuf, byte[] tempArr, int ciphertextAndTagLen)
+      throws GeneralSecurityException {
     // Perform in-place decryption on tempArr.
     {
-      ByteBuffer ciphertextAndTag = ByteBuffer.wrap(tempArr);
-      ByteBuffer out = ByteBuffer.wrap(tempArr);
+      ByteBuffer ciphertextAndTag = ByteBuffer.wrap(tempArr, 0, ciphertextAndTagLen);
+      ByteBuffer out = ByteBuffer.wrap(tempArr, 0, ciphertextAndTagLen);
       byte[] counter = incrementInCounter();
       aeadCrypter.decrypt(out, ciphertextAndTag, counter);
     }
 
-    outBuf.writeBytes(tempArr, 0, tempArr.length - TAG_LENGTH);
+    outBuf.writeBytes(tempArr, 0, ciphertextAndTagLen - TAG_LENGTH);
+  }
+
+  private byte[] scratch(int length) {
+    if (scratch.length < length) {
+      scratch = new byte[length];
+    }
+    return scratch;
+  }
+
+  /** Zeroes the part of the scratch array used by a frame, so no plaintext outlives the call. */
+  private static void wipe(byte[] tempArr, int length) {
+    Arrays.fill(tempArr, 0, length, (byte) 0);
   }
 
   @Override
@@ -131,7 +160,7 @@ final class AltsChannelCrypter implements ChannelCrypterNetty {
 
   @Override
   public void destroy() {
-    // no destroy required
+    scratch = new byte[0];
   }
 
   /** Increments {@code counter}, store the unincremented value in {@code oldCounter}. */
@@ -164,6 +193,11 @@ final class AltsChannelCrypter implements ChannelCrypterNetty {
     return oldCounter;
   }
 
+  @VisibleForTesting
+  byte[] getScratchForTesting() {
+    return scratch;
+  }
+
   @VisibleForTesting
   void incrementInCounterForTesting(int n) throws GeneralSecurityException {
     for (int i = 0; i < n; i++) {
@@ -16,6 +16,7 @@
 
 package io.grpc.alts.internal;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -60,6 +61,13 @@ public final class AltsProtocolNegotiator {
 
   private static final AsciiString SCHEME = AsciiString.of("https");
 
+  /**
+   * Default maximum number of handshakes each negotiator runs at once. Every handshake in progress
+   * holds a stream to the handshaker service, so without a limit a burst of new connections turns
+   * into a burst of handshaker requests; further handshakes wait for a permit instead.
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_HANDSHAKES = 32;
+
   /**
    * ClientAltsProtocolNegotiatorFactory is a factory for doing client side negotiation of an ALTS
    * channel.
@@ -69,30 +77,48 @@ public final class AltsProtocolNegotiator {
 
     private final ImmutableList<String> targetServiceAccounts;
     private final LazyChannel lazyHandshakerChannel;
+    private final int maxConcurrentHandshakes;
 
     public ClientAltsProtocolNegotiatorFactory(
         List<String> targetServiceAccounts,
         ObjectPool<Channel> handshakerChannelPool) {
+      this(targetServiceAccounts, handshakerChannelPool, DEFAULT_MAX_CONCURRENT_HANDSHAKES);
+    }
+
+    /**
+     * Creates a factory whose negotiators each run at most {@code maxConcurrentHandshakes}
+     * handshakes at once.
+     */
+    public ClientAltsProtocolNegotiatorFactory(
+        List<String> targetServiceAccounts,
+        ObjectPool<Channel> handshakerChannelPool,
+        int maxConcurrentHandshakes) {
+      checkArgument(maxConcurrentHandshakes > 0, "maxConcurrentHandshakes must be positive");
       this.targetServiceAccounts = ImmutableList.copyOf(targetServiceAccounts);
       this.lazyHandshakerChannel = new LazyChannel(handshakerChannelPool);
+      this.maxConcurrentHandshakes = maxConcurrentHandshakes;
     }
 
     @Override
     public ProtocolNegotiator buildProtocolNegotiator() {
       return new ClientAltsProtocolNegotiator(
           new ClientTsiHandshakerFactory(targetServiceAccounts, lazyHandshakerChannel),
-          lazyHandshakerChannel);
+          lazyHandshakerChannel,
+          maxConcurrentHandshakes);
     }
   }
 
   private static final class ClientAltsProtocolNegotiator implements ProtocolNegotiator {
     private final TsiHandshakerFactory handshakerFactory;
     private final LazyChannel lazyHandshakerChannel;
+    private final AsyncSemaphore handshakeSemaphore;
 
     ClientAltsProtocolNegotiator(
-        TsiHandshakerFactory handshakerFactory, LazyChannel lazyHandshakerChannel) {
+        TsiHandshakerFactory handshakerFactory, LazyChannel lazyHandshakerChannel,
+        int maxConcurrentHandshakes) {
       this.handshakerFactory = checkNotNull(handshakerFactory, "handshakerFactory");
       this.lazyHandshakerChannel = checkNotNull(lazyHandshakerChannel, "lazyHandshakerChannel");
+      this.handshakeSemaphore = new AsyncSemaphore(maxConcurrentHandshakes);
     }
 
     @Override
@@ -105,8 +131,8 @@ public final class AltsProtocolNegotiator {
       TsiHandshaker handshaker = handshakerFactory.newHandshaker(grpcHandler.getAuthority());
       NettyTsiHandshaker nettyHandshaker = new NettyTsiHandshaker(handshaker);
       ChannelHandler gnh = InternalProtocolNegotiators.grpcNegotiationHandler(grpcHandler);
-      ChannelHandler thh =
-          new TsiHandshakeHandler(gnh, nettyHandshaker, new AltsHandshakeValidator());
+      ChannelHandler thh = new TsiHandshakeHandler(
+          gnh, nettyHandshaker, new AltsHandshakeValidator(), handshakeSemaphore);
       ChannelHandler wuah = InternalProtocolNegotiators.waitUntilActiveHandler(thh);
       return wuah;
     }
@@ -122,6 +148,16 @@ public final class AltsProtocolNegotiator {
    */
   public static ProtocolNegotiator serverAltsProtocolNegotiator(
       ObjectPool<Channel> handshakerChannelPool) {
+    return serverAltsProtocolNegotiator(handshakerChannelPool, DEFAULT_MAX_CONCURRENT_HANDSHAKES);
+  }
+
+  /**
+   * Creates a protocol negotiator for ALTS on the server side, which runs at most {@code
+   * maxConcurrentHandshakes} handshakes at once.
+   */
+  public static ProtocolNegotiator serverAltsProtocolNegotiator(
+      ObjectPool<Channel> handshakerChannelPool, int maxConcurrentHandshakes) {
+    checkArgument(maxConcurrentHandshakes > 0, "maxConcurrentHandshakes must be positive");
     final LazyChannel lazyHandshakerChannel = new LazyChannel(handshakerChannelPool);
     final class ServerTsiHandshakerFactory implements TsiHandshakerFactory {
 
@@ -135,19 +171,22 @@ public final class AltsProtocolNegotiator {
     }
 
     return new ServerAltsProtocolNegotiator(
-        new ServerTsiHandshakerFactory(), lazyHandshakerChannel);
+        new ServerTsiHandshakerFactory(), lazyHandshakerChannel, maxConcurrentHandshakes);
   }
 
   @VisibleForTesting
   static final class ServerAltsProtocolNegotiator implements ProtocolNegotiator {
     private final TsiHandshakerFactory handshakerFactory;
     private final LazyChannel lazyHandshakerChannel;
+    private final AsyncSemaphore handshakeSemaphore;
 
     @VisibleForTesting
     ServerAltsProtocolNegotiator(
-        TsiHandshakerFactory handshakerFactory, LazyChannel lazyHandshakerChannel) {
+        TsiHandshakerFactory handshakerFactory, LazyChannel lazyHandshakerChannel,
+        int maxConcurrentHandshakes) {
       this.handshakerFactory = checkNotNull(handshakerFactory, "handshakerFactory");
       this.lazyHandshakerChannel = checkNotNull(lazyHandshakerChannel, "lazyHandshakerChannel");
+      this.handshakeSemaphore = new AsyncSemaphore(maxConcurrentHandshakes);
     }
 
     @Override
@@ -160,8 +199,8 @@ public final class AltsProtocolNegotiator {
       TsiHandshaker handshaker = handshakerFactory.newHandshaker(/* authority= */ null);
       NettyTsiHandshaker nettyHandshaker = new NettyTsiHandshaker(handshaker);
       ChannelHandler gnh = InternalProtocolNegotiators.grpcNegotiationHandler(grpcHandler);
-      ChannelHandler thh =
-          new TsiHandshakeHandler(gnh, nettyHandshaker, new AltsHandshakeValidator());
+      ChannelHandler thh = new TsiHandshakeHandler(
+          gnh, nettyHandshaker, new AltsHandshakeValidator(), handshakeSemaphore);
       ChannelHandler wuah = InternalProtocolNegotiators.waitUntilActiveHandler(thh);
       return wuah;
     }
@@ -208,6 +247,8 @@ public final class AltsProtocolNegotiator {
     private final TsiHandshakerFactory handshakerFactory;
     private final LazyChannel lazyHandshakerChannel;
     private final SslContext sslContext;
+    private final AsyncSemaphore handshakeSemaphore =
+        new AsyncSemaphore(DEFAULT_MAX_CONCURRENT_HANDSHAKES);
 
     GoogleDefaultProtocolNegotiator(
         TsiHandshakerFactory handshakerFactory,
@@ -232,8 +273,8 @@ public final class AltsProtocolNegotiator {
               GrpclbConstants.ATTR_LB_PROVIDED_BACKEND) != null) {
         TsiHandshaker handshaker = handshakerFactory.newHandshaker(grpcHandler.getAuthority());
         NettyTsiHandshaker nettyHandshaker = new NettyTsiHandshaker(handshaker);
-        securityHandler =
-            new TsiHandshakeHandler(gnh, nettyHandshaker, new AltsHandshakeValidator());
+        securityHandler = new TsiHandshakeHandler(
+            gnh, nettyHandshaker, new AltsHandshakeValidator(), handshakeSemaphore);
       } else {
         securityHandler = InternalProtocolNegotiators.clientTlsHandler(
             gnh, sslContext, grpcHandler.getAuthority());
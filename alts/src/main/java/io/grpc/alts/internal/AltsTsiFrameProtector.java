@@ -104,6 +104,8 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
     private final int maxUnprotectedBytesPerFrame;
     private final int suffixBytes;
     private ChannelCrypterNetty crypter;
+    // The plaintext of the frame being protected, reused across frames.
+    private final List<ByteBuf> framePlain = new ArrayList<>();
 
     Protector(int maxProtectedFrameBytes, ChannelCrypterNetty crypter) {
       this.suffixBytes = crypter.getSuffixLength();
@@ -163,7 +165,7 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
 
           // Ownership of the backing buffer remains with protectedBuf.
           ByteBuf frameOut = writeSlice(protectedBuf, unprotectedBytesLeft + suffixBytes);
-          List<ByteBuf> framePlain = new ArrayList<>();
+          framePlain.clear();
           while (unprotectedBytesLeft > 0) {
             // Ownership of the buffer backing in remains with unprotectedBufs.
             ByteBuf in = unprotectedBufs.get(bufferIdx);
@@ -186,6 +188,7 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
         return protectedBuf.retain();
       } finally {
         protectedBuf.release();
+        framePlain.clear();
       }
     }
   }
@@ -201,6 +204,9 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
     private int unhandledIdx = 0;
     private long unhandledBytes = 0;
     private List<ByteBuf> unhandledBufs = new ArrayList<>(16);
+    // Slices of unhandledBufs for the frames being unprotected, reused across calls.
+    private final List<ByteBuf> firstFrameCiphertext = new ArrayList<>();
+    private final List<ByteBuf> ciphertextsAndTags = new ArrayList<>();
 
     Unprotector(ChannelCrypterNetty crypter, ByteBufAllocator alloc) {
       this.crypter = crypter;
@@ -279,7 +285,8 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
       int firstFrameUnprotectedLen = requiredCiphertextBytes;
 
       // We get the ciphertexts of the first frame and copy over the tag into a single buffer.
-      List<ByteBuf> firstFrameCiphertext = new ArrayList<>();
+      firstFrameCiphertext.clear();
+      ciphertextsAndTags.clear();
       while (requiredCiphertextBytes > 0) {
         ByteBuf buf = unhandledBufs.get(unhandledIdx);
         if (buf.readableBytes() <= requiredCiphertextBytes) {
@@ -312,8 +319,6 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
       ByteBuf lastBuf = unhandledBufs.get(unhandledIdx);
 
       // We get the remaining ciphertexts and tags contained in the last buffer.
-      List<ByteBuf> ciphertextsAndTags = new ArrayList<>();
-      List<Integer> unprotectedLens = new ArrayList<>();
       long requiredUnprotectedBytesCompleteFrames = firstFrameUnprotectedLen;
       while (lastBuf.readableBytes() >= HEADER_BYTES + suffixBytes) {
         // Read frame size.
@@ -330,7 +335,6 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
         ciphertextsAndTags.add(lastBuf.readSlice(payloadSize + suffixBytes));
         // Update sizes for frame.
         requiredUnprotectedBytesCompleteFrames += payloadSize;
-        unprotectedLens.add(payloadSize);
       }
 
       // We leave space for suffixBytes to allow for in-place encryption. This allows for calling
@@ -346,14 +350,17 @@ public final class AltsTsiFrameProtector implements TsiFrameProtector {
         unprotectedBuf.writerIndex(unprotectedBuf.writerIndex() - suffixBytes);
 
         for (int frameIdx = 0; frameIdx < ciphertextsAndTags.size(); ++frameIdx) {
-          out = writeSlice(unprotectedBuf, unprotectedLens.get(frameIdx) + suffixBytes);
-          crypter.decrypt(out, ciphertextsAndTags.get(frameIdx));
+          ByteBuf ciphertextAndTag = ciphertextsAndTags.get(frameIdx);
+          out = writeSlice(unprotectedBuf, ciphertextAndTag.readableBytes());
+          crypter.decrypt(out, ciphertextAndTag);
           verify(out.writableBytes() == suffixBytes);
           unprotectedBuf.writerIndex(unprotectedBuf.writerIndex() - suffixBytes);
         }
         return unprotectedBuf.retain();
       } finally {
         unprotectedBuf.release();
+        firstFrameCiphertext.clear();
+        ciphertextsAndTags.clear();
       }
     }
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.alts.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * A semaphore whose waiters are notified through a {@link ChannelFuture} instead of blocking, so
+ * it can be used from an event loop. Waiters that cancel their future before a permit is
+ * available are skipped.
+ */
+final class AsyncSemaphore {
+  private final Object lock = new Object();
+  @GuardedBy("lock")
+  private final Queue<ChannelPromise> waiters = new ArrayDeque<>();
+  @GuardedBy("lock")
+  private int permits;
+
+  AsyncSemaphore(int permits) {
+    checkArgument(permits > 0, "permits must be positive");
+    this.permits = permits;
+  }
+
+  /**
+   * Acquires a permit. The returned future completes, on the channel's event loop, once the permit
+   * has been acquired; it is already complete if a permit was available.
+   */
+  ChannelFuture acquire(ChannelHandlerContext ctx) {
+    synchronized (lock) {
+      if (permits > 0) {
+        permits--;
+        return ctx.newSucceededFuture();
+      }
+      ChannelPromise promise = ctx.newPromise();
+      waiters.add(promise);
+      return promise;
+    }
+  }
+
+  /** Releases a permit, handing it to the oldest waiter that has not been cancelled. */
+  void release() {
+    while (true) {
+      ChannelPromise next;
+      synchronized (lock) {
+        next = waiters.poll();
+        if (next == null) {
+          permits++;
+          return;
+        }
+      }
+      if (next.trySuccess()) {
+        return;
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int availablePermits() {
+    synchronized (lock) {
+      return permits;
+    }
+  }
+}
@@ -31,11 +31,13 @@ import io.grpc.netty.InternalProtocolNegotiationEvent;
 import io.grpc.netty.InternalProtocolNegotiators;
 import io.grpc.netty.ProtocolNegotiationEvent;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -82,17 +84,34 @@ public final class TsiHandshakeHandler extends ByteToMessageDecoder {
   private final NettyTsiHandshaker handshaker;
   private final HandshakeValidator handshakeValidator;
   private final ChannelHandler next;
+  @Nullable
+  private final AsyncSemaphore semaphore;
 
   private ProtocolNegotiationEvent pne;
+  private ChannelFuture semaphoreAcquire;
+  private boolean semaphoreAcquired;
 
   /**
    * Constructs a TsiHandshakeHandler.
    */
   public TsiHandshakeHandler(
       ChannelHandler next, NettyTsiHandshaker handshaker, HandshakeValidator handshakeValidator) {
+    this(next, handshaker, handshakeValidator, null);
+  }
+
+  /**
+   * Constructs a TsiHandshakeHandler. If {@code semaphore} is non-{@code null}, the handshake
+   * does not start until a permit has been acquired, and the permit is held until the handshake
+   * completes or the channel closes.
+   */
+  TsiHandshakeHandler(
+      ChannelHandler next, NettyTsiHandshaker handshaker, HandshakeValidator handshakeValidator,
+      @Nullable AsyncSemaphore semaphore) {
     this.handshaker = checkNotNull(handshaker, "handshaker");
     this.handshakeValidator = checkNotNull(handshakeValidator, "handshakeValidator");
     this.next = checkNotNull(next, "next");
+    this.semaphore = semaphore;
+    this.semaphoreAcquired = semaphore == null;
   }
 
   @Override
@@ -104,6 +123,10 @@ public final class TsiHandshakeHandler extends ByteToMessageDecoder {
 
   @Override
   protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+    if (!semaphoreAcquired) {
+      // Leave the peer's bytes in the cumulation buffer until the handshake may start.
+      return;
+    }
     // Process the data. If we need to send more data, do so now.
     if (handshaker.processBytesFromPeer(in) && handshaker.isInProgress()) {
       sendHandshake(ctx);
@@ -137,18 +160,59 @@ public final class TsiHandshakeHandler extends ByteToMessageDecoder {
   }
 
   @Override
-  public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+  public void userEventTriggered(final ChannelHandlerContext ctx, Object evt) throws Exception {
     if (evt instanceof ProtocolNegotiationEvent) {
       checkState(pne == null, "negotiation already started");
       pne = (ProtocolNegotiationEvent) evt;
       InternalProtocolNegotiators.negotiationLogger(ctx)
           .log(ChannelLogLevel.INFO, "TsiHandshake started");
-      sendHandshake(ctx);
+      if (semaphore == null) {
+        sendHandshake(ctx);
+        return;
+      }
+      semaphoreAcquire = semaphore.acquire(ctx);
+      if (semaphoreAcquire.isSuccess()) {
+        semaphoreAcquired = true;
+        sendHandshake(ctx);
+      } else {
+        InternalProtocolNegotiators.negotiationLogger(ctx)
+            .log(ChannelLogLevel.DEBUG, "TsiHandshake waiting for other handshakes to finish");
+        semaphoreAcquire.addListener(new ChannelFutureListener() {
+          @Override
+          public void operationComplete(ChannelFuture future) {
+            startDelayedHandshake(ctx);
+          }
+        });
+      }
     } else {
       super.userEventTriggered(ctx, evt);
     }
   }
 
+  private void startDelayedHandshake(ChannelHandlerContext ctx) {
+    if (!semaphoreAcquire.isSuccess()) {
+      // Cancelled by handlerRemoved0
+      return;
+    }
+    if (ctx.isRemoved()) {
+      // Removed after the permit was granted but before this listener ran
+      semaphore.release();
+      return;
+    }
+    semaphoreAcquired = true;
+    try {
+      sendHandshake(ctx);
+      // Process any bytes the peer sent while the handshake was waiting. decode() never produces
+      // messages, so there is nothing to pass on from the output list.
+      ByteBuf buffered = internalBuffer();
+      if (buffered.isReadable()) {
+        callDecode(ctx, buffered, new ArrayList<>());
+      }
+    } catch (Exception e) {
+      ctx.fireExceptionCaught(e);
+    }
+  }
+
   private void fireProtocolNegotiationEvent(
       ChannelHandlerContext ctx, TsiPeer peer, Object authContext, SecurityDetails details) {
     checkState(pne != null, "negotiation not yet complete");
@@ -188,6 +252,12 @@ public final class TsiHandshakeHandler extends ByteToMessageDecoder {
 
   @Override
   protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+    if (semaphore != null && semaphoreAcquired) {
+      semaphoreAcquired = false;
+      semaphore.release();
+    } else if (semaphoreAcquire != null) {
+      semaphoreAcquire.cancel(false);
+    }
     handshaker.close();
   }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@
 package io.grpc.alts;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 
 import io.grpc.netty.InternalProtocolNegotiator.ProtocolNegotiator;
 import org.junit.Test;
@@ -37,4 +38,17 @@ public final class AltsChannelBuilderTest {
     assertThat(protocolNegotiator.getClass().getSimpleName())
         .isEqualTo("ClientAltsProtocolNegotiator");
   }
+
+  @Test
+  public void maxConcurrentHandshakes_mustBePositive() {
+    AltsChannelBuilder builder = AltsChannelBuilder.forTarget("localhost:8080");
+    try {
+      builder.maxConcurrentHandshakes(0);
+      fail("Should have thrown");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    builder.maxConcurrentHandshakes(1);
+    assertThat(builder.getProtocolNegotiatorForTest()).isNotNull();
+  }
 }
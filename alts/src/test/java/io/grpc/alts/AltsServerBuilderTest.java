@@ -16,6 +16,8 @@
 
 package io.grpc.alts;
 
+import static org.junit.Assert.fail;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -27,4 +29,22 @@ public final class AltsServerBuilderTest {
   public void buildsNettyServer() throws Exception {
     AltsServerBuilder.forPort(1234).enableUntrustedAltsForTesting().build();
   }
+
+  @Test
+  public void maxConcurrentHandshakes_mustBePositive() {
+    try {
+      AltsServerBuilder.forPort(1234).maxConcurrentHandshakes(0);
+      fail("Should have thrown");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void buildsNettyServerWithMaxConcurrentHandshakes() throws Exception {
+    AltsServerBuilder.forPort(1234)
+        .enableUntrustedAltsForTesting()
+        .maxConcurrentHandshakes(1)
+        .build();
+  }
 }
@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static io.grpc.alts.internal.AltsChannelCrypter.incrementCounter;
 import static org.junit.Assert.fail;
 
+import com.google.common.base.Strings;
 import com.google.common.testing.GcFinalization;
 import io.netty.util.ReferenceCounted;
 import io.netty.util.ResourceLeakDetector;
@@ -55,6 +56,30 @@ public final class AltsChannelCrypterTest extends ChannelCrypterNettyTestBase {
     GcFinalization.awaitFullGc();
   }
 
+  @Test
+  public void scratchZeroedAfterEachFrame() throws GeneralSecurityException {
+    AltsChannelCrypter client =
+        new AltsChannelCrypter(new byte[AltsChannelCrypter.getKeyLength()], true);
+    AltsChannelCrypter server =
+        new AltsChannelCrypter(new byte[AltsChannelCrypter.getKeyLength()], false);
+
+    FrameEncrypt frameEncrypt = createFrameEncrypt("Hello world");
+    client.encrypt(frameEncrypt.out, frameEncrypt.plain);
+    assertThat(client.getScratchForTesting()).isNotEmpty();
+    assertThat(client.getScratchForTesting())
+        .isEqualTo(new byte[client.getScratchForTesting().length]);
+
+    FrameDecrypt frameDecrypt = frameDecryptOfEncrypt(frameEncrypt);
+    server.decrypt(frameDecrypt.out, frameDecrypt.tag, frameDecrypt.ciphertext);
+    assertThat(server.getScratchForTesting()).isNotEmpty();
+    assertThat(server.getScratchForTesting())
+        .isEqualTo(new byte[server.getScratchForTesting().length]);
+
+    client.destroy();
+    server.destroy();
+    assertThat(client.getScratchForTesting()).isEmpty();
+  }
+
   @Test
   public void encryptDecryptKdfCounterIncr() throws GeneralSecurityException {
     AltsChannelCrypter client =
@@ -86,6 +111,30 @@ public final class AltsChannelCrypterTest extends ChannelCrypterNettyTestBase {
         .isEqualTo(frameDecrypt2.out);
   }
 
+  @Test
+  public void encryptDecryptFramesOfVaryingSize() throws GeneralSecurityException {
+    // Large frames first, so that later frames use only part of the reused scratch array.
+    for (String message : new String[] {Strings.repeat("x", 1000), "hi", "Hello world"}) {
+      FrameEncrypt frameEncrypt = createFrameEncrypt(message);
+      client.encrypt(frameEncrypt.out, frameEncrypt.plain);
+      FrameDecrypt frameDecrypt = frameDecryptOfEncrypt(frameEncrypt);
+
+      server.decrypt(frameDecrypt.out, frameEncrypt.out);
+      assertThat(frameEncrypt.plain.get(0).slice(0, frameDecrypt.out.readableBytes()))
+          .isEqualTo(frameDecrypt.out);
+      assertThat(frameEncrypt.out.isReadable()).isFalse();
+
+      // And in the other direction, with the tag passed separately
+      frameEncrypt = createFrameEncrypt(message);
+      server.encrypt(frameEncrypt.out, frameEncrypt.plain);
+      frameDecrypt = frameDecryptOfEncrypt(frameEncrypt);
+
+      client.decrypt(frameDecrypt.out, frameDecrypt.tag, frameDecrypt.ciphertext);
+      assertThat(frameEncrypt.plain.get(0).slice(0, frameDecrypt.out.readableBytes()))
+          .isEqualTo(frameDecrypt.out);
+    }
+  }
+
   @Test
   public void overflowsClient() throws GeneralSecurityException {
     byte[] maxFirst =
@@ -148,7 +148,9 @@ public class AltsProtocolNegotiatorTest {
     ObjectPool<Channel> fakeChannelPool = new FixedObjectPool<Channel>(fakeChannel);
     LazyChannel lazyFakeChannel = new LazyChannel(fakeChannelPool);
     ChannelHandler altsServerHandler = new ServerAltsProtocolNegotiator(
-        handshakerFactory, lazyFakeChannel)
+        handshakerFactory,
+        lazyFakeChannel,
+        AltsProtocolNegotiator.DEFAULT_MAX_CONCURRENT_HANDSHAKES)
         .newHandler(grpcHandler);
     // On real server, WBAEH fires default ProtocolNegotiationEvent. KickNH provides this behavior.
     ChannelHandler handler = new KickNegotiationHandler(altsServerHandler);
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.alts.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link AsyncSemaphore}. */
+@RunWith(JUnit4.class)
+public class AsyncSemaphoreTest {
+  private final EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+  private final ChannelHandlerContext ctx = channel.pipeline().firstContext();
+  private final AsyncSemaphore semaphore = new AsyncSemaphore(2);
+
+  @Test
+  public void acquireCompletesImmediatelyWhilePermitsAvailable() {
+    assertThat(semaphore.acquire(ctx).isSuccess()).isTrue();
+    assertThat(semaphore.acquire(ctx).isSuccess()).isTrue();
+    assertThat(semaphore.availablePermits()).isEqualTo(0);
+
+    ChannelFuture waiting = semaphore.acquire(ctx);
+    assertThat(waiting.isDone()).isFalse();
+
+    semaphore.release();
+    assertThat(waiting.isSuccess()).isTrue();
+    assertThat(semaphore.availablePermits()).isEqualTo(0);
+    semaphore.release();
+    semaphore.release();
+    assertThat(semaphore.availablePermits()).isEqualTo(2);
+  }
+
+  @Test
+  public void waitersAcquireInOrder() {
+    semaphore.acquire(ctx);
+    semaphore.acquire(ctx);
+    ChannelFuture first = semaphore.acquire(ctx);
+    ChannelFuture second = semaphore.acquire(ctx);
+
+    semaphore.release();
+    assertThat(first.isSuccess()).isTrue();
+    assertThat(second.isDone()).isFalse();
+    semaphore.release();
+    assertThat(second.isSuccess()).isTrue();
+  }
+
+  @Test
+  public void cancelledWaiterIsSkipped() {
+    semaphore.acquire(ctx);
+    semaphore.acquire(ctx);
+    ChannelFuture cancelled = semaphore.acquire(ctx);
+    ChannelFuture waiting = semaphore.acquire(ctx);
+    cancelled.cancel(false);
+
+    semaphore.release();
+    assertThat(waiting.isSuccess()).isTrue();
+    semaphore.release();
+    assertThat(semaphore.availablePermits()).isEqualTo(1);
+  }
+}
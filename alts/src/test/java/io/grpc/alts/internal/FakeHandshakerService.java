@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.alts.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handshaker service that lets an ALTS client and server complete a handshake without any
+ * authentication, for tests and benchmarks. The client sends the session key to the server in
+ * plaintext, so it must never be used outside of tests.
+ */
+final class FakeHandshakerService extends HandshakerServiceGrpc.HandshakerServiceImplBase {
+  static final String CLIENT_SERVICE_ACCOUNT = "client@developer.gserviceaccount.com";
+  static final String SERVER_SERVICE_ACCOUNT = "server@developer.gserviceaccount.com";
+
+  private static final ByteString CLIENT_INIT = ByteString.copyFrom("CLIENT_INIT", UTF_8);
+  private static final ByteString SERVER_INIT = ByteString.copyFrom("SERVER_INIT", UTF_8);
+  private static final int KEY_LENGTH = AltsChannelCrypter.getKeyLength();
+
+  private final Random random = new SecureRandom();
+  private final AtomicInteger activeHandshakes = new AtomicInteger();
+  private final AtomicInteger maxActiveHandshakes = new AtomicInteger();
+
+  @Override
+  public StreamObserver<HandshakerReq> doHandshake(
+      final StreamObserver<HandshakerResp> responseObserver) {
+    int active = activeHandshakes.incrementAndGet();
+    while (true) {
+      int max = maxActiveHandshakes.get();
+      if (active <= max || maxActiveHandshakes.compareAndSet(max, active)) {
+        break;
+      }
+    }
+    return new Handshake(responseObserver);
+  }
+
+  /** Returns the largest number of handshakes that were in progress at the same time. */
+  int getMaxActiveHandshakes() {
+    return maxActiveHandshakes.get();
+  }
+
+  private final class Handshake implements StreamObserver<HandshakerReq> {
+    private final StreamObserver<HandshakerResp> responseObserver;
+    private boolean isClient;
+    private ByteString key;
+    private ByteString received = ByteString.EMPTY;
+    private boolean done;
+
+    Handshake(StreamObserver<HandshakerResp> responseObserver) {
+      this.responseObserver = responseObserver;
+    }
+
+    @Override
+    public void onNext(HandshakerReq req) {
+      HandshakerResp.Builder resp = HandshakerResp.newBuilder()
+          .setStatus(HandshakerStatus.newBuilder().setCode(Status.Code.OK.value()));
+      switch (req.getReqOneofCase()) {
+        case CLIENT_START:
+          isClient = true;
+          byte[] keyBytes = new byte[KEY_LENGTH];
+          synchronized (random) {
+            random.nextBytes(keyBytes);
+          }
+          key = ByteString.copyFrom(keyBytes);
+          resp.setOutFrames(CLIENT_INIT.concat(key));
+          break;
+        case SERVER_START:
+          receive(req.getServerStart().getInBytes(), resp);
+          break;
+        case NEXT:
+          receive(req.getNext().getInBytes(), resp);
+          break;
+        default:
+          responseObserver.onError(Status.INVALID_ARGUMENT.asException());
+          return;
+      }
+      responseObserver.onNext(resp.build());
+    }
+
+    /** Consumes the peer's frame, finishing the handshake once all of it has been received. */
+    private void receive(ByteString inBytes, HandshakerResp.Builder resp) {
+      int frameLength = isClient ? SERVER_INIT.size() : CLIENT_INIT.size() + KEY_LENGTH;
+      int consumed = Math.min(inBytes.size(), frameLength - received.size());
+      received = received.concat(inBytes.substring(0, consumed));
+      resp.setBytesConsumed(consumed);
+      if (received.size() < frameLength) {
+        return;
+      }
+      String peer;
+      String local;
+      if (isClient) {
+        peer = SERVER_SERVICE_ACCOUNT;
+        local = CLIENT_SERVICE_ACCOUNT;
+      } else {
+        key = received.substring(CLIENT_INIT.size());
+        resp.setOutFrames(SERVER_INIT);
+        peer = CLIENT_SERVICE_ACCOUNT;
+        local = SERVER_SERVICE_ACCOUNT;
+      }
+      resp.setResult(HandshakerResult.newBuilder()
+          .setApplicationProtocol(AltsHandshakerClient.getApplicationProtocol())
+          .setRecordProtocol(AltsHandshakerClient.getRecordProtocol())
+          .setPeerIdentity(Identity.newBuilder().setServiceAccount(peer))
+          .setLocalIdentity(Identity.newBuilder().setServiceAccount(local))
+          .setKeyData(key)
+          .setPeerRpcVersions(RpcProtocolVersionsUtil.getRpcProtocolVersions()));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      finish();
+    }
+
+    @Override
+    public void onCompleted() {
+      finish();
+      responseObserver.onCompleted();
+    }
+
+    private void finish() {
+      if (!done) {
+        done = true;
+        activeHandshakes.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.alts.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.alts.internal.AltsProtocolNegotiator.ClientAltsProtocolNegotiatorFactory;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.FixedObjectPool;
+import io.grpc.internal.ObjectPool;
+import io.grpc.netty.InternalNettyChannelBuilder;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.testing.protobuf.SimpleRequest;
+import io.grpc.testing.protobuf.SimpleResponse;
+import io.grpc.testing.protobuf.SimpleServiceGrpc;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Runs ALTS handshakes end to end against {@link FakeHandshakerService}. */
+@RunWith(JUnit4.class)
+public class FakeHandshakerServiceTest {
+  @Rule
+  public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+  private final FakeHandshakerService handshakerService = new FakeHandshakerService();
+
+  @Test
+  public void handshakeAndCall() throws Exception {
+    String handshakerName = InProcessServerBuilder.generateName();
+    grpcCleanup.register(InProcessServerBuilder.forName(handshakerName)
+        .addService(handshakerService)
+        .directExecutor()
+        .build()
+        .start());
+    ObjectPool<Channel> handshakerChannelPool = new FixedObjectPool<Channel>(
+        grpcCleanup.register(InProcessChannelBuilder.forName(handshakerName)
+            .directExecutor()
+            .build()));
+
+    final AtomicReference<AltsAuthContext> serverAuthContext = new AtomicReference<>();
+    ServerInterceptor authContextCapture = new ServerInterceptor() {
+      @Override
+      public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+          ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        serverAuthContext.set((AltsAuthContext)
+            call.getAttributes().get(AltsProtocolNegotiator.AUTH_CONTEXT_KEY));
+        return next.startCall(call, headers);
+      }
+    };
+    Server server = grpcCleanup.register(
+        NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+            .protocolNegotiator(
+                AltsProtocolNegotiator.serverAltsProtocolNegotiator(handshakerChannelPool))
+            .addService(ServerInterceptors.intercept(new EchoService(), authContextCapture))
+            .build()
+            .start());
+
+    NettyChannelBuilder channelBuilder =
+        NettyChannelBuilder.forAddress("localhost", server.getPort());
+    InternalNettyChannelBuilder.setProtocolNegotiatorFactory(
+        channelBuilder,
+        new ClientAltsProtocolNegotiatorFactory(
+            ImmutableList.<String>of(), handshakerChannelPool));
+    ManagedChannel channel = grpcCleanup.register(channelBuilder.build());
+
+    SimpleResponse response = SimpleServiceGrpc.newBlockingStub(channel)
+        .unaryRpc(SimpleRequest.newBuilder().setRequestMessage("hello").build());
+
+    assertThat(response.getResponseMessage()).isEqualTo("hello");
+    assertThat(serverAuthContext.get().getPeerServiceAccount())
+        .isEqualTo(FakeHandshakerService.CLIENT_SERVICE_ACCOUNT);
+    assertThat(handshakerService.getMaxActiveHandshakes()).isAtLeast(1);
+  }
+
+  private static final class EchoService extends SimpleServiceGrpc.SimpleServiceImplBase {
+    @Override
+    public void unaryRpc(SimpleRequest request, StreamObserver<SimpleResponse> responseObserver) {
+      responseObserver.onNext(
+          SimpleResponse.newBuilder().setResponseMessage(request.getRequestMessage()).build());
+      responseObserver.onCompleted();
+    }
+  }
+}
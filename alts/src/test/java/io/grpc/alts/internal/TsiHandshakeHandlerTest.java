@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.alts.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.grpc.SecurityLevel;
+import io.grpc.alts.internal.TsiHandshakeHandler.HandshakeValidator;
+import io.grpc.netty.InternalProtocolNegotiationEvent;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link TsiHandshakeHandler}. */
+@RunWith(JUnit4.class)
+public class TsiHandshakeHandlerTest {
+  private final AsyncSemaphore semaphore = new AsyncSemaphore(1);
+  private final HandshakeValidator validator = new HandshakeValidator() {
+    @Override
+    public SecurityDetails validatePeerObject(Object peerObject) {
+      return new SecurityDetails(SecurityLevel.PRIVACY_AND_INTEGRITY, null);
+    }
+  };
+
+  private final EmbeddedChannel firstClient =
+      newChannel(FakeTsiHandshaker.newFakeHandshakerClient());
+  private final EmbeddedChannel secondClient =
+      newChannel(FakeTsiHandshaker.newFakeHandshakerClient());
+  private final EmbeddedChannel server = newChannel(FakeTsiHandshaker.newFakeHandshakerServer());
+
+  @After
+  public void tearDown() {
+    firstClient.finishAndReleaseAll();
+    secondClient.finishAndReleaseAll();
+    server.finishAndReleaseAll();
+  }
+
+  @Test
+  public void handshakeWaitsForPermit() {
+    startNegotiation(firstClient);
+    assertThat(firstClient.outboundMessages()).isNotEmpty();
+
+    startNegotiation(secondClient);
+    assertThat(secondClient.outboundMessages()).isEmpty();
+
+    firstClient.close();
+    secondClient.runPendingTasks();
+    assertThat(secondClient.outboundMessages()).isNotEmpty();
+    assertThat(semaphore.availablePermits()).isEqualTo(0);
+
+    secondClient.close();
+    assertThat(semaphore.availablePermits()).isEqualTo(1);
+  }
+
+  @Test
+  public void bytesReceivedWhileWaitingAreProcessedAfterAcquiring() {
+    startNegotiation(firstClient);
+    startNegotiation(server);
+    ByteBuf clientInit = firstClient.readOutbound();
+    server.writeInbound(clientInit);
+    assertThat(server.outboundMessages()).isEmpty();
+
+    firstClient.close();
+    server.runPendingTasks();
+    assertThat(server.outboundMessages()).isNotEmpty();
+  }
+
+  @Test
+  public void closingWhileWaitingDoesNotLeakPermit() {
+    startNegotiation(firstClient);
+    startNegotiation(secondClient);
+    secondClient.close();
+
+    firstClient.close();
+    assertThat(semaphore.availablePermits()).isEqualTo(1);
+  }
+
+  private EmbeddedChannel newChannel(TsiHandshaker handshaker) {
+    return new EmbeddedChannel(new TsiHandshakeHandler(
+        new ChannelInboundHandlerAdapter(), new NettyTsiHandshaker(handshaker), validator,
+        semaphore));
+  }
+
+  private static void startNegotiation(EmbeddedChannel channel) {
+    channel.pipeline().fireUserEventTriggered(InternalProtocolNegotiationEvent.getDefault());
+  }
+}
@@ -85,6 +85,19 @@ public abstract class ClientStreamTracer extends StreamTracer {
     public ClientStreamTracer newClientStreamTracer(StreamInfo info, Metadata headers) {
       return newClientStreamTracer(info.getCallOptions(), headers);
     }
+
+    /**
+     * Returns whether the tracers created by this factory want {@link
+     * StreamTracer#phaseCompleted} to be called. Timing phases reads the clock a few times per
+     * message, so it is only done for streams that have at least one such tracer. The default is
+     * {@code false}.
+     *
+     * @since 1.32.0
+     */
+    @ExperimentalApi("Phase timings are experimental")
+    public boolean isPhaseTimingEnabled() {
+      return false;
+    }
   }
 
   /**
@@ -211,6 +211,18 @@ public abstract class ForwardingChannelBuilder<T extends ForwardingChannelBuilde
     return thisT();
   }
 
+  @Override
+  public T maxConnectionsPerSubchannel(int maxConnections, int streamsPerConnection) {
+    delegate().maxConnectionsPerSubchannel(maxConnections, streamsPerConnection);
+    return thisT();
+  }
+
+  @Override
+  public T connectEagerly() {
+    delegate().connectEagerly();
+    return thisT();
+  }
+
   @Override
   public T disableRetry() {
     delegate().disableRetry();
@@ -288,6 +288,8 @@ public final class InternalChannelz {
     public final long callsSucceeded;
     public final long callsFailed;
     public final long lastCallStartedNanos;
+    /** Calls whose deadline expired before they were dispatched to the application. */
+    public final long callsExpired;
     public final List<InternalInstrumented<SocketStats>> listenSockets;
 
     /**
@@ -299,10 +301,24 @@ public final class InternalChannelz {
         long callsFailed,
         long lastCallStartedNanos,
         List<InternalInstrumented<SocketStats>> listenSockets) {
+      this(callsStarted, callsSucceeded, callsFailed, lastCallStartedNanos, 0, listenSockets);
+    }
+
+    /**
+     * Creates an instance.
+     */
+    public ServerStats(
+        long callsStarted,
+        long callsSucceeded,
+        long callsFailed,
+        long lastCallStartedNanos,
+        long callsExpired,
+        List<InternalInstrumented<SocketStats>> listenSockets) {
       this.callsStarted = callsStarted;
       this.callsSucceeded = callsSucceeded;
       this.callsFailed = callsFailed;
       this.lastCallStartedNanos = lastCallStartedNanos;
+      this.callsExpired = callsExpired;
       this.listenSockets = checkNotNull(listenSockets);
     }
 
@@ -311,6 +327,7 @@ public final class InternalChannelz {
       private long callsSucceeded;
       private long callsFailed;
       private long lastCallStartedNanos;
+      private long callsExpired;
       public List<InternalInstrumented<SocketStats>> listenSockets = new ArrayList<>();
 
       public Builder setCallsStarted(long callsStarted) {
@@ -333,6 +350,11 @@ public final class InternalChannelz {
         return this;
       }
 
+      public Builder setCallsExpired(long callsExpired) {
+        this.callsExpired = callsExpired;
+        return this;
+      }
+
       /** Sets the listen sockets. */
       public Builder addListenSockets(List<InternalInstrumented<SocketStats>> listenSockets) {
         checkNotNull(listenSockets, "listenSockets");
@@ -351,6 +373,7 @@ public final class InternalChannelz {
             callsSucceeded,
             callsFailed,
             lastCallStartedNanos,
+            callsExpired,
             listenSockets);
       }
     }
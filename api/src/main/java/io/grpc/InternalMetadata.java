@@ -110,6 +110,55 @@ public final class InternalMetadata {
     return new Metadata.LazyValue<>(marshaller, value);
   }
 
+  /**
+   * Creates a holder for a binary value read by the transport that is still base64 encoded. The
+   * value is only decoded when it is read, and is sent as-is if the metadata is sent again.
+   *
+   * @param encoded The value as received, in base64 with or without padding. The transport must
+   *     have checked that it is valid base64, since decoding errors would surface much later.
+   * @return an object holding the encoded value.
+   */
+  @Internal
+  public static Object base64Value(byte[] encoded) {
+    return new Metadata.Base64Value(encoded);
+  }
+
+  /**
+   * Serializes all metadata entries, with the values of binary headers base64 encoded as they are
+   * sent on the wire. See {@link Metadata#serializeBase64Binary}.
+   */
+  @Internal
+  public static byte[][] serializeBase64Binary(Metadata md) {
+    return md.serializeBase64Binary();
+  }
+
+  /**
+   * Base64 encodes the binary values of metadata that is sent many times ahead of time. See
+   * {@link Metadata#preEncodeBinaryValues}.
+   */
+  @Internal
+  public static void preEncodeBinaryValues(Metadata md) {
+    md.preEncodeBinaryValues();
+  }
+
+  /**
+   * Returns the current entries of the metadata, to be passed to {@link #hasEntries} later. See
+   * {@link Metadata#entries}.
+   */
+  @Internal
+  public static Object[] entries(Metadata md) {
+    return md.entries();
+  }
+
+  /**
+   * Returns whether the metadata has not been modified since {@link #entries} returned {@code
+   * entries}. See {@link Metadata#hasEntries}.
+   */
+  @Internal
+  public static boolean hasEntries(Metadata md, Object[] entries) {
+    return md.hasEntries(entries);
+  }
+
   /**
    * Creates a new {@link Metadata} instance from serialized data,
    * with some values pre-parsed. Metadata will mutate the passed in array.
@@ -118,8 +167,8 @@ public final class InternalMetadata {
    * @param namesAndValues An array of interleaved names and values,
    *     with each name (at even indices) represented as a byte array,
    *     and each value (at odd indices) represented as either a byte
-   *     array or an object returned by the {@link #parsedValue}
-   *     method.
+   *     array or an object returned by the {@link #parsedValue} or
+   *     {@link #base64Value} methods.
    */
   @Internal
   public static Metadata newMetadataWithParsedValues(int usedNames, Object[] namesAndValues) {
@@ -16,6 +16,7 @@
 
 package io.grpc;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -110,6 +111,44 @@ public abstract class ManagedChannel extends Channel {
     throw new UnsupportedOperationException("Not implemented");
   }
 
+  /**
+   * Waits for the channel to become READY, requesting a connection if it is IDLE, giving up if the
+   * timeout is reached or the channel is shut down. A READY channel has a load balancer picker that
+   * can route RPCs, so the first RPCs made after this returns {@code true} do not pay for name
+   * resolution or connection establishment. TRANSIENT_FAILURE does not end the wait, as the
+   * channel keeps reconnecting until the timeout.
+   *
+   * <p>The default implementation is based on {@link #getState} and {@link
+   * #notifyWhenStateChanged}.
+   *
+   * @return whether the channel became READY
+   * @throws UnsupportedOperationException if not supported by implementation
+   * @since 1.32.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/4359")
+  public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+    while (true) {
+      ConnectivityState state = getState(true);
+      if (state == ConnectivityState.READY) {
+        return true;
+      }
+      if (state == ConnectivityState.SHUTDOWN) {
+        return false;
+      }
+      final CountDownLatch changed = new CountDownLatch(1);
+      notifyWhenStateChanged(state, new Runnable() {
+        @Override
+        public void run() {
+          changed.countDown();
+        }
+      });
+      if (!changed.await(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+  }
+
   /**
    * For subchannels that are in TRANSIENT_FAILURE state, short-circuit the backoff timer and make
    * them reconnect immediately. May also attempt to invoke {@link NameResolver#refresh}.
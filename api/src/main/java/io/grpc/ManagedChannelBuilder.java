@@ -459,6 +459,48 @@ public abstract class ManagedChannelBuilder<T extends ManagedChannelBuilder<T>>
   }
 
 
+  /**
+   * Allows each subchannel to open up to {@code maxConnections} connections to its address. New
+   * streams go to the connection with the fewest active streams, and another connection is opened
+   * when all ready connections have at least {@code streamsPerConnection} active streams. By
+   * default each subchannel uses a single connection.
+   *
+   * <p>This helps when one connection to a backend is limited by the server's
+   * MAX_CONCURRENT_STREAMS, or when many concurrent streams share the throughput of a single
+   * connection. Only the number of active streams triggers a new connection, not the throughput of
+   * the existing ones, so a few streams that saturate a connection stay on it. {@code
+   * streamsPerConnection} should not exceed the server's MAX_CONCURRENT_STREAMS, otherwise streams
+   * queue in the transport before another connection is opened.
+   *
+   * @return this
+   * @throws IllegalArgumentException if either argument is not positive
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.32.0
+   */
+  @ExperimentalApi("Multiple connections per subchannel are experimental")
+  public T maxConnectionsPerSubchannel(int maxConnections, int streamsPerConnection) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Makes the channel leave idle mode and start connecting as soon as it is built, instead of
+   * waiting for the first RPC. Name resolution, load balancer creation and connection
+   * establishment then overlap with the application's own startup, and {@link
+   * ManagedChannel#awaitReady} can be used to wait for them to finish before taking traffic. How
+   * many connections are opened is decided by the load balancing policy; for example
+   * "round_robin" connects to every resolved address while "pick_first" connects to one.
+   *
+   * <p>The channel may still enter idle mode again after the {@link #idleTimeout idle timeout}.
+   *
+   * @return this
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.32.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/4359")
+  public T connectEagerly() {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Disables the retry and hedging mechanism provided by the gRPC library. This is designed for the
    * case when users have their own retry implementation and want to avoid their own retry taking
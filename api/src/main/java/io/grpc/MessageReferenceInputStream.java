@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.grpc;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.annotation.Nullable;
+
+/**
+ * The stream of a message whose marshaller is an {@link
+ * MethodDescriptor.ImmutableMessageMarshaller}. It keeps a reference to the message so that a
+ * receiver in the same process can take the message itself, and only serializes the message if it
+ * is read.
+ */
+final class MessageReferenceInputStream<T> extends InputStream implements Drainable, KnownLength {
+  private final MethodDescriptor.Marshaller<T> marshaller;
+  @Nullable
+  private T message;
+  @Nullable
+  private InputStream serialized;
+
+  MessageReferenceInputStream(MethodDescriptor.Marshaller<T> marshaller, T message) {
+    this.marshaller = marshaller;
+    this.message = message;
+  }
+
+  /**
+   * Returns the message and detaches it from this stream, or returns {@code null} if the stream
+   * belongs to a different marshaller or has already been read from.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  <U> U takeMessage(MethodDescriptor.Marshaller<U> marshaller) {
+    if (this.marshaller != marshaller || serialized != null) {
+      return null;
+    }
+    // The marshallers are the same instance, so the message is a U
+    U result = (U) message;
+    message = null;
+    return result;
+  }
+
+  /**
+   * Serializes the message the first time any bytes are needed. The serialized stream is only
+   * buffered if the marshaller does not produce a {@link KnownLength} stream, as {@link
+   * #available} must return the exact length.
+   */
+  private InputStream serialized() throws IOException {
+    if (serialized == null) {
+      InputStream stream = marshaller.stream(message);
+      message = null;
+      if (stream instanceof KnownLength) {
+        serialized = stream;
+      } else {
+        try {
+          serialized = new ByteArrayInputStream(ByteStreams.toByteArray(stream));
+        } finally {
+          stream.close();
+        }
+      }
+    }
+    return serialized;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return serialized().read();
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    return serialized().read(b, off, len);
+  }
+
+  @Override
+  public int available() throws IOException {
+    return serialized().available();
+  }
+
+  @Override
+  public int drainTo(OutputStream target) throws IOException {
+    InputStream stream = serialized();
+    if (stream instanceof Drainable) {
+      return ((Drainable) stream).drainTo(target);
+    }
+    return (int) ByteStreams.copy(stream, target);
+  }
+
+  @Override
+  public void close() throws IOException {
+    message = null;
+    if (serialized != null) {
+      serialized.close();
+    }
+  }
+}
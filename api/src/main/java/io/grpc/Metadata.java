@@ -110,6 +110,8 @@ public final class Metadata {
 
   static final BaseEncoding BASE64_ENCODING_OMIT_PADDING = BaseEncoding.base64().omitPadding();
 
+  private static final byte[] BINARY_HEADER_SUFFIX_BYTES = BINARY_HEADER_SUFFIX.getBytes(US_ASCII);
+
   /**
    * Constructor called by the transport layer when it receives binary metadata. Metadata will
    * mutate the passed in array.
@@ -176,6 +178,8 @@ public final class Metadata {
     Object value = value(i);
     if (value instanceof byte[]) {
       return (byte[]) value;
+    } else if (value instanceof Base64Value) {
+      return ((Base64Value) value).toBytes();
     } else {
       return ((LazyValue<?>) value).toBytes();
     }
@@ -185,6 +189,8 @@ public final class Metadata {
     Object value = value(i);
     if (value instanceof byte[]) {
       return value;
+    } else if (value instanceof Base64Value) {
+      return ((Base64Value) value).toBytes();
     } else {
       return ((LazyValue<?>) value).toStream();
     }
@@ -194,6 +200,8 @@ public final class Metadata {
     Object value = value(i);
     if (value instanceof byte[]) {
       return key.parseBytes((byte[]) value);
+    } else if (value instanceof Base64Value) {
+      return key.parseBytes(((Base64Value) value).toBytes());
     } else {
       return ((LazyValue<?>) value).toObject(key);
     }
@@ -474,6 +482,90 @@ public final class Metadata {
     return serialized;
   }
 
+  /**
+   * Serializes all metadata entries like {@link #serialize}, but with the values of binary headers
+   * base64 encoded without padding, as they are sent on the wire. Binary values received from the
+   * wire are passed through as received, without being decoded and encoded again.
+   *
+   * <p>This method is intended for transport use only.
+   */
+  byte[][] serializeBase64Binary() {
+    byte[][] serialized = new byte[len()][];
+    for (int i = 0; i < size; i++) {
+      byte[] name = name(i);
+      serialized[i * 2] = name;
+      Object value = value(i);
+      if (value instanceof Base64Value) {
+        serialized[i * 2 + 1] = ((Base64Value) value).encoded;
+      } else if (endsWith(name, BINARY_HEADER_SUFFIX_BYTES)) {
+        serialized[i * 2 + 1] =
+            BASE64_ENCODING_OMIT_PADDING.encode(valueAsBytes(i)).getBytes(US_ASCII);
+      } else {
+        serialized[i * 2 + 1] = valueAsBytes(i);
+      }
+    }
+    return serialized;
+  }
+
+  /**
+   * Base64 encodes the binary values that are stored as bytes ahead of time, so that sending this
+   * metadata, or metadata it was merged into, does not encode them again. Values read back are
+   * unchanged.
+   *
+   * <p>This method is intended for metadata that is sent many times, such as headers attached to
+   * every call.
+   */
+  void preEncodeBinaryValues() {
+    for (int i = 0; i < size; i++) {
+      Object value = value(i);
+      if (value instanceof byte[] && endsWith(name(i), BINARY_HEADER_SUFFIX_BYTES)) {
+        byte[] bytes = (byte[]) value;
+        byte[] encoded = BASE64_ENCODING_OMIT_PADDING.encode(bytes).getBytes(US_ASCII);
+        value(i, new Base64Value(encoded, bytes));
+      }
+    }
+  }
+
+  /**
+   * Returns the current entries, so that {@link #hasEntries} can later tell whether this metadata
+   * was modified.
+   */
+  Object[] entries() {
+    if (isEmpty()) {
+      return new Object[0];
+    }
+    return Arrays.copyOf(namesAndValues, len(), Object[].class);
+  }
+
+  /**
+   * Returns whether this metadata still holds exactly the given entries, as returned by {@link
+   * #entries}. Entries are compared by reference, so this is cheap.
+   */
+  boolean hasEntries(Object[] entries) {
+    if (entries.length != len()) {
+      return false;
+    }
+    for (int i = 0; i < entries.length; i++) {
+      if (namesAndValues[i] != entries[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean endsWith(byte[] subject, byte[] suffix) {
+    int start = subject.length - suffix.length;
+    if (start < 0) {
+      return false;
+    }
+    for (int i = 0; i < suffix.length; i++) {
+      if (subject[start + i] != suffix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Serializes all metadata entries, leaving some values as {@link InputStream}s.
    *
@@ -506,7 +598,8 @@ public final class Metadata {
       return;
     }
     int remaining = cap() - len();
-    if (isEmpty() || remaining < other.len()) {
+    if (isEmpty() || remaining < other.len()
+        || (namesAndValues instanceof byte[][] && !(other.namesAndValues instanceof byte[][]))) {
       expand(len() + other.len());
     }
     System.arraycopy(other.namesAndValues, 0, namesAndValues, len(), other.len());
@@ -903,6 +996,36 @@ public final class Metadata {
     }
   }
 
+  /**
+   * Internal holder for binary values received from the wire, which are base64 decoded lazily.
+   * Values that are never read, or that are only forwarded, are never decoded.
+   */
+  static final class Base64Value {
+    private final byte[] encoded;
+    private volatile byte[] decoded;
+
+    /** A value as received from the wire, in base64 with or without padding. */
+    Base64Value(byte[] encoded) {
+      this.encoded = checkNotNull(encoded, "encoded");
+    }
+
+    /** A value set by the application, with its encoding computed ahead of time. */
+    Base64Value(byte[] encoded, byte[] decoded) {
+      this.encoded = checkNotNull(encoded, "encoded");
+      this.decoded = checkNotNull(decoded, "decoded");
+    }
+
+    byte[] toBytes() {
+      byte[] bytes = decoded;
+      if (bytes == null) {
+        // Decoding is idempotent, so racing threads at worst decode twice.
+        bytes = BaseEncoding.base64().decode(new String(encoded, US_ASCII));
+        decoded = bytes;
+      }
+      return bytes;
+    }
+  }
+
   /** Internal holder for values which are serialized/de-serialized lazily. */
   static final class LazyValue<T> {
     private final BinaryStreamMarshaller<T> marshaller;
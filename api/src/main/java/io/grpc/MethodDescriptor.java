@@ -193,6 +193,21 @@ public final class MethodDescriptor<ReqT, RespT> {
     public T getMessagePrototype();
   }
 
+  /**
+   * A marshaller whose messages are never modified once they are sent, so that the receiver of a
+   * message can be handed the very object that was sent. When both ends of a call are in the same
+   * process and use the same marshaller instance, as with the in-process transport, messages are
+   * then passed by reference without being serialized and parsed. Other transports serialize the
+   * message as usual.
+   *
+   * <p>Only implement this if neither the sender nor the receiver modifies messages after they
+   * have been sent, as both will share the same object.
+   *
+   * @since 1.32.0
+   */
+  @ExperimentalApi("Passing messages by reference is experimental")
+  public interface ImmutableMessageMarshaller<T> extends Marshaller<T> {}
+
   /**
    * Creates a new {@code MethodDescriptor}.
    *
@@ -270,7 +285,7 @@ public final class MethodDescriptor<ReqT, RespT> {
    * @since 1.0.0
    */
   public RespT parseResponse(InputStream input) {
-    return responseMarshaller.parse(input);
+    return parse(responseMarshaller, input);
   }
 
   /**
@@ -282,7 +297,7 @@ public final class MethodDescriptor<ReqT, RespT> {
    * @since 1.0.0
    */
   public InputStream streamRequest(ReqT requestMessage) {
-    return requestMarshaller.stream(requestMessage);
+    return stream(requestMarshaller, requestMessage);
   }
 
   /**
@@ -293,7 +308,7 @@ public final class MethodDescriptor<ReqT, RespT> {
    * @since 1.0.0
    */
   public ReqT parseRequest(InputStream input) {
-    return requestMarshaller.parse(input);
+    return parse(requestMarshaller, input);
   }
 
   /**
@@ -305,7 +320,26 @@ public final class MethodDescriptor<ReqT, RespT> {
    * @since 1.0.0
    */
   public InputStream streamResponse(RespT response) {
-    return responseMarshaller.stream(response);
+    return stream(responseMarshaller, response);
+  }
+
+  private static <T> InputStream stream(Marshaller<T> marshaller, T message) {
+    if (marshaller instanceof ImmutableMessageMarshaller) {
+      return new MessageReferenceInputStream<>(marshaller, message);
+    }
+    return marshaller.stream(message);
+  }
+
+  private static <T> T parse(Marshaller<T> marshaller, InputStream input) {
+    if (input instanceof MessageReferenceInputStream) {
+      // Only return the message if it was streamed by the same marshaller, which guarantees its
+      // type, and nothing has been read from the stream yet.
+      T message = ((MessageReferenceInputStream<?>) input).takeMessage(marshaller);
+      if (message != null) {
+        return message;
+      }
+    }
+    return marshaller.parse(input);
   }
 
   /**
@@ -203,6 +203,25 @@ public abstract class ServerBuilder<T extends ServerBuilder<T>> {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Sets whether work for calls is dispatched to the {@link #executor executor} in order of the
+   * calls' deadlines, earliest first, instead of in arrival order. This only has an effect when the
+   * executor queues work, for example a saturated fixed-size thread pool. Calls without a deadline
+   * are served after all calls with one, so they may starve under sustained overload. Disabled by
+   * default.
+   *
+   * <p>Independently of this setting, calls whose deadline expires while they are waiting for the
+   * executor are failed without being dispatched to the application.
+   *
+   * @return this
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.32.0
+   */
+  @ExperimentalApi("Deadline-ordered execution is experimental")
+  public T deadlineOrderedExecution(boolean enable) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Sets the maximum message size allowed to be received on the server. If not called,
    * defaults to 4 MiB. The default provides protection to servers who haven't considered the
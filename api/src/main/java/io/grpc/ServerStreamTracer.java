@@ -68,6 +68,19 @@ public abstract class ServerStreamTracer extends StreamTracer {
      */
     public abstract ServerStreamTracer newServerStreamTracer(
         String fullMethodName, Metadata headers);
+
+    /**
+     * Returns whether the tracers created by this factory want {@link
+     * StreamTracer#phaseCompleted} to be called. Timing phases reads the clock a few times per
+     * message, so it is only done for streams that have at least one such tracer. The default is
+     * {@code false}.
+     *
+     * @since 1.32.0
+     */
+    @ExperimentalApi("Phase timings are experimental")
+    public boolean isPhaseTimingEnabled() {
+      return false;
+    }
   }
 
   /**
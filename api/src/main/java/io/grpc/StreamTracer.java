@@ -106,4 +106,52 @@ public abstract class StreamTracer {
    */
   public void inboundUncompressedSize(long bytes) {
   }
+
+  /**
+   * A phase of a stream has completed. Only called if the factory that created this tracer
+   * enabled phase timing; see {@link ClientStreamTracer.Factory#isPhaseTimingEnabled} and {@link
+   * ServerStreamTracer.Factory#isPhaseTimingEnabled}. Phases that happen more than once per stream,
+   * such as {@link Phase#SERIALIZATION}, are reported each time.
+   *
+   * @param phase the phase that completed
+   * @param durationNanos how long the phase took, in nanoseconds
+   * @since 1.32.0
+   */
+  @ExperimentalApi("Phase timings are experimental")
+  public void phaseCompleted(Phase phase, long durationNanos) {
+  }
+
+  /**
+   * The phases of a stream whose durations are reported to {@link #phaseCompleted}.
+   *
+   * @since 1.32.0
+   */
+  @ExperimentalApi("Phase timings are experimental")
+  public enum Phase {
+    /**
+     * Client-side only. The channel asked the load balancer for a transport when the call was
+     * started, and got one. If none was available yet, this first pick is not reported, and the
+     * wait that follows, including the picks that end it, is reported as {@link
+     * #PENDING_TRANSPORT} instead.
+     */
+    PICK,
+
+    /**
+     * Client-side only. The stream was buffered in the channel until a transport was available for
+     * it, waiting for name resolution, a load balancer pick or a connection.
+     */
+    PENDING_TRANSPORT,
+
+    /** The stream's headers were converted to the transport's representation. */
+    HEADERS_ENCODE,
+
+    /** An outbound message was serialized and framed. */
+    SERIALIZATION,
+
+    /** A callback for an inbound event waited in the call executor before it ran. */
+    EXECUTOR_QUEUE,
+
+    /** An inbound message was deserialized. */
+    DESERIALIZATION
+  }
 }
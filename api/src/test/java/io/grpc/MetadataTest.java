@@ -479,6 +479,91 @@ public class MetadataTest {
     assertSame(anotherSalmon, h2.get(KEY_IMMUTABLE));
   }
 
+  @Test
+  public void base64ValueDecodedOnRead() {
+    Object[] namesAndValues = new Object[] {
+        KEY.asciiName(),
+        InternalMetadata.base64Value(
+            InternalMetadata.BASE64_ENCODING_OMIT_PADDING.encode(LANCE_BYTES).getBytes(US_ASCII)),
+        KEY_STREAMED.asciiName(),
+        // Padded values are accepted too
+        InternalMetadata.base64Value("c2FsbW9u".getBytes(US_ASCII))};
+    Metadata h = new Metadata(2, namesAndValues);
+
+    assertEquals(new Fish(LANCE), h.get(KEY));
+    assertEquals(new Fish("salmon"), h.get(KEY_STREAMED));
+    assertArrayEquals(LANCE_BYTES, InternalMetadata.serialize(h)[1]);
+  }
+
+  @Test
+  public void serializeBase64Binary_passesThroughEncodedValues() {
+    byte[] encoded = "bGFuY2U=".getBytes(US_ASCII);
+    Metadata h =
+        new Metadata(1, new Object[] {KEY.asciiName(), InternalMetadata.base64Value(encoded)});
+    Key<String> asciiKey = Key.of("ascii", Metadata.ASCII_STRING_MARSHALLER);
+    h.put(asciiKey, "value");
+    h.put(KEY_STREAMED, new Fish("salmon"));
+
+    byte[][] serialized = InternalMetadata.serializeBase64Binary(h);
+    assertEquals(6, serialized.length);
+    assertSame(encoded, serialized[1]);
+    assertEquals("value", new String(serialized[3], US_ASCII));
+    assertEquals("c2FsbW9u", new String(serialized[5], US_ASCII));
+  }
+
+  @Test
+  public void preEncodeBinaryValues() {
+    Metadata h = new Metadata();
+    Key<byte[]> bytesKey = Key.of("bytes-bin", Metadata.BINARY_BYTE_MARSHALLER);
+    h.put(bytesKey, LANCE_BYTES);
+    h.put(KEY_STREAMED, new Fish("salmon"));
+    h.put(Key.of("ascii", Metadata.ASCII_STRING_MARSHALLER), "value");
+
+    InternalMetadata.preEncodeBinaryValues(h);
+    assertSame(LANCE_BYTES, h.get(bytesKey));
+    assertEquals(new Fish("salmon"), h.get(KEY_STREAMED));
+
+    Metadata sent = new Metadata();
+    sent.merge(h);
+    byte[][] serialized = InternalMetadata.serializeBase64Binary(sent);
+    assertEquals("bGFuY2U", new String(serialized[1], US_ASCII));
+    assertSame(serialized[1], InternalMetadata.serializeBase64Binary(h)[1]);
+    assertEquals("c2FsbW9u", new String(serialized[3], US_ASCII));
+    assertEquals("value", new String(serialized[5], US_ASCII));
+  }
+
+  @Test
+  public void hasEntries() {
+    Metadata h = new Metadata();
+    assertTrue(h.hasEntries(h.entries()));
+    h.put(KEY, new Fish(LANCE));
+    Object[] entries = h.entries();
+    assertTrue(h.hasEntries(entries));
+
+    h.put(KEY, new Fish(LANCE));
+    assertFalse(h.hasEntries(entries));
+    entries = h.entries();
+    h.remove(KEY, new Fish(LANCE));
+    assertFalse(h.hasEntries(entries));
+
+    entries = h.entries();
+    Metadata other = new Metadata();
+    other.put(KEY, new Fish(LANCE));
+    h.merge(other);
+    assertFalse(h.hasEntries(entries));
+    assertTrue(h.hasEntries(h.entries()));
+  }
+
+  @Test
+  public void mergeBase64ValuesIntoByteArrayBackedMetadata() {
+    Metadata h = new Metadata(0, new byte[4][]);
+    Metadata other = new Metadata(1, new Object[] {
+        KEY.asciiName(), InternalMetadata.base64Value("bGFuY2U".getBytes(US_ASCII))});
+
+    h.merge(other);
+    assertEquals(new Fish(LANCE), h.get(KEY));
+  }
+
   private static final class Fish {
     private String name;
 
@@ -16,16 +16,20 @@
 
 package io.grpc;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static junit.framework.TestCase.assertSame;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import io.grpc.MethodDescriptor.Marshaller;
 import io.grpc.MethodDescriptor.MethodType;
 import io.grpc.testing.TestMethodDescriptors;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -240,4 +244,63 @@ public class MethodDescriptorTest {
     assertTrue(toString.contains("responseMarshaller=io.grpc.StringMarshaller"));
     assertTrue(toString.contains("schemaDescriptor=java.lang.Object"));
   }
+
+  @Test
+  public void immutableMessageMarshaller_passesMessageByReference() {
+    MethodDescriptor<String, String> descriptor = immutableStringMethod();
+    String request = new String("request");
+    String response = new String("response");
+
+    assertSame(request, descriptor.parseRequest(descriptor.streamRequest(request)));
+    assertSame(response, descriptor.parseResponse(descriptor.streamResponse(response)));
+  }
+
+  @Test
+  public void immutableMessageMarshaller_otherMarshallerParsesBytes() {
+    MethodDescriptor<String, String> sender = immutableStringMethod();
+    MethodDescriptor<String, String> receiver = immutableStringMethod();
+    String request = new String("request");
+
+    String parsed = receiver.parseRequest(sender.streamRequest(request));
+    assertEquals(request, parsed);
+    assertNotSame(request, parsed);
+  }
+
+  @Test
+  public void immutableMessageMarshaller_streamSerializesWhenRead() throws Exception {
+    MethodDescriptor<String, String> descriptor = immutableStringMethod();
+    InputStream stream = descriptor.streamRequest("request");
+
+    assertEquals(7, stream.available());
+    assertEquals('r', stream.read());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(6, ((Drainable) stream).drainTo(out));
+    assertEquals("equest", new String(out.toByteArray(), UTF_8));
+    stream.close();
+  }
+
+  @Test
+  public void immutableMessageMarshaller_readStreamParsesBytes() throws Exception {
+    MethodDescriptor<String, String> descriptor = immutableStringMethod();
+    String request = new String("request");
+    InputStream stream = descriptor.streamRequest(request);
+    assertEquals(7, stream.available());
+
+    String parsed = descriptor.parseRequest(stream);
+    assertEquals(request, parsed);
+    assertNotSame(request, parsed);
+  }
+
+  private static MethodDescriptor<String, String> immutableStringMethod() {
+    ImmutableStringMarshaller marshaller = new ImmutableStringMarshaller();
+    return MethodDescriptor.<String, String>newBuilder()
+        .setType(MethodType.UNARY)
+        .setFullMethodName("package.service/method")
+        .setRequestMarshaller(marshaller)
+        .setResponseMarshaller(marshaller)
+        .build();
+  }
+
+  private static final class ImmutableStringMarshaller extends StringMarshaller
+      implements MethodDescriptor.ImmutableMessageMarshaller<String> {}
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.benchmarks;
+
+import static io.grpc.benchmarks.Utils.pickUnusedPort;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.benchmarks.proto.BenchmarkServiceGrpc;
+import io.grpc.benchmarks.proto.Messages;
+import io.grpc.benchmarks.proto.Messages.SimpleRequest;
+import io.grpc.benchmarks.proto.Messages.SimpleResponse;
+import io.grpc.benchmarks.qps.AsyncServer;
+import io.grpc.netty.NegotiationType;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares the latency of an asynchronous handler when the Netty server runs calls on the
+ * application executor and when it runs them on the connection's event loop with {@link
+ * NettyServerBuilder#eventLoopExecution}. The client is the same in both cases.
+ */
+@State(Scope.Benchmark)
+public class EventLoopExecutionBenchmark {
+  public enum ServerExecution {
+    /** Calls run on the server's default executor. */
+    EXECUTOR,
+    /** Calls run on the event loop of their connection. */
+    EVENT_LOOP
+  }
+
+  @Param
+  public ServerExecution serverExecution;
+  @Param({"0", "1024"})
+  public int payloadSize;
+
+  private ManagedChannel channel;
+  private Server server;
+  private BenchmarkServiceGrpc.BenchmarkServiceBlockingStub stub;
+  private BenchmarkServiceGrpc.BenchmarkServiceStub asyncStub;
+  private SimpleRequest request;
+
+  @Setup
+  public void setUp() throws Exception {
+    InetSocketAddress address = new InetSocketAddress("localhost", pickUnusedPort());
+    server = NettyServerBuilder.forAddress(address)
+        .eventLoopExecution(serverExecution == ServerExecution.EVENT_LOOP)
+        .addService(new AsyncServer.BenchmarkServiceImpl())
+        .build();
+    server.start();
+    channel = NettyChannelBuilder.forAddress(address)
+        .negotiationType(NegotiationType.PLAINTEXT)
+        .build();
+    stub = BenchmarkServiceGrpc.newBlockingStub(channel);
+    asyncStub = BenchmarkServiceGrpc.newStub(channel);
+    request = Utils.makeRequest(Messages.PayloadType.COMPRESSABLE, payloadSize, payloadSize);
+    // Wait for channel to start
+    stub.unaryCall(SimpleRequest.getDefaultInstance());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    channel.shutdown();
+    server.shutdown();
+    channel.awaitTermination(1, TimeUnit.SECONDS);
+    server.awaitTermination(1, TimeUnit.SECONDS);
+    if (!channel.isTerminated()) {
+      throw new Exception("failed to shut down channel");
+    }
+    if (!server.isTerminated()) {
+      throw new Exception("failed to shut down server");
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public SimpleResponse unaryCallLatency() {
+    return stub.unaryCall(request);
+  }
+
+  private static final Throwable OK_THROWABLE = new RuntimeException("OK");
+
+  @State(Scope.Thread)
+  public static class PingPongStreamState {
+    private final ThreadlessExecutor executor = new ThreadlessExecutor();
+    private StreamObserver<SimpleRequest> requestObserver;
+    private SimpleResponse response;
+    private Throwable status;
+
+    @Setup
+    public void setUp(EventLoopExecutionBenchmark bench) {
+      requestObserver = bench.asyncStub
+          .withExecutor(executor)
+          .streamingCall(new StreamObserver<SimpleResponse>() {
+            @Override public void onNext(SimpleResponse next) {
+              response = next;
+            }
+
+            @Override public void onError(Throwable t) {
+              status = t;
+            }
+
+            @Override public void onCompleted() {
+              status = OK_THROWABLE;
+            }
+          });
+    }
+
+    /** Issues request and waits for response. */
+    public SimpleResponse pingPong(SimpleRequest request) throws InterruptedException {
+      requestObserver.onNext(request);
+      while (true) {
+        executor.waitAndDrain();
+        if (response != null) {
+          SimpleResponse savedResponse = response;
+          response = null;
+          return savedResponse;
+        }
+        if (status != null) {
+          throw new RuntimeException("Unexpected stream termination", status);
+        }
+      }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+      requestObserver.onCompleted();
+      while (status == null) {
+        executor.waitAndDrain();
+      }
+      if (status != OK_THROWABLE) {
+        throw new RuntimeException("Non-graceful stream shutdown", status);
+      }
+    }
+  }
+
+  /** Measures one message round trip on a long-lived bidirectional stream. */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public SimpleResponse pingPongLatency(PingPongStreamState state) throws InterruptedException {
+    return state.pingPong(request);
+  }
+}
@@ -44,6 +44,8 @@ import io.netty.channel.ServerChannel;
 import io.netty.channel.local.LocalAddress;
 import io.netty.channel.local.LocalChannel;
 import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import java.io.File;
 import java.net.InetSocketAddress;
 import java.util.Iterator;
 import java.util.concurrent.Future;
@@ -63,8 +65,12 @@ import org.openjdk.jmh.annotations.Threads;
 /** Some text. */
 @State(Scope.Benchmark)
 public class TransportBenchmark {
+  /**
+   * Transports to compare. NETTY_EPOLL and NETTY_UDS both need epoll; compare loopback TCP with a
+   * Unix domain socket with {@code -p transport=NETTY_EPOLL,NETTY_UDS}.
+   */
   public enum Transport {
-    INPROCESS, NETTY, NETTY_LOCAL, NETTY_EPOLL, OKHTTP
+    INPROCESS, NETTY, NETTY_LOCAL, NETTY_EPOLL, NETTY_UDS, OKHTTP
   }
 
   @Param({"INPROCESS", "NETTY", "OKHTTP"})
@@ -77,6 +83,7 @@ public class TransportBenchmark {
   private BenchmarkServiceGrpc.BenchmarkServiceBlockingStub stub;
   private BenchmarkServiceGrpc.BenchmarkServiceStub asyncStub;
   private EventLoopGroup groupToShutdown;
+  private File socketToDelete;
 
   @Setup
   public void setUp() throws Exception {
@@ -139,6 +146,17 @@ public class TransportBenchmark {
         groupToShutdown = group;
         break;
       }
+      case NETTY_UDS:
+      {
+        // The builders pick epoll's domain socket channels for a DomainSocketAddress.
+        File socket = File.createTempFile("bench", ".sock");
+        socket.delete();
+        serverBuilder = NettyServerBuilder.forAddress(new DomainSocketAddress(socket));
+        channelBuilder = NettyChannelBuilder.forTarget("unix:" + socket.getAbsolutePath())
+            .negotiationType(NegotiationType.PLAINTEXT);
+        socketToDelete = socket;
+        break;
+      }
       case OKHTTP:
       {
         int port = pickUnusedPort();
@@ -180,6 +198,9 @@ public class TransportBenchmark {
     if (!server.isTerminated()) {
       throw new Exception("failed to shut down server");
     }
+    if (socketToDelete != null) {
+      socketToDelete.delete();
+    }
     if (groupToShutdown != null) {
       Future<?> unused = groupToShutdown.shutdownGracefully(0, 1, TimeUnit.SECONDS);
       groupToShutdown.awaitTermination(1, TimeUnit.SECONDS);
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.grpc.benchmarks;
+
+import static io.grpc.benchmarks.Utils.pickUnusedPort;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.benchmarks.proto.BenchmarkServiceGrpc;
+import io.grpc.benchmarks.proto.Messages;
+import io.grpc.benchmarks.proto.Messages.SimpleRequest;
+import io.grpc.benchmarks.proto.Messages.SimpleResponse;
+import io.grpc.benchmarks.qps.AsyncServer;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.AbstractManagedChannelImplBuilder;
+import io.grpc.internal.AbstractServerImplBuilder;
+import io.grpc.netty.NegotiationType;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.grpc.okhttp.OkHttpChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures complete RPCs across every combination of transport, call type, executor and payload
+ * size, so that a regression in the shared call path shows up in whichever shapes it affects.
+ * {@link #rpcThroughput} reports RPCs per second and {@link #rpcLatency} reports the latency
+ * distribution, including p99. Run with {@code -prof gc} to also report the allocation rate.
+ *
+ * <p>Each streaming RPC carries {@link #MESSAGES_PER_STREAM} messages in each streaming
+ * direction. All the messages of an RPC use the same payload size in both directions.
+ */
+@State(Scope.Benchmark)
+public class TransportMatrixBenchmark {
+  public enum Transport {
+    INPROCESS, NETTY, OKHTTP
+  }
+
+  public enum CallType {
+    UNARY, CLIENT_STREAMING, SERVER_STREAMING, BIDI_STREAMING
+  }
+
+  public enum ExecutorType {
+    /** Callbacks run on the transport thread. */
+    DIRECT,
+    /** Callbacks run on a fixed thread pool with one thread per processor. */
+    FIXED,
+    /** Callbacks run on an async mode fork-join pool with one thread per processor. */
+    FORKJOIN
+  }
+
+  static final int MESSAGES_PER_STREAM = 10;
+
+  @Param
+  public Transport transport;
+  @Param
+  public CallType callType;
+  @Param
+  public ExecutorType executor;
+  @Param({"0", "1024", "65536"})
+  public int payloadSize;
+
+  private ManagedChannel channel;
+  private Server server;
+  private ExecutorService clientExecutor;
+  private ExecutorService serverExecutor;
+  private BenchmarkServiceGrpc.BenchmarkServiceStub stub;
+  private SimpleRequest request;
+
+  @Setup
+  public void setUp() throws Exception {
+    AbstractServerImplBuilder<?> serverBuilder;
+    AbstractManagedChannelImplBuilder<?> channelBuilder;
+    switch (transport) {
+      case INPROCESS:
+      {
+        String name = "bench" + Math.random();
+        serverBuilder = InProcessServerBuilder.forName(name);
+        channelBuilder = InProcessChannelBuilder.forName(name);
+        break;
+      }
+      case NETTY:
+      {
+        InetSocketAddress address = new InetSocketAddress("localhost", pickUnusedPort());
+        serverBuilder = NettyServerBuilder.forAddress(address);
+        channelBuilder = NettyChannelBuilder.forAddress(address)
+            .negotiationType(NegotiationType.PLAINTEXT);
+        break;
+      }
+      case OKHTTP:
+      {
+        int port = pickUnusedPort();
+        InetSocketAddress address = new InetSocketAddress("localhost", port);
+        serverBuilder = NettyServerBuilder.forAddress(address);
+        channelBuilder = OkHttpChannelBuilder.forAddress("localhost", port).usePlaintext();
+        break;
+      }
+      default:
+        throw new Exception("Unknown transport: " + transport);
+    }
+
+    switch (executor) {
+      case DIRECT:
+        serverBuilder.directExecutor();
+        channelBuilder.directExecutor();
+        break;
+      case FIXED:
+        serverExecutor = newFixedPool("server");
+        clientExecutor = newFixedPool("client");
+        serverBuilder.executor(serverExecutor);
+        channelBuilder.executor(clientExecutor);
+        break;
+      case FORKJOIN:
+        serverExecutor = newForkJoinPool();
+        clientExecutor = newForkJoinPool();
+        serverBuilder.executor(serverExecutor);
+        channelBuilder.executor(clientExecutor);
+        break;
+      default:
+        throw new Exception("Unknown executor: " + executor);
+    }
+
+    server = serverBuilder
+        .addService(new MatrixServiceImpl())
+        .maxInboundMessageSize(Integer.MAX_VALUE)
+        .build();
+    server.start();
+    channel = channelBuilder.maxInboundMessageSize(Integer.MAX_VALUE).build();
+    stub = BenchmarkServiceGrpc.newStub(channel);
+    request = Utils.makeRequest(Messages.PayloadType.COMPRESSABLE, payloadSize, payloadSize);
+    // Wait for channel to start
+    BenchmarkServiceGrpc.newBlockingStub(channel).unaryCall(SimpleRequest.getDefaultInstance());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    channel.shutdown();
+    server.shutdown();
+    channel.awaitTermination(1, TimeUnit.SECONDS);
+    server.awaitTermination(1, TimeUnit.SECONDS);
+    if (!channel.isTerminated()) {
+      throw new Exception("failed to shut down channel");
+    }
+    if (!server.isTerminated()) {
+      throw new Exception("failed to shut down server");
+    }
+    if (clientExecutor != null) {
+      clientExecutor.shutdownNow();
+      serverExecutor.shutdownNow();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public int rpcThroughput() throws InterruptedException {
+    return rpc();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int rpcLatency() throws InterruptedException {
+    return rpc();
+  }
+
+  /** Makes one RPC of the benchmarked call type and waits for it to complete. */
+  private int rpc() throws InterruptedException {
+    ResponseObserver responseObserver = new ResponseObserver();
+    StreamObserver<SimpleRequest> requestObserver;
+    switch (callType) {
+      case UNARY:
+        stub.unaryCall(request, responseObserver);
+        break;
+      case SERVER_STREAMING:
+        stub.streamingFromServer(request, responseObserver);
+        break;
+      case CLIENT_STREAMING:
+        requestObserver = stub.streamingFromClient(responseObserver);
+        sendAll(requestObserver);
+        break;
+      case BIDI_STREAMING:
+        requestObserver = stub.streamingCall(responseObserver);
+        sendAll(requestObserver);
+        break;
+      default:
+        throw new AssertionError(callType);
+    }
+    return responseObserver.await();
+  }
+
+  private void sendAll(StreamObserver<SimpleRequest> requestObserver) {
+    for (int i = 0; i < MESSAGES_PER_STREAM; i++) {
+      requestObserver.onNext(request);
+    }
+    requestObserver.onCompleted();
+  }
+
+  private static ExecutorService newFixedPool(String side) {
+    return Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        new DefaultThreadFactory("matrix-" + side, true));
+  }
+
+  private static ExecutorService newForkJoinPool() {
+    return new ForkJoinPool(
+        Runtime.getRuntime().availableProcessors(),
+        ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+        null,
+        true /* async */);
+  }
+
+  /**
+   * Counts the responses of an RPC and lets the benchmark thread wait for its completion. The
+   * latch makes the fields visible to the waiting thread.
+   */
+  private static final class ResponseObserver implements StreamObserver<SimpleResponse> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private int responses;
+    private Throwable error;
+
+    @Override
+    public void onNext(SimpleResponse value) {
+      responses++;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      error = t;
+      done.countDown();
+    }
+
+    @Override
+    public void onCompleted() {
+      done.countDown();
+    }
+
+    int await() throws InterruptedException {
+      done.await();
+      if (error != null) {
+        throw new RuntimeException("RPC failed", error);
+      }
+      return responses;
+    }
+  }
+
+  /**
+   * The benchmark service, with server streaming RPCs that end after {@link #MESSAGES_PER_STREAM}
+   * responses instead of streaming until cancelled.
+   */
+  private static final class MatrixServiceImpl extends AsyncServer.BenchmarkServiceImpl {
+    @Override
+    public void streamingFromServer(
+        SimpleRequest request, StreamObserver<SimpleResponse> responseObserver) {
+      SimpleResponse response = Utils.makeResponse(request);
+      for (int i = 0; i < MESSAGES_PER_STREAM; i++) {
+        responseObserver.onNext(response);
+      }
+      responseObserver.onCompleted();
+    }
+  }
+}
@@ -22,6 +22,7 @@ import io.grpc.Channel;
 import io.grpc.ClientCall;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.benchmarks.Transport;
 import io.grpc.benchmarks.Utils;
@@ -38,10 +39,12 @@ import io.netty.channel.epoll.Epoll;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.lang.management.ManagementFactory;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
@@ -61,6 +64,9 @@ class LoadClient {
 
   private final Control.ClientConfig config;
   private final ExponentialDistribution distribution;
+  private final LoadProfile loadProfile;
+  private final Control.RpcType[] rpcMixTypes;
+  private final double[] rpcMixWeights;
   private volatile boolean shutdown;
   private final int threadCount;
 
@@ -68,6 +74,8 @@ class LoadClient {
   BenchmarkServiceGrpc.BenchmarkServiceBlockingStub[] blockingStubs;
   BenchmarkServiceGrpc.BenchmarkServiceStub[] asyncStubs;
   Recorder recorder;
+  Recorder uncorrectedRecorder;
+  private final AtomicLongArray requestResults = new AtomicLongArray(Status.Code.values().length);
   private ExecutorService fixedThreadPool;
   private Messages.SimpleRequest simpleRequest;
   private final OperatingSystemMXBean osBean;
@@ -106,7 +114,10 @@ class LoadClient {
     }
 
     // Determine no of threads
-    if (config.getClientType() == Control.ClientType.SYNC_CLIENT) {
+    if (config.getLoadParams().getLoadCase() == Control.LoadParams.LoadCase.OPEN_LOOP) {
+      // A single thread schedules all the RPCs
+      threadCount = 1;
+    } else if (config.getClientType() == Control.ClientType.SYNC_CLIENT) {
       threadCount = config.getOutstandingRpcsPerChannel() * config.getClientChannels();
     } else {
       threadCount = config.getAsyncClientThreads() == 0
@@ -118,6 +129,7 @@ class LoadClient {
         new DefaultThreadFactory("client-worker", true));
 
     // Create the load distribution
+    Control.OpenLoopParams openLoop = null;
     switch (config.getLoadParams().getLoadCase()) {
       case CLOSED_LOOP:
         distribution = null;
@@ -130,9 +142,42 @@ class LoadClient {
         distribution = new ExponentialDistribution(
             threadCount / config.getLoadParams().getPoisson().getOfferedLoad());
         break;
+      case OPEN_LOOP:
+        if (config.getClientType() != Control.ClientType.ASYNC_CLIENT) {
+          throw new IllegalArgumentException("Open-loop load requires ASYNC_CLIENT");
+        }
+        distribution = null;
+        openLoop = config.getLoadParams().getOpenLoop();
+        break;
       default:
         throw new IllegalArgumentException("Scenario not implemented");
     }
+    if (openLoop != null) {
+      loadProfile = new LoadProfile(openLoop, new Random());
+      if (openLoop.getRpcMixCount() == 0) {
+        rpcMixTypes = new Control.RpcType[] {config.getRpcType()};
+        rpcMixWeights = new double[] {1};
+      } else {
+        rpcMixTypes = new Control.RpcType[openLoop.getRpcMixCount()];
+        rpcMixWeights = new double[openLoop.getRpcMixCount()];
+        double total = 0;
+        for (int i = 0; i < openLoop.getRpcMixCount(); i++) {
+          rpcMixTypes[i] = openLoop.getRpcMix(i).getRpcType();
+          total += openLoop.getRpcMix(i).getWeight();
+          // Cumulative weights, for picking the type of each RPC
+          rpcMixWeights[i] = total;
+        }
+      }
+      for (Control.RpcType rpcType : rpcMixTypes) {
+        if (rpcType != Control.RpcType.UNARY && rpcType != Control.RpcType.STREAMING) {
+          throw new IllegalArgumentException(rpcType + " not supported for open-loop load");
+        }
+      }
+    } else {
+      loadProfile = null;
+      rpcMixTypes = null;
+      rpcMixWeights = null;
+    }
 
     // Create payloads
     switch (config.getPayloadConfig().getPayloadCase()) {
@@ -166,12 +211,22 @@ class LoadClient {
 
     // Create the histogram recorder
     recorder = new Recorder((long) config.getHistogramParams().getMaxPossible(), 3);
+    if (loadProfile != null) {
+      uncorrectedRecorder = new Recorder((long) config.getHistogramParams().getMaxPossible(), 3);
+    }
   }
 
   /**
    * Start the load scenario.
    */
   void start() {
+    if (loadProfile != null) {
+      fixedThreadPool.execute(new OpenLoopWorker());
+      if (osBean != null) {
+        lastMarkCpuTime = osBean.getProcessCpuTime();
+      }
+      return;
+    }
     Runnable r;
     for (int i = 0; i < threadCount; i++) {
       r = null;
@@ -230,7 +285,32 @@ class LoadClient {
     Histogram intervalHistogram = recorder.getIntervalHistogram();
 
     Stats.ClientStats.Builder statsBuilder = Stats.ClientStats.newBuilder();
-    Stats.HistogramData.Builder latenciesBuilder = statsBuilder.getLatenciesBuilder();
+    toHistogramData(intervalHistogram, statsBuilder.getLatenciesBuilder());
+    if (uncorrectedRecorder != null) {
+      toHistogramData(
+          uncorrectedRecorder.getIntervalHistogram(),
+          statsBuilder.getUncorrectedLatenciesBuilder());
+      for (Status.Code code : Status.Code.values()) {
+        long count = requestResults.getAndSet(code.value(), 0);
+        if (count > 0) {
+          statsBuilder.addRequestResultsBuilder().setStatusCode(code.value()).setCount(count);
+        }
+      }
+    }
+
+    statsBuilder.setTimeElapsed((intervalHistogram.getEndTimeStamp()
+        - intervalHistogram.getStartTimeStamp()) / 1000.0);
+    if (osBean != null) {
+      // Report all the CPU time as user-time  (which is intentionally incorrect)
+      long nowCpu = osBean.getProcessCpuTime();
+      statsBuilder.setTimeUser(((double) nowCpu - lastMarkCpuTime) / 1000000000.0);
+      lastMarkCpuTime = nowCpu;
+    }
+    return statsBuilder.build();
+  }
+
+  private void toHistogramData(
+      Histogram intervalHistogram, Stats.HistogramData.Builder latenciesBuilder) {
     double resolution = 1.0 + Math.max(config.getHistogramParams().getResolution(), 0.01);
     LogarithmicIterator logIterator = new LogarithmicIterator(intervalHistogram, 1,
         resolution);
@@ -251,16 +331,6 @@ class LoadClient {
     latenciesBuilder.setSum(intervalHistogram.getMean()
         * intervalHistogram.getTotalCount());
     // TODO: No support for sum of squares
-
-    statsBuilder.setTimeElapsed((intervalHistogram.getEndTimeStamp()
-        - intervalHistogram.getStartTimeStamp()) / 1000.0);
-    if (osBean != null) {
-      // Report all the CPU time as user-time  (which is intentionally incorrect)
-      long nowCpu = osBean.getProcessCpuTime();
-      statsBuilder.setTimeUser(((double) nowCpu - lastMarkCpuTime) / 1000000000.0);
-      lastMarkCpuTime = nowCpu;
-    }
-    return statsBuilder.build();
   }
 
   /**
@@ -537,4 +607,134 @@ class LoadClient {
       }
     }
   }
+
+  /**
+   * Worker which starts RPCs at the times scheduled by the load profile, whether or not earlier
+   * RPCs have completed. Event timing is the duration between the scheduled start of the RPC and
+   * its completion, which includes any delay in starting it. The duration from the actual start
+   * is recorded separately.
+   */
+  private class OpenLoopWorker implements Runnable {
+    final Random random = new Random();
+    final int messagesPerStream = Math.max(1, config.getMessagesPerStream());
+    int nextChannel;
+
+    @Override
+    public void run() {
+      long profileStart = System.nanoTime();
+      long scheduled = 0;
+      while (!shutdown) {
+        scheduled = loadProfile.nextStart(scheduled);
+        if (scheduled == Long.MAX_VALUE) {
+          return;
+        }
+        long wait;
+        while ((wait = profileStart + scheduled - System.nanoTime()) > 0 && !shutdown) {
+          LockSupport.parkNanos(wait);
+        }
+        if (shutdown) {
+          return;
+        }
+        Channel channel = channels[nextChannel];
+        nextChannel = (nextChannel + 1) % channels.length;
+        boolean streaming = pickRpcType() == Control.RpcType.STREAMING;
+        if (config.getPayloadConfig().getPayloadCase()
+            == Payloads.PayloadConfig.PayloadCase.BYTEBUF_PARAMS) {
+          new OpenLoopCall<ByteBuf, ByteBuf>(
+              channel.newCall(
+                  streaming
+                      ? LoadServer.GENERIC_STREAMING_PING_PONG_METHOD
+                      : LoadServer.GENERIC_UNARY_METHOD,
+                  CallOptions.DEFAULT),
+              streaming ? messagesPerStream : 1,
+              profileStart + scheduled) {
+            @Override
+            ByteBuf newRequest() {
+              return genericRequest.slice();
+            }
+          }.start();
+        } else {
+          MethodDescriptor<Messages.SimpleRequest, Messages.SimpleResponse> method = streaming
+              ? BenchmarkServiceGrpc.getStreamingCallMethod()
+              : BenchmarkServiceGrpc.getUnaryCallMethod();
+          new OpenLoopCall<Messages.SimpleRequest, Messages.SimpleResponse>(
+              channel.newCall(method, CallOptions.DEFAULT),
+              streaming ? messagesPerStream : 1,
+              profileStart + scheduled) {
+            @Override
+            Messages.SimpleRequest newRequest() {
+              return simpleRequest;
+            }
+          }.start();
+        }
+      }
+    }
+
+    private Control.RpcType pickRpcType() {
+      if (rpcMixTypes.length == 1) {
+        return rpcMixTypes[0];
+      }
+      double pick = random.nextDouble() * rpcMixWeights[rpcMixWeights.length - 1];
+      for (int i = 0; i < rpcMixTypes.length - 1; i++) {
+        if (pick < rpcMixWeights[i]) {
+          return rpcMixTypes[i];
+        }
+      }
+      return rpcMixTypes[rpcMixTypes.length - 1];
+    }
+  }
+
+  /**
+   * An open-loop RPC which sends a message, waits for the response and repeats for the given
+   * number of messages before half-closing. A unary RPC sends a single message.
+   */
+  private abstract class OpenLoopCall<ReqT, RespT> extends ClientCall.Listener<RespT> {
+    final ClientCall<ReqT, RespT> call;
+    final long scheduledStart;
+    int messagesLeft;
+    long actualStart;
+
+    OpenLoopCall(ClientCall<ReqT, RespT> call, int messages, long scheduledStart) {
+      this.call = call;
+      this.messagesLeft = messages;
+      this.scheduledStart = scheduledStart;
+    }
+
+    abstract ReqT newRequest();
+
+    void start() {
+      actualStart = System.nanoTime();
+      call.start(this, new Metadata());
+      call.request(1);
+      sendNext();
+    }
+
+    private void sendNext() {
+      call.sendMessage(newRequest());
+      if (--messagesLeft == 0) {
+        call.halfClose();
+      }
+    }
+
+    @Override
+    public void onMessage(RespT message) {
+      if (messagesLeft > 0) {
+        call.request(1);
+        sendNext();
+      }
+    }
+
+    @Override
+    public void onClose(Status status, Metadata trailers) {
+      long now = System.nanoTime();
+      requestResults.incrementAndGet(status.getCode().value());
+      if (status.isOk()) {
+        recorder.recordValue(now - scheduledStart);
+        uncorrectedRecorder.recordValue(now - actualStart);
+      } else {
+        Level level = shutdown ? Level.FINE : Level.INFO;
+        log.log(level, "Error in open-loop call: " + status, status.getCause());
+      }
+    }
+  }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.grpc.benchmarks.driver;
+
+import io.grpc.benchmarks.proto.Control;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the scheduled start times of the RPCs of an open-loop load profile. The load of each
+ * phase changes linearly from its start load to its end load, and the end load of the last phase
+ * is held after it.
+ */
+final class LoadProfile {
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final double DELAY_EPSILON = Math.nextUp(0d);
+
+  private final Control.OpenLoopParams.Arrival arrival;
+  private final long[] phaseEnds;
+  private final double[] startLoads;
+  private final double[] endLoads;
+  /** The change of load of each phase, in RPCs per second per second. */
+  private final double[] slopes;
+  private final Random random;
+
+  LoadProfile(Control.OpenLoopParams params, Random random) {
+    if (params.getPhasesCount() == 0) {
+      throw new IllegalArgumentException("Open-loop load requires at least one phase");
+    }
+    this.arrival = params.getArrival();
+    this.random = random;
+    int phases = params.getPhasesCount();
+    phaseEnds = new long[phases];
+    startLoads = new double[phases];
+    endLoads = new double[phases];
+    slopes = new double[phases];
+    long end = 0;
+    for (int i = 0; i < phases; i++) {
+      Control.OpenLoopParams.Phase phase = params.getPhases(i);
+      if (phase.getDuration() < 0 || phase.getStartLoad() < 0 || phase.getEndLoad() < 0) {
+        throw new IllegalArgumentException("Negative duration or load in phase " + i);
+      }
+      end += Math.round(phase.getDuration() * NANOS_PER_SECOND);
+      phaseEnds[i] = end;
+      startLoads[i] = phase.getStartLoad();
+      endLoads[i] = phase.getEndLoad();
+      if (phase.getDuration() > 0) {
+        slopes[i] = (phase.getEndLoad() - phase.getStartLoad()) / phase.getDuration();
+      }
+    }
+  }
+
+  /**
+   * Returns the offered load, in RPCs per second, at the given time since the start of the
+   * profile.
+   */
+  double loadAt(long elapsedNanos) {
+    long phaseStart = 0;
+    for (int i = 0; i < phaseEnds.length; i++) {
+      if (elapsedNanos < phaseEnds[i]) {
+        double progress = (double) (elapsedNanos - phaseStart) / (phaseEnds[i] - phaseStart);
+        return startLoads[i] + (endLoads[i] - startLoads[i]) * progress;
+      }
+      phaseStart = phaseEnds[i];
+    }
+    return endLoads[endLoads.length - 1];
+  }
+
+  /**
+   * Returns the scheduled start of the RPC following one scheduled at the given time since the
+   * start of the profile, or {@link Long#MAX_VALUE} if no more RPCs are scheduled.
+   */
+  long nextStart(long elapsedNanos) {
+    // Each gap covers a fixed (constant arrival) or exponentially distributed (Poisson arrival)
+    // number of expected RPCs, integrating the load over the phases it spans.
+    double rpcs;
+    switch (arrival) {
+      case CONSTANT:
+        rpcs = 1;
+        break;
+      case POISSON:
+        rpcs = -Math.log(Math.max(random.nextDouble(), DELAY_EPSILON));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported arrival " + arrival);
+    }
+    long now = elapsedNanos;
+    for (int i = phaseIndex(now); i < phaseEnds.length; i++) {
+      double load = loadAt(now);
+      double remaining = (double) (phaseEnds[i] - now) / NANOS_PER_SECOND;
+      double phaseRpcs = load * remaining + slopes[i] * remaining * remaining / 2;
+      if (phaseRpcs >= rpcs) {
+        double gap;
+        if (slopes[i] == 0) {
+          gap = rpcs / load;
+        } else {
+          gap = (Math.sqrt(Math.max(0, load * load + 2 * slopes[i] * rpcs)) - load) / slopes[i];
+        }
+        return now + Math.max(1, Math.round(gap * NANOS_PER_SECOND));
+      }
+      rpcs -= phaseRpcs;
+      now = phaseEnds[i];
+    }
+    double finalLoad = endLoads[endLoads.length - 1];
+    if (finalLoad <= 0) {
+      return Long.MAX_VALUE;
+    }
+    return now + Math.max(1, Math.round(rpcs / finalLoad * NANOS_PER_SECOND));
+  }
+
+  private int phaseIndex(long elapsedNanos) {
+    int i = 0;
+    while (i < phaseEnds.length && elapsedNanos >= phaseEnds[i]) {
+      i++;
+    }
+    return i;
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.benchmarks.qps;
+
+import static io.grpc.benchmarks.Utils.HISTOGRAM_MAX_VALUE;
+import static io.grpc.benchmarks.Utils.HISTOGRAM_PRECISION;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.benchmarks.Utils;
+import io.grpc.benchmarks.proto.BenchmarkServiceGrpc;
+import io.grpc.benchmarks.proto.Messages.SimpleRequest;
+import io.grpc.benchmarks.proto.Messages.SimpleResponse;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.grpc.util.AdaptiveConcurrencyLimiter;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.AtomicHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives a server with a fixed capacity at an open-loop arrival rate above that capacity and
+ * reports goodput, i.e. the rate of calls that succeed within their deadline, with and without
+ * an {@link AdaptiveConcurrencyLimiter} installed on the server.
+ *
+ * <p>The server runs interceptors on the transport thread and hands the work of each call to a
+ * fixed-size worker pool. Without a limiter, excess calls queue in the worker pool until most of
+ * them exceed their deadline while still consuming server capacity. With the limiter, excess calls
+ * are rejected immediately and admitted calls complete within their deadline.
+ */
+public class OverloadBenchmark {
+  private final int targetQps;
+  private final int durationSeconds;
+  private final int serverThreads;
+  private final long serviceTimeNanos;
+  private final long deadlineMillis;
+
+  OverloadBenchmark(
+      int targetQps, int durationSeconds, int serverThreads, long serviceTimeMicros,
+      long deadlineMillis) {
+    this.targetQps = targetQps;
+    this.durationSeconds = durationSeconds;
+    this.serverThreads = serverThreads;
+    this.serviceTimeNanos = TimeUnit.MICROSECONDS.toNanos(serviceTimeMicros);
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  /**
+   * Comment for checkstyle.
+   */
+  public static void main(String... args) throws Exception {
+    boolean usage = false;
+    int targetQps = 8000;
+    int duration = 10;
+    int serverThreads = 4;
+    long serviceTimeMicros = 1000;
+    long deadlineMillis = 100;
+    for (String arg : args) {
+      if (!arg.startsWith("--")) {
+        System.err.println("All arguments must start with '--': " + arg);
+        usage = true;
+        break;
+      }
+      String[] parts = arg.substring(2).split("=", 2);
+      String key = parts[0];
+      if ("help".equals(key)) {
+        usage = true;
+        break;
+      }
+      if (parts.length != 2) {
+        System.err.println("All arguments must be of the form --arg=value");
+        usage = true;
+        break;
+      }
+      String value = parts[1];
+      if ("target_qps".equals(key)) {
+        targetQps = Integer.parseInt(value);
+      } else if ("duration".equals(key)) {
+        duration = Integer.parseInt(value);
+      } else if ("server_threads".equals(key)) {
+        serverThreads = Integer.parseInt(value);
+      } else if ("service_time_micros".equals(key)) {
+        serviceTimeMicros = Long.parseLong(value);
+      } else if ("deadline_millis".equals(key)) {
+        deadlineMillis = Long.parseLong(value);
+      } else {
+        System.err.println("Unknown argument: " + key);
+        usage = true;
+        break;
+      }
+    }
+    if (usage) {
+      System.err.println(
+          "Usage: [ARGS...]"
+              + "\n"
+              + "\n  --target_qps=<qps>           Arrival rate. Default 8000"
+              + "\n  --duration=<seconds>         Duration of each run. Default 10"
+              + "\n  --server_threads=<n>         Size of the server executor. Default 4"
+              + "\n  --service_time_micros=<us>   Time a call occupies a server thread."
+              + " Default 1000"
+              + "\n  --deadline_millis=<ms>       Deadline of each call. Default 100");
+      System.exit(1);
+    }
+    OverloadBenchmark benchmark = new OverloadBenchmark(
+        targetQps, duration, serverThreads, serviceTimeMicros, deadlineMillis);
+    benchmark.run(null).print("No limiter");
+    benchmark.run(AdaptiveConcurrencyLimiter.newBuilder().build()).print("Adaptive limiter");
+  }
+
+  Result run(AdaptiveConcurrencyLimiter limiter) throws Exception {
+    String serverName = "overload-" + System.nanoTime();
+    ExecutorService workerExecutor = Executors.newFixedThreadPool(serverThreads);
+    ServerServiceDefinition service =
+        new SlowBenchmarkService(workerExecutor, serviceTimeNanos).bindService();
+    if (limiter != null) {
+      service = ServerInterceptors.intercept(service, limiter.newServerInterceptor());
+    }
+    Server server = InProcessServerBuilder.forName(serverName)
+        .directExecutor()
+        .addService(service)
+        .build()
+        .start();
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    try {
+      return generateLoad(BenchmarkServiceGrpc.newStub(channel));
+    } finally {
+      channel.shutdownNow();
+      server.shutdownNow();
+      workerExecutor.shutdownNow();
+      server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+
+  private Result generateLoad(BenchmarkServiceGrpc.BenchmarkServiceStub stub)
+      throws InterruptedException {
+    final Result result = new Result(durationSeconds);
+    SimpleRequest request = SimpleRequest.getDefaultInstance();
+    Random random = new Random();
+    long numRpcs = (long) targetQps * durationSeconds;
+    long nextRpc = System.nanoTime();
+    for (long i = 0; i < numRpcs; i++) {
+      long delay = nextRpc - System.nanoTime();
+      if (delay > 0) {
+        LockSupport.parkNanos(delay);
+      }
+      double seconds = -Math.log(Math.max(random.nextDouble(), Double.MIN_VALUE)) / targetQps;
+      nextRpc += Math.round(seconds * TimeUnit.SECONDS.toNanos(1));
+      final long start = System.nanoTime();
+      stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+          .unaryCall(request, new StreamObserver<SimpleResponse>() {
+            @Override
+            public void onNext(SimpleResponse value) {}
+
+            @Override
+            public void onError(Throwable t) {
+              Status.Code code = Status.fromThrowable(t).getCode();
+              if (code == Status.Code.RESOURCE_EXHAUSTED) {
+                result.rejected.incrementAndGet();
+              } else if (code == Status.Code.DEADLINE_EXCEEDED) {
+                result.deadlineExceeded.incrementAndGet();
+              } else {
+                result.otherErrors.incrementAndGet();
+              }
+            }
+
+            @Override
+            public void onCompleted() {
+              result.latencies.recordValue((System.nanoTime() - start) / 1000);
+            }
+          });
+    }
+    // Let outstanding calls finish or hit their deadline
+    Thread.sleep(2 * deadlineMillis);
+    return result;
+  }
+
+  static final class Result {
+    final int durationSeconds;
+    final Histogram latencies = new AtomicHistogram(HISTOGRAM_MAX_VALUE, HISTOGRAM_PRECISION);
+    final AtomicLong rejected = new AtomicLong();
+    final AtomicLong deadlineExceeded = new AtomicLong();
+    final AtomicLong otherErrors = new AtomicLong();
+
+    Result(int durationSeconds) {
+      this.durationSeconds = durationSeconds;
+    }
+
+    void print(String name) {
+      StringBuilder values = new StringBuilder();
+      values.append(name).append('\n')
+          .append("Goodput (QPS):                  ")
+          .append(latencies.getTotalCount() / durationSeconds).append('\n')
+          .append("Rejected:                       ").append(rejected.get()).append('\n')
+          .append("Deadline exceeded:              ").append(deadlineExceeded.get()).append('\n')
+          .append("Other errors:                   ").append(otherErrors.get()).append('\n')
+          .append("50%ile Latency (in micros):     ")
+          .append(latencies.getValueAtPercentile(50)).append('\n')
+          .append("99%ile Latency (in micros):     ")
+          .append(latencies.getValueAtPercentile(99)).append('\n');
+      System.out.println(values);
+    }
+  }
+
+  /** Unary service that occupies a worker thread for a fixed time per call. */
+  private static final class SlowBenchmarkService
+      extends BenchmarkServiceGrpc.BenchmarkServiceImplBase {
+    private final Executor workerExecutor;
+    private final long serviceTimeNanos;
+
+    SlowBenchmarkService(Executor workerExecutor, long serviceTimeNanos) {
+      this.workerExecutor = workerExecutor;
+      this.serviceTimeNanos = serviceTimeNanos;
+    }
+
+    @Override
+    public void unaryCall(
+        final SimpleRequest request, final StreamObserver<SimpleResponse> responseObserver) {
+      workerExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          long end = System.nanoTime() + serviceTimeNanos;
+          long remaining;
+          while ((remaining = end - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+          }
+          if (((ServerCallStreamObserver<SimpleResponse>) responseObserver).isCancelled()) {
+            return;
+          }
+          responseObserver.onNext(Utils.makeResponse(request));
+          responseObserver.onCompleted();
+        }
+      });
+    }
+  }
+}
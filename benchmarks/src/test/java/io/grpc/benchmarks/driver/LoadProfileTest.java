@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.grpc.benchmarks.driver;
+
+import static org.junit.Assert.assertEquals;
+
+import io.grpc.benchmarks.proto.Control;
+import io.grpc.benchmarks.proto.Control.OpenLoopParams.Arrival;
+import io.grpc.benchmarks.proto.Control.OpenLoopParams.Phase;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link LoadProfile}.
+ */
+@RunWith(JUnit4.class)
+public class LoadProfileTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void constantArrivalIsEvenlySpaced() {
+    LoadProfile profile = newProfile(Arrival.CONSTANT, phase(1, 100, 100));
+
+    long start = 0;
+    for (int i = 1; i <= 100; i++) {
+      start = profile.nextStart(start);
+      assertEquals(i * SECOND / 100, start);
+    }
+    // The load of the last phase is held after it
+    assertEquals(SECOND + SECOND / 100, profile.nextStart(start));
+  }
+
+  @Test
+  public void loadChangesLinearlyWithinPhase() {
+    LoadProfile profile =
+        newProfile(Arrival.CONSTANT, phase(1, 100, 200), phase(2, 0, 0), phase(1, 50, 50));
+
+    assertEquals(100, profile.loadAt(0), 0.0);
+    assertEquals(150, profile.loadAt(SECOND / 2), 0.0);
+    assertEquals(0, profile.loadAt(SECOND), 0.0);
+    assertEquals(50, profile.loadAt(3 * SECOND), 0.0);
+    assertEquals(50, profile.loadAt(10 * SECOND), 0.0);
+  }
+
+  @Test
+  public void rampFromZeroLoad() {
+    LoadProfile profile = newProfile(Arrival.CONSTANT, phase(2, 0, 200));
+
+    // 200 RPCs are expected over the ramp, 50 of them in the first second. The gaps are rounded to
+    // nanoseconds, so the 50th start may land just after the first second.
+    assertEquals(200, countStarts(profile, 2 * SECOND));
+    assertEquals(50, countStarts(profile, SECOND), 1);
+  }
+
+  @Test
+  public void idlePhasesAreSkipped() {
+    LoadProfile profile =
+        newProfile(Arrival.CONSTANT, phase(1, 10, 10), phase(5, 0, 0), phase(1, 10, 10));
+
+    assertEquals(20, countStarts(profile, 7 * SECOND));
+    assertEquals(6 * SECOND + SECOND / 10, profile.nextStart(SECOND));
+  }
+
+  @Test
+  public void noMoreStartsAfterFinalIdlePhase() {
+    LoadProfile profile = newProfile(Arrival.CONSTANT, phase(1, 10, 10), phase(1, 0, 0));
+
+    assertEquals(Long.MAX_VALUE, profile.nextStart(SECOND));
+  }
+
+  @Test
+  public void poissonArrivalAveragesOfferedLoad() {
+    LoadProfile profile = newProfile(Arrival.POISSON, phase(100, 1000, 1000));
+
+    long starts = countStarts(profile, 100 * SECOND);
+    assertEquals(100000, starts, 1500);
+  }
+
+  private static long countStarts(LoadProfile profile, long until) {
+    long count = 0;
+    long start = profile.nextStart(0);
+    while (start <= until) {
+      count++;
+      start = profile.nextStart(start);
+    }
+    return count;
+  }
+
+  private static LoadProfile newProfile(Arrival arrival, Phase... phases) {
+    Control.OpenLoopParams.Builder params = Control.OpenLoopParams.newBuilder()
+        .setArrival(arrival);
+    for (Phase phase : phases) {
+      params.addPhases(phase);
+    }
+    return new LoadProfile(params.build(), new Random(1234));
+  }
+
+  private static Phase phase(double duration, double startLoad, double endLoad) {
+    return Phase.newBuilder()
+        .setDuration(duration)
+        .setStartLoad(startLoad)
+        .setEndLoad(endLoad)
+        .build();
+  }
+}
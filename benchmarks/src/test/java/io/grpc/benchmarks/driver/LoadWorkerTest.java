@@ -16,10 +16,12 @@
 
 package io.grpc.benchmarks.driver;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import io.grpc.ManagedChannel;
+import io.grpc.Status;
 import io.grpc.benchmarks.Utils;
 import io.grpc.benchmarks.proto.Control;
 import io.grpc.benchmarks.proto.Stats;
@@ -177,7 +179,50 @@ public class LoadWorkerTest {
     assertWorkOccurred(clientObserver);
   }
 
-  private void assertWorkOccurred(StreamObserver<Control.ClientArgs> clientObserver)
+  @Test
+  public void runMixedAsyncOpenLoop() throws Exception {
+    Control.ServerArgs.Builder serverArgsBuilder = Control.ServerArgs.newBuilder();
+    serverArgsBuilder.getSetupBuilder()
+        .setServerType(Control.ServerType.ASYNC_SERVER)
+        .setAsyncServerThreads(4)
+        .setPort(0)
+        .getPayloadConfigBuilder().getSimpleParamsBuilder().setRespSize(1000);
+    int serverPort = startServer(serverArgsBuilder.build());
+
+    Control.ClientArgs.Builder clientArgsBuilder = Control.ClientArgs.newBuilder();
+    String serverAddress = "localhost:" + serverPort;
+    clientArgsBuilder.getSetupBuilder()
+        .setClientType(Control.ClientType.ASYNC_CLIENT)
+        .setClientChannels(2)
+        .setRpcType(Control.RpcType.UNARY)
+        .setMessagesPerStream(2)
+        .addServerTargets(serverAddress);
+    clientArgsBuilder.getSetupBuilder().getLoadParamsBuilder().getOpenLoopBuilder()
+        .setArrival(Control.OpenLoopParams.Arrival.POISSON)
+        .addPhases(Control.OpenLoopParams.Phase.newBuilder()
+            .setDuration(0.2)
+            .setStartLoad(0)
+            .setEndLoad(1000))
+        .addRpcMix(Control.OpenLoopParams.RpcMix.newBuilder()
+            .setRpcType(Control.RpcType.UNARY)
+            .setWeight(3))
+        .addRpcMix(Control.OpenLoopParams.RpcMix.newBuilder()
+            .setRpcType(Control.RpcType.STREAMING)
+            .setWeight(1));
+    clientArgsBuilder.getSetupBuilder().getPayloadConfigBuilder().getSimpleParamsBuilder()
+        .setReqSize(1000)
+        .setRespSize(1000);
+    clientArgsBuilder.getSetupBuilder().getHistogramParamsBuilder()
+        .setResolution(0.01)
+        .setMaxPossible(60000000000.0);
+    StreamObserver<Control.ClientArgs> clientObserver = startClient(clientArgsBuilder.build());
+    Stats.ClientStats stat = assertWorkOccurred(clientObserver);
+    assertTrue(stat.getUncorrectedLatencies().getCount() > 0);
+    assertEquals(Status.Code.OK.value(), stat.getRequestResults(0).getStatusCode());
+  }
+
+  private Stats.ClientStats assertWorkOccurred(
+      StreamObserver<Control.ClientArgs> clientObserver)
       throws InterruptedException {
 
     Stats.ClientStats stat = null;
@@ -200,6 +245,7 @@ public class LoadWorkerTest {
     System.out.println("Mean " + mean + " us");
     assertTrue(mean > stat.getLatencies().getMinSeen());
     assertTrue(mean < stat.getLatencies().getMaxSeen());
+    return stat;
   }
 
   private StreamObserver<Control.ClientArgs> startClient(Control.ClientArgs clientArgs)
@@ -86,7 +86,19 @@ final class CensusTracingModule {
     streamClosedUpdater = tmpStreamClosedUpdater;
   }
 
+  /**
+   * Whether spans that the sampler did not sample still record events, so that they can show up in
+   * the local span store (z-pages). Setting this to {@code false} puts unsampled calls on a fast
+   * path that only propagates the span context and skips recording message events and end status.
+   * This is only the default; {@link InternalCensusTracingAccessor} can set it per module.
+   */
+  private static final boolean DEFAULT_RECORD_UNSAMPLED_EVENTS = Boolean.parseBoolean(
+      System.getProperty("io.grpc.census.CensusTracingModule.recordUnsampledEvents", "true"));
+
+  private static final ClientStreamTracer NOOP_CLIENT_TRACER = new ClientStreamTracer() {};
+
   private final Tracer censusTracer;
+  private final boolean recordUnsampledEvents;
   @VisibleForTesting
   final Metadata.Key<SpanContext> tracingHeader;
   private final TracingClientInterceptor clientInterceptor = new TracingClientInterceptor();
@@ -94,7 +106,14 @@ final class CensusTracingModule {
 
   CensusTracingModule(
       Tracer censusTracer, final BinaryFormat censusPropagationBinaryFormat) {
+    this(censusTracer, censusPropagationBinaryFormat, DEFAULT_RECORD_UNSAMPLED_EVENTS);
+  }
+
+  CensusTracingModule(
+      Tracer censusTracer, final BinaryFormat censusPropagationBinaryFormat,
+      boolean recordUnsampledEvents) {
     this.censusTracer = checkNotNull(censusTracer, "censusTracer");
+    this.recordUnsampledEvents = recordUnsampledEvents;
     checkNotNull(censusPropagationBinaryFormat, "censusPropagationBinaryFormat");
     this.tracingHeader =
         Metadata.Key.of("grpc-trace-bin", new Metadata.BinaryMarshaller<SpanContext>() {
@@ -222,12 +241,21 @@ final class CensusTracingModule {
     span.addMessageEvent(eventBuilder.build());
   }
 
+  /**
+   * Returns whether events should be recorded to the span. Always {@code true} unless unsampled
+   * events are turned off, in which case only sampled spans record events.
+   */
+  private boolean shouldRecordEvents(Span span) {
+    return recordUnsampledEvents || span.getOptions().contains(Span.Options.RECORD_EVENTS);
+  }
+
   @VisibleForTesting
   final class ClientCallTracer extends ClientStreamTracer.Factory {
     volatile int callEnded;
 
     private final boolean isSampledToLocalTracing;
     private final Span span;
+    private final boolean recordEvents;
 
     ClientCallTracer(@Nullable Span parentSpan, MethodDescriptor<?, ?> method) {
       checkNotNull(method, "method");
@@ -237,8 +265,9 @@ final class CensusTracingModule {
               .spanBuilderWithExplicitParent(
                   generateTraceSpanName(false, method.getFullMethodName()),
                   parentSpan)
-              .setRecordEvents(true)
+              .setRecordEvents(recordUnsampledEvents)
               .startSpan();
+      this.recordEvents = shouldRecordEvents(span);
     }
 
     @Override
@@ -248,6 +277,9 @@ final class CensusTracingModule {
         headers.discardAll(tracingHeader);
         headers.put(tracingHeader, span.getContext());
       }
+      if (!recordEvents) {
+        return NOOP_CLIENT_TRACER;
+      }
       return new ClientTracer(span);
     }
 
@@ -268,6 +300,10 @@ final class CensusTracingModule {
         }
         callEnded = 1;
       }
+      if (!recordEvents) {
+        span.end();
+        return;
+      }
       span.end(createEndSpanOptions(status, isSampledToLocalTracing));
     }
   }
@@ -297,6 +333,7 @@ final class CensusTracingModule {
 
   private final class ServerTracer extends ServerStreamTracer {
     private final Span span;
+    private final boolean recordEvents;
     volatile boolean isSampledToLocalTracing;
     volatile int streamClosed;
 
@@ -307,8 +344,9 @@ final class CensusTracingModule {
               .spanBuilderWithRemoteParent(
                   generateTraceSpanName(true, fullMethodName),
                   remoteSpan)
-              .setRecordEvents(true)
+              .setRecordEvents(recordUnsampledEvents)
               .startSpan();
+      this.recordEvents = shouldRecordEvents(span);
     }
 
     @Override
@@ -334,6 +372,10 @@ final class CensusTracingModule {
         }
         streamClosed = 1;
       }
+      if (!recordEvents) {
+        span.end();
+        return;
+      }
       span.end(createEndSpanOptions(status, isSampledToLocalTracing));
     }
 
@@ -348,15 +390,19 @@ final class CensusTracingModule {
     @Override
     public void outboundMessageSent(
         int seqNo, long optionalWireSize, long optionalUncompressedSize) {
-      recordMessageEvent(
-          span, Type.SENT, seqNo, optionalWireSize, optionalUncompressedSize);
+      if (recordEvents) {
+        recordMessageEvent(
+            span, Type.SENT, seqNo, optionalWireSize, optionalUncompressedSize);
+      }
     }
 
     @Override
     public void inboundMessageRead(
         int seqNo, long optionalWireSize, long optionalUncompressedSize) {
-      recordMessageEvent(
-          span, Type.RECEIVED, seqNo, optionalWireSize, optionalUncompressedSize);
+      if (recordEvents) {
+        recordMessageEvent(
+            span, Type.RECEIVED, seqNo, optionalWireSize, optionalUncompressedSize);
+      }
     }
   }
 
@@ -19,7 +19,9 @@ package io.grpc.census;
 import io.grpc.ClientInterceptor;
 import io.grpc.Internal;
 import io.grpc.ServerStreamTracer;
+import io.opencensus.trace.Tracer;
 import io.opencensus.trace.Tracing;
+import io.opencensus.trace.propagation.BinaryFormat;
 
 /**
  * Accessor for getting {@link ClientInterceptor} or {@link ServerStreamTracer.Factory} with
@@ -43,6 +45,29 @@ public final class InternalCensusTracingAccessor {
     return censusTracing.getClientInterceptor();
   }
 
+  /**
+   * Returns a {@link ClientInterceptor} with default tracing implementation, that records events
+   * of unsampled spans only if {@code recordUnsampledEvents} is {@code true}.
+   */
+  public static ClientInterceptor getClientInterceptor(boolean recordUnsampledEvents) {
+    return getClientInterceptor(
+        Tracing.getTracer(),
+        Tracing.getPropagationComponent().getBinaryFormat(),
+        recordUnsampledEvents);
+  }
+
+  /**
+   * Returns a {@link ClientInterceptor} with custom tracing implementation.
+   */
+  public static ClientInterceptor getClientInterceptor(
+      Tracer tracer,
+      BinaryFormat binaryFormat,
+      boolean recordUnsampledEvents) {
+    CensusTracingModule censusTracing =
+        new CensusTracingModule(tracer, binaryFormat, recordUnsampledEvents);
+    return censusTracing.getClientInterceptor();
+  }
+
   /**
    * Returns a {@link ServerStreamTracer.Factory} with default stats implementation.
    */
@@ -53,4 +78,28 @@ public final class InternalCensusTracingAccessor {
             Tracing.getPropagationComponent().getBinaryFormat());
     return censusTracing.getServerTracerFactory();
   }
+
+  /**
+   * Returns a {@link ServerStreamTracer.Factory} with default tracing implementation, that records
+   * events of unsampled spans only if {@code recordUnsampledEvents} is {@code true}.
+   */
+  public static ServerStreamTracer.Factory getServerStreamTracerFactory(
+      boolean recordUnsampledEvents) {
+    return getServerStreamTracerFactory(
+        Tracing.getTracer(),
+        Tracing.getPropagationComponent().getBinaryFormat(),
+        recordUnsampledEvents);
+  }
+
+  /**
+   * Returns a {@link ServerStreamTracer.Factory} with custom tracing implementation.
+   */
+  public static ServerStreamTracer.Factory getServerStreamTracerFactory(
+      Tracer tracer,
+      BinaryFormat binaryFormat,
+      boolean recordUnsampledEvents) {
+    CensusTracingModule censusTracing =
+        new CensusTracingModule(tracer, binaryFormat, recordUnsampledEvents);
+    return censusTracing.getServerTracerFactory();
+  }
 }
@@ -825,6 +825,68 @@ public class CensusModulesTest {
     assertSame(spyServerSpan, ContextUtils.getValue(filteredContext));
   }
 
+  @Test
+  public void clientTracingUnsampledFastPath() {
+    CensusTracingModule tracingModule =
+        new CensusTracingModule(tracer, mockTracingPropagationHandler, false);
+    CensusTracingModule.ClientCallTracer callTracer =
+        tracingModule.newClientCallTracer(fakeClientParentSpan, sampledMethod);
+    Metadata headers = new Metadata();
+    ClientStreamTracer clientStreamTracer = callTracer.newClientStreamTracer(STREAM_INFO, headers);
+    verify(tracer).spanBuilderWithExplicitParent(
+        eq("Sent.package1.service2.method3"), same(fakeClientParentSpan));
+    verify(spyClientSpanBuilder).setRecordEvents(eq(false));
+    // The span context is still propagated so that downstream spans join the same trace
+    assertSame(fakeClientSpanContext, headers.get(tracingModule.tracingHeader));
+
+    clientStreamTracer.outboundMessageSent(0, 882, -1);
+    clientStreamTracer.inboundMessageRead(0, 255, 90);
+    clientStreamTracer.streamClosed(Status.OK);
+    callTracer.callEnded(Status.OK);
+
+    verify(spyClientSpan, never()).addMessageEvent(any(MessageEvent.class));
+    verify(spyClientSpan).end(EndSpanOptions.DEFAULT);
+    verifyNoMoreInteractions(spyClientSpan);
+  }
+
+  @Test
+  public void serverTracingUnsampledFastPath() {
+    CensusTracingModule tracingModule =
+        new CensusTracingModule(tracer, mockTracingPropagationHandler, false);
+    ServerStreamTracer serverStreamTracer =
+        tracingModule.getServerTracerFactory().newServerStreamTracer(
+            sampledMethod.getFullMethodName(), new Metadata());
+    verify(tracer).spanBuilderWithRemoteParent(
+        eq("Recv.package1.service2.method3"), ArgumentMatchers.<SpanContext>isNull());
+    verify(spyServerSpanBuilder).setRecordEvents(eq(false));
+    serverStreamTracer.serverCallStarted(
+        new CallInfo<>(sampledMethod, Attributes.EMPTY, null));
+
+    serverStreamTracer.outboundMessageSent(0, 882, -1);
+    serverStreamTracer.inboundMessageRead(0, 255, 90);
+    serverStreamTracer.streamClosed(Status.CANCELLED);
+
+    verify(spyServerSpan, never()).addMessageEvent(any(MessageEvent.class));
+    verify(spyServerSpan).end(EndSpanOptions.DEFAULT);
+    verifyNoMoreInteractions(spyServerSpan);
+  }
+
+  @Test
+  public void tracingAccessorPassesRecordUnsampledEvents() {
+    Channel interceptedChannel =
+        ClientInterceptors.intercept(
+            grpcServerRule.getChannel(),
+            InternalCensusTracingAccessor.getClientInterceptor(
+                tracer, mockTracingPropagationHandler, false));
+    interceptedChannel.newCall(method, CALL_OPTIONS);
+    verify(spyClientSpanBuilder).setRecordEvents(eq(false));
+
+    InternalCensusTracingAccessor
+        .getServerStreamTracerFactory(tracer, mockTracingPropagationHandler, false)
+        .newServerStreamTracer(method.getFullMethodName(), new Metadata());
+    verify(spyServerSpanBuilder).setRecordEvents(eq(false));
+  }
+
   @Test
   public void traceHeaders_propagateSpanContext() throws Exception {
     CensusTracingModule.ClientCallTracer callTracer =
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.grpc.inprocess;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Unary RPCs over the in-process transport with a marshaller that serializes and parses every
+ * message, compared to the same marshaller marked as a {@link
+ * MethodDescriptor.ImmutableMessageMarshaller} so that messages are passed by reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InProcessMessagePassingBenchmark {
+
+  @Param({"16", "1024", "65536"})
+  public int messageSize;
+
+  @Param({"false", "true"})
+  public boolean byReference;
+
+  private Server server;
+  private ManagedChannel channel;
+  private MethodDescriptor<String, String> method;
+  private String message;
+
+  @Setup
+  public void setUp() throws Exception {
+    StringMarshaller marshaller =
+        byReference ? new ImmutableStringMarshaller() : new StringMarshaller();
+    method = MethodDescriptor.<String, String>newBuilder()
+        .setType(MethodDescriptor.MethodType.UNARY)
+        .setFullMethodName("benchmark/echo")
+        .setRequestMarshaller(marshaller)
+        .setResponseMarshaller(marshaller)
+        .build();
+    message = Strings.repeat("a", messageSize);
+    String name = "bench" + Math.random();
+    server = InProcessServerBuilder.forName(name)
+        .directExecutor()
+        .addService(ServerServiceDefinition.builder("benchmark")
+            .addMethod(method, ServerCalls.asyncUnaryCall(
+                new ServerCalls.UnaryMethod<String, String>() {
+                  @Override
+                  public void invoke(String request, StreamObserver<String> responseObserver) {
+                    responseObserver.onNext(request);
+                    responseObserver.onCompleted();
+                  }
+                }))
+            .build())
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    channel.shutdownNow();
+    server.shutdownNow();
+    channel.awaitTermination(1, TimeUnit.SECONDS);
+    server.awaitTermination(1, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public String unaryCall() {
+    return ClientCalls.blockingUnaryCall(channel, method, CallOptions.DEFAULT, message);
+  }
+
+  private static class StringMarshaller implements MethodDescriptor.Marshaller<String> {
+    @Override
+    public InputStream stream(String value) {
+      return new ByteArrayInputStream(value.getBytes(UTF_8));
+    }
+
+    @Override
+    public String parse(InputStream stream) {
+      try {
+        return new String(ByteStreams.toByteArray(stream), UTF_8);
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
+    }
+  }
+
+  private static final class ImmutableStringMarshaller extends StringMarshaller
+      implements MethodDescriptor.ImmutableMessageMarshaller<String> {}
+}
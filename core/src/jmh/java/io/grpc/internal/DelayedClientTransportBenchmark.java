@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.InternalChannelz.SocketStats;
+import io.grpc.InternalLogId;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.testing.TestMethodDescriptors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Time for {@link DelayedClientTransport#reprocess} to hand all buffered streams to a ready
+ * transport, by number of buffered streams.
+ */
+@State(Scope.Thread)
+public class DelayedClientTransportBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  public int pendingStreams;
+
+  private final MethodDescriptor<Void, Void> method = MethodDescriptor.<Void, Void>newBuilder()
+      .setType(MethodDescriptor.MethodType.UNARY)
+      .setFullMethodName("service/method")
+      .setRequestMarshaller(TestMethodDescriptors.voidMarshaller())
+      .setResponseMarshaller(TestMethodDescriptors.voidMarshaller())
+      .build();
+  private final SynchronizationContext syncContext = new SynchronizationContext(
+      new Thread.UncaughtExceptionHandler() {
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+          throw new AssertionError(e);
+        }
+      });
+  private final SubchannelPicker picker = new SubchannelPicker() {
+    private final PickResult result = PickResult.withSubchannel(new ReadySubchannel());
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      return result;
+    }
+  };
+  private DelayedClientTransport transport;
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    transport = new DelayedClientTransport(MoreExecutors.directExecutor(), syncContext);
+    transport.start(new ManagedClientTransport.Listener() {
+      @Override
+      public void transportShutdown(Status s) {}
+
+      @Override
+      public void transportTerminated() {}
+
+      @Override
+      public void transportReady() {}
+
+      @Override
+      public void transportInUse(boolean inUse) {}
+    });
+    for (int i = 0; i < pendingStreams; i++) {
+      transport.newStream(method, new Metadata(), CallOptions.DEFAULT);
+    }
+  }
+
+  /** Picks a transport for every buffered stream and starts it. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public boolean reprocess() {
+    transport.reprocess(picker);
+    return transport.hasPendingStreams();
+  }
+
+  private static final class ReadySubchannel extends Subchannel {
+    private final TransportProvider transportProvider = new TransportProvider() {
+      private final ClientTransport transport = new NoopTransport();
+
+      @Override
+      public ClientTransport obtainActiveTransport() {
+        return transport;
+      }
+    };
+
+    @Override
+    public void shutdown() {}
+
+    @Override
+    public void requestConnection() {}
+
+    @Override
+    public Attributes getAttributes() {
+      return Attributes.EMPTY;
+    }
+
+    @Override
+    public Object getInternalSubchannel() {
+      return transportProvider;
+    }
+  }
+
+  private static final class NoopTransport implements ClientTransport {
+    private final InternalLogId logId = InternalLogId.allocate(NoopTransport.class, null);
+
+    @Override
+    public ClientStream newStream(
+        MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions) {
+      return NoopClientStream.INSTANCE;
+    }
+
+    @Override
+    public void ping(PingCallback callback, Executor executor) {}
+
+    @Override
+    public InternalLogId getLogId() {
+      return logId;
+    }
+
+    @Override
+    public ListenableFuture<SocketStats> getStats() {
+      return Futures.immediateFuture(null);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.testing.TestMethodDescriptors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for {@link InternalHandlerRegistry}, looking up methods from request paths the way
+ * a transport receives them.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class InternalHandlerRegistryBenchmark {
+
+  private static final String VALID_CHARACTERS =
+          "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789.";
+
+  @Param({"50"})
+  public int nameLength;
+
+  @Param({"100"})
+  public int serviceCount;
+
+  @Param({"100"})
+  public int methodCountPerService;
+
+  private InternalHandlerRegistry registry;
+  private List<byte[]> paths;
+
+  /**
+   * Set up the registry.
+   */
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    InternalHandlerRegistry.Builder builder = new InternalHandlerRegistry.Builder();
+    paths = new ArrayList<>(serviceCount * methodCountPerService);
+    for (int serviceIndex = 0; serviceIndex < serviceCount; ++serviceIndex) {
+      String serviceName = randomString();
+      ServerServiceDefinition.Builder serviceBuilder = ServerServiceDefinition.builder(serviceName);
+      for (int methodIndex = 0; methodIndex < methodCountPerService; ++methodIndex) {
+        String methodName = randomString();
+
+        MethodDescriptor<Void, Void> methodDescriptor = MethodDescriptor.<Void, Void>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNKNOWN)
+            .setFullMethodName(MethodDescriptor.generateFullMethodName(serviceName, methodName))
+            .setRequestMarshaller(TestMethodDescriptors.voidMarshaller())
+            .setResponseMarshaller(TestMethodDescriptors.voidMarshaller())
+            .build();
+        serviceBuilder.addMethod(methodDescriptor,
+            new ServerCallHandler<Void, Void>() {
+              @Override
+              public Listener<Void> startCall(ServerCall<Void, Void> call,
+                  Metadata headers) {
+                return null;
+              }
+            });
+        paths.add(("/" + methodDescriptor.getFullMethodName()).getBytes(UTF_8));
+      }
+      builder.addService(serviceBuilder.build());
+    }
+    registry = builder.build();
+  }
+
+  /**
+   * Decodes each path into a {@code String} before looking it up, as transports do without the
+   * method table.
+   */
+  @Benchmark
+  public void lookupMethodByString(Blackhole bh) {
+    for (byte[] path : paths) {
+      bh.consume(registry.lookupMethod(new String(path, 1, path.length - 1, UTF_8)));
+    }
+  }
+
+  /**
+   * Looks up each path's bytes in the method table.
+   */
+  @Benchmark
+  public void lookupMethodByBytes(Blackhole bh) {
+    for (byte[] path : paths) {
+      bh.consume(registry.lookupMethod(path, 1, path.length - 1));
+    }
+  }
+
+  private String randomString() {
+    Random r = new Random();
+    char[] bytes = new char[nameLength];
+    for (int ix = 0; ix < nameLength; ++ix) {
+      int charIx = r.nextInt(VALID_CHARACTERS.length());
+      bytes[ix] = VALID_CHARACTERS.charAt(charIx);
+    }
+    return new String(bytes);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of scheduling and cancelling a timer, the common case for call deadlines, while a
+ * number of other long timers are outstanding.
+ */
+@State(Scope.Benchmark)
+public class TimerWheelBenchmark {
+
+  @Param({"wheel", "threadPool"})
+  public String timer;
+
+  @Param({"0", "100000"})
+  public int outstandingTimers;
+
+  private ScheduledExecutorService executor;
+  private final List<ScheduledFuture<?>> outstanding = new ArrayList<>();
+
+  private final Runnable noop = new Runnable() {
+    @Override
+    public void run() {}
+  };
+
+  @Setup
+  public void setUp() {
+    if ("wheel".equals(timer)) {
+      executor = new TimerWheel(
+          GrpcUtil.getThreadFactory("timer-wheel-benchmark-%d", true),
+          TimerWheel.DEFAULT_TICK_NANOS);
+    } else {
+      ScheduledThreadPoolExecutor threadPool = new ScheduledThreadPoolExecutor(
+          1, GrpcUtil.getThreadFactory("timer-benchmark-%d", true));
+      threadPool.setRemoveOnCancelPolicy(true);
+      executor = threadPool;
+    }
+    for (int i = 0; i < outstandingTimers; i++) {
+      outstanding.add(executor.schedule(noop, 1000 + i % 1000, TimeUnit.SECONDS));
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    for (ScheduledFuture<?> future : outstanding) {
+      future.cancel(false);
+    }
+    executor.shutdownNow();
+    if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+      throw new RuntimeException("executor failed to shut down in a timely fashion");
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Threads(4)
+  public boolean scheduleAndCancel() {
+    return executor.schedule(noop, 30, TimeUnit.SECONDS).cancel(false);
+  }
+}
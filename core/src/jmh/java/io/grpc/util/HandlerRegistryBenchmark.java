@@ -56,6 +56,7 @@ public class HandlerRegistryBenchmark {
 
   private MutableHandlerRegistry registry;
   private List<String> fullMethodNames;
+  private ServerServiceDefinition extraService;
 
   /**
    * Set up the registry.
@@ -88,6 +89,7 @@ public class HandlerRegistryBenchmark {
       }
       registry.addService(serviceBuilder.build());
     }
+    extraService = ServerServiceDefinition.builder(randomString()).build();
   }
 
   /**
@@ -100,6 +102,16 @@ public class HandlerRegistryBenchmark {
     }
   }
 
+  /**
+   * Benchmark registering and then removing a service, as done for services that are swapped at
+   * runtime.
+   */
+  @Benchmark
+  public boolean addAndRemoveService() {
+    registry.addService(extraService);
+    return registry.removeService(extraService);
+  }
+
   private String randomString() {
     Random r = new Random();
     char[] bytes = new char[nameLength];
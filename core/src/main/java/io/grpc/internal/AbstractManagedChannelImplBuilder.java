@@ -98,6 +98,7 @@ public abstract class AbstractManagedChannelImplBuilder
 
   private static final long DEFAULT_RETRY_BUFFER_SIZE_IN_BYTES = 1L << 24;  // 16M
   private static final long DEFAULT_PER_RPC_BUFFER_LIMIT_IN_BYTES = 1L << 20; // 1M
+  private static final int DEFAULT_STREAMS_PER_CONNECTION = 100;
 
   ObjectPool<? extends Executor> executorPool = DEFAULT_EXECUTOR_POOL;
 
@@ -135,6 +136,9 @@ public abstract class AbstractManagedChannelImplBuilder
   int maxHedgedAttempts = 5;
   long retryBufferSize = DEFAULT_RETRY_BUFFER_SIZE_IN_BYTES;
   long perRpcBufferLimit = DEFAULT_PER_RPC_BUFFER_LIMIT_IN_BYTES;
+  int maxConnectionsPerSubchannel = 1;
+  int streamsPerConnection = DEFAULT_STREAMS_PER_CONNECTION;
+  boolean connectEagerly;
   boolean retryEnabled = false; // TODO(zdapeng): default to true
   // Temporarily disable retry when stats or tracing is enabled to avoid breakage, until we know
   // what should be the desired behavior for retry + stats/tracing.
@@ -344,6 +348,21 @@ public abstract class AbstractManagedChannelImplBuilder
     return thisT();
   }
 
+  @Override
+  public final T maxConnectionsPerSubchannel(int maxConnections, int streamsPerConnection) {
+    checkArgument(maxConnections > 0, "maxConnections must be positive");
+    checkArgument(streamsPerConnection > 0, "streamsPerConnection must be positive");
+    this.maxConnectionsPerSubchannel = maxConnections;
+    this.streamsPerConnection = streamsPerConnection;
+    return thisT();
+  }
+
+  @Override
+  public final T connectEagerly() {
+    connectEagerly = true;
+    return thisT();
+  }
+
   @Override
   public final T disableRetry() {
     retryEnabled = false;
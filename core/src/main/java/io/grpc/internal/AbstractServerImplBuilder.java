@@ -82,6 +82,8 @@ public abstract class AbstractServerImplBuilder<T extends AbstractServerImplBuil
   DecompressorRegistry decompressorRegistry = DEFAULT_DECOMPRESSOR_REGISTRY;
   CompressorRegistry compressorRegistry = DEFAULT_COMPRESSOR_REGISTRY;
   long handshakeTimeoutMillis = DEFAULT_HANDSHAKE_TIMEOUT_MILLIS;
+  boolean deadlineOrderedExecution;
+  boolean transportThreadExecution;
   Deadline.Ticker ticker = Deadline.getSystemTicker();
   private boolean statsEnabled = true;
   private boolean recordStartedRpcs = true;
@@ -158,6 +160,12 @@ public abstract class AbstractServerImplBuilder<T extends AbstractServerImplBuil
     return thisT();
   }
 
+  @Override
+  public final T deadlineOrderedExecution(boolean enable) {
+    this.deadlineOrderedExecution = enable;
+    return thisT();
+  }
+
   @Override
   public final T setBinaryLog(@Nullable BinaryLog binaryLog) {
     this.binlog = binaryLog;
@@ -208,6 +216,16 @@ public abstract class AbstractServerImplBuilder<T extends AbstractServerImplBuil
     tracingEnabled = value;
   }
 
+  /**
+   * Runs calls on {@link ServerTransport#getScheduledExecutorService()} of their transport instead
+   * of on the server's executor.  Only transports whose executor is a single thread serving just
+   * that transport's connection, such as a Netty event loop, should enable it.  Disabled by
+   * default.
+   */
+  protected void setTransportThreadExecution(boolean value) {
+    this.transportThreadExecution = value;
+  }
+
   /**
    * Sets a custom deadline ticker.  This should only be called from InProcessServerBuilder.
    */
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientStreamTracer;
+import io.grpc.StreamTracer;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Reports the phases of a client call that are timed outside of its stream, such as the load
+ * balancer pick, to the tracers of the call's latest stream.
+ *
+ * <p>The channel puts one in the {@link CallOptions} of calls that have phase timing enabled, see
+ * {@link #enableIfRequested}, and {@link StatsTraceContext#newClientContext} registers each stream
+ * created for the call with it. Phases completed before the first stream is created are dropped,
+ * so they should be reported once the stream exists.
+ */
+final class CallPhaseRecorder {
+  static final CallOptions.Key<CallPhaseRecorder> KEY =
+      CallOptions.Key.create("io.grpc.internal.CallPhaseRecorder");
+
+  @Nullable
+  private volatile StatsTraceContext streamContext;
+
+  /**
+   * Returns the recorder of the call, or {@code null} if the call does not have phase timing
+   * enabled.
+   */
+  @Nullable
+  static CallPhaseRecorder get(CallOptions callOptions) {
+    return callOptions.getOption(KEY);
+  }
+
+  /**
+   * Returns {@code callOptions} with a new recorder if any of its stream tracer factories enabled
+   * phase timing, and otherwise {@code callOptions} itself.
+   */
+  static CallOptions enableIfRequested(CallOptions callOptions) {
+    List<ClientStreamTracer.Factory> factories = callOptions.getStreamTracerFactories();
+    for (int i = 0; i < factories.size(); i++) {
+      if (factories.get(i).isPhaseTimingEnabled()) {
+        return callOptions.withOption(KEY, new CallPhaseRecorder());
+      }
+    }
+    return callOptions;
+  }
+
+  void streamCreated(StatsTraceContext streamContext) {
+    this.streamContext = streamContext;
+  }
+
+  void phaseCompleted(StreamTracer.Phase phase, long durationNanos) {
+    StatsTraceContext ctx = streamContext;
+    if (ctx != null) {
+      ctx.phaseCompleted(phase, durationNanos);
+    }
+  }
+}
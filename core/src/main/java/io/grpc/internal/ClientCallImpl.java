@@ -45,6 +45,7 @@ import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.MethodDescriptor.MethodType;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.perfmark.Link;
 import io.perfmark.PerfMark;
 import io.perfmark.Tag;
@@ -83,6 +84,8 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
   private final Context context;
   private final boolean unaryRequest;
   private final CallOptions callOptions;
+  @Nullable
+  private final CallPhaseRecorder phaseRecorder;
   private ClientStream stream;
   private volatile boolean cancelListenersShouldBeRemoved;
   private boolean cancelCalled;
@@ -121,6 +124,7 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
     this.unaryRequest = method.getType() == MethodType.UNARY
         || method.getType() == MethodType.SERVER_STREAMING;
     this.callOptions = callOptions;
+    this.phaseRecorder = CallPhaseRecorder.get(callOptions);
     this.clientStreamProvider = clientStreamProvider;
     this.deadlineCancellationExecutor = deadlineCancellationExecutor;
     PerfMark.event("ClientCall.<init>", tag);
@@ -584,6 +588,8 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
       final Link link = PerfMark.linkOut();
 
       final class HeadersRead extends ContextRunnable {
+        final long enqueuedNanos = phaseRecorder != null ? System.nanoTime() : 0;
+
         HeadersRead() {
           super(context);
         }
@@ -592,6 +598,7 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
         public void runInContext() {
           PerfMark.startTask("ClientCall$Listener.headersRead", tag);
           PerfMark.linkIn(link);
+          recordExecutorQueuePhase(enqueuedNanos);
           try {
             runInternal();
           } finally {
@@ -625,6 +632,8 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
       final Link link = PerfMark.linkOut();
 
       final class MessagesAvailable extends ContextRunnable {
+        final long enqueuedNanos = phaseRecorder != null ? System.nanoTime() : 0;
+
         MessagesAvailable() {
           super(context);
         }
@@ -633,6 +642,7 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
         public void runInContext() {
           PerfMark.startTask("ClientCall$Listener.messagesAvailable", tag);
           PerfMark.linkIn(link);
+          recordExecutorQueuePhase(enqueuedNanos);
           try {
             runInternal();
           } finally {
@@ -649,7 +659,7 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
             InputStream message;
             while ((message = producer.next()) != null) {
               try {
-                observer.onMessage(method.parseResponse(message));
+                observer.onMessage(parseResponse(message));
               } catch (Throwable t) {
                 GrpcUtil.closeQuietly(message);
                 throw t;
@@ -671,6 +681,24 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
       }
     }
 
+    private void recordExecutorQueuePhase(long enqueuedNanos) {
+      if (phaseRecorder != null) {
+        phaseRecorder.phaseCompleted(
+            StreamTracer.Phase.EXECUTOR_QUEUE, System.nanoTime() - enqueuedNanos);
+      }
+    }
+
+    private RespT parseResponse(InputStream message) {
+      if (phaseRecorder == null) {
+        return method.parseResponse(message);
+      }
+      long startNanos = System.nanoTime();
+      RespT response = method.parseResponse(message);
+      phaseRecorder.phaseCompleted(
+          StreamTracer.Phase.DESERIALIZATION, System.nanoTime() - startNanos);
+      return response;
+    }
+
     @Override
     public void closed(Status status, Metadata trailers) {
       closed(status, RpcProgress.PROCESSED, trailers);
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.grpc.Deadline;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Runs tasks on a delegate executor in earliest-deadline-first order. Tasks without a deadline run
+ * after all tasks with a deadline, and tasks with equal deadlines run in submission order.
+ *
+ * <p>Every submitted task enqueues one runnable on the delegate, which runs whichever task has the
+ * earliest deadline at the time the delegate gets to it. The ordering therefore only has an effect
+ * when the delegate queues work, for example a fixed-size thread pool that is saturated.
+ */
+final class DeadlineOrderedExecutor {
+  private final Executor delegate;
+  private final PriorityBlockingQueue<Task> tasks = new PriorityBlockingQueue<>();
+  private final AtomicLong nextSequence = new AtomicLong();
+  private final Executor noDeadlineExecutor;
+
+  DeadlineOrderedExecutor(Executor delegate) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.noDeadlineExecutor = new DeadlineExecutor(null);
+  }
+
+  /**
+   * Returns an executor whose tasks are ordered by the given deadline, or run after all tasks with
+   * a deadline if {@code null}.
+   */
+  Executor forDeadline(@Nullable Deadline deadline) {
+    if (deadline == null) {
+      return noDeadlineExecutor;
+    }
+    return new DeadlineExecutor(deadline);
+  }
+
+  private void execute(Runnable command, @Nullable Deadline deadline) {
+    Task task = new Task(checkNotNull(command, "command"), deadline, nextSequence.getAndIncrement());
+    tasks.add(task);
+    try {
+      delegate.execute(new RunEarliest());
+    } catch (RuntimeException e) {
+      tasks.remove(task);
+      throw e;
+    }
+  }
+
+  /** Returns the number of tasks waiting for the delegate. */
+  int size() {
+    return tasks.size();
+  }
+
+  private final class DeadlineExecutor implements Executor {
+    @Nullable private final Deadline deadline;
+
+    DeadlineExecutor(@Nullable Deadline deadline) {
+      this.deadline = deadline;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      DeadlineOrderedExecutor.this.execute(command, deadline);
+    }
+  }
+
+  private final class RunEarliest implements Runnable {
+    @Override
+    public void run() {
+      // There is one RunEarliest per task, so a task is always available
+      Task task = tasks.poll();
+      if (task != null) {
+        task.command.run();
+      }
+    }
+  }
+
+  private static final class Task implements Comparable<Task> {
+    final Runnable command;
+    @Nullable final Deadline deadline;
+    final long sequence;
+
+    Task(Runnable command, @Nullable Deadline deadline, long sequence) {
+      this.command = command;
+      this.deadline = deadline;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(Task other) {
+      if (deadline != other.deadline) {
+        if (deadline == null) {
+          return 1;
+        }
+        if (other.deadline == null) {
+          return -1;
+        }
+        int result = deadline.compareTo(other.deadline);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -29,11 +29,14 @@ import io.grpc.LoadBalancer.SubchannelPicker;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.grpc.SynchronizationContext;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -280,11 +283,14 @@ final class DelayedClientTransport implements ManagedClientTransport {
       toProcess = new ArrayList<>(pendingStreams);
     }
     ArrayList<PendingStream> toRemove = new ArrayList<>();
+    // Streams are started in batches per executor, so a large backlog doesn't turn into as many
+    // executor tasks. Most streams share the default executor, so there are few batches.
+    Map<Executor, StreamCreationBatch> batches = new IdentityHashMap<>();
 
-    for (final PendingStream stream : toProcess) {
+    for (PendingStream stream : toProcess) {
       PickResult pickResult = picker.pickSubchannel(stream.args);
       CallOptions callOptions = stream.args.getCallOptions();
-      final ClientTransport transport = GrpcUtil.getTransportFromPickResult(pickResult,
+      ClientTransport transport = GrpcUtil.getTransportFromPickResult(pickResult,
           callOptions.isWaitForReady());
       if (transport != null) {
         Executor executor = defaultAppExecutor;
@@ -294,15 +300,21 @@ final class DelayedClientTransport implements ManagedClientTransport {
         if (callOptions.getExecutor() != null) {
           executor = callOptions.getExecutor();
         }
-        executor.execute(new Runnable() {
-            @Override
-            public void run() {
-              stream.createRealStream(transport);
-            }
-          });
+        StreamCreationBatch batch = batches.get(executor);
+        if (batch == null || batch.isFull()) {
+          if (batch != null) {
+            executor.execute(batch);
+          }
+          batch = new StreamCreationBatch();
+          batches.put(executor, batch);
+        }
+        batch.add(stream, transport);
         toRemove.add(stream);
       }  // else: stay pending
     }
+    for (Map.Entry<Executor, StreamCreationBatch> entry : batches.entrySet()) {
+      entry.getKey().execute(entry.getValue());
+    }
 
     synchronized (lock) {
       // Between this synchronized and the previous one:
@@ -311,7 +323,10 @@ final class DelayedClientTransport implements ManagedClientTransport {
       if (!hasPendingStreams()) {
         return;
       }
-      pendingStreams.removeAll(toRemove);
+      // Not removeAll(), which is quadratic when toRemove isn't smaller than pendingStreams
+      for (PendingStream stream : toRemove) {
+        pendingStreams.remove(stream);
+      }
       // Because delayed transport is long-lived, we take this opportunity to down-size the
       // hashmap.
       if (pendingStreams.isEmpty()) {
@@ -333,6 +348,37 @@ final class DelayedClientTransport implements ManagedClientTransport {
     syncContext.drain();
   }
 
+  /** Creates the real streams for picked pending streams that share an executor. */
+  private static final class StreamCreationBatch implements Runnable {
+    // Bounds the work done in a single task, so a large backlog can still be spread over the
+    // threads of a multi-threaded executor.
+    private static final int MAX_STREAMS = 128;
+
+    private final ArrayList<PendingStream> streams = new ArrayList<>();
+    private final ArrayList<ClientTransport> transports = new ArrayList<>();
+
+    void add(PendingStream stream, ClientTransport transport) {
+      streams.add(stream);
+      transports.add(transport);
+    }
+
+    boolean isFull() {
+      return streams.size() >= MAX_STREAMS;
+    }
+
+    @Override
+    public void run() {
+      for (int i = 0; i < streams.size(); i++) {
+        try {
+          streams.get(i).createRealStream(transports.get(i));
+        } catch (RuntimeException e) {
+          // Fail just this stream, without stranding the rest of the batch
+          streams.get(i).cancel(Status.fromThrowable(e));
+        }
+      }
+    }
+  }
+
   @Override
   public InternalLogId getLogId() {
     return logId;
@@ -341,9 +387,14 @@ final class DelayedClientTransport implements ManagedClientTransport {
   private class PendingStream extends DelayedStream {
     private final PickSubchannelArgs args;
     private final Context context = Context.current();
+    @Nullable
+    private final CallPhaseRecorder phaseRecorder;
+    private final long createdNanos;
 
     private PendingStream(PickSubchannelArgs args) {
       this.args = args;
+      this.phaseRecorder = CallPhaseRecorder.get(args.getCallOptions());
+      this.createdNanos = phaseRecorder != null ? System.nanoTime() : 0;
     }
 
     private void createRealStream(ClientTransport transport) {
@@ -355,7 +406,14 @@ final class DelayedClientTransport implements ManagedClientTransport {
       } finally {
         context.detach(origContext);
       }
-      setStream(realStream);
+      if (phaseRecorder != null) {
+        phaseRecorder.phaseCompleted(
+            StreamTracer.Phase.PENDING_TRANSPORT, System.nanoTime() - createdNanos);
+      }
+      if (!setStream(realStream)) {
+        // Cancelled after being picked, so the real stream is never started
+        InternalSubchannel.discardUnstartedStream(realStream);
+      }
     }
 
     @Override
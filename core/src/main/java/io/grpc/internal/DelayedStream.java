@@ -118,18 +118,22 @@ class DelayedStream implements ClientStream {
    * Transfers all pending and future requests and mutations to the given stream.
    *
    * <p>No-op if either this method or {@link #cancel} have already been called.
+   *
+   * @return {@code false} if the stream was discarded without being started, because either this
+   *     method or {@link #cancel} had already been called
    */
   // When this method returns, passThrough is guaranteed to be true
-  final void setStream(ClientStream stream) {
+  final boolean setStream(ClientStream stream) {
     synchronized (this) {
       // If realStream != null, then either setStream() or cancel() has been called.
       if (realStream != null) {
-        return;
+        return false;
       }
       setRealStream(checkNotNull(stream, "stream"));
     }
 
     drainPendingCalls();
+    return true;
   }
 
   /**
@@ -78,6 +78,11 @@ abstract class ForwardingManagedChannel extends ManagedChannel {
     delegate.notifyWhenStateChanged(source, callback);
   }
 
+  @Override
+  public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitReady(timeout, unit);
+  }
+
   @Override
   public void resetConnectBackoff() {
     delegate.resetConnectBackoff();
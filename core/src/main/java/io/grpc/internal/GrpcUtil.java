@@ -538,13 +538,24 @@ public final class GrpcUtil {
         }
       };
 
+  private static final boolean TIMER_WHEEL_ENABLED = Boolean.parseBoolean(
+      System.getProperty("io.grpc.internal.GrpcUtil.enableTimerWheel", "true"));
+
   /**
    * Shared single-threaded executor for managing channel timers.
+   *
+   * <p>By default this is a {@link TimerWheel}, since most timers are cancelled long before they
+   * expire. Setting the {@code io.grpc.internal.GrpcUtil.enableTimerWheel} system property to
+   * {@code false} uses a {@link java.util.concurrent.ScheduledThreadPoolExecutor} instead.
    */
   public static final Resource<ScheduledExecutorService> TIMER_SERVICE =
       new Resource<ScheduledExecutorService>() {
         @Override
         public ScheduledExecutorService create() {
+          if (TIMER_WHEEL_ENABLED) {
+            return new TimerWheel(
+                getThreadFactory("grpc-timer-%d", true), TimerWheel.DEFAULT_TICK_NANOS);
+          }
           // We don't use newSingleThreadScheduledExecutor because it doesn't return a
           // ScheduledThreadPoolExecutor.
           ScheduledExecutorService service = Executors.newScheduledThreadPool(
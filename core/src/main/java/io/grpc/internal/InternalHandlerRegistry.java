@@ -16,11 +16,16 @@
 
 package io.grpc.internal;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import io.grpc.HandlerRegistry;
 import io.grpc.ServerMethodDefinition;
 import io.grpc.ServerServiceDefinition;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,11 +36,14 @@ final class InternalHandlerRegistry extends HandlerRegistry {
 
   private final List<ServerServiceDefinition> services;
   private final Map<String, ServerMethodDefinition<?, ?>> methods;
+  @Nullable
+  private final MethodTable methodTable;
 
   private InternalHandlerRegistry(
       List<ServerServiceDefinition> services, Map<String, ServerMethodDefinition<?, ?>> methods) {
     this.services = services;
     this.methods = methods;
+    this.methodTable = MethodTable.create(methods.values());
   }
 
   /**
@@ -53,6 +61,23 @@ final class InternalHandlerRegistry extends HandlerRegistry {
     return methods.get(methodName);
   }
 
+  /**
+   * Looks up a method by the UTF-8 bytes of its full name, as they appear in a request path,
+   * without creating a {@code String}.
+   */
+  @Nullable
+  ServerMethodDefinition<?, ?> lookupMethod(byte[] methodName, int offset, int length) {
+    if (methodTable == null) {
+      return methods.get(new String(methodName, offset, length, Charsets.UTF_8));
+    }
+    return methodTable.get(methodName, offset, length);
+  }
+
+  @VisibleForTesting
+  boolean hasMethodTable() {
+    return methodTable != null;
+  }
+
   static final class Builder {
 
     // Store per-service first, to make sure services are added/replaced atomically.
@@ -77,4 +102,163 @@ final class InternalHandlerRegistry extends HandlerRegistry {
           Collections.unmodifiableMap(map));
     }
   }
+
+  /**
+   * A perfect hash table from method name bytes to methods, built with "hash and
+   * displace": keys are first grouped into buckets, then each bucket, largest first, is given a
+   * displacement that moves all of its keys into free slots. A lookup hashes the name once and
+   * probes a single slot.
+   */
+  @VisibleForTesting
+  static final class MethodTable {
+    private static final int KEYS_PER_BUCKET = 4;
+    private static final int MAX_DISPLACEMENT = 1 << 16;
+
+    private final int[] displacements;
+    private final byte[][] names;
+    private final ServerMethodDefinition<?, ?>[] methods;
+    private final int mask;
+
+    private MethodTable(
+        int[] displacements, byte[][] names, ServerMethodDefinition<?, ?>[] methods) {
+      this.displacements = displacements;
+      this.names = names;
+      this.methods = methods;
+      this.mask = methods.length - 1;
+    }
+
+    /**
+     * Builds a table for the methods, or returns {@code null} if no displacement could be found,
+     * which only happens if two names have the same 64-bit hash.
+     */
+    @Nullable
+    static MethodTable create(Collection<ServerMethodDefinition<?, ?>> definitions) {
+      int size = definitions.size();
+      // A load factor of at most 0.5 keeps the search for displacements short
+      int tableSize = Integer.highestOneBit(Math.max(size, 1)) << 2;
+      int bucketCount = Math.max(size / KEYS_PER_BUCKET, 1);
+      final List<List<Entry>> buckets = new ArrayList<>(bucketCount);
+      for (int i = 0; i < bucketCount; i++) {
+        buckets.add(new ArrayList<Entry>(KEYS_PER_BUCKET));
+      }
+      for (ServerMethodDefinition<?, ?> definition : definitions) {
+        byte[] name =
+            definition.getMethodDescriptor().getFullMethodName().getBytes(Charsets.UTF_8);
+        long hash = hash(name, 0, name.length);
+        buckets.get(bucket(hash, bucketCount)).add(new Entry(name, hash, definition));
+      }
+      Integer[] order = new Integer[bucketCount];
+      for (int i = 0; i < bucketCount; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+          return buckets.get(b).size() - buckets.get(a).size();
+        }
+      });
+
+      int[] displacements = new int[bucketCount];
+      byte[][] names = new byte[tableSize][];
+      ServerMethodDefinition<?, ?>[] methods = new ServerMethodDefinition<?, ?>[tableSize];
+      int[] slots = new int[KEYS_PER_BUCKET];
+      for (int bucketIndex : order) {
+        List<Entry> bucket = buckets.get(bucketIndex);
+        if (bucket.isEmpty()) {
+          break;
+        }
+        if (slots.length < bucket.size()) {
+          slots = new int[bucket.size()];
+        }
+        int displacement = findDisplacement(bucket, names, slots, tableSize - 1);
+        if (displacement < 0) {
+          return null;
+        }
+        displacements[bucketIndex] = displacement;
+        for (int i = 0; i < bucket.size(); i++) {
+          Entry entry = bucket.get(i);
+          names[slots[i]] = entry.name;
+          methods[slots[i]] = entry.method;
+        }
+      }
+      return new MethodTable(displacements, names, methods);
+    }
+
+    /**
+     * Returns the first displacement that puts every key of the bucket into a distinct free slot,
+     * storing the slots into {@code slots}, or -1 if there is none.
+     */
+    private static int findDisplacement(List<Entry> bucket, byte[][] names, int[] slots, int mask) {
+      search:
+      for (int displacement = 0; displacement < MAX_DISPLACEMENT; displacement++) {
+        for (int i = 0; i < bucket.size(); i++) {
+          int slot = slot(bucket.get(i).hash, displacement, mask);
+          if (names[slot] != null) {
+            continue search;
+          }
+          for (int j = 0; j < i; j++) {
+            if (slots[j] == slot) {
+              continue search;
+            }
+          }
+          slots[i] = slot;
+        }
+        return displacement;
+      }
+      return -1;
+    }
+
+    @Nullable
+    ServerMethodDefinition<?, ?> get(byte[] name, int offset, int length) {
+      long hash = hash(name, offset, length);
+      int slot = slot(hash, displacements[bucket(hash, displacements.length)], mask);
+      byte[] candidate = names[slot];
+      if (candidate == null || candidate.length != length) {
+        return null;
+      }
+      for (int i = 0; i < length; i++) {
+        if (candidate[i] != name[offset + i]) {
+          return null;
+        }
+      }
+      return methods[slot];
+    }
+
+    /** 64-bit FNV-1a. */
+    private static long hash(byte[] bytes, int offset, int length) {
+      long hash = 0xcbf29ce484222325L;
+      for (int i = offset; i < offset + length; i++) {
+        hash ^= bytes[i] & 0xff;
+        hash *= 0x100000001b3L;
+      }
+      return hash;
+    }
+
+    private static int bucket(long hash, int bucketCount) {
+      return (int) ((hash >>> 32) % bucketCount);
+    }
+
+    private static int slot(long hash, int displacement, int mask) {
+      // The finalizer of MurmurHash3, so that consecutive displacements give unrelated slots
+      long h = hash + displacement * 0x9e3779b97f4a7c15L;
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return (int) h & mask;
+    }
+
+    private static final class Entry {
+      final byte[] name;
+      final long hash;
+      final ServerMethodDefinition<?, ?> method;
+
+      Entry(byte[] name, long hash, ServerMethodDefinition<?, ?> method) {
+        this.name = name;
+        this.hash = hash;
+        this.method = method;
+      }
+    }
+  }
 }
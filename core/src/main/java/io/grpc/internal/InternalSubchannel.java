@@ -55,6 +55,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -75,6 +77,8 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   private final CallTracer callsTracer;
   private final ChannelTracer channelTracer;
   private final ChannelLogger channelLogger;
+  private final int maxConnections;
+  private final int streamsPerConnection;
 
   /**
    * All field must be mutated in the syncContext.
@@ -113,8 +117,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   private ScheduledHandle reconnectTask;
   @Nullable
   private ScheduledHandle shutdownDueToUpdateTask;
-  @Nullable
-  private ManagedClientTransport shutdownDueToUpdateTransport;
+  private final List<ManagedClientTransport> shutdownDueToUpdateTransports = new ArrayList<>();
 
   /**
    * All transports that are not terminated. At the very least the value of {@link #activeTransport}
@@ -149,6 +152,27 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   @Nullable
   private volatile ManagedClientTransport activeTransport;
 
+  /**
+   * Additional READY transports to the address of {@link #activeTransport}, opened because the
+   * ready transports had too many active streams. Always empty if {@code maxConnections == 1}.
+   */
+  private final List<CallTracingTransport> extraTransports = new ArrayList<>();
+
+  /**
+   * The to-be additional transport, which is not ready yet.
+   */
+  @Nullable
+  private CallTracingTransport pendingExtraTransport;
+
+  /**
+   * {@link #activeTransport} followed by {@link #extraTransports}, for picking a transport outside
+   * of syncContext. Only maintained if {@code maxConnections > 1}.
+   */
+  private volatile CallTracingTransport[] readyTransports = new CallTracingTransport[0];
+
+  /** Whether an additional transport has been requested and is not yet ready. */
+  private final AtomicBoolean extraTransportRequested = new AtomicBoolean();
+
   private volatile ConnectivityStateInfo state = ConnectivityStateInfo.forNonError(IDLE);
 
   private Status shutdownReason;
@@ -158,8 +182,10 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
       ClientTransportFactory transportFactory, ScheduledExecutorService scheduledExecutor,
       Supplier<Stopwatch> stopwatchSupplier, SynchronizationContext syncContext, Callback callback,
       InternalChannelz channelz, CallTracer callsTracer, ChannelTracer channelTracer,
-      InternalLogId logId, ChannelLogger channelLogger) {
+      InternalLogId logId, ChannelLogger channelLogger, int maxConnections,
+      int streamsPerConnection) {
     Preconditions.checkNotNull(addressGroups, "addressGroups");
+    Preconditions.checkArgument(maxConnections > 0, "maxConnections must be positive");
     Preconditions.checkArgument(!addressGroups.isEmpty(), "addressGroups is empty");
     checkListHasNoNulls(addressGroups, "addressGroups contains null entry");
     List<EquivalentAddressGroup> unmodifiableAddressGroups =
@@ -179,6 +205,8 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     this.channelTracer = Preconditions.checkNotNull(channelTracer, "channelTracer");
     this.logId = Preconditions.checkNotNull(logId, "logId");
     this.channelLogger = Preconditions.checkNotNull(channelLogger, "channelLogger");
+    this.maxConnections = maxConnections;
+    this.streamsPerConnection = streamsPerConnection;
   }
 
   ChannelLogger getChannelLogger() {
@@ -189,6 +217,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   public ClientTransport obtainActiveTransport() {
     ClientTransport savedTransport = activeTransport;
     if (savedTransport != null) {
+      if (maxConnections > 1) {
+        return pickReadyTransport(savedTransport);
+      }
       return savedTransport;
     }
     syncContext.execute(new Runnable() {
@@ -204,6 +235,39 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     return null;
   }
 
+  /**
+   * Returns the ready transport with the fewest active streams, and opens an additional transport
+   * if all of them have reached {@code streamsPerConnection}. A stream is active from the moment it
+   * is created until it is closed, or until it is discarded without being started (see {@link
+   * #discardUnstartedStream}). Only the number of streams counts: a transport saturated by a few
+   * streams with heavy traffic does not trigger another connection.
+   */
+  private ClientTransport pickReadyTransport(ClientTransport savedTransport) {
+    CallTracingTransport[] ready = readyTransports;
+    CallTracingTransport picked = null;
+    int pickedStreams = Integer.MAX_VALUE;
+    for (CallTracingTransport transport : ready) {
+      int streams = transport.activeStreams.get();
+      if (streams < pickedStreams) {
+        picked = transport;
+        pickedStreams = streams;
+      }
+    }
+    if (picked == null) {
+      return savedTransport;
+    }
+    if (pickedStreams >= streamsPerConnection && ready.length < maxConnections
+        && extraTransportRequested.compareAndSet(false, true)) {
+      syncContext.execute(new Runnable() {
+        @Override
+        public void run() {
+          startExtraTransport();
+        }
+      });
+    }
+    return picked;
+  }
+
   /**
    * Returns a READY transport if there is any, without trying to connect.
    */
@@ -227,6 +291,21 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     if (addressIndex.isAtBeginning()) {
       connectingTimer.reset().start();
     }
+    startTransport(false);
+  }
+
+  private void startExtraTransport() {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    if (state.getState() != READY || pendingExtraTransport != null
+        || extraTransports.size() + 1 >= maxConnections) {
+      extraTransportRequested.set(false);
+      return;
+    }
+    startTransport(true);
+  }
+
+  private void startTransport(boolean extra) {
     SocketAddress address = addressIndex.getCurrentAddress();
 
     HttpConnectProxiedSocketAddress proxiedAddr = null;
@@ -247,19 +326,60 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     TransportLogger transportLogger = new TransportLogger();
     // In case the transport logs in the constructor, use the subchannel logId
     transportLogger.logId = getLogId();
-    ConnectionClientTransport transport =
+    CallTracingTransport transport =
         new CallTracingTransport(
             transportFactory
                 .newClientTransport(address, options, transportLogger), callsTracer);
     transportLogger.logId = transport.getLogId();
     channelz.addClientSocket(transport);
-    pendingTransport = transport;
+    if (extra) {
+      pendingExtraTransport = transport;
+    } else {
+      pendingTransport = transport;
+    }
     transports.add(transport);
     Runnable runnable = transport.start(new TransportListener(transport, address));
     if (runnable != null) {
       syncContext.executeLater(runnable);
     }
-    channelLogger.log(ChannelLogLevel.INFO, "Started transport {0}", transportLogger.logId);
+    if (extra) {
+      channelLogger.log(
+          ChannelLogLevel.INFO, "Started additional transport {0}, {1} of at most {2}",
+          transportLogger.logId, extraTransports.size() + 2, maxConnections);
+    } else {
+      channelLogger.log(ChannelLogLevel.INFO, "Started transport {0}", transportLogger.logId);
+    }
+  }
+
+  /** Must be called whenever {@link #activeTransport} or {@link #extraTransports} change. */
+  private void updateReadyTransports() {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    if (maxConnections == 1) {
+      return;
+    }
+    List<CallTracingTransport> ready = new ArrayList<>(extraTransports.size() + 1);
+    if (activeTransport instanceof CallTracingTransport) {
+      ready.add((CallTracingTransport) activeTransport);
+    }
+    ready.addAll(extraTransports);
+    readyTransports = ready.toArray(new CallTracingTransport[0]);
+  }
+
+  /**
+   * Removes the additional transports, including the pending one, and returns them so that the
+   * caller can shut them down.
+   */
+  private List<ManagedClientTransport> removeExtraTransports() {
+    List<ManagedClientTransport> removed = new ArrayList<ManagedClientTransport>(extraTransports);
+    if (pendingExtraTransport != null) {
+      removed.add(pendingExtraTransport);
+      pendingExtraTransport = null;
+    }
+    extraTransports.clear();
+    updateReadyTransports();
+    extraTransportRequested.set(false);
+    return removed;
   }
 
   /**
@@ -345,7 +465,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
       public void run() {
         List<EquivalentAddressGroup> newImmutableAddressGroups =
             Collections.unmodifiableList(new ArrayList<>(newAddressGroups));
-        ManagedClientTransport savedTransport = null;
+        List<ManagedClientTransport> savedTransports = new ArrayList<>();
         SocketAddress previousAddress = addressIndex.getCurrentAddress();
         addressIndex.updateGroups(newImmutableAddressGroups);
         addressGroups = newImmutableAddressGroups;
@@ -353,8 +473,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
           if (!addressIndex.seekTo(previousAddress)) {
             // Forced to drop the connection
             if (state.getState() == READY) {
-              savedTransport = activeTransport;
+              savedTransports.add(activeTransport);
               activeTransport = null;
+              savedTransports.addAll(removeExtraTransports());
               addressIndex.reset();
               gotoNonErrorState(IDLE);
             } else {
@@ -367,29 +488,34 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             }
           }
         }
-        if (savedTransport != null) {
+        if (!savedTransports.isEmpty()) {
           if (shutdownDueToUpdateTask != null) {
             // Keeping track of multiple shutdown tasks adds complexity, and shouldn't generally be
             // necessary. This transport has probably already had plenty of time.
-            shutdownDueToUpdateTransport.shutdown(
-                Status.UNAVAILABLE.withDescription(
-                    "InternalSubchannel closed transport early due to address change"));
+            for (ManagedClientTransport transport : shutdownDueToUpdateTransports) {
+              transport.shutdown(
+                  Status.UNAVAILABLE.withDescription(
+                      "InternalSubchannel closed transport early due to address change"));
+            }
             shutdownDueToUpdateTask.cancel();
             shutdownDueToUpdateTask = null;
-            shutdownDueToUpdateTransport = null;
+            shutdownDueToUpdateTransports.clear();
           }
           // Avoid needless RPC failures by delaying the shutdown. See
           // https://github.com/grpc/grpc-java/issues/2562
-          shutdownDueToUpdateTransport = savedTransport;
+          shutdownDueToUpdateTransports.addAll(savedTransports);
           shutdownDueToUpdateTask = syncContext.schedule(
               new Runnable() {
                 @Override public void run() {
-                  ManagedClientTransport transport = shutdownDueToUpdateTransport;
+                  List<ManagedClientTransport> transportsToShutdown =
+                      new ArrayList<>(shutdownDueToUpdateTransports);
                   shutdownDueToUpdateTask = null;
-                  shutdownDueToUpdateTransport = null;
-                  transport.shutdown(
-                      Status.UNAVAILABLE.withDescription(
-                          "InternalSubchannel closed transport due to address change"));
+                  shutdownDueToUpdateTransports.clear();
+                  for (ManagedClientTransport transport : transportsToShutdown) {
+                    transport.shutdown(
+                        Status.UNAVAILABLE.withDescription(
+                            "InternalSubchannel closed transport due to address change"));
+                  }
                 }
               },
               ManagedChannelImpl.SUBCHANNEL_SHUTDOWN_DELAY_SECONDS,
@@ -414,6 +540,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         savedPendingTransport = pendingTransport;
         activeTransport = null;
         pendingTransport = null;
+        List<ManagedClientTransport> savedExtraTransports = removeExtraTransports();
         gotoNonErrorState(SHUTDOWN);
         addressIndex.reset();
         if (transports.isEmpty()) {
@@ -422,9 +549,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         cancelReconnectTask();
         if (shutdownDueToUpdateTask != null) {
           shutdownDueToUpdateTask.cancel();
-          shutdownDueToUpdateTransport.shutdown(reason);
+          for (ManagedClientTransport transport : shutdownDueToUpdateTransports) {
+            transport.shutdown(reason);
+          }
           shutdownDueToUpdateTask = null;
-          shutdownDueToUpdateTransport = null;
+          shutdownDueToUpdateTransports.clear();
         }
         if (savedActiveTransport != null) {
           savedActiveTransport.shutdown(reason);
@@ -432,6 +561,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         if (savedPendingTransport != null) {
           savedPendingTransport.shutdown(reason);
         }
+        for (ManagedClientTransport transport : savedExtraTransports) {
+          transport.shutdown(reason);
+        }
       }
     });
   }
@@ -531,11 +663,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
 
   /** Listener for real transports. */
   private class TransportListener implements ManagedClientTransport.Listener {
-    final ConnectionClientTransport transport;
+    final CallTracingTransport transport;
     final SocketAddress address;
     boolean shutdownInitiated = false;
 
-    TransportListener(ConnectionClientTransport transport, SocketAddress address) {
+    TransportListener(CallTracingTransport transport, SocketAddress address) {
       this.transport = transport;
       this.address = address;
     }
@@ -555,7 +687,13 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
           } else if (pendingTransport == transport) {
             activeTransport = transport;
             pendingTransport = null;
+            updateReadyTransports();
             gotoNonErrorState(READY);
+          } else if (pendingExtraTransport == transport) {
+            pendingExtraTransport = null;
+            extraTransports.add(transport);
+            updateReadyTransports();
+            extraTransportRequested.set(false);
           }
         }
       });
@@ -578,9 +716,21 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             return;
           }
           if (activeTransport == transport) {
+            if (!extraTransports.isEmpty()) {
+              // Stay READY on one of the additional transports to the same address
+              activeTransport = extraTransports.remove(0);
+              updateReadyTransports();
+              return;
+            }
             activeTransport = null;
+            updateReadyTransports();
             addressIndex.reset();
             gotoNonErrorState(IDLE);
+          } else if (pendingExtraTransport == transport) {
+            pendingExtraTransport = null;
+            extraTransportRequested.set(false);
+          } else if (extraTransports.remove(transport)) {
+            updateReadyTransports();
           } else if (pendingTransport == transport) {
             Preconditions.checkState(state.getState() == CONNECTING,
                 "Expected state is CONNECTING, actual state is %s", state.getState());
@@ -654,6 +804,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   static final class CallTracingTransport extends ForwardingConnectionClientTransport {
     private final ConnectionClientTransport delegate;
     private final CallTracer callTracer;
+    private final AtomicInteger activeStreams = new AtomicInteger();
 
     private CallTracingTransport(ConnectionClientTransport delegate, CallTracer callTracer) {
       this.delegate = delegate;
@@ -668,37 +819,69 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     @Override
     public ClientStream newStream(
         MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions) {
-      final ClientStream streamDelegate = super.newStream(method, headers, callOptions);
-      return new ForwardingClientStream() {
-        @Override
-        protected ClientStream delegate() {
-          return streamDelegate;
-        }
+      ClientStream streamDelegate = super.newStream(method, headers, callOptions);
+      // Count the stream as soon as it is picked, not when it starts, so that a burst of new
+      // streams is spread over the transports
+      activeStreams.incrementAndGet();
+      return new CallTracingStream(streamDelegate);
+    }
 
-        @Override
-        public void start(final ClientStreamListener listener) {
-          callTracer.reportCallStarted();
-          super.start(new ForwardingClientStreamListener() {
-            @Override
-            protected ClientStreamListener delegate() {
-              return listener;
-            }
+    private final class CallTracingStream extends ForwardingClientStream {
+      private final ClientStream delegate;
+      // Set once the stream stops being counted, when it is closed or discarded
+      private final AtomicBoolean released = new AtomicBoolean();
 
-            @Override
-            public void closed(Status status, Metadata trailers) {
-              callTracer.reportCallEnded(status.isOk());
-              super.closed(status, trailers);
-            }
+      CallTracingStream(ClientStream delegate) {
+        this.delegate = delegate;
+      }
 
-            @Override
-            public void closed(
-                Status status, RpcProgress rpcProgress, Metadata trailers) {
-              callTracer.reportCallEnded(status.isOk());
-              super.closed(status, rpcProgress, trailers);
-            }
-          });
+      @Override
+      protected ClientStream delegate() {
+        return delegate;
+      }
+
+      @Override
+      public void start(final ClientStreamListener listener) {
+        callTracer.reportCallStarted();
+        super.start(new ForwardingClientStreamListener() {
+          @Override
+          protected ClientStreamListener delegate() {
+            return listener;
+          }
+
+          @Override
+          public void closed(Status status, Metadata trailers) {
+            callTracer.reportCallEnded(status.isOk());
+            release();
+            super.closed(status, trailers);
+          }
+
+          @Override
+          public void closed(
+              Status status, RpcProgress rpcProgress, Metadata trailers) {
+            callTracer.reportCallEnded(status.isOk());
+            release();
+            super.closed(status, rpcProgress, trailers);
+          }
+        });
+      }
+
+      void release() {
+        if (released.compareAndSet(false, true)) {
+          activeStreams.decrementAndGet();
         }
-      };
+      }
+    }
+  }
+
+  /**
+   * Stops counting a stream that was created but will never be started, and so never closed. A
+   * {@link DelayedStream} discards the real stream given to it if it was cancelled first. No-op for
+   * streams that were not created by a subchannel.
+   */
+  static void discardUnstartedStream(ClientStream stream) {
+    if (stream instanceof CallTracingTransport.CallTracingStream) {
+      ((CallTracingTransport.CallTracingStream) stream).release();
     }
   }
 
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Batches the keepalive checks of many transports into shared timer ticks.
+ *
+ * <p>Keepalive checks are rounded up to the next tick, and all checks due at a tick run from a
+ * single timer task. With many connections to the same backends, this replaces one timer wakeup
+ * per connection per keepalive period with at most one wakeup per tick. A check never runs early,
+ * so connections that have recently received data still skip their ping.
+ *
+ * <p>The scheduler is only held while checks are pending.
+ */
+public final class KeepAliveCoordinator {
+  private static final long DEFAULT_TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static final KeepAliveCoordinator DEFAULT = new KeepAliveCoordinator(
+      SharedResourcePool.forResource(GrpcUtil.TIMER_SERVICE), DEFAULT_TICK_NANOS,
+      Ticker.systemTicker());
+
+  private final ObjectPool<ScheduledExecutorService> schedulerPool;
+  private final long tickNanos;
+  private final Ticker ticker;
+  private final long originNanos;
+  private final Object lock = new Object();
+  @GuardedBy("lock")
+  private final Map<Long, Batch> batches = new HashMap<>();
+  @GuardedBy("lock")
+  private ScheduledExecutorService scheduler;
+
+  /** Returns the coordinator shared by all client transports, which ticks once a second. */
+  public static KeepAliveCoordinator getDefault() {
+    return DEFAULT;
+  }
+
+  @VisibleForTesting
+  KeepAliveCoordinator(
+      ObjectPool<ScheduledExecutorService> schedulerPool, long tickNanos, Ticker ticker) {
+    checkArgument(tickNanos > 0, "tickNanos must be positive");
+    this.schedulerPool = checkNotNull(schedulerPool, "schedulerPool");
+    this.tickNanos = tickNanos;
+    this.ticker = checkNotNull(ticker, "ticker");
+    this.originNanos = ticker.read();
+  }
+
+  /**
+   * Runs {@code check} at the first tick at least {@code delayNanos} from now. The check runs on
+   * the scheduler thread, so it must not block.
+   */
+  Future<?> schedule(Runnable check, long delayNanos) {
+    long sinceOrigin = ticker.read() - originNanos + Math.max(0, delayNanos);
+    long tick = (sinceOrigin + tickNanos - 1) / tickNanos;
+    synchronized (lock) {
+      Batch batch = batches.get(tick);
+      if (batch == null) {
+        if (scheduler == null) {
+          scheduler = schedulerPool.getObject();
+        }
+        batch = new Batch(tick);
+        batches.put(tick, batch);
+        batch.future = scheduler.schedule(
+            batch, originNanos + tick * tickNanos - ticker.read(), TimeUnit.NANOSECONDS);
+      }
+      Check scheduled = new Check(check, batch);
+      batch.checks.add(scheduled);
+      return scheduled;
+    }
+  }
+
+  /** Returns the number of ticks with pending checks. */
+  @VisibleForTesting
+  int pendingTicks() {
+    synchronized (lock) {
+      return batches.size();
+    }
+  }
+
+  @GuardedBy("lock")
+  private void removeBatch(Batch batch) {
+    batches.remove(batch.tick);
+    if (batches.isEmpty()) {
+      scheduler = schedulerPool.returnObject(scheduler);
+    }
+  }
+
+  private final class Batch implements Runnable {
+    final long tick;
+    @GuardedBy("lock")
+    final Set<Check> checks = new LinkedHashSet<>();
+    @GuardedBy("lock")
+    ScheduledFuture<?> future;
+
+    Batch(long tick) {
+      this.tick = tick;
+    }
+
+    @Override
+    public void run() {
+      List<Check> due;
+      synchronized (lock) {
+        if (batches.get(tick) != this) {
+          return;
+        }
+        removeBatch(this);
+        due = new ArrayList<>(checks);
+        checks.clear();
+      }
+      for (Check check : due) {
+        check.run();
+      }
+    }
+  }
+
+  private final class Check extends FutureTask<Void> {
+    private final Batch batch;
+
+    Check(Runnable runnable, Batch batch) {
+      super(runnable, null);
+      this.batch = batch;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        synchronized (lock) {
+          if (batch.checks.remove(this) && batch.checks.isEmpty()) {
+            batch.future.cancel(false);
+            removeBatch(batch);
+          }
+        }
+      }
+      return cancelled;
+    }
+  }
+}
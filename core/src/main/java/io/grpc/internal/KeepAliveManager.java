@@ -23,9 +23,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.grpc.Status;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 /**
@@ -36,6 +38,8 @@ public class KeepAliveManager {
   private static final long MIN_KEEPALIVE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
 
   private final ScheduledExecutorService scheduler;
+  @Nullable
+  private final KeepAliveCoordinator coordinator;
   @GuardedBy("this")
   private final Stopwatch stopwatch;
   private final KeepAlivePinger keepAlivePinger;
@@ -45,7 +49,7 @@ public class KeepAliveManager {
   @GuardedBy("this")
   private ScheduledFuture<?> shutdownFuture;
   @GuardedBy("this")
-  private ScheduledFuture<?> pingFuture;
+  private Future<?> pingFuture;
   private final Runnable shutdown = new LogExceptionRunnable(new Runnable() {
     @Override
     public void run() {
@@ -77,10 +81,8 @@ public class KeepAliveManager {
               TimeUnit.NANOSECONDS);
         } else if (state == State.PING_DELAYED) {
           // We have received some data. Reschedule the ping with the new time.
-          pingFuture = scheduler.schedule(
-              sendPing,
-              keepAliveTimeInNanos - stopwatch.elapsed(TimeUnit.NANOSECONDS),
-              TimeUnit.NANOSECONDS);
+          pingFuture = schedulePing(
+              keepAliveTimeInNanos - stopwatch.elapsed(TimeUnit.NANOSECONDS));
           state = State.PING_SCHEDULED;
         }
       }
@@ -129,17 +131,38 @@ public class KeepAliveManager {
   public KeepAliveManager(KeepAlivePinger keepAlivePinger, ScheduledExecutorService scheduler,
                           long keepAliveTimeInNanos, long keepAliveTimeoutInNanos,
                           boolean keepAliveDuringTransportIdle) {
-    this(keepAlivePinger, scheduler, Stopwatch.createUnstarted(), keepAliveTimeInNanos,
+    this(keepAlivePinger, scheduler, null, Stopwatch.createUnstarted(), keepAliveTimeInNanos,
         keepAliveTimeoutInNanos,
         keepAliveDuringTransportIdle);
   }
 
+  /**
+   * Creates a KeepAliveManager whose pings are scheduled by {@code coordinator}, batched with the
+   * pings of other transports. Ping timeouts are still scheduled on {@code scheduler}.
+   */
+  public KeepAliveManager(KeepAlivePinger keepAlivePinger, ScheduledExecutorService scheduler,
+                          KeepAliveCoordinator coordinator, long keepAliveTimeInNanos,
+                          long keepAliveTimeoutInNanos, boolean keepAliveDuringTransportIdle) {
+    this(keepAlivePinger, scheduler, checkNotNull(coordinator, "coordinator"),
+        Stopwatch.createUnstarted(), keepAliveTimeInNanos, keepAliveTimeoutInNanos,
+        keepAliveDuringTransportIdle);
+  }
+
   @VisibleForTesting
   KeepAliveManager(KeepAlivePinger keepAlivePinger, ScheduledExecutorService scheduler,
       Stopwatch stopwatch, long keepAliveTimeInNanos, long keepAliveTimeoutInNanos,
                    boolean keepAliveDuringTransportIdle) {
+    this(keepAlivePinger, scheduler, null, stopwatch, keepAliveTimeInNanos,
+        keepAliveTimeoutInNanos, keepAliveDuringTransportIdle);
+  }
+
+  @VisibleForTesting
+  KeepAliveManager(KeepAlivePinger keepAlivePinger, ScheduledExecutorService scheduler,
+      @Nullable KeepAliveCoordinator coordinator, Stopwatch stopwatch, long keepAliveTimeInNanos,
+      long keepAliveTimeoutInNanos, boolean keepAliveDuringTransportIdle) {
     this.keepAlivePinger = checkNotNull(keepAlivePinger, "keepAlivePinger");
     this.scheduler = checkNotNull(scheduler, "scheduler");
+    this.coordinator = coordinator;
     this.stopwatch = checkNotNull(stopwatch, "stopwatch");
     this.keepAliveTimeInNanos = keepAliveTimeInNanos;
     this.keepAliveTimeoutInNanos = keepAliveTimeoutInNanos;
@@ -147,6 +170,14 @@ public class KeepAliveManager {
     stopwatch.reset().start();
   }
 
+  @GuardedBy("this")
+  private Future<?> schedulePing(long delayInNanos) {
+    if (coordinator != null) {
+      return coordinator.schedule(sendPing, delayInNanos);
+    }
+    return scheduler.schedule(sendPing, delayInNanos, TimeUnit.NANOSECONDS);
+  }
+
   /** Start keepalive monitoring. */
   public synchronized void onTransportStarted() {
     if (keepAliveDuringTransportIdle) {
@@ -178,7 +209,7 @@ public class KeepAliveManager {
       // schedule a new ping
       state = State.PING_SCHEDULED;
       checkState(pingFuture == null, "There should be no outstanding pingFuture");
-      pingFuture = scheduler.schedule(sendPing, keepAliveTimeInNanos, TimeUnit.NANOSECONDS);
+      pingFuture = schedulePing(keepAliveTimeInNanos);
     }
   }
 
@@ -191,10 +222,8 @@ public class KeepAliveManager {
       // quickly check whether the connection is still working.
       state = State.PING_SCHEDULED;
       if (pingFuture == null) {
-        pingFuture = scheduler.schedule(
-            sendPing,
-            keepAliveTimeInNanos - stopwatch.elapsed(TimeUnit.NANOSECONDS),
-            TimeUnit.NANOSECONDS);
+        pingFuture = schedulePing(
+            keepAliveTimeInNanos - stopwatch.elapsed(TimeUnit.NANOSECONDS));
       }
     } else if (state == State.IDLE_AND_PING_SENT) {
       state = State.PING_SENT;
@@ -69,6 +69,7 @@ import io.grpc.NameResolver.ResolutionResult;
 import io.grpc.NameResolverRegistry;
 import io.grpc.ProxyDetector;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.grpc.SynchronizationContext;
 import io.grpc.SynchronizationContext.ScheduledHandle;
 import io.grpc.internal.AutoConfiguredLoadBalancerFactory.AutoConfiguredLoadBalancer;
@@ -264,6 +265,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
   private final long perRpcBufferLimit;
   private final long channelBufferLimit;
 
+  private final int maxConnectionsPerSubchannel;
+  private final int streamsPerConnection;
+
   // Temporary false flag that can skip the retry code path.
   private final boolean retryEnabled;
 
@@ -499,14 +503,7 @@ final class ManagedChannelImpl extends ManagedChannel implements
         final Metadata headers,
         final Context context) {
       if (!retryEnabled) {
-        ClientTransport transport =
-            getTransport(new PickSubchannelArgsImpl(method, headers, callOptions));
-        Context origContext = context.attach();
-        try {
-          return transport.newStream(method, headers, callOptions);
-        } finally {
-          context.detach(origContext);
-        }
+        return newStreamOnPickedTransport(method, headers, callOptions, context);
       } else {
         final Throttle throttle = lastServiceConfig.getRetryThrottling();
         final class RetryStream<ReqT> extends RetriableStream<ReqT> {
@@ -538,20 +535,34 @@ final class ManagedChannelImpl extends ManagedChannel implements
           @Override
           ClientStream newSubstream(ClientStreamTracer.Factory tracerFactory, Metadata newHeaders) {
             CallOptions newOptions = callOptions.withStreamTracerFactory(tracerFactory);
-            ClientTransport transport =
-                getTransport(new PickSubchannelArgsImpl(method, newHeaders, newOptions));
-            Context origContext = context.attach();
-            try {
-              return transport.newStream(method, newHeaders, newOptions);
-            } finally {
-              context.detach(origContext);
-            }
+            return newStreamOnPickedTransport(method, newHeaders, newOptions, context);
           }
         }
 
         return new RetryStream<>();
       }
     }
+
+    private ClientStream newStreamOnPickedTransport(
+        MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions,
+        Context context) {
+      CallPhaseRecorder phaseRecorder = CallPhaseRecorder.get(callOptions);
+      long pickStartNanos = phaseRecorder != null ? System.nanoTime() : 0;
+      ClientTransport transport =
+          getTransport(new PickSubchannelArgsImpl(method, headers, callOptions));
+      long pickNanos = phaseRecorder != null ? System.nanoTime() - pickStartNanos : 0;
+      ClientStream stream;
+      Context origContext = context.attach();
+      try {
+        stream = transport.newStream(method, headers, callOptions);
+      } finally {
+        context.detach(origContext);
+      }
+      if (phaseRecorder != null) {
+        phaseRecorder.phaseCompleted(StreamTracer.Phase.PICK, pickNanos);
+      }
+      return stream;
+    }
   }
 
   private final ClientStreamProvider transportProvider = new ChannelStreamProvider();
@@ -664,6 +675,8 @@ final class ManagedChannelImpl extends ManagedChannel implements
 
     this.channelBufferLimit = builder.retryBufferSize;
     this.perRpcBufferLimit = builder.perRpcBufferLimit;
+    this.maxConnectionsPerSubchannel = builder.maxConnectionsPerSubchannel;
+    this.streamsPerConnection = builder.streamsPerConnection;
     final class ChannelCallTracerFactory implements CallTracer.Factory {
       @Override
       public CallTracer create() {
@@ -683,6 +696,11 @@ final class ManagedChannelImpl extends ManagedChannel implements
       }
       handleServiceConfigUpdate();
     }
+
+    if (builder.connectEagerly) {
+      channelLogger.log(ChannelLogLevel.DEBUG, "Connecting eagerly");
+      getState(true);
+    }
   }
 
   // May only be called in constructor or syncContext
@@ -894,7 +912,7 @@ final class ManagedChannelImpl extends ManagedChannel implements
       return new ClientCallImpl<>(
           method,
           getCallExecutor(callOptions),
-          callOptions,
+          CallPhaseRecorder.enableIfRequested(callOptions),
           transportProvider,
           terminated ? null : transportFactory.getScheduledExecutorService(),
           channelCallTracer)
@@ -1241,7 +1259,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
           callTracerFactory.create(),
           subchannelTracer,
           subchannelLogId,
-          subchannelLogger);
+          subchannelLogger,
+          /* maxConnections= */ 1,
+          streamsPerConnection);
       oobChannelTracer.reportEvent(new ChannelTrace.Event.Builder()
           .setDescription("Child Subchannel created")
           .setSeverity(ChannelTrace.Event.Severity.CT_INFO)
@@ -1614,7 +1634,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
           callTracerFactory.create(),
           subchannelTracer,
           subchannelLogId,
-          subchannelLogger);
+          subchannelLogger,
+          maxConnectionsPerSubchannel,
+          streamsPerConnection);
 
       channelTracer.reportEvent(new ChannelTrace.Event.Builder()
           .setDescription("Child Subchannel started")
@@ -27,6 +27,7 @@ import io.grpc.Compressor;
 import io.grpc.Drainable;
 import io.grpc.KnownLength;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -130,6 +131,7 @@ public class MessageFramer implements Framer {
     currentMessageSeqNo++;
     currentMessageWireSize = 0;
     statsTraceCtx.outboundMessage(currentMessageSeqNo);
+    long startNanos = statsTraceCtx.isPhaseTimingEnabled() ? System.nanoTime() : 0;
     boolean compressed = messageCompression && compressor != Codec.Identity.NONE;
     int written = -1;
     int messageLength = -2;
@@ -157,6 +159,10 @@ public class MessageFramer implements Framer {
       String err = String.format("Message length inaccurate %s != %s", written, messageLength);
       throw Status.INTERNAL.withDescription(err).asRuntimeException();
     }
+    if (statsTraceCtx.isPhaseTimingEnabled()) {
+      statsTraceCtx.phaseCompleted(
+          StreamTracer.Phase.SERIALIZATION, System.nanoTime() - startNanos);
+    }
     statsTraceCtx.outboundUncompressedSize(written);
     statsTraceCtx.outboundWireSize(currentMessageWireSize);
     statsTraceCtx.outboundMessageSent(currentMessageSeqNo, currentMessageWireSize, written);
@@ -37,6 +37,7 @@ import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.ServerCall;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.perfmark.PerfMark;
 import io.perfmark.Tag;
 import java.io.InputStream;
@@ -53,6 +54,7 @@ final class ServerCallImpl<ReqT, RespT> extends ServerCall<ReqT, RespT> {
   static final String MISSING_RESPONSE = "Completed without a response";
 
   private final ServerStream stream;
+  private final StatsTraceContext statsTraceCtx;
   private final MethodDescriptor<ReqT, RespT> method;
   private final Tag tag;
   private final Context.CancellableContext context;
@@ -73,6 +75,7 @@ final class ServerCallImpl<ReqT, RespT> extends ServerCall<ReqT, RespT> {
       DecompressorRegistry decompressorRegistry, CompressorRegistry compressorRegistry,
       CallTracer serverCallTracer, Tag tag) {
     this.stream = stream;
+    this.statsTraceCtx = stream.statsTraceContext();
     this.method = method;
     this.context = context;
     this.messageAcceptEncoding = inboundHeaders.get(MESSAGE_ACCEPT_ENCODING_KEY);
@@ -306,7 +309,7 @@ final class ServerCallImpl<ReqT, RespT> extends ServerCall<ReqT, RespT> {
       try {
         while ((message = producer.next()) != null) {
           try {
-            listener.onMessage(call.method.parseRequest(message));
+            listener.onMessage(parseRequest(message));
           } catch (Throwable t) {
             GrpcUtil.closeQuietly(message);
             throw t;
@@ -320,6 +323,17 @@ final class ServerCallImpl<ReqT, RespT> extends ServerCall<ReqT, RespT> {
       }
     }
 
+    private ReqT parseRequest(InputStream message) {
+      if (!call.statsTraceCtx.isPhaseTimingEnabled()) {
+        return call.method.parseRequest(message);
+      }
+      long startNanos = System.nanoTime();
+      ReqT request = call.method.parseRequest(message);
+      call.statsTraceCtx.phaseCompleted(
+          StreamTracer.Phase.DESERIALIZATION, System.nanoTime() - startNanos);
+      return request;
+    }
+
     @Override
     public void halfClosed() {
       PerfMark.startTask("ServerStreamListener.halfClosed", call.tag);
@@ -52,6 +52,7 @@ import io.grpc.ServerMethodDefinition;
 import io.grpc.ServerServiceDefinition;
 import io.grpc.ServerTransportFilter;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.perfmark.Link;
 import io.perfmark.PerfMark;
 import io.perfmark.Tag;
@@ -71,6 +72,7 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 /**
@@ -95,7 +97,15 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
   private final ObjectPool<? extends Executor> executorPool;
   /** Executor for application processing. Safe to read after {@link #start()}. */
   private Executor executor;
-  private final HandlerRegistry registry;
+  private final boolean deadlineOrderedExecution;
+  /** Whether calls run on their transport's executor instead of {@link #executor}. */
+  private final boolean transportThreadExecution;
+  /**
+   * Orders work for {@link #executor} by deadline, or {@code null} if disabled. Safe to read after
+   * {@link #start()}.
+   */
+  @Nullable private DeadlineOrderedExecutor deadlineOrderedExecutor;
+  private final InternalHandlerRegistry registry;
   private final HandlerRegistry fallbackRegistry;
   private final List<ServerTransportFilter> transportFilters;
   // This is iterated on a per-call basis.  Use an array instead of a Collection to avoid iterator
@@ -125,6 +135,7 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
 
   private final InternalChannelz channelz;
   private final CallTracer serverCallTracer;
+  private final LongCounter callsExpired = LongCounterFactory.create();
   private final Deadline.Ticker ticker;
 
   /**
@@ -139,6 +150,8 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
       List<? extends InternalServer> transportServers,
       Context rootContext) {
     this.executorPool = Preconditions.checkNotNull(builder.executorPool, "executorPool");
+    this.deadlineOrderedExecution = builder.deadlineOrderedExecution;
+    this.transportThreadExecution = builder.transportThreadExecution;
     this.registry = Preconditions.checkNotNull(builder.registryBuilder.build(), "registryBuilder");
     this.fallbackRegistry =
         Preconditions.checkNotNull(builder.fallbackRegistry, "fallbackRegistry");
@@ -184,6 +197,9 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
         activeTransportServers++;
       }
       executor = Preconditions.checkNotNull(executorPool.getObject(), "executor");
+      if (deadlineOrderedExecution && executor != directExecutor()) {
+        deadlineOrderedExecutor = new DeadlineOrderedExecutor(executor);
+      }
       started = true;
       return this;
     }
@@ -467,6 +483,13 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
     }
 
 
+    @Override
+    @Nullable
+    public String lookupMethodName(byte[] methodName, int offset, int length) {
+      ServerMethodDefinition<?, ?> method = registry.lookupMethod(methodName, offset, length);
+      return method == null ? null : method.getMethodDescriptor().getFullMethodName();
+    }
+
     @Override
     public void streamCreated(ServerStream stream, String methodName, Metadata headers) {
       Tag tag = PerfMark.createTag(methodName, stream.streamId());
@@ -480,14 +503,8 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
 
     private void streamCreatedInternal(
         final ServerStream stream, final String methodName, final Metadata headers, final Tag tag) {
-      final Executor wrappedExecutor;
-      // This is a performance optimization that avoids the synchronization and queuing overhead
-      // that comes with SerializingExecutor.
       if (executor == directExecutor()) {
-        wrappedExecutor = new SerializeReentrantCallsDirectExecutor();
         stream.optimizeForDirectExecutor();
-      } else {
-        wrappedExecutor = new SerializingExecutor(executor);
       }
 
       if (headers.containsKey(MESSAGE_ENCODING_KEY)) {
@@ -509,11 +526,27 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
 
       final Context.CancellableContext context = createContext(headers, statsTraceCtx);
 
+      final Executor wrappedExecutor;
+      if (transportThreadExecution) {
+        // A single thread runs the transport and its calls, so callbacks are already serialized
+        // and nothing needs to change threads between reading a message and writing a response.
+        wrappedExecutor = transport.getScheduledExecutorService();
+      } else if (executor == directExecutor()) {
+        // This is a performance optimization that avoids the synchronization and queuing overhead
+        // that comes with SerializingExecutor.
+        wrappedExecutor = new SerializeReentrantCallsDirectExecutor();
+      } else if (deadlineOrderedExecutor != null) {
+        wrappedExecutor =
+            new SerializingExecutor(deadlineOrderedExecutor.forDeadline(context.getDeadline()));
+      } else {
+        wrappedExecutor = new SerializingExecutor(executor);
+      }
+
       final Link link = PerfMark.linkOut();
 
       final JumpToApplicationThreadServerStreamListener jumpListener
           = new JumpToApplicationThreadServerStreamListener(
-          wrappedExecutor, executor, stream, context, tag);
+          wrappedExecutor, executor, stream, statsTraceCtx, context, tag);
       stream.setListener(jumpListener);
       // Run in wrappedExecutor so jumpListener.setListener() is called before any callbacks
       // are delivered, including any errors. Callbacks can still be triggered, but they will be
@@ -538,6 +571,18 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
         private void runInternal() {
           ServerStreamListener listener = NOOP_LISTENER;
           try {
+            if (context.isCancelled()) {
+              // The deadline expired or the client cancelled while the call was waiting for the
+              // executor, so nobody is waiting for the result.
+              Status status = statusFromCancelled(context);
+              if (DEADLINE_EXCEEDED.getCode().equals(status.getCode())) {
+                callsExpired.add(1);
+                // The listener that cancels the stream on deadline is only added once the call
+                // starts, so nothing else would close the stream.
+                stream.cancel(status);
+              }
+              return;
+            }
             ServerMethodDefinition<?, ?> method = registry.lookupMethod(methodName);
             if (method == null) {
               method = fallbackRegistry.lookupMethod(methodName, stream.getAuthority());
@@ -670,6 +715,7 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
       }
     }
     serverCallTracer.updateBuilder(builder);
+    builder.setCallsExpired(callsExpired.value());
     SettableFuture<ServerStats> ret = SettableFuture.create();
     ret.set(builder.build());
     return ret;
@@ -725,15 +771,18 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
     private final Executor cancelExecutor;
     private final Context.CancellableContext context;
     private final ServerStream stream;
+    private final StatsTraceContext statsTraceCtx;
     private final Tag tag;
     // Only accessed from callExecutor.
     private ServerStreamListener listener;
 
     public JumpToApplicationThreadServerStreamListener(Executor executor,
-        Executor cancelExecutor, ServerStream stream, Context.CancellableContext context, Tag tag) {
+        Executor cancelExecutor, ServerStream stream, StatsTraceContext statsTraceCtx,
+        Context.CancellableContext context, Tag tag) {
       this.callExecutor = executor;
       this.cancelExecutor = cancelExecutor;
       this.stream = stream;
+      this.statsTraceCtx = statsTraceCtx;
       this.context = context;
       this.tag = tag;
     }
@@ -769,6 +818,7 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
       final Link link = PerfMark.linkOut();
 
       final class MessagesAvailable extends ContextRunnable {
+        final long enqueuedNanos = statsTraceCtx.isPhaseTimingEnabled() ? System.nanoTime() : 0;
 
         MessagesAvailable() {
           super(context);
@@ -778,7 +828,16 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
         public void runInContext() {
           PerfMark.startTask("ServerCallListener(app).messagesAvailable", tag);
           PerfMark.linkIn(link);
+          if (statsTraceCtx.isPhaseTimingEnabled()) {
+            statsTraceCtx.phaseCompleted(
+                StreamTracer.Phase.EXECUTOR_QUEUE, System.nanoTime() - enqueuedNanos);
+          }
           try {
+            if (context.isCancelled()) {
+              // The call is going away, so don't spend time deserializing its messages
+              GrpcUtil.closeQuietly(producer);
+              return;
+            }
             getListener().messagesAvailable(producer);
           } catch (Throwable t) {
             internalClose(t);
@@ -811,6 +870,9 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
           PerfMark.startTask("ServerCallListener(app).halfClosed", tag);
           PerfMark.linkIn(link);
           try {
+            if (context.isCancelled()) {
+              return;
+            }
             getListener().halfClosed();
           } catch (Throwable t) {
             internalClose(t);
@@ -18,6 +18,7 @@ package io.grpc.internal;
 
 import io.grpc.Attributes;
 import io.grpc.Metadata;
+import javax.annotation.Nullable;
 
 /**
  * A observer of a server-side transport for stream creation events. Notifications must occur from
@@ -33,6 +34,18 @@ public interface ServerTransportListener {
    */
   void streamCreated(ServerStream stream, String method, Metadata headers);
 
+  /**
+   * Returns the fully qualified name of a method that is registered with the server, given the
+   * UTF-8 bytes of the name, without creating a new {@code String}. Transports use it to avoid
+   * converting the request path of every stream into a {@code String} before calling {@link
+   * #streamCreated}.
+   *
+   * @return the method name, or {@code null} if it is unknown, in which case the transport must
+   *     decode the name itself
+   */
+  @Nullable
+  String lookupMethodName(byte[] methodName, int offset, int length);
+
   /**
    * The transport has finished all handshakes and is ready to process streams.
    *
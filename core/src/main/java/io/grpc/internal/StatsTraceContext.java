@@ -39,9 +39,12 @@ import javax.annotation.concurrent.ThreadSafe;
  */
 @ThreadSafe
 public final class StatsTraceContext {
-  public static final StatsTraceContext NOOP = new StatsTraceContext(new StreamTracer[0]);
+  private static final StreamTracer[] NO_TRACERS = new StreamTracer[0];
+  public static final StatsTraceContext NOOP = new StatsTraceContext(NO_TRACERS);
 
   private final StreamTracer[] tracers;
+  // The tracers whose factories enabled phase timing
+  private final StreamTracer[] phaseTracers;
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
   /**
@@ -62,7 +65,21 @@ public final class StatsTraceContext {
     for (int i = 0; i < tracers.length; i++) {
       tracers[i] = factories.get(i).newClientStreamTracer(info, headers);
     }
-    return new StatsTraceContext(tracers);
+    CallPhaseRecorder phaseRecorder = CallPhaseRecorder.get(callOptions);
+    if (phaseRecorder == null) {
+      return new StatsTraceContext(tracers, NO_TRACERS);
+    }
+    // The call only has a recorder if some of its factories enabled phase timing
+    List<StreamTracer> phaseTracers = new ArrayList<>(tracers.length);
+    for (int i = 0; i < tracers.length; i++) {
+      if (factories.get(i).isPhaseTimingEnabled()) {
+        phaseTracers.add(tracers[i]);
+      }
+    }
+    StatsTraceContext ctx =
+        new StatsTraceContext(tracers, phaseTracers.toArray(new StreamTracer[0]));
+    phaseRecorder.streamCreated(ctx);
+    return ctx;
   }
 
   /**
@@ -76,15 +93,43 @@ public final class StatsTraceContext {
       return NOOP;
     }
     StreamTracer[] tracers = new StreamTracer[factories.size()];
+    int phaseTracerCount = 0;
     for (int i = 0; i < tracers.length; i++) {
-      tracers[i] = factories.get(i).newServerStreamTracer(fullMethodName, headers);
+      ServerStreamTracer.Factory factory = factories.get(i);
+      tracers[i] = factory.newServerStreamTracer(fullMethodName, headers);
+      if (factory.isPhaseTimingEnabled()) {
+        phaseTracerCount++;
+      }
+    }
+    if (phaseTracerCount == 0) {
+      return new StatsTraceContext(tracers, NO_TRACERS);
     }
-    return new StatsTraceContext(tracers);
+    StreamTracer[] phaseTracers = new StreamTracer[phaseTracerCount];
+    for (int i = 0, j = 0; i < tracers.length; i++) {
+      if (factories.get(i).isPhaseTimingEnabled()) {
+        phaseTracers[j++] = tracers[i];
+      }
+    }
+    return new StatsTraceContext(tracers, phaseTracers);
   }
 
   @VisibleForTesting
   StatsTraceContext(StreamTracer[] tracers) {
+    this(tracers, false);
+  }
+
+  /**
+   * Creates a context whose tracers all have phase timing enabled if {@code phaseTimingEnabled},
+   * and otherwise none of them.
+   */
+  @VisibleForTesting
+  StatsTraceContext(StreamTracer[] tracers, boolean phaseTimingEnabled) {
+    this(tracers, phaseTimingEnabled ? tracers : NO_TRACERS);
+  }
+
+  private StatsTraceContext(StreamTracer[] tracers, StreamTracer[] phaseTracers) {
     this.tracers = tracers;
+    this.phaseTracers = phaseTracers;
   }
 
   /**
@@ -254,4 +299,24 @@ public final class StatsTraceContext {
       tracer.inboundWireSize(bytes);
     }
   }
+
+  /**
+   * Returns whether phases should be timed and reported to {@link #phaseCompleted}. Callers should
+   * not read the clock for phase timings unless this returns {@code true}.
+   */
+  public boolean isPhaseTimingEnabled() {
+    return phaseTracers.length != 0;
+  }
+
+  /**
+   * See {@link StreamTracer#phaseCompleted}. Only reported to the tracers whose factories enabled
+   * phase timing.
+   *
+   * <p>Called from wherever the phase is timed.
+   */
+  public void phaseCompleted(StreamTracer.Phase phase, long durationNanos) {
+    for (StreamTracer tracer : phaseTracers) {
+      tracer.phaseCompleted(phase, durationNanos);
+    }
+  }
 }
@@ -0,0 +1,533 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ScheduledExecutorService} backed by a hashed hierarchical timer wheel, for the large
+ * numbers of mostly-cancelled timers that deadlines and keepalives create.
+ *
+ * <p>Scheduling and cancelling are O(1) and lock-free: new and cancelled tasks are queued and
+ * linked into or out of the wheel by a single worker thread, which also runs the tasks. Tasks run
+ * at the first tick at or after their delay has elapsed, so they may run up to one tick late. When
+ * only distant tasks are scheduled, the worker still wakes at least once per revolution of the
+ * innermost wheel (256 ticks) to unlink cancelled tasks, so that they and what they reference do
+ * not stay reachable until their deadline.
+ */
+final class TimerWheel extends AbstractExecutorService implements ScheduledExecutorService {
+  static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final int WHEEL_BITS = 8;
+  private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final int LEVELS = 4;
+  // Keeps deadline arithmetic far away from overflow
+  private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 2;
+
+  private final Ticker ticker;
+  private final long tickNanos;
+  private final long startNanos;
+  private final Queue<WheelTask<?>> pendingTasks = new ConcurrentLinkedQueue<>();
+  private final Queue<WheelTask<?>> cancelledTasks = new ConcurrentLinkedQueue<>();
+  @Nullable private final Thread worker;
+  private final AtomicBoolean workerStarted = new AtomicBoolean();
+  private final CountDownLatch terminated = new CountDownLatch(1);
+  private volatile boolean shutdown;
+  private volatile boolean shutdownNow;
+  /** When the worker will next wake up on its own. */
+  private volatile long plannedWakeupNanos;
+
+  // Only accessed by the worker thread
+  private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+  /** The next tick to be processed. */
+  private long currentTick;
+  /** Number of tasks linked into buckets. */
+  private int size;
+  /** Number of tasks linked into the buckets of each level. */
+  private final int[] levelSizes = new int[LEVELS];
+
+  TimerWheel(ThreadFactory threadFactory, long tickNanos) {
+    this(Ticker.systemTicker(), tickNanos, checkNotNull(threadFactory, "threadFactory"));
+  }
+
+  /**
+   * Creates a wheel. If {@code threadFactory} is {@code null} no worker is started, and ticks are
+   * only processed by {@link #runDueTicks}.
+   */
+  @VisibleForTesting
+  TimerWheel(Ticker ticker, long tickNanos, @Nullable ThreadFactory threadFactory) {
+    checkArgument(tickNanos > 0, "tickNanos must be positive");
+    this.ticker = checkNotNull(ticker, "ticker");
+    this.tickNanos = tickNanos;
+    this.startNanos = ticker.read();
+    this.plannedWakeupNanos = startNanos;
+    for (int level = 0; level < LEVELS; level++) {
+      for (int i = 0; i < WHEEL_SIZE; i++) {
+        wheels[level][i] = new Bucket(level);
+      }
+    }
+    this.worker = threadFactory == null ? null : threadFactory.newThread(new Worker());
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    WheelTask<Void> task = new WheelTask<>(
+        Executors.<Void>callable(checkNotNull(command, "command"), null),
+        deadlineAfter(delay, unit), 0);
+    enqueue(task);
+    return task;
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    WheelTask<V> task =
+        new WheelTask<>(checkNotNull(callable, "callable"), deadlineAfter(delay, unit), 0);
+    enqueue(task);
+    return task;
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit) {
+    checkArgument(period > 0, "period must be positive");
+    WheelTask<Void> task = new WheelTask<>(
+        Executors.<Void>callable(checkNotNull(command, "command"), null),
+        deadlineAfter(initialDelay, unit), clampDelay(period, unit));
+    enqueue(task);
+    return task;
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    checkArgument(delay > 0, "delay must be positive");
+    WheelTask<Void> task = new WheelTask<>(
+        Executors.<Void>callable(checkNotNull(command, "command"), null),
+        deadlineAfter(initialDelay, unit), -clampDelay(delay, unit));
+    enqueue(task);
+    return task;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    schedule(command, 0, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    wakeUpWorker();
+  }
+
+  /**
+   * Cancels all scheduled tasks. Since tasks are only tracked by the worker thread, the returned
+   * list is always empty.
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdownNow = true;
+    shutdown = true;
+    if (worker != null && workerStarted.get()) {
+      worker.interrupt();
+    }
+    wakeUpWorker();
+    return Collections.emptyList();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  /** Returns the number of tasks linked into the wheel. Only for use by the worker or tests. */
+  @VisibleForTesting
+  int size() {
+    return size;
+  }
+
+  /**
+   * Processes all ticks up to the current time. Only for use in tests when there is no worker
+   * thread.
+   */
+  @VisibleForTesting
+  void runDueTicks() {
+    checkState(worker == null, "wheel has a worker thread");
+    if (shutdownNow) {
+      cancelAll();
+      terminate();
+      return;
+    }
+    processTicks(ticker.read());
+    if (shutdown && size == 0 && pendingTasks.isEmpty()) {
+      terminate();
+    }
+  }
+
+  private static long clampDelay(long delay, TimeUnit unit) {
+    return Math.min(Math.max(0, unit.toNanos(delay)), MAX_DELAY_NANOS);
+  }
+
+  private long deadlineAfter(long delay, TimeUnit unit) {
+    checkNotNull(unit, "unit");
+    return ticker.read() + clampDelay(delay, unit);
+  }
+
+  private void enqueue(WheelTask<?> task) {
+    if (shutdown) {
+      throw new RejectedExecutionException("TimerWheel is shut down");
+    }
+    pendingTasks.add(task);
+    if (shutdown && pendingTasks.remove(task)) {
+      throw new RejectedExecutionException("TimerWheel is shut down");
+    }
+    if (worker != null) {
+      if (!workerStarted.get() && workerStarted.compareAndSet(false, true)) {
+        worker.start();
+      } else if (task.deadlineNanos - plannedWakeupNanos < 0) {
+        LockSupport.unpark(worker);
+      }
+    }
+  }
+
+  private void wakeUpWorker() {
+    if (worker == null) {
+      return;
+    }
+    if (workerStarted.get() || !workerStarted.compareAndSet(false, true)) {
+      LockSupport.unpark(worker);
+    } else {
+      // The worker never ran, so there is nothing to clean up
+      terminate();
+    }
+  }
+
+  private void terminate() {
+    terminated.countDown();
+  }
+
+  private long expirationTick(long deadlineNanos) {
+    long sinceStart = deadlineNanos - startNanos;
+    return sinceStart <= 0 ? 0 : (sinceStart + tickNanos - 1) / tickNanos;
+  }
+
+  private void processTicks(long nowNanos) {
+    WheelTask<?> task;
+    while ((task = cancelledTasks.poll()) != null) {
+      if (task.bucket != null) {
+        task.bucket.remove(task);
+      }
+    }
+    while ((task = pendingTasks.poll()) != null) {
+      if (!task.isCancelled()) {
+        insert(task);
+      }
+    }
+    long targetTick = (nowNanos - startNanos) / tickNanos;
+    while (currentTick <= targetTick) {
+      long nextTick = size == 0 ? Long.MAX_VALUE : nextEventTick();
+      if (nextTick > targetTick) {
+        // Nothing else to expire or cascade yet, so jump straight to the present
+        currentTick = targetTick + 1;
+        break;
+      }
+      currentTick = nextTick;
+      processTick(currentTick);
+      currentTick++;
+    }
+  }
+
+  /**
+   * Returns the first tick from the current one that has tasks to run in the innermost wheel or
+   * that cascades tasks from the outer wheels. Must only be called when the wheel is not empty.
+   */
+  private long nextEventTick() {
+    long revolutionEnd = 0;
+    for (int level = 0; level < LEVELS; level++) {
+      int shift = level * WHEEL_BITS;
+      long position = currentTick >> shift;
+      // The bucket at the current position of an outer wheel was already cascaded, unless that
+      // happens at the current tick
+      long first = level == 0 || (currentTick & ((1L << shift) - 1)) == 0 ? position : position + 1;
+      revolutionEnd = (position | WHEEL_MASK) + 1;
+      for (long p = first; p < revolutionEnd; p++) {
+        if (!wheels[level][(int) (p & WHEEL_MASK)].isEmpty()) {
+          return p << shift;
+        }
+      }
+      if (levelSizes[level] > 0) {
+        // Tasks are in buckets for the next revolution of this wheel
+        return revolutionEnd << shift;
+      }
+    }
+    return revolutionEnd << ((LEVELS - 1) * WHEEL_BITS);
+  }
+
+  private void processTick(long tick) {
+    int index = (int) (tick & WHEEL_MASK);
+    if (index == 0) {
+      cascade(1, tick);
+    }
+    Bucket bucket = wheels[0][index];
+    WheelTask<?> task;
+    while ((task = bucket.poll()) != null) {
+      if (!task.isCancelled()) {
+        task.run();
+      }
+    }
+  }
+
+  /** Moves the tasks of the level's current bucket into lower levels. */
+  private void cascade(int level, long tick) {
+    int index = (int) ((tick >> (level * WHEEL_BITS)) & WHEEL_MASK);
+    if (index == 0 && level + 1 < LEVELS) {
+      cascade(level + 1, tick);
+    }
+    Bucket bucket = wheels[level][index];
+    WheelTask<?> task;
+    while ((task = bucket.poll()) != null) {
+      insert(task);
+    }
+  }
+
+  private void insert(WheelTask<?> task) {
+    long tick = Math.max(task.expirationTick, currentTick);
+    for (int level = 0; level < LEVELS; level++) {
+      int shift = level * WHEEL_BITS;
+      if ((tick >> shift) - (currentTick >> shift) < WHEEL_SIZE) {
+        wheels[level][(int) ((tick >> shift) & WHEEL_MASK)].add(task);
+        return;
+      }
+    }
+    // Beyond the outermost wheel. Park it in the last bucket to be cascaded, which re-inserts it.
+    int shift = (LEVELS - 1) * WHEEL_BITS;
+    wheels[LEVELS - 1][(int) (((currentTick >> shift) + WHEEL_SIZE - 1) & WHEEL_MASK)].add(task);
+  }
+
+  /** Returns when the worker needs to process ticks next, assuming no new tasks arrive. */
+  private long nextWakeupNanos(long nowNanos) {
+    if (size == 0) {
+      return nowNanos + MAX_DELAY_NANOS;
+    }
+    long eventNanos = startNanos + nextEventTick() * tickNanos;
+    // Cancelled tasks stay linked into their buckets until the worker wakes up, so don't sleep
+    // through more than one revolution of the innermost wheel
+    long latestNanos = nowNanos + WHEEL_SIZE * tickNanos;
+    return eventNanos - latestNanos < 0 ? eventNanos : latestNanos;
+  }
+
+  private void cancelAll() {
+    WheelTask<?> task;
+    while ((task = pendingTasks.poll()) != null) {
+      task.cancel(false);
+    }
+    for (Bucket[] wheel : wheels) {
+      for (Bucket bucket : wheel) {
+        while ((task = bucket.poll()) != null) {
+          task.cancel(false);
+        }
+      }
+    }
+    cancelledTasks.clear();
+  }
+
+  private final class Worker implements Runnable {
+    @Override
+    public void run() {
+      try {
+        while (!shutdownNow) {
+          long now = ticker.read();
+          plannedWakeupNanos = now;
+          processTicks(now);
+          if (shutdown && size == 0 && pendingTasks.isEmpty()) {
+            break;
+          }
+          long wakeup = nextWakeupNanos(now);
+          plannedWakeupNanos = wakeup;
+          if (!pendingTasks.isEmpty() || shutdownNow) {
+            continue;
+          }
+          long sleepNanos = wakeup - ticker.read();
+          if (sleepNanos > 0) {
+            LockSupport.parkNanos(TimerWheel.this, sleepNanos);
+          }
+        }
+      } finally {
+        cancelAll();
+        terminate();
+      }
+    }
+  }
+
+  /** Intrusive doubly-linked list of tasks. Only accessed by the worker thread. */
+  private final class Bucket {
+    private final int level;
+    private WheelTask<?> head;
+    private WheelTask<?> tail;
+
+    Bucket(int level) {
+      this.level = level;
+    }
+
+    boolean isEmpty() {
+      return head == null;
+    }
+
+    void add(WheelTask<?> task) {
+      task.bucket = this;
+      task.prev = tail;
+      task.next = null;
+      if (tail == null) {
+        head = task;
+      } else {
+        tail.next = task;
+      }
+      tail = task;
+      levelSizes[level]++;
+      size++;
+    }
+
+    @Nullable
+    WheelTask<?> poll() {
+      WheelTask<?> task = head;
+      if (task != null) {
+        remove(task);
+      }
+      return task;
+    }
+
+    void remove(WheelTask<?> task) {
+      if (task.prev == null) {
+        head = task.next;
+      } else {
+        task.prev.next = task.next;
+      }
+      if (task.next == null) {
+        tail = task.prev;
+      } else {
+        task.next.prev = task.prev;
+      }
+      task.bucket = null;
+      task.prev = null;
+      task.next = null;
+      levelSizes[level]--;
+      size--;
+    }
+  }
+
+  private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+    /** Positive for fixed rate, negative for fixed delay, zero for one-shot tasks. */
+    private final long periodNanos;
+    // Only modified by the worker thread before the task is re-queued
+    private volatile long deadlineNanos;
+    private long expirationTick;
+
+    // Only accessed by the worker thread
+    @Nullable private Bucket bucket;
+    @Nullable private WheelTask<?> prev;
+    @Nullable private WheelTask<?> next;
+
+    WheelTask(Callable<V> callable, long deadlineNanos, long periodNanos) {
+      super(callable);
+      this.periodNanos = periodNanos;
+      setDeadline(deadlineNanos);
+    }
+
+    private void setDeadline(long deadlineNanos) {
+      this.deadlineNanos = deadlineNanos;
+      this.expirationTick = expirationTick(deadlineNanos);
+    }
+
+    @Override
+    public boolean isPeriodic() {
+      return periodNanos != 0;
+    }
+
+    @Override
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+        return;
+      }
+      if (shutdown) {
+        cancel(false);
+        return;
+      }
+      if (runAndReset()) {
+        setDeadline(periodNanos > 0 ? deadlineNanos + periodNanos : ticker.read() - periodNanos);
+        pendingTasks.add(this);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        cancelledTasks.add(this);
+      }
+      return cancelled;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(deadlineNanos - ticker.read(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      if (other == this) {
+        return 0;
+      }
+      long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+      return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+    }
+  }
+}
@@ -48,7 +48,7 @@ public final class TransportFrameUtil {
    * @return the interleaved keys and values.
    */
   public static byte[][] toHttp2Headers(Metadata headers) {
-    byte[][] serializedHeaders = InternalMetadata.serialize(headers);
+    byte[][] serializedHeaders = InternalMetadata.serializeBase64Binary(headers);
     // TODO(carl-mastrangelo): eventually remove this once all callers are updated.
     if (serializedHeaders == null) {
       return new byte[][]{};
@@ -58,10 +58,9 @@ public final class TransportFrameUtil {
       byte[] key = serializedHeaders[i];
       byte[] value = serializedHeaders[i + 1];
       if (endsWith(key, binaryHeaderSuffixBytes)) {
-        // Binary header.
+        // Binary header, already base64 encoded.
         serializedHeaders[k] = key;
-        serializedHeaders[k + 1]
-            = InternalMetadata.BASE64_ENCODING_OMIT_PADDING.encode(value).getBytes(US_ASCII);
+        serializedHeaders[k + 1] = value;
         k += 2;
       } else {
         // Non-binary header.
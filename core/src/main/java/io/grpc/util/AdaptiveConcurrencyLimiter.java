@@ -0,0 +1,460 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Context;
+import io.grpc.ExperimentalApi;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Limits the number of concurrent calls with a limit that adapts to the observed round-trip time,
+ * following the TCP Vegas congestion avoidance algorithm. The lowest observed RTT is used as the
+ * no-load baseline; when the RTT of completed calls grows beyond it, calls are assumed to be
+ * queueing and the limit is reduced, otherwise it is increased.
+ *
+ * <p>Calls above the limit are failed immediately with {@link Status.Code#RESOURCE_EXHAUSTED}
+ * instead of being queued. A limiter can be installed on a server with {@link
+ * #newServerInterceptor()} or on a channel with {@link #newClientInterceptor()}. The same instance
+ * may be shared by several servers or channels to limit them jointly, but should not be installed
+ * on both the client and server side of a call.
+ *
+ * <p>Server interceptors run in the server's executor, so calls queued behind a busy executor are
+ * not seen by the limiter until they reach the front of the queue. To reject calls before they
+ * queue, use a direct executor on the server and hand off handler work to a separate executor.
+ */
+@ExperimentalApi("Adaptive concurrency limiting is experimental")
+@ThreadSafe
+public final class AdaptiveConcurrencyLimiter {
+  @VisibleForTesting
+  static final Status LIMIT_EXCEEDED =
+      Status.RESOURCE_EXHAUSTED.withDescription("Concurrency limit exceeded");
+
+  /** Number of samples after which the no-load RTT is re-measured. */
+  @VisibleForTesting
+  static final int PROBE_INTERVAL_SAMPLES = 1000;
+
+  private final Ticker ticker;
+  private final int minLimit;
+  private final int maxLimit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Object lock = new Object();
+
+  // Written under lock, read without it on the call path
+  private volatile int limit;
+
+  @GuardedBy("lock")
+  private double estimatedLimit;
+  @GuardedBy("lock")
+  private long minRttNanos;
+  @GuardedBy("lock")
+  private int samplesSinceProbe;
+
+  private AdaptiveConcurrencyLimiter(Builder builder) {
+    this.ticker = builder.ticker;
+    this.minLimit = builder.minLimit;
+    this.maxLimit = builder.maxLimit;
+    this.estimatedLimit = builder.initialLimit;
+    this.limit = builder.initialLimit;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /** Returns the current concurrency limit. */
+  public int getLimit() {
+    return limit;
+  }
+
+  /** Returns the number of calls currently admitted by this limiter. */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Returns an interceptor that rejects server calls above the limit and samples the time from
+   * the start of each admitted call until it completes.
+   */
+  public ServerInterceptor newServerInterceptor() {
+    return new LimitingServerInterceptor();
+  }
+
+  /**
+   * Returns an interceptor that rejects client calls above the limit and samples the time from
+   * the start of each admitted call until it is closed. Rejected calls are closed with {@code
+   * RESOURCE_EXHAUSTED} through the call's executor like other calls, without creating a stream.
+   */
+  public ClientInterceptor newClientInterceptor() {
+    return new LimitingClientInterceptor();
+  }
+
+  /** Returns a permit for a new call, or {@code null} if the limit has been reached. */
+  @Nullable
+  @VisibleForTesting
+  Permit tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return null;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return new Permit(ticker.read(), current + 1);
+      }
+    }
+  }
+
+  private void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+    synchronized (lock) {
+      if (rttNanos <= 0) {
+        return;
+      }
+      if (++samplesSinceProbe >= PROBE_INTERVAL_SAMPLES) {
+        samplesSinceProbe = 0;
+        minRttNanos = 0;
+      }
+      if (minRttNanos == 0 || rttNanos < minRttNanos) {
+        minRttNanos = rttNanos;
+      }
+      double current = estimatedLimit;
+      double step = Math.max(1, Math.log10(current));
+      double newLimit;
+      if (dropped) {
+        newLimit = current - step;
+      } else if (inFlightAtStart * 2 < current) {
+        // The limit was not what bounded this call, so it carries no information about whether
+        // the limit is too low.
+        return;
+      } else {
+        double queueSize = Math.ceil(current * (1 - (double) minRttNanos / rttNanos));
+        double alpha = 3 * step;
+        double beta = 6 * step;
+        if (queueSize <= step) {
+          newLimit = current + beta;
+        } else if (queueSize < alpha) {
+          newLimit = current + step;
+        } else if (queueSize > beta) {
+          newLimit = current - step;
+        } else {
+          return;
+        }
+      }
+      estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+      limit = (int) estimatedLimit;
+    }
+  }
+
+  private static boolean isDropped(Status status) {
+    switch (status.getCode()) {
+      case RESOURCE_EXHAUSTED:
+      case DEADLINE_EXCEEDED:
+      case UNAVAILABLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /** Admission of a single call. Releasing it more than once has no effect. */
+  @VisibleForTesting
+  final class Permit {
+    private final long startNanos;
+    private final int inFlightAtStart;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Permit(long startNanos, int inFlightAtStart) {
+      this.startNanos = startNanos;
+      this.inFlightAtStart = inFlightAtStart;
+    }
+
+    /**
+     * Releases the permit. If {@code status} is non-null, the call's RTT is used to update the
+     * limit; otherwise the call's outcome is ignored, for example when it was cancelled.
+     */
+    void release(@Nullable Status status) {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      inFlight.decrementAndGet();
+      if (status != null) {
+        onSample(ticker.read() - startNanos, inFlightAtStart, isDropped(status));
+      }
+    }
+  }
+
+  private final class LimitingServerInterceptor implements ServerInterceptor {
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+        ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+      final Permit permit = tryAcquire();
+      if (permit == null) {
+        call.close(LIMIT_EXCEEDED, new Metadata());
+        return new ServerCall.Listener<ReqT>() {};
+      }
+      final StatusRecordingServerCall<ReqT, RespT> recordingCall =
+          new StatusRecordingServerCall<>(call);
+      ServerCall.Listener<ReqT> listener;
+      try {
+        listener = next.startCall(recordingCall, headers);
+      } catch (RuntimeException e) {
+        permit.release(null);
+        throw e;
+      }
+      return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(listener) {
+        @Override
+        public void onComplete() {
+          try {
+            super.onComplete();
+          } finally {
+            permit.release(recordingCall.status == null ? Status.OK : recordingCall.status);
+          }
+        }
+
+        @Override
+        public void onCancel() {
+          try {
+            super.onCancel();
+          } finally {
+            permit.release(null);
+          }
+        }
+      };
+    }
+  }
+
+  private static final class StatusRecordingServerCall<ReqT, RespT>
+      extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+    volatile Status status;
+
+    StatusRecordingServerCall(ServerCall<ReqT, RespT> delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void close(Status status, Metadata trailers) {
+      this.status = status;
+      super.close(status, trailers);
+    }
+  }
+
+  private final class LimitingClientInterceptor implements ClientInterceptor {
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+      return new LimitingClientCall<>(next, method, callOptions);
+    }
+  }
+
+  /**
+   * Creates the channel's call when it is started, once it is known whether the call is admitted.
+   */
+  private final class LimitingClientCall<ReqT, RespT>
+      extends ForwardingClientCall<ReqT, RespT> {
+    private final Channel next;
+    private final MethodDescriptor<ReqT, RespT> method;
+    private final CallOptions callOptions;
+    // The context the call was created in, which the channel's call would have captured
+    private final Context context = Context.current();
+    private final Object lock = new Object();
+    // Created by start(), or by a cancel() that comes first. Written under lock, but read without
+    // it by the methods that may only be called after start()
+    private volatile ClientCall<ReqT, RespT> delegate;
+    private volatile boolean rejected;
+
+    LimitingClientCall(Channel next, MethodDescriptor<ReqT, RespT> method,
+        CallOptions callOptions) {
+      this.next = next;
+      this.method = method;
+      this.callOptions = callOptions;
+    }
+
+    @Override
+    protected ClientCall<ReqT, RespT> delegate() {
+      ClientCall<ReqT, RespT> call = delegate;
+      checkState(call != null, "Not started");
+      return call;
+    }
+
+    @Override
+    public void start(final Listener<RespT> responseListener, Metadata headers) {
+      ClientCall<ReqT, RespT> call;
+      final Permit permit;
+      synchronized (lock) {
+        call = delegate;
+        if (call != null) {
+          // Cancelled before being started, which the channel's call reports
+          permit = null;
+        } else {
+          permit = tryAcquire();
+          if (permit == null) {
+            // The channel fails calls whose context is already cancelled without creating a
+            // stream, and closes them through the call executor like any other call.
+            Context.CancellableContext rejectedContext = context.withCancellation();
+            rejectedContext.cancel(LIMIT_EXCEEDED.asRuntimeException());
+            call = newCall(rejectedContext);
+            rejected = true;
+          } else {
+            call = newCall(context);
+          }
+          delegate = call;
+        }
+      }
+      if (permit == null) {
+        if (!rejected) {
+          call.start(responseListener, headers);
+          return;
+        }
+        call.start(
+            new Listener<RespT>() {
+              @Override
+              public void onClose(Status status, Metadata trailers) {
+                responseListener.onClose(LIMIT_EXCEEDED, new Metadata());
+              }
+            },
+            headers);
+        // In case the channel does not honor the cancelled context
+        call.cancel(LIMIT_EXCEEDED.getDescription(), null);
+        return;
+      }
+      Listener<RespT> releasingListener =
+          new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(
+              responseListener) {
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+              permit.release(status.getCode() == Status.Code.CANCELLED ? null : status);
+              super.onClose(status, trailers);
+            }
+          };
+      try {
+        call.start(releasingListener, headers);
+      } catch (RuntimeException e) {
+        permit.release(null);
+        throw e;
+      }
+    }
+
+    @Override
+    public void cancel(@Nullable String message, @Nullable Throwable cause) {
+      ClientCall<ReqT, RespT> call;
+      synchronized (lock) {
+        call = delegate;
+        if (call == null) {
+          call = newCall(context);
+          delegate = call;
+        }
+      }
+      call.cancel(message, cause);
+    }
+
+    @Override
+    public void sendMessage(ReqT message) {
+      if (!rejected) {
+        super.sendMessage(message);
+      }
+    }
+
+    @Override
+    public void halfClose() {
+      if (!rejected) {
+        super.halfClose();
+      }
+    }
+
+    @Override
+    public boolean isReady() {
+      return !rejected && super.isReady();
+    }
+
+    private ClientCall<ReqT, RespT> newCall(Context callContext) {
+      Context previous = callContext.attach();
+      try {
+        return next.newCall(method, callOptions);
+      } finally {
+        callContext.detach(previous);
+      }
+    }
+  }
+
+  /** Builder for {@link AdaptiveConcurrencyLimiter}. */
+  public static final class Builder {
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Builder() {}
+
+    /** Sets the limit used before any RTT has been sampled. Defaults to 20. */
+    public Builder setInitialLimit(int initialLimit) {
+      checkArgument(initialLimit > 0, "initialLimit must be positive");
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    /** Sets the lowest value the limit may adapt to. Defaults to 1. */
+    public Builder setMinLimit(int minLimit) {
+      checkArgument(minLimit > 0, "minLimit must be positive");
+      this.minLimit = minLimit;
+      return this;
+    }
+
+    /** Sets the highest value the limit may adapt to. Defaults to 1000. */
+    public Builder setMaxLimit(int maxLimit) {
+      checkArgument(maxLimit > 0, "maxLimit must be positive");
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    @VisibleForTesting
+    Builder setTicker(Ticker ticker) {
+      this.ticker = checkNotNull(ticker, "ticker");
+      return this;
+    }
+
+    /** Builds the limiter. */
+    public AdaptiveConcurrencyLimiter build() {
+      checkArgument(minLimit <= maxLimit, "minLimit must not exceed maxLimit");
+      checkArgument(
+          initialLimit >= minLimit && initialLimit <= maxLimit,
+          "initialLimit must be between minLimit and maxLimit");
+      return new AdaptiveConcurrencyLimiter(this);
+    }
+  }
+}
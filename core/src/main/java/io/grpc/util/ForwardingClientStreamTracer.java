@@ -87,6 +87,11 @@ public abstract class ForwardingClientStreamTracer extends ClientStreamTracer {
     delegate().inboundUncompressedSize(bytes);
   }
 
+  @Override
+  public void phaseCompleted(Phase phase, long durationNanos) {
+    delegate().phaseCompleted(phase, durationNanos);
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this).add("delegate", delegate()).toString();
@@ -19,28 +19,29 @@ package io.grpc.util;
 import io.grpc.BindableService;
 import io.grpc.ExperimentalApi;
 import io.grpc.HandlerRegistry;
-import io.grpc.MethodDescriptor;
 import io.grpc.ServerMethodDefinition;
 import io.grpc.ServerServiceDefinition;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Map;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * Default implementation of {@link MutableHandlerRegistry}.
  *
- * <p>Uses {@link ConcurrentHashMap} to avoid service registration excessively
- * blocking method lookup.
+ * <p>Lookups read an immutable snapshot of the registered services, which is replaced on every
+ * registration. Method lookup is a single map lookup that does not allocate or block, at the cost
+ * of copying the registry whenever a service is added or removed.
  */
 @ThreadSafe
 @ExperimentalApi("https://github.com/grpc/grpc-java/issues/933")
 public final class MutableHandlerRegistry extends HandlerRegistry {
-  private final ConcurrentMap<String, ServerServiceDefinition> services
-      = new ConcurrentHashMap<>();
+  private final Object lock = new Object();
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
 
   /**
    * Registers a service.
@@ -50,7 +51,21 @@ public final class MutableHandlerRegistry extends HandlerRegistry {
    */
   @Nullable
   public ServerServiceDefinition addService(ServerServiceDefinition service) {
-    return services.put(service.getServiceDescriptor().getName(), service);
+    String serviceName = service.getServiceDescriptor().getName();
+    synchronized (lock) {
+      Snapshot current = snapshot;
+      Map<String, ServerServiceDefinition> services = new LinkedHashMap<>(current.services);
+      Map<String, ServerMethodDefinition<?, ?>> methods = new HashMap<>(current.methods);
+      ServerServiceDefinition previous = services.put(serviceName, service);
+      if (previous != null) {
+        removeMethods(methods, previous);
+      }
+      for (ServerMethodDefinition<?, ?> method : service.getMethods()) {
+        methods.put(method.getMethodDescriptor().getFullMethodName(), method);
+      }
+      snapshot = new Snapshot(services, methods);
+      return previous;
+    }
   }
 
   /**
@@ -70,16 +85,36 @@ public final class MutableHandlerRegistry extends HandlerRegistry {
    * @return true if the service was found to be removed.
    */
   public boolean removeService(ServerServiceDefinition service) {
-    return services.remove(service.getServiceDescriptor().getName(), service);
+    String serviceName = service.getServiceDescriptor().getName();
+    synchronized (lock) {
+      Snapshot current = snapshot;
+      if (current.services.get(serviceName) != service) {
+        return false;
+      }
+      Map<String, ServerServiceDefinition> services = new LinkedHashMap<>(current.services);
+      Map<String, ServerMethodDefinition<?, ?>> methods = new HashMap<>(current.methods);
+      services.remove(serviceName);
+      removeMethods(methods, service);
+      snapshot = new Snapshot(services, methods);
+      return true;
+    }
+  }
+
+  private static void removeMethods(
+      Map<String, ServerMethodDefinition<?, ?>> methods, ServerServiceDefinition service) {
+    for (ServerMethodDefinition<?, ?> method : service.getMethods()) {
+      methods.remove(method.getMethodDescriptor().getFullMethodName());
+    }
   }
 
   /**
-   *  Note: This does not necessarily return a consistent view of the map.
+   * Returns the services registered when this method is called. The returned list is not updated
+   * by later registrations.
    */
   @Override
   @ExperimentalApi("https://github.com/grpc/grpc-java/issues/2222")
   public List<ServerServiceDefinition> getServices() {
-    return Collections.unmodifiableList(new ArrayList<>(services.values()));
+    return snapshot.serviceList;
   }
 
   /**
@@ -88,14 +123,25 @@ public final class MutableHandlerRegistry extends HandlerRegistry {
   @Override
   @Nullable
   public ServerMethodDefinition<?, ?> lookupMethod(String methodName, @Nullable String authority) {
-    String serviceName = MethodDescriptor.extractFullServiceName(methodName);
-    if (serviceName == null) {
-      return null;
-    }
-    ServerServiceDefinition service = services.get(serviceName);
-    if (service == null) {
-      return null;
+    return snapshot.methods.get(methodName);
+  }
+
+  /** The registered services and their methods. Never modified once created. */
+  private static final class Snapshot {
+    static final Snapshot EMPTY = new Snapshot(
+        Collections.<String, ServerServiceDefinition>emptyMap(),
+        Collections.<String, ServerMethodDefinition<?, ?>>emptyMap());
+
+    final Map<String, ServerServiceDefinition> services;
+    final List<ServerServiceDefinition> serviceList;
+    final Map<String, ServerMethodDefinition<?, ?>> methods;
+
+    Snapshot(
+        Map<String, ServerServiceDefinition> services,
+        Map<String, ServerMethodDefinition<?, ?>> methods) {
+      this.services = services;
+      this.serviceList = Collections.unmodifiableList(new ArrayList<>(services.values()));
+      this.methods = methods;
     }
-    return service.getMethod(methodName);
   }
 }
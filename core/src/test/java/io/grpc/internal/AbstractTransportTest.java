@@ -2145,6 +2145,11 @@ public abstract class AbstractTransportTest {
       stream.setListener(listener);
     }
 
+    @Override
+    public String lookupMethodName(byte[] methodName, int offset, int length) {
+      return null;
+    }
+
     @Override
     public Attributes transportReady(Attributes attributes) {
       return Attributes.newBuilder()
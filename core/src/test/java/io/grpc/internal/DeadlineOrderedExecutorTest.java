@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import io.grpc.Deadline;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link DeadlineOrderedExecutor}. */
+@RunWith(JUnit4.class)
+public class DeadlineOrderedExecutorTest {
+  private final FakeClock fakeClock = new FakeClock();
+  private final DeadlineOrderedExecutor executor =
+      new DeadlineOrderedExecutor(fakeClock.getScheduledExecutorService());
+  private final List<String> runOrder = new ArrayList<>();
+
+  @Test
+  public void runsEarliestDeadlineFirst() {
+    executor.forDeadline(null).execute(new Record("none"));
+    executor.forDeadline(deadlineAfterMillis(30)).execute(new Record("30ms"));
+    executor.forDeadline(deadlineAfterMillis(10)).execute(new Record("10ms"));
+    executor.forDeadline(deadlineAfterMillis(20)).execute(new Record("20ms"));
+    assertEquals(4, executor.size());
+
+    assertEquals(4, fakeClock.runDueTasks());
+
+    assertThat(runOrder).containsExactly("10ms", "20ms", "30ms", "none").inOrder();
+    assertEquals(0, executor.size());
+  }
+
+  @Test
+  public void equalDeadlinesRunInSubmissionOrder() {
+    Executor sameDeadline = executor.forDeadline(deadlineAfterMillis(10));
+    sameDeadline.execute(new Record("first"));
+    executor.forDeadline(null).execute(new Record("none"));
+    sameDeadline.execute(new Record("second"));
+
+    fakeClock.runDueTasks();
+
+    assertThat(runOrder).containsExactly("first", "second", "none").inOrder();
+  }
+
+  @Test
+  public void delegateRejection_taskRemoved() {
+    DeadlineOrderedExecutor rejecting = new DeadlineOrderedExecutor(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    });
+
+    try {
+      rejecting.forDeadline(null).execute(new Record("rejected"));
+      fail("Should have thrown");
+    } catch (RejectedExecutionException expected) {
+      // expected
+    }
+    assertEquals(0, rejecting.size());
+  }
+
+  private Deadline deadlineAfterMillis(long millis) {
+    return Deadline.after(millis, TimeUnit.MILLISECONDS, fakeClock.getDeadlineTicker());
+  }
+
+  private final class Record implements Runnable {
+    private final String name;
+
+    Record(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void run() {
+      runOrder.add(name);
+    }
+  }
+}
@@ -42,9 +42,13 @@ import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.MethodDescriptor.MethodType;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.grpc.StringMarshaller;
 import io.grpc.SynchronizationContext;
 import io.grpc.internal.ClientStreamListener.RpcProgress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -153,6 +157,36 @@ public class DelayedClientTransportTest {
     verifyNoMoreInteractions(streamListener);
   }
 
+  @Test public void phaseTiming_reportsPendingTransport() {
+    final List<StreamTracer.Phase> phases = new ArrayList<>();
+    StreamTracer tracer = new StreamTracer() {
+      @Override
+      public void phaseCompleted(Phase phase, long durationNanos) {
+        assertTrue(durationNanos >= 0);
+        phases.add(phase);
+      }
+    };
+    final CallPhaseRecorder phaseRecorder = new CallPhaseRecorder();
+    final StatsTraceContext statsTraceCtx =
+        new StatsTraceContext(new StreamTracer[] {tracer}, true);
+    CallOptions phaseCallOptions = callOptions.withOption(CallPhaseRecorder.KEY, phaseRecorder);
+    when(mockRealTransport.newStream(same(method), same(headers), same(phaseCallOptions)))
+        .thenAnswer(new Answer<ClientStream>() {
+          @Override
+          public ClientStream answer(InvocationOnMock invocation) {
+            // Done by the real transport when it creates the stream
+            phaseRecorder.streamCreated(statsTraceCtx);
+            return mockRealStream;
+          }
+        });
+
+    delayedTransport.newStream(method, headers, phaseCallOptions);
+    delayedTransport.reprocess(mockPicker);
+    assertEquals(1, fakeExecutor.runDueTasks());
+
+    assertEquals(Arrays.asList(StreamTracer.Phase.PENDING_TRANSPORT), phases);
+  }
+
   @Test public void newStreamThenAssignTransportThenShutdown() {
     ClientStream stream = delayedTransport.newStream(method, headers, callOptions);
     assertEquals(1, delayedTransport.getPendingStreamsCount());
@@ -463,6 +497,42 @@ public class DelayedClientTransportTest {
     verify(transportListener).transportTerminated();
   }
 
+  @Test
+  public void reprocess_streamsSharingExecutorCreatedInBatches() {
+    int streamCount = 300;
+    for (int i = 0; i < streamCount; i++) {
+      delayedTransport.newStream(method, headers, callOptions);
+    }
+
+    delayedTransport.reprocess(mockPicker);
+    assertEquals(0, delayedTransport.getPendingStreamsCount());
+    verify(mockRealTransport, never()).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+    // Batches are capped at 128 streams
+    assertEquals(3, fakeExecutor.runDueTasks());
+    verify(mockRealTransport, times(streamCount))
+        .newStream(same(method), same(headers), same(callOptions));
+  }
+
+  @Test
+  public void reprocess_streamCreationFailureFailsOnlyThatStream() {
+    CallOptions failingCallOptions = callOptions.withWaitForReady();
+    RuntimeException failure = new RuntimeException("newStream failed");
+    when(mockRealTransport.newStream(same(method), same(headers), same(failingCallOptions)))
+        .thenThrow(failure);
+    ClientStream failing = delayedTransport.newStream(method, headers, failingCallOptions);
+    failing.start(streamListener);
+    delayedTransport.newStream(method, headers, callOptions);
+
+    delayedTransport.reprocess(mockPicker);
+    assertEquals(1, fakeExecutor.runDueTasks());
+
+    verify(streamListener).closed(statusCaptor.capture(), any(Metadata.class));
+    assertEquals(Status.Code.UNKNOWN, statusCaptor.getValue().getCode());
+    assertSame(failure, statusCaptor.getValue().getCause());
+    verify(mockRealTransport).newStream(same(method), same(headers), same(callOptions));
+  }
+
   @Test
   public void reprocess_NoPendingStream() {
     SubchannelPicker picker = mock(SubchannelPicker.class);
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.testing.TestMethodDescriptors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link InternalHandlerRegistry}. */
+@RunWith(JUnit4.class)
+public class InternalHandlerRegistryTest {
+  private static final ServerCallHandler<Void, Void> HANDLER = new ServerCallHandler<Void, Void>() {
+    @Override
+    public ServerCall.Listener<Void> startCall(ServerCall<Void, Void> call, Metadata headers) {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  @Test
+  public void lookupMethodByBytes() {
+    InternalHandlerRegistry.Builder builder = new InternalHandlerRegistry.Builder();
+    for (int i = 0; i < 100; i++) {
+      builder.addService(newService("package.Service" + i, 10));
+    }
+    InternalHandlerRegistry registry = builder.build();
+
+    assertTrue(registry.hasMethodTable());
+    for (ServerServiceDefinition service : registry.getServices()) {
+      for (ServerMethodDefinition<?, ?> method : service.getMethods()) {
+        String name = method.getMethodDescriptor().getFullMethodName();
+        assertSame(method, lookupMethod(registry, name));
+        assertSame(method, registry.lookupMethod(name, null));
+      }
+    }
+  }
+
+  @Test
+  public void lookupMethodByBytes_withOffset() {
+    InternalHandlerRegistry registry = new InternalHandlerRegistry.Builder()
+        .addService(newService("package.Service", 1))
+        .build();
+    byte[] path = "/package.Service/Method0".getBytes(UTF_8);
+
+    ServerMethodDefinition<?, ?> method = registry.lookupMethod(path, 1, path.length - 1);
+
+    assertThat(method.getMethodDescriptor().getFullMethodName())
+        .isEqualTo("package.Service/Method0");
+  }
+
+  @Test
+  public void lookupMethodByBytes_unknownMethod() {
+    InternalHandlerRegistry registry = new InternalHandlerRegistry.Builder()
+        .addService(newService("package.Service", 3))
+        .build();
+
+    assertNull(lookupMethod(registry, "package.Service/Method3"));
+    assertNull(lookupMethod(registry, "package.Service/Method"));
+    assertNull(lookupMethod(registry, "package.Service/Method00"));
+    assertNull(lookupMethod(registry, ""));
+  }
+
+  @Test
+  public void lookupMethodByBytes_emptyRegistry() {
+    InternalHandlerRegistry registry = new InternalHandlerRegistry.Builder().build();
+
+    assertNull(lookupMethod(registry, "package.Service/Method0"));
+  }
+
+  private static ServerMethodDefinition<?, ?> lookupMethod(
+      InternalHandlerRegistry registry, String name) {
+    byte[] bytes = name.getBytes(UTF_8);
+    return registry.lookupMethod(bytes, 0, bytes.length);
+  }
+
+  private static ServerServiceDefinition newService(String serviceName, int methodCount) {
+    ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(serviceName);
+    for (int i = 0; i < methodCount; i++) {
+      builder.addMethod(
+          MethodDescriptor.<Void, Void>newBuilder()
+              .setType(MethodDescriptor.MethodType.UNARY)
+              .setFullMethodName(MethodDescriptor.generateFullMethodName(serviceName, "Method" + i))
+              .setRequestMarshaller(TestMethodDescriptors.voidMarshaller())
+              .setResponseMarshaller(TestMethodDescriptors.voidMarshaller())
+              .build(),
+          HANDLER);
+    }
+    return builder.build();
+  }
+}
@@ -41,17 +41,25 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Iterables;
 import io.grpc.Attributes;
+import io.grpc.CallOptions;
 import io.grpc.ConnectivityStateInfo;
 import io.grpc.EquivalentAddressGroup;
 import io.grpc.InternalChannelz;
 import io.grpc.InternalLogId;
 import io.grpc.InternalWithLogId;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.SynchronizationContext;
 import io.grpc.internal.InternalSubchannel.CallTracingTransport;
 import io.grpc.internal.InternalSubchannel.Index;
 import io.grpc.internal.InternalSubchannel.TransportLogger;
 import io.grpc.internal.TestUtils.MockClientTransportInfo;
+import io.grpc.testing.TestMethodDescriptors;
 import java.net.SocketAddress;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -87,6 +95,7 @@ public class InternalSubchannelTest {
   private static final ConnectivityStateInfo RESOURCE_EXHAUSTED_STATE =
       ConnectivityStateInfo.forTransientFailure(Status.RESOURCE_EXHAUSTED);
   private static final Status SHUTDOWN_REASON = Status.UNAVAILABLE.withDescription("for test");
+  private static final int STREAMS_PER_CONNECTION = 2;
 
   // For scheduled executor
   private final FakeClock fakeClock = new FakeClock();
@@ -1337,6 +1346,147 @@ public class InternalSubchannelTest {
     assertThat(index.getCurrentAddress()).isSameInstanceAs(addr2);
   }
 
+  @Test public void extraTransport_openedWhenStreamsSaturated() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(2, new EquivalentAddressGroup(addr));
+    MockClientTransportInfo first = connectReady();
+    ClientTransport firstTransport = internalSubchannel.obtainActiveTransport();
+    startStreams(firstTransport, STREAMS_PER_CONNECTION - 1);
+
+    // Below the threshold, no additional transport
+    assertSame(firstTransport, internalSubchannel.obtainActiveTransport());
+    verify(mockTransportFactory, times(1))
+        .newClientTransport(eq(addr), eq(createClientTransportOptions()),
+            isA(TransportLogger.class));
+
+    startStreams(firstTransport, 1);
+    assertSame(firstTransport, internalSubchannel.obtainActiveTransport());
+    verify(mockTransportFactory, times(2))
+        .newClientTransport(eq(addr), eq(createClientTransportOptions()),
+            isA(TransportLogger.class));
+    assertSame(first, transports.poll());
+    MockClientTransportInfo second = transports.poll();
+    second.listener.transportReady();
+    assertNoCallbackInvoke();
+
+    // New streams go to the least loaded transport
+    ClientTransport secondTransport = internalSubchannel.obtainActiveTransport();
+    assertSame(second.transport, ((CallTracingTransport) secondTransport).delegate());
+    startStreams(secondTransport, STREAMS_PER_CONNECTION);
+    // At maxConnections, no more transports even though both are saturated
+    internalSubchannel.obtainActiveTransport();
+    verify(mockTransportFactory, times(2))
+        .newClientTransport(eq(addr), eq(createClientTransportOptions()),
+            isA(TransportLogger.class));
+
+    internalSubchannel.shutdown(SHUTDOWN_REASON);
+    assertExactCallbackInvokes("onStateChange:SHUTDOWN");
+    verify(first.transport).shutdown(same(SHUTDOWN_REASON));
+    verify(second.transport).shutdown(same(SHUTDOWN_REASON));
+  }
+
+  @Test public void extraTransport_streamsCountedBeforeTheyStart() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(2, new EquivalentAddressGroup(addr));
+    MockClientTransportInfo first = connectReady();
+    ClientTransport firstTransport = internalSubchannel.obtainActiveTransport();
+    // A burst of streams created before any of them starts
+    for (int i = 0; i < STREAMS_PER_CONNECTION; i++) {
+      firstTransport.newStream(
+          TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT);
+    }
+
+    internalSubchannel.obtainActiveTransport();
+    verify(mockTransportFactory, times(2))
+        .newClientTransport(eq(addr), eq(createClientTransportOptions()),
+            isA(TransportLogger.class));
+    assertSame(first, transports.poll());
+    MockClientTransportInfo second = transports.poll();
+    second.listener.transportReady();
+    assertSame(second.transport,
+        ((CallTracingTransport) internalSubchannel.obtainActiveTransport()).delegate());
+  }
+
+  @Test public void extraTransport_discardedStreamsNotCounted() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(2, new EquivalentAddressGroup(addr));
+    MockClientTransportInfo first = connectReady();
+    FakeClock streamCreationExecutor = new FakeClock();
+    DelayedClientTransport delayedTransport = new DelayedClientTransport(
+        streamCreationExecutor.getScheduledExecutorService(), syncContext);
+    delayedTransport.start(mock(ManagedClientTransport.Listener.class));
+    ClientStream pendingStream = delayedTransport.newStream(
+        TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT);
+    pendingStream.start(mock(ClientStreamListener.class));
+    Subchannel subchannel = mock(Subchannel.class);
+    when(subchannel.getInternalSubchannel()).thenReturn(internalSubchannel);
+    SubchannelPicker picker = mock(SubchannelPicker.class);
+    when(picker.pickSubchannel(any(PickSubchannelArgs.class)))
+        .thenReturn(PickResult.withSubchannel(subchannel));
+
+    // Picked, then cancelled before the real stream replaces it
+    delayedTransport.reprocess(picker);
+    pendingStream.cancel(Status.CANCELLED);
+    assertEquals(1, streamCreationExecutor.runDueTasks());
+    verify(first.transport).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+
+    // The discarded stream doesn't count towards opening another transport
+    startStreams(internalSubchannel.obtainActiveTransport(), STREAMS_PER_CONNECTION - 1);
+    internalSubchannel.obtainActiveTransport();
+    verify(mockTransportFactory, times(1))
+        .newClientTransport(eq(addr), eq(createClientTransportOptions()),
+            isA(TransportLogger.class));
+  }
+
+  @Test public void extraTransport_replacesActiveTransportOnShutdown() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(2, new EquivalentAddressGroup(addr));
+    MockClientTransportInfo first = connectReady();
+    startStreams(internalSubchannel.obtainActiveTransport(), STREAMS_PER_CONNECTION);
+    internalSubchannel.obtainActiveTransport();
+    assertSame(first, transports.poll());
+    MockClientTransportInfo second = transports.poll();
+    second.listener.transportReady();
+
+    first.listener.transportShutdown(Status.UNAVAILABLE);
+    assertNoCallbackInvoke();
+    assertEquals(READY, internalSubchannel.getState());
+    assertSame(second.transport,
+        ((CallTracingTransport) internalSubchannel.obtainActiveTransport()).delegate());
+
+    second.listener.transportShutdown(Status.UNAVAILABLE);
+    assertExactCallbackInvokes("onStateChange:IDLE");
+  }
+
+  @Test public void singleConnection_neverOpensExtraTransport() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(addr);
+    connectReady();
+    startStreams(internalSubchannel.obtainActiveTransport(), 10 * STREAMS_PER_CONNECTION);
+
+    internalSubchannel.obtainActiveTransport();
+    verify(mockTransportFactory, times(1))
+        .newClientTransport(eq(addr), eq(createClientTransportOptions()),
+            isA(TransportLogger.class));
+  }
+
+  private MockClientTransportInfo connectReady() {
+    assertNull(internalSubchannel.obtainActiveTransport());
+    assertExactCallbackInvokes("onStateChange:CONNECTING");
+    MockClientTransportInfo info = transports.peek();
+    info.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:READY");
+    return info;
+  }
+
+  private static void startStreams(ClientTransport transport, int count) {
+    for (int i = 0; i < count; i++) {
+      transport.newStream(TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT)
+          .start(mock(ClientStreamListener.class));
+    }
+  }
+
   /** Create ClientTransportOptions. Should not be reused if it may be mutated. */
   private ClientTransportFactory.ClientTransportOptions createClientTransportOptions() {
     return new ClientTransportFactory.ClientTransportOptions()
@@ -1349,6 +1499,10 @@ public class InternalSubchannelTest {
   }
 
   private void createInternalSubchannel(EquivalentAddressGroup ... addrs) {
+    createInternalSubchannel(1, addrs);
+  }
+
+  private void createInternalSubchannel(int maxConnections, EquivalentAddressGroup ... addrs) {
     List<EquivalentAddressGroup> addressGroups = Arrays.asList(addrs);
     InternalLogId logId = InternalLogId.allocate("Subchannel", /*details=*/ AUTHORITY);
     ChannelTracer subchannelTracer = new ChannelTracer(logId, 10,
@@ -1359,7 +1513,9 @@ public class InternalSubchannelTest {
         channelz, CallTracer.getDefaultFactory().create(),
         subchannelTracer,
         logId,
-        new ChannelLoggerImpl(subchannelTracer, fakeClock.getTimeProvider()));
+        new ChannelLoggerImpl(subchannelTracer, fakeClock.getTimeProvider()),
+        maxConnections,
+        STREAMS_PER_CONNECTION);
   }
 
   private void assertNoCallbackInvoke() {
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.grpc.internal.KeepAliveManager.KeepAlivePinger;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link KeepAliveCoordinator}. */
+@RunWith(JUnit4.class)
+public class KeepAliveCoordinatorTest {
+  private static final long TICK_NANOS = 100;
+
+  private final FakeClock fakeClock = new FakeClock();
+  private final ScheduledExecutorService scheduler = fakeClock.getScheduledExecutorService();
+  private final KeepAliveCoordinator coordinator = new KeepAliveCoordinator(
+      new FixedObjectPool<>(scheduler), TICK_NANOS, fakeClock.getTicker());
+
+  @Test
+  public void checksInSameTickShareOneTimer() {
+    Runnable first = mock(Runnable.class);
+    Runnable second = mock(Runnable.class);
+    fakeClock.forwardNanos(10);
+    coordinator.schedule(first, 1000);
+    fakeClock.forwardNanos(30);
+    coordinator.schedule(second, 1000);
+
+    // Both are due in the tick ending at 1100
+    assertThat(fakeClock.numPendingTasks()).isEqualTo(1);
+    fakeClock.forwardNanos(1059);
+    verify(first, never()).run();
+    fakeClock.forwardNanos(1);
+    verify(first).run();
+    verify(second).run();
+    assertThat(coordinator.pendingTicks()).isEqualTo(0);
+  }
+
+  @Test
+  public void checkNeverRunsEarly() {
+    Runnable check = mock(Runnable.class);
+    fakeClock.forwardNanos(10);
+    coordinator.schedule(check, 100);
+
+    fakeClock.forwardNanos(99);
+    verify(check, never()).run();
+    fakeClock.forwardNanos(100);
+    verify(check).run();
+  }
+
+  @Test
+  public void cancelLastCheckCancelsTimer() {
+    Runnable check = mock(Runnable.class);
+    Runnable other = mock(Runnable.class);
+    Future<?> cancelled = coordinator.schedule(check, 1000);
+    coordinator.schedule(other, 1000);
+
+    cancelled.cancel(false);
+    assertThat(fakeClock.numPendingTasks()).isEqualTo(1);
+    fakeClock.forwardNanos(1000);
+    verify(check, never()).run();
+    verify(other).run();
+
+    coordinator.schedule(check, 1000).cancel(false);
+    assertThat(fakeClock.numPendingTasks()).isEqualTo(0);
+    assertThat(coordinator.pendingTicks()).isEqualTo(0);
+  }
+
+  @Test
+  public void keepAliveManagersBatchPings() {
+    KeepAlivePinger firstPinger = mock(KeepAlivePinger.class);
+    KeepAlivePinger secondPinger = mock(KeepAlivePinger.class);
+    fakeClock.forwardNanos(10);
+    KeepAliveManager first = new KeepAliveManager(firstPinger, scheduler, coordinator,
+        fakeClock.getStopwatchSupplier().get(), 1000, 2000, false);
+    first.onTransportActive();
+    fakeClock.forwardNanos(40);
+    KeepAliveManager second = new KeepAliveManager(secondPinger, scheduler, coordinator,
+        fakeClock.getStopwatchSupplier().get(), 1000, 2000, false);
+    second.onTransportActive();
+    assertThat(fakeClock.numPendingTasks()).isEqualTo(1);
+
+    // The second transport received data recently, so it skips its ping
+    fakeClock.forwardNanos(950);
+    second.onDataReceived();
+    fakeClock.forwardNanos(100);
+    verify(firstPinger).ping();
+    verify(secondPinger, never()).ping();
+
+    fakeClock.forwardNanos(900);
+    verify(secondPinger).ping();
+    verify(firstPinger, times(1)).ping();
+  }
+}
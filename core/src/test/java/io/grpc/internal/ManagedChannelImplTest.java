@@ -1993,8 +1993,10 @@ public class ManagedChannelImplTest {
     assertEquals(
         Arrays.asList(factory1, factory2),
         callOptionsCaptor.getValue().getStreamTracerFactories());
-    // The factories are safely not stubbed because we do not expect any usage of them.
-    verifyZeroInteractions(factory1);
+    // The factories are safely not stubbed because we do not expect any usage of them, other than
+    // asking whether the call's factories enable phase timing.
+    verify(factory1).isPhaseTimingEnabled();
+    verifyNoMoreInteractions(factory1);
     verifyZeroInteractions(factory2);
   }
 
@@ -2029,8 +2031,10 @@ public class ManagedChannelImplTest {
     assertEquals(
         Arrays.asList(factory1, factory2),
         callOptionsCaptor.getValue().getStreamTracerFactories());
-    // The factories are safely not stubbed because we do not expect any usage of them.
-    verifyZeroInteractions(factory1);
+    // The factories are safely not stubbed because we do not expect any usage of them, other than
+    // asking whether the call's factories enable phase timing.
+    verify(factory1).isPhaseTimingEnabled();
+    verifyNoMoreInteractions(factory1);
     verifyZeroInteractions(factory2);
   }
 
@@ -2067,6 +2071,41 @@ public class ManagedChannelImplTest {
     verify(mockLoadBalancerProvider).newLoadBalancer(any(Helper.class));
   }
 
+  @Test
+  public void connectEagerly_exitsIdleModeOnCreation() {
+    channelBuilder.nameResolverFactory(
+        new FakeNameResolverFactory.Builder(expectedUri).setResolvedAtStart(false).build());
+    channelBuilder.connectEagerly();
+    requestConnection = false;
+    createChannel();
+
+    verify(mockLoadBalancerProvider).newLoadBalancer(any(Helper.class));
+  }
+
+  @Test
+  public void awaitReady() throws Exception {
+    channelBuilder.nameResolverFactory(
+        new FakeNameResolverFactory.Builder(expectedUri).setResolvedAtStart(false).build());
+    createChannel();
+
+    assertFalse(channel.awaitReady(0, TimeUnit.NANOSECONDS));
+
+    updateBalancingStateSafely(helper, READY, mockPicker);
+    assertTrue(channel.awaitReady(0, TimeUnit.NANOSECONDS));
+    // The callback registered by the timed out wait
+    assertEquals(1, executor.runDueTasks());
+  }
+
+  @Test
+  public void awaitReady_shutdown() throws Exception {
+    channelBuilder.nameResolverFactory(
+        new FakeNameResolverFactory.Builder(expectedUri).setResolvedAtStart(false).build());
+    createChannel();
+    channel.shutdownNow();
+
+    assertFalse(channel.awaitReady(1, TimeUnit.HOURS));
+  }
+
   @SuppressWarnings("deprecation")
   @Test
   public void getState_withRequestConnect_IdleWithLbRunning() {
@@ -33,7 +33,9 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -85,6 +87,43 @@ public class MessageFramerTest {
     checkStats(2, 2);
   }
 
+  @Test
+  public void phaseTiming_reportsSerialization() {
+    final List<StreamTracer.Phase> phases = new ArrayList<>();
+    StreamTracer phaseTracer = new StreamTracer() {
+      @Override
+      public void phaseCompleted(Phase phase, long durationNanos) {
+        assertTrue(durationNanos >= 0);
+        phases.add(phase);
+      }
+    };
+    framer = new MessageFramer(
+        sink, allocator, new StatsTraceContext(new StreamTracer[] {phaseTracer}, true));
+
+    writeKnownLength(framer, new byte[]{3, 14});
+    writeUnknownLength(framer, new byte[]{3, 14});
+
+    assertEquals(
+        Arrays.asList(StreamTracer.Phase.SERIALIZATION, StreamTracer.Phase.SERIALIZATION), phases);
+  }
+
+  @Test
+  public void phaseTiming_disabledByDefault() {
+    final List<StreamTracer.Phase> phases = new ArrayList<>();
+    StreamTracer phaseTracer = new StreamTracer() {
+      @Override
+      public void phaseCompleted(Phase phase, long durationNanos) {
+        phases.add(phase);
+      }
+    };
+    framer = new MessageFramer(
+        sink, allocator, new StatsTraceContext(new StreamTracer[] {phaseTracer}));
+
+    writeKnownLength(framer, new byte[]{3, 14});
+
+    assertTrue(phases.isEmpty());
+  }
+
   @Test
   public void simpleUnknownLengthPayload() {
     writeUnknownLength(framer, new byte[]{3, 14});
@@ -88,6 +88,7 @@ public class ServerCallImplTest {
   @Before
   public void setUp() {
     MockitoAnnotations.initMocks(this);
+    when(stream.statsTraceContext()).thenReturn(StatsTraceContext.NOOP);
     context = Context.ROOT.withCancellation();
     call = new ServerCallImpl<>(stream, UNARY_METHOD, requestHeaders, context,
         DecompressorRegistry.getDefaultInstance(), CompressorRegistry.getDefaultInstance(),
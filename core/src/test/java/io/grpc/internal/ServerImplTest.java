@@ -86,6 +86,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -1051,7 +1052,9 @@ public class ServerImplTest {
 
     assertThat(statusCaptor.getValue().asException())
         .hasMessageThat().contains("context timed out");
-    assertTrue(callReference.get().isCancelled());
+    // The deadline expired before the call was dispatched, so it never reaches the application
+    assertNull(callReference.get());
+    assertEquals(1, server.getStats().get().callsExpired);
   }
 
   @Test
@@ -1119,6 +1122,138 @@ public class ServerImplTest {
     assertTrue(contextCancelled.get());
   }
 
+  @Test
+  public void deadlineExpiredWhileQueued_callNotDispatched() throws Exception {
+    createAndStartServer();
+    mutableFallbackRegistry.addService(ServerServiceDefinition.builder(
+        new ServiceDescriptor("Waiter", METHOD)).addMethod(METHOD, callHandler).build());
+    ServerTransportListener transportListener
+        = transportServer.registerNewServerTransport(new SimpleServerTransport());
+    transportListener.transportReady(Attributes.EMPTY);
+    Metadata requestHeaders = new Metadata();
+    requestHeaders.put(TIMEOUT_KEY, 100L);
+    StatsTraceContext statsTraceCtx =
+        StatsTraceContext.newServerContext(streamTracerFactories, "Waiter/serve", requestHeaders);
+    when(stream.statsTraceContext()).thenReturn(statsTraceCtx);
+
+    transportListener.streamCreated(stream, "Waiter/serve", requestHeaders);
+    verify(stream).setListener(streamListenerCaptor.capture());
+    streamListenerCaptor.getValue().halfClosed();
+    timer.forwardNanos(100);
+    assertEquals(1, executor.runDueTasks());
+
+    verify(callHandler, never()).startCall(
+        ArgumentMatchers.<ServerCall<String, Integer>>any(), ArgumentMatchers.<Metadata>any());
+    verify(stream).cancel(statusCaptor.capture());
+    assertEquals(Status.Code.DEADLINE_EXCEEDED, statusCaptor.getValue().getCode());
+    assertEquals(1, server.getStats().get().callsExpired);
+  }
+
+  @Test
+  public void deadlineExpiredAfterDispatch_halfCloseNotDelivered() throws Exception {
+    createAndStartServer();
+    when(callHandler.startCall(
+        ArgumentMatchers.<ServerCall<String, Integer>>any(), ArgumentMatchers.<Metadata>any()))
+        .thenReturn(callListener);
+    mutableFallbackRegistry.addService(ServerServiceDefinition.builder(
+        new ServiceDescriptor("Waiter", METHOD)).addMethod(METHOD, callHandler).build());
+    ServerTransportListener transportListener
+        = transportServer.registerNewServerTransport(new SimpleServerTransport());
+    transportListener.transportReady(Attributes.EMPTY);
+    Metadata requestHeaders = new Metadata();
+    requestHeaders.put(TIMEOUT_KEY, 100L);
+    StatsTraceContext statsTraceCtx =
+        StatsTraceContext.newServerContext(streamTracerFactories, "Waiter/serve", requestHeaders);
+    when(stream.statsTraceContext()).thenReturn(statsTraceCtx);
+
+    transportListener.streamCreated(stream, "Waiter/serve", requestHeaders);
+    verify(stream).setListener(streamListenerCaptor.capture());
+    ServerStreamListener streamListener = streamListenerCaptor.getValue();
+    assertEquals(1, executor.runDueTasks());
+
+    streamListener.halfClosed();
+    timer.forwardNanos(100);
+    verify(stream).cancel(statusCaptor.capture());
+    assertEquals(Status.Code.DEADLINE_EXCEEDED, statusCaptor.getValue().getCode());
+    assertEquals(1, executor.runDueTasks());
+
+    verify(callListener, never()).onHalfClose();
+    assertEquals(0, server.getStats().get().callsExpired);
+  }
+
+  @Test
+  public void deadlineOrderedExecution_dispatchesEarliestDeadlineFirst() throws Exception {
+    builder.deadlineOrderedExecution(true);
+    createAndStartServer();
+    final List<Long> dispatchedTimeouts = new ArrayList<>();
+    mutableFallbackRegistry.addService(ServerServiceDefinition.builder(
+        new ServiceDescriptor("Waiter", METHOD))
+        .addMethod(METHOD,
+            new ServerCallHandler<String, Integer>() {
+              @Override
+              public ServerCall.Listener<String> startCall(
+                  ServerCall<String, Integer> call,
+                  Metadata headers) {
+                dispatchedTimeouts.add(headers.get(TIMEOUT_KEY));
+                return callListener;
+              }
+            }).build());
+    ServerTransportListener transportListener
+        = transportServer.registerNewServerTransport(new SimpleServerTransport());
+    transportListener.transportReady(Attributes.EMPTY);
+
+    for (Long timeoutNanos : Arrays.asList(null, 200L, 100L)) {
+      Metadata requestHeaders = new Metadata();
+      if (timeoutNanos != null) {
+        requestHeaders.put(TIMEOUT_KEY, timeoutNanos);
+      }
+      StatsTraceContext statsTraceCtx = StatsTraceContext.newServerContext(
+          Collections.<ServerStreamTracer.Factory>emptyList(), "Waiter/serve", requestHeaders);
+      when(stream.statsTraceContext()).thenReturn(statsTraceCtx);
+      transportListener.streamCreated(stream, "Waiter/serve", requestHeaders);
+    }
+    assertEquals(3, executor.runDueTasks());
+
+    assertThat(dispatchedTimeouts).containsExactly(100L, 200L, null).inOrder();
+    timer.forwardNanos(200);
+  }
+
+  @Test
+  public void transportThreadExecution_runsCallsOnTransportExecutor() throws Exception {
+    builder.setTransportThreadExecution(true);
+    builder.addService(
+        ServerServiceDefinition.builder(new ServiceDescriptor("Waiter", METHOD))
+            .addMethod(METHOD, callHandler).build());
+    createAndStartServer();
+    when(callHandler.startCall(
+            ArgumentMatchers.<ServerCall<String, Integer>>any(),
+            ArgumentMatchers.<Metadata>any()))
+        .thenReturn(callListener);
+
+    ServerTransportListener transportListener
+        = transportServer.registerNewServerTransport(new SimpleServerTransport());
+    transportListener.transportReady(Attributes.EMPTY);
+    Metadata requestHeaders = new Metadata();
+    StatsTraceContext statsTraceCtx =
+        StatsTraceContext.newServerContext(streamTracerFactories, "Waiter/serve", requestHeaders);
+    when(stream.statsTraceContext()).thenReturn(statsTraceCtx);
+    transportListener.streamCreated(stream, "Waiter/serve", requestHeaders);
+    verify(stream).setListener(streamListenerCaptor.capture());
+    ServerStreamListener streamListener = streamListenerCaptor.getValue();
+
+    // SimpleServerTransport's executor is the timer.
+    assertEquals(0, executor.runDueTasks());
+    assertEquals(1, timer.runDueTasks());
+    verify(callHandler).startCall(
+        ArgumentMatchers.<ServerCall<String, Integer>>any(),
+        ArgumentMatchers.<Metadata>any());
+
+    streamListener.halfClosed();
+    assertEquals(0, executor.runDueTasks());
+    assertEquals(1, timer.runDueTasks());
+    verify(callListener).onHalfClose();
+  }
+
   @Test
   public void getPort() throws Exception {
     final InetSocketAddress addr = new InetSocketAddress(65535);
@@ -1192,6 +1327,7 @@ public class ServerImplTest {
             executor.getScheduledExecutorService(),
             executor.getScheduledExecutorService(),
             stream,
+            StatsTraceContext.NOOP,
             Context.ROOT.withCancellation(),
             PerfMark.createTag());
     ServerStreamListener mockListener = mock(ServerStreamListener.class);
@@ -1218,6 +1354,7 @@ public class ServerImplTest {
             executor.getScheduledExecutorService(),
             executor.getScheduledExecutorService(),
             stream,
+            StatsTraceContext.NOOP,
             Context.ROOT.withCancellation(),
             PerfMark.createTag());
     ServerStreamListener mockListener = mock(ServerStreamListener.class);
@@ -1244,6 +1381,7 @@ public class ServerImplTest {
             executor.getScheduledExecutorService(),
             executor.getScheduledExecutorService(),
             stream,
+            StatsTraceContext.NOOP,
             Context.ROOT.withCancellation(),
             PerfMark.createTag());
     ServerStreamListener mockListener = mock(ServerStreamListener.class);
@@ -1268,6 +1406,7 @@ public class ServerImplTest {
             executor.getScheduledExecutorService(),
             executor.getScheduledExecutorService(),
             stream,
+            StatsTraceContext.NOOP,
             Context.ROOT.withCancellation(),
             PerfMark.createTag());
     ServerStreamListener mockListener = mock(ServerStreamListener.class);
@@ -1292,6 +1431,7 @@ public class ServerImplTest {
             executor.getScheduledExecutorService(),
             executor.getScheduledExecutorService(),
             stream,
+            StatsTraceContext.NOOP,
             Context.ROOT.withCancellation(),
             PerfMark.createTag());
     ServerStreamListener mockListener = mock(ServerStreamListener.class);
@@ -1316,6 +1456,7 @@ public class ServerImplTest {
             executor.getScheduledExecutorService(),
             executor.getScheduledExecutorService(),
             stream,
+            StatsTraceContext.NOOP,
             Context.ROOT.withCancellation(),
             PerfMark.createTag());
     ServerStreamListener mockListener = mock(ServerStreamListener.class);
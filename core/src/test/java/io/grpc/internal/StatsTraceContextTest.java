@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.ServerStreamTracer;
+import io.grpc.StreamTracer.Phase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link StatsTraceContext}. */
+@RunWith(JUnit4.class)
+public class StatsTraceContextTest {
+  private final List<String> reported = new ArrayList<>();
+
+  @Test
+  public void clientPhasesOnlyReportedToFactoriesThatEnabledThem() {
+    CallOptions callOptions = CallOptions.DEFAULT
+        .withStreamTracerFactory(new ClientFactory("plain", false))
+        .withStreamTracerFactory(new ClientFactory("timed", true));
+    callOptions = CallPhaseRecorder.enableIfRequested(callOptions);
+
+    StatsTraceContext ctx =
+        StatsTraceContext.newClientContext(callOptions, Attributes.EMPTY, new Metadata());
+    assertTrue(ctx.isPhaseTimingEnabled());
+    ctx.phaseCompleted(Phase.SERIALIZATION, 10);
+
+    assertThat(reported).containsExactly("timed SERIALIZATION 10");
+  }
+
+  @Test
+  public void clientPhasesNotTimedWithoutRecorder() {
+    CallOptions callOptions =
+        CallOptions.DEFAULT.withStreamTracerFactory(new ClientFactory("plain", false));
+    callOptions = CallPhaseRecorder.enableIfRequested(callOptions);
+
+    StatsTraceContext ctx =
+        StatsTraceContext.newClientContext(callOptions, Attributes.EMPTY, new Metadata());
+    assertFalse(ctx.isPhaseTimingEnabled());
+    ctx.phaseCompleted(Phase.SERIALIZATION, 10);
+
+    assertThat(reported).isEmpty();
+  }
+
+  @Test
+  public void serverPhasesOnlyReportedToFactoriesThatEnabledThem() {
+    StatsTraceContext ctx = StatsTraceContext.newServerContext(
+        Arrays.asList(
+            new ServerFactory("timed", true),
+            new ServerFactory("plain", false)),
+        "service/method",
+        new Metadata());
+    assertTrue(ctx.isPhaseTimingEnabled());
+    ctx.phaseCompleted(Phase.EXECUTOR_QUEUE, 20);
+
+    assertThat(reported).containsExactly("timed EXECUTOR_QUEUE 20");
+  }
+
+  @Test
+  public void serverPhasesNotTimedWhenNoFactoryEnabledThem() {
+    StatsTraceContext ctx = StatsTraceContext.newServerContext(
+        Arrays.asList(new ServerFactory("plain", false)), "service/method", new Metadata());
+    assertFalse(ctx.isPhaseTimingEnabled());
+    ctx.phaseCompleted(Phase.EXECUTOR_QUEUE, 20);
+
+    assertThat(reported).isEmpty();
+  }
+
+  private final class ClientFactory extends ClientStreamTracer.Factory {
+    private final String name;
+    private final boolean phaseTimingEnabled;
+
+    ClientFactory(String name, boolean phaseTimingEnabled) {
+      this.name = name;
+      this.phaseTimingEnabled = phaseTimingEnabled;
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(
+        ClientStreamTracer.StreamInfo info, Metadata headers) {
+      return new ClientStreamTracer() {
+        @Override
+        public void phaseCompleted(Phase phase, long durationNanos) {
+          reported.add(name + " " + phase + " " + durationNanos);
+        }
+      };
+    }
+
+    @Override
+    public boolean isPhaseTimingEnabled() {
+      return phaseTimingEnabled;
+    }
+  }
+
+  private final class ServerFactory extends ServerStreamTracer.Factory {
+    private final String name;
+    private final boolean phaseTimingEnabled;
+
+    ServerFactory(String name, boolean phaseTimingEnabled) {
+      this.name = name;
+      this.phaseTimingEnabled = phaseTimingEnabled;
+    }
+
+    @Override
+    public ServerStreamTracer newServerStreamTracer(String fullMethodName, Metadata headers) {
+      return new ServerStreamTracer() {
+        @Override
+        public void phaseCompleted(Phase phase, long durationNanos) {
+          reported.add(name + " " + phase + " " + durationNanos);
+        }
+      };
+    }
+
+    @Override
+    public boolean isPhaseTimingEnabled() {
+      return phaseTimingEnabled;
+    }
+  }
+}
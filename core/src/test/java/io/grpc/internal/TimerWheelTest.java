@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.testing.GcFinalization;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link TimerWheel}. */
+@RunWith(JUnit4.class)
+public class TimerWheelTest {
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final FakeClock fakeClock = new FakeClock();
+  private final TimerWheel wheel = new TimerWheel(fakeClock.getTicker(), TICK_NANOS, null);
+  private final List<String> runOrder = new ArrayList<>();
+
+  private Runnable record(final String name) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        runOrder.add(name);
+      }
+    };
+  }
+
+  private void forwardMillis(long millis) {
+    fakeClock.forwardTime(millis, TimeUnit.MILLISECONDS);
+    wheel.runDueTicks();
+  }
+
+  @Test
+  public void runsTasksInDeadlineOrderAndNeverEarly() {
+    wheel.schedule(record("c"), 300, TimeUnit.MILLISECONDS);
+    wheel.schedule(record("a"), 5, TimeUnit.MILLISECONDS);
+    wheel.schedule(record("b"), 10, TimeUnit.MILLISECONDS);
+
+    forwardMillis(4);
+    assertThat(runOrder).isEmpty();
+    forwardMillis(1);
+    assertThat(runOrder).containsExactly("a");
+    forwardMillis(294);
+    assertThat(runOrder).containsExactly("a", "b").inOrder();
+    forwardMillis(1);
+    assertThat(runOrder).containsExactly("a", "b", "c").inOrder();
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void subTickDelayRoundsUp() {
+    wheel.schedule(record("a"), 1, TimeUnit.NANOSECONDS);
+
+    wheel.runDueTicks();
+    assertThat(runOrder).isEmpty();
+    forwardMillis(1);
+    assertThat(runOrder).containsExactly("a");
+  }
+
+  @Test
+  public void cascadesFromOuterWheels() {
+    long[] delaysMillis = {255, 256, 257, 65535, 65536, 70000, 20000000, 5000000000L};
+    for (long delay : delaysMillis) {
+      wheel.schedule(record(Long.toString(delay)), delay, TimeUnit.MILLISECONDS);
+    }
+
+    long elapsed = 0;
+    for (long delay : delaysMillis) {
+      forwardMillis(delay - 1 - elapsed);
+      assertThat(runOrder).doesNotContain(Long.toString(delay));
+      forwardMillis(1);
+      assertThat(runOrder).contains(Long.toString(delay));
+      elapsed = delay;
+    }
+    assertThat(runOrder).hasSize(delaysMillis.length);
+  }
+
+  @Test
+  public void cancelRemovesTask() {
+    ScheduledFuture<?> future = wheel.schedule(record("a"), 1000, TimeUnit.MILLISECONDS);
+    wheel.runDueTicks();
+    assertEquals(1, wheel.size());
+
+    assertTrue(future.cancel(false));
+    wheel.runDueTicks();
+    assertEquals(0, wheel.size());
+    forwardMillis(1000);
+    assertThat(runOrder).isEmpty();
+  }
+
+  @Test
+  public void cancelBeforeInsertion() {
+    ScheduledFuture<?> future = wheel.schedule(record("a"), 10, TimeUnit.MILLISECONDS);
+    future.cancel(false);
+
+    forwardMillis(10);
+    assertThat(runOrder).isEmpty();
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void fixedRate() {
+    ScheduledFuture<?> future =
+        wheel.scheduleAtFixedRate(record("a"), 10, 20, TimeUnit.MILLISECONDS);
+
+    forwardMillis(10);
+    assertThat(runOrder).hasSize(1);
+    forwardMillis(19);
+    assertThat(runOrder).hasSize(1);
+    forwardMillis(1);
+    assertThat(runOrder).hasSize(2);
+
+    future.cancel(false);
+    forwardMillis(100);
+    assertThat(runOrder).hasSize(2);
+  }
+
+  @Test
+  public void shutdownRunsDelayedTasks() {
+    wheel.schedule(record("a"), 10, TimeUnit.MILLISECONDS);
+    wheel.shutdown();
+    assertTrue(wheel.isShutdown());
+    assertFalse(wheel.isTerminated());
+
+    try {
+      wheel.schedule(record("b"), 1, TimeUnit.MILLISECONDS);
+      fail("Should have thrown");
+    } catch (RejectedExecutionException expected) {
+      // expected
+    }
+    forwardMillis(10);
+    assertThat(runOrder).containsExactly("a");
+    assertTrue(wheel.isTerminated());
+  }
+
+  @Test
+  public void shutdownNowCancelsTasks() {
+    ScheduledFuture<?> future = wheel.schedule(record("a"), 10, TimeUnit.MILLISECONDS);
+    wheel.shutdownNow();
+    wheel.runDueTicks();
+
+    assertTrue(wheel.isTerminated());
+    forwardMillis(10);
+    assertThat(runOrder).isEmpty();
+    assertTrue(future.isCancelled());
+  }
+
+  @Test
+  public void workerThread_runsTasks() throws Exception {
+    TimerWheel realWheel = new TimerWheel(Executors.defaultThreadFactory(), TICK_NANOS);
+    final CountDownLatch latch = new CountDownLatch(2);
+    Runnable countDown = new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    };
+    ScheduledFuture<?> cancelled = realWheel.schedule(countDown, 1, TimeUnit.HOURS);
+    realWheel.schedule(countDown, 20, TimeUnit.MILLISECONDS);
+    // Earlier than the worker's planned wakeup, so it must be woken up
+    realWheel.schedule(countDown, 1, TimeUnit.MILLISECONDS);
+    cancelled.cancel(false);
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    realWheel.shutdown();
+    assertTrue(realWheel.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void workerThread_unlinksCancelledTasksBeforeTheirDeadline() throws Exception {
+    TimerWheel realWheel = new TimerWheel(Executors.defaultThreadFactory(), TICK_NANOS);
+    ScheduledFuture<?> remaining = realWheel.schedule(record("a"), 30, TimeUnit.SECONDS);
+    ScheduledFuture<?> cancelled = realWheel.schedule(record("b"), 30, TimeUnit.SECONDS);
+    WeakReference<ScheduledFuture<?>> cancelledRef =
+        new WeakReference<ScheduledFuture<?>>(cancelled);
+    // Let the worker link both tasks and go to sleep
+    Thread.sleep(50);
+
+    cancelled.cancel(false);
+    cancelled = null;
+    GcFinalization.awaitClear(cancelledRef);
+
+    remaining.cancel(false);
+    realWheel.shutdown();
+    assertTrue(realWheel.awaitTermination(5, TimeUnit.SECONDS));
+    assertThat(runOrder).isEmpty();
+  }
+}
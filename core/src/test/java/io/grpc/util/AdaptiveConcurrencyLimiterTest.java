@@ -0,0 +1,409 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.FakeClock;
+import io.grpc.internal.NoopClientCall;
+import io.grpc.internal.NoopServerCall;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.testing.TestMethodDescriptors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+
+/** Unit tests for {@link AdaptiveConcurrencyLimiter}. */
+@RunWith(JUnit4.class)
+public class AdaptiveConcurrencyLimiterTest {
+  @Rule
+  public final GrpcCleanupRule grpcCleanupRule = new GrpcCleanupRule();
+
+  private final FakeClock fakeClock = new FakeClock();
+  private final MethodDescriptor<Void, Void> method = TestMethodDescriptors.voidMethod();
+  private final ServerCallHandler<Void, Void> handler = new ServerCallHandler<Void, Void>() {
+    @Override
+    public ServerCall.Listener<Void> startCall(ServerCall<Void, Void> call, Metadata headers) {
+      return new ServerCall.Listener<Void>() {};
+    }
+  };
+
+  private AdaptiveConcurrencyLimiter newLimiter(int initialLimit) {
+    return AdaptiveConcurrencyLimiter.newBuilder()
+        .setInitialLimit(initialLimit)
+        .setMinLimit(1)
+        .setMaxLimit(100)
+        .setTicker(fakeClock.getTicker())
+        .build();
+  }
+
+  @Test
+  public void server_rejectsCallsAboveLimit() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(2);
+    ServerInterceptor interceptor = limiter.newServerInterceptor();
+
+    RecordingServerCall first = new RecordingServerCall();
+    ServerCall.Listener<Void> firstListener =
+        interceptor.interceptCall(first, new Metadata(), handler);
+    interceptor.interceptCall(new RecordingServerCall(), new Metadata(), handler);
+    RecordingServerCall rejected = new RecordingServerCall();
+    interceptor.interceptCall(rejected, new Metadata(), handler);
+
+    assertNull(first.status);
+    assertSame(AdaptiveConcurrencyLimiter.LIMIT_EXCEEDED, rejected.status);
+    assertThat(limiter.getInFlight()).isEqualTo(2);
+
+    firstListener.onComplete();
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+    RecordingServerCall admitted = new RecordingServerCall();
+    interceptor.interceptCall(admitted, new Metadata(), handler);
+    assertNull(admitted.status);
+  }
+
+  @Test
+  public void server_cancelReleasesPermitWithoutSample() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(1);
+    ServerInterceptor interceptor = limiter.newServerInterceptor();
+
+    ServerCall.Listener<Void> listener =
+        interceptor.interceptCall(new RecordingServerCall(), new Metadata(), handler);
+    fakeClock.forwardTime(10, TimeUnit.MILLISECONDS);
+    listener.onCancel();
+    listener.onCancel();
+
+    assertThat(limiter.getInFlight()).isEqualTo(0);
+    assertThat(limiter.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  public void server_handlerExceptionReleasesPermit() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(1);
+    ServerCallHandler<Void, Void> throwingHandler = new ServerCallHandler<Void, Void>() {
+      @Override
+      public ServerCall.Listener<Void> startCall(ServerCall<Void, Void> call, Metadata headers) {
+        throw new IllegalStateException("boom");
+      }
+    };
+
+    try {
+      limiter.newServerInterceptor()
+          .interceptCall(new RecordingServerCall(), new Metadata(), throwingHandler);
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+    assertThat(limiter.getInFlight()).isEqualTo(0);
+  }
+
+  @Test
+  public void limitIncreasesWhenRttIsStable() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(10);
+
+    runSaturatedRound(limiter, 10);
+
+    assertThat(limiter.getLimit()).isGreaterThan(10);
+  }
+
+  @Test
+  public void limitDecreasesWhenRttGrows() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(50);
+    runSaturatedRound(limiter, 10);
+    int limitAtBaseline = limiter.getLimit();
+
+    runSaturatedRound(limiter, 100);
+
+    assertThat(limiter.getLimit()).isLessThan(limitAtBaseline);
+  }
+
+  @Test
+  public void limitDecreasesOnDrop() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(50);
+
+    AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+    fakeClock.forwardTime(10, TimeUnit.MILLISECONDS);
+    permit.release(Status.DEADLINE_EXCEEDED);
+
+    assertThat(limiter.getLimit()).isLessThan(50);
+  }
+
+  @Test
+  public void limitUnchangedWhenNotSaturated() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(50);
+
+    for (int i = 0; i < 20; i++) {
+      AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+      fakeClock.forwardTime(10, TimeUnit.MILLISECONDS);
+      permit.release(Status.OK);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(50);
+  }
+
+  @Test
+  public void limitStaysWithinBounds() {
+    AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.newBuilder()
+        .setInitialLimit(2)
+        .setMinLimit(2)
+        .setMaxLimit(4)
+        .setTicker(fakeClock.getTicker())
+        .build();
+
+    for (int i = 0; i < 10; i++) {
+      runSaturatedRound(limiter, 10);
+    }
+    assertThat(limiter.getLimit()).isEqualTo(4);
+
+    for (int i = 0; i < 10; i++) {
+      AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+      fakeClock.forwardNanos(1);
+      permit.release(Status.RESOURCE_EXHAUSTED);
+    }
+    assertThat(limiter.getLimit()).isEqualTo(2);
+  }
+
+  @Test
+  public void client_rejectsCallsAboveLimit() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(1);
+    final AtomicInteger serverCalls = new AtomicInteger();
+    String serverName = InProcessServerBuilder.generateName();
+    grpcCleanupRule.register(InProcessServerBuilder.forName(serverName)
+        .directExecutor()
+        .addService(ServerServiceDefinition.builder("service_foo")
+            .addMethod(method, new ServerCallHandler<Void, Void>() {
+              @Override
+              public ServerCall.Listener<Void> startCall(
+                  ServerCall<Void, Void> call, Metadata headers) {
+                serverCalls.incrementAndGet();
+                return new ServerCall.Listener<Void>() {};
+              }
+            })
+            .build())
+        .build()
+        .start());
+    Channel channel = ClientInterceptors.intercept(
+        grpcCleanupRule.register(InProcessChannelBuilder.forName(serverName)
+            .executor(fakeClock.getScheduledExecutorService())
+            .build()),
+        limiter.newClientInterceptor());
+    @SuppressWarnings("unchecked")
+    ClientCall.Listener<Void> admittedListener = mock(ClientCall.Listener.class);
+    @SuppressWarnings("unchecked")
+    ClientCall.Listener<Void> rejectedListener = mock(ClientCall.Listener.class);
+
+    ClientCall<Void, Void> admitted = channel.newCall(method, CallOptions.DEFAULT);
+    admitted.start(admittedListener, new Metadata());
+    ClientCall<Void, Void> rejected = channel.newCall(method, CallOptions.DEFAULT);
+    rejected.start(rejectedListener, new Metadata());
+    rejected.request(1);
+    rejected.halfClose();
+
+    verify(rejectedListener, never()).onClose(any(Status.class), any(Metadata.class));
+    fakeClock.runDueTasks();
+    ArgumentCaptor<Status> statusCaptor = ArgumentCaptor.forClass(Status.class);
+    verify(rejectedListener).onClose(statusCaptor.capture(), any(Metadata.class));
+    assertThat(statusCaptor.getValue().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+    assertThat(statusCaptor.getValue().getDescription())
+        .isEqualTo(AdaptiveConcurrencyLimiter.LIMIT_EXCEEDED.getDescription());
+    assertFalse(rejected.isReady());
+    verify(admittedListener, never()).onClose(any(Status.class), any(Metadata.class));
+    assertThat(serverCalls.get()).isEqualTo(1);
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+
+    admitted.cancel("done", null);
+    fakeClock.runDueTasks();
+    assertThat(limiter.getInFlight()).isEqualTo(0);
+  }
+
+  @Test
+  public void client_closeReleasesPermit() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(1);
+    final List<ClientCall.Listener<Void>> startedListeners = new ArrayList<>();
+    Channel channel = new Channel() {
+      @Override
+      public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+          MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        return new NoopClientCall<ReqT, RespT>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public void start(ClientCall.Listener<RespT> listener, Metadata headers) {
+            startedListeners.add((ClientCall.Listener<Void>) listener);
+          }
+        };
+      }
+
+      @Override
+      public String authority() {
+        return "authority";
+      }
+    };
+    @SuppressWarnings("unchecked")
+    ClientCall.Listener<Void> listener = mock(ClientCall.Listener.class);
+
+    limiter.newClientInterceptor().interceptCall(method, CallOptions.DEFAULT, channel)
+        .start(listener, new Metadata());
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+    startedListeners.get(0).onClose(Status.OK, new Metadata());
+
+    ArgumentCaptor<Status> statusCaptor = ArgumentCaptor.forClass(Status.class);
+    verify(listener).onClose(statusCaptor.capture(), any(Metadata.class));
+    assertThat(statusCaptor.getValue().isOk()).isTrue();
+    assertThat(limiter.getInFlight()).isEqualTo(0);
+  }
+
+  @Test
+  public void client_rejectedWhenChannelIgnoresCancelledContext() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(1);
+    final AtomicInteger channelCalls = new AtomicInteger();
+    Channel channel = new Channel() {
+      @Override
+      public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+          MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        channelCalls.incrementAndGet();
+        return new NoopClientCall<ReqT, RespT>() {
+          ClientCall.Listener<RespT> listener;
+
+          @Override
+          public void start(ClientCall.Listener<RespT> listener, Metadata headers) {
+            this.listener = listener;
+          }
+
+          @Override
+          public void cancel(String message, Throwable cause) {
+            listener.onClose(Status.CANCELLED.withDescription(message), new Metadata());
+          }
+        };
+      }
+
+      @Override
+      public String authority() {
+        return "authority";
+      }
+    };
+    @SuppressWarnings("unchecked")
+    ClientCall.Listener<Void> admittedListener = mock(ClientCall.Listener.class);
+    @SuppressWarnings("unchecked")
+    ClientCall.Listener<Void> rejectedListener = mock(ClientCall.Listener.class);
+    ClientInterceptor interceptor = limiter.newClientInterceptor();
+
+    interceptor.interceptCall(method, CallOptions.DEFAULT, channel)
+        .start(admittedListener, new Metadata());
+    ClientCall<Void, Void> rejected =
+        interceptor.interceptCall(method, CallOptions.DEFAULT, channel);
+    rejected.start(rejectedListener, new Metadata());
+    rejected.halfClose();
+
+    ArgumentCaptor<Status> statusCaptor = ArgumentCaptor.forClass(Status.class);
+    verify(rejectedListener).onClose(statusCaptor.capture(), any(Metadata.class));
+    assertSame(AdaptiveConcurrencyLimiter.LIMIT_EXCEEDED, statusCaptor.getValue());
+    assertFalse(rejected.isReady());
+    verify(admittedListener, never()).onClose(any(Status.class), any(Metadata.class));
+    assertThat(channelCalls.get()).isEqualTo(2);
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+  }
+
+  @Test
+  public void client_cancelBeforeStartCreatesOneCall() {
+    AdaptiveConcurrencyLimiter limiter = newLimiter(1);
+    final List<String> channelCallEvents = new ArrayList<>();
+    Channel channel = new Channel() {
+      @Override
+      public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+          MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        channelCallEvents.add("newCall");
+        return new NoopClientCall<ReqT, RespT>() {
+          @Override
+          public void start(ClientCall.Listener<RespT> listener, Metadata headers) {
+            channelCallEvents.add("start");
+          }
+
+          @Override
+          public void cancel(String message, Throwable cause) {
+            channelCallEvents.add("cancel");
+          }
+        };
+      }
+
+      @Override
+      public String authority() {
+        return "authority";
+      }
+    };
+    @SuppressWarnings("unchecked")
+    ClientCall.Listener<Void> listener = mock(ClientCall.Listener.class);
+
+    ClientCall<Void, Void> call =
+        limiter.newClientInterceptor().interceptCall(method, CallOptions.DEFAULT, channel);
+    call.cancel("early", null);
+    call.start(listener, new Metadata());
+
+    assertThat(channelCallEvents).containsExactly("newCall", "cancel", "start").inOrder();
+    assertThat(limiter.getInFlight()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void builder_initialLimitOutOfBounds() {
+    AdaptiveConcurrencyLimiter.newBuilder().setInitialLimit(5).setMaxLimit(4).build();
+  }
+
+  /** Admits as many calls as the limit allows and completes them all with the given RTT. */
+  private void runSaturatedRound(AdaptiveConcurrencyLimiter limiter, long rttMillis) {
+    List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+    AdaptiveConcurrencyLimiter.Permit permit;
+    while ((permit = limiter.tryAcquire()) != null) {
+      permits.add(permit);
+    }
+    fakeClock.forwardTime(rttMillis, TimeUnit.MILLISECONDS);
+    for (AdaptiveConcurrencyLimiter.Permit p : permits) {
+      p.release(Status.OK);
+    }
+  }
+
+  private static final class RecordingServerCall extends NoopServerCall<Void, Void> {
+    Status status;
+
+    @Override
+    public void close(Status status, Metadata trailers) {
+      this.status = status;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.metrics;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+import io.grpc.census.InternalCensusStatsAccessor;
+import io.grpc.testing.TestMethodDescriptors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-RPC cost of recording stats with {@link GrpcMetrics} compared to the OpenCensus integration
+ * of {@code grpc-census}, on the client and on the server. The RPCs go through a fake channel and
+ * fake streams that only call the tracers, so the results are the cost of the stats alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+  public enum Stats {
+    NONE, CENSUS, METRICS
+  }
+
+  @Param
+  public Stats stats;
+
+  private final MethodDescriptor<Void, Void> method = TestMethodDescriptors.voidMethod();
+  private Channel channel;
+  private ServerStreamTracer.Factory serverTracerFactory;
+
+  @Setup
+  public void setUp() {
+    ClientInterceptor interceptor;
+    switch (stats) {
+      case NONE:
+        interceptor = null;
+        serverTracerFactory = null;
+        break;
+      case CENSUS:
+        interceptor = InternalCensusStatsAccessor.getClientInterceptor(true, true, false);
+        serverTracerFactory =
+            InternalCensusStatsAccessor.getServerStreamTracerFactory(true, true, false);
+        break;
+      case METRICS:
+        GrpcMetrics metrics = GrpcMetrics.create();
+        interceptor = metrics.getClientInterceptor();
+        serverTracerFactory = metrics.getServerStreamTracerFactory();
+        break;
+      default:
+        throw new AssertionError(stats);
+    }
+    channel = new TracingChannel();
+    if (interceptor != null) {
+      channel = ClientInterceptors.intercept(channel, interceptor);
+    }
+  }
+
+  /** Makes a client RPC that sends and receives one message. */
+  @Benchmark
+  public void clientRpc() {
+    ClientCall<Void, Void> call = channel.newCall(method, CallOptions.DEFAULT);
+    call.start(new ClientCall.Listener<Void>() {}, new Metadata());
+  }
+
+  /** Traces a server RPC that receives and sends one message. */
+  @Benchmark
+  public ServerStreamTracer serverRpc() {
+    if (serverTracerFactory == null) {
+      return null;
+    }
+    ServerStreamTracer tracer =
+        serverTracerFactory.newServerStreamTracer(method.getFullMethodName(), new Metadata());
+    tracer.inboundMessage(0);
+    tracer.inboundWireSize(100);
+    tracer.outboundMessage(0);
+    tracer.outboundWireSize(100);
+    tracer.streamClosed(Status.OK);
+    return tracer;
+  }
+
+  /**
+   * A channel whose calls create a stream tracer from each tracer factory, report one message
+   * in each direction and close as soon as they are started.
+   */
+  private static final class TracingChannel extends Channel {
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> method, final CallOptions callOptions) {
+      return new ClientCall<ReqT, RespT>() {
+        @Override
+        public void start(Listener<RespT> listener, Metadata headers) {
+          ClientStreamTracer.StreamInfo info =
+              ClientStreamTracer.StreamInfo.newBuilder().setCallOptions(callOptions).build();
+          for (ClientStreamTracer.Factory factory : callOptions.getStreamTracerFactories()) {
+            ClientStreamTracer tracer = factory.newClientStreamTracer(info, headers);
+            tracer.outboundMessage(0);
+            tracer.outboundWireSize(100);
+            tracer.inboundMessage(0);
+            tracer.inboundWireSize(100);
+            tracer.streamClosed(Status.OK);
+          }
+          listener.onClose(Status.OK, new Metadata());
+        }
+
+        @Override
+        public void request(int numMessages) {}
+
+        @Override
+        public void cancel(String message, Throwable cause) {}
+
+        @Override
+        public void halfClose() {}
+
+        @Override
+        public void sendMessage(ReqT message) {}
+      };
+    }
+
+    @Override
+    public String authority() {
+      return "localhost";
+    }
+  }
+}
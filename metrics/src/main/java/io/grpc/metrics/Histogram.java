@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A histogram of non-negative values, recorded without locks or allocation.
+ *
+ * <p>Like HdrHistogram, each power of two is split into {@value #SUB_BUCKETS} buckets of equal
+ * width, so a bucket's width is at most 1/{@value #SUB_BUCKETS} of the values it holds. Values of
+ * 2<sup>{@value #MAX_EXPONENT}</sup> or more share the last bucket.
+ *
+ * <p>Counts are kept in stripes, and each thread records into the stripe for its id, so threads
+ * recording at the same time rarely update the same counter. Stripes are merged when a snapshot is
+ * taken. A stripe takes about 2.5 KB, and is only allocated when the first thread mapped to it
+ * records a value, so a histogram only recorded by a few threads stays small.
+ */
+final class Histogram {
+  static final int SUB_BUCKET_BITS = 3;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int MAX_EXPONENT = 42;
+  static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+  // Each stripe holds the bucket counts followed by the sum of its values
+  private static final int STRIPE_LENGTH = BUCKET_COUNT + 1;
+
+  private final AtomicReferenceArray<AtomicLongArray> stripes;
+  private final int stripeMask;
+
+  /**
+   * Creates a histogram.
+   *
+   * @param stripes the number of stripes, a power of two
+   */
+  Histogram(int stripes) {
+    checkArgument(Integer.bitCount(stripes) == 1, "stripes must be a power of two: %s", stripes);
+    this.stripes = new AtomicReferenceArray<>(stripes);
+    this.stripeMask = stripes - 1;
+  }
+
+  /** Records a value. Negative values are recorded as zero. */
+  void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    AtomicLongArray counts = currentStripe();
+    counts.getAndIncrement(bucketIndex(value));
+    counts.getAndAdd(BUCKET_COUNT, value);
+  }
+
+  private AtomicLongArray currentStripe() {
+    int index = stripe(stripeMask);
+    AtomicLongArray counts = stripes.get(index);
+    if (counts == null) {
+      counts = new AtomicLongArray(STRIPE_LENGTH);
+      if (!stripes.compareAndSet(index, null, counts)) {
+        counts = stripes.get(index);
+      }
+    }
+    return counts;
+  }
+
+  /** Returns the number of stripes allocated so far. */
+  @VisibleForTesting
+  int allocatedStripes() {
+    int allocated = 0;
+    for (int i = 0; i < stripes.length(); i++) {
+      if (stripes.get(i) != null) {
+        allocated++;
+      }
+    }
+    return allocated;
+  }
+
+  HistogramSnapshot snapshot() {
+    long[] merged = new long[BUCKET_COUNT];
+    long sum = 0;
+    for (int stripe = 0; stripe < stripes.length(); stripe++) {
+      AtomicLongArray counts = stripes.get(stripe);
+      if (counts == null) {
+        continue;
+      }
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        merged[i] += counts.get(i);
+      }
+      sum += counts.get(BUCKET_COUNT);
+    }
+    return new HistogramSnapshot(merged, sum);
+  }
+
+  /** Returns the stripe of the current thread for {@code stripeMask}, the stripe count minus 1. */
+  static int stripe(int stripeMask) {
+    return (int) Thread.currentThread().getId() & stripeMask;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent >= MAX_EXPONENT) {
+      return BUCKET_COUNT - 1;
+    }
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** Returns the smallest value counted in the bucket. */
+  static long bucketLowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  /** Returns the largest value counted in the bucket. */
+  static long bucketUpperBound(int index) {
+    if (index == BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return bucketLowerBound(index + 1) - 1;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.grpc.ExperimentalApi;
+
+/**
+ * The values recorded by a histogram at the time the snapshot was taken. Values are counted in
+ * buckets whose width is at most 1/8 of the values they hold, so percentiles are accurate to within
+ * 12.5%.
+ */
+@ExperimentalApi("Native metrics are experimental")
+public final class HistogramSnapshot {
+  static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[0], 0);
+
+  private final long[] counts;
+  private final long count;
+  private final long sum;
+
+  HistogramSnapshot(long[] counts, long sum) {
+    this.counts = counts;
+    long count = 0;
+    for (long bucketCount : counts) {
+      count += bucketCount;
+    }
+    this.count = count;
+    this.sum = sum;
+  }
+
+  /** Returns the number of recorded values. */
+  public long getCount() {
+    return count;
+  }
+
+  /** Returns the sum of the recorded values. */
+  public long getSum() {
+    return sum;
+  }
+
+  /** Returns the mean of the recorded values, or 0 if there are none. */
+  public double getMean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * Returns the largest value that is equivalent, at the histogram's precision, to a value that
+   * {@code percentile} percent of the recorded values are less than or equal to. Returns 0 if no
+   * values were recorded.
+   *
+   * @param percentile the percentile, between 0 and 100
+   */
+  public long getValueAtPercentile(double percentile) {
+    checkArgument(
+        percentile >= 0 && percentile <= 100, "percentile must be in [0, 100]: %s", percentile);
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Histogram.bucketUpperBound(i);
+      }
+    }
+    throw new AssertionError("rank " + rank + " exceeds count " + count);
+  }
+
+  /** Returns the value at the 100th percentile, at the histogram's precision. */
+  public long getMax() {
+    return getValueAtPercentile(100);
+  }
+
+  @Override
+  public String toString() {
+    return "HistogramSnapshot{count=" + count + ", mean=" + getMean()
+        + ", p50=" + getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99)
+        + ", max=" + getMax() + "}";
+  }
+}
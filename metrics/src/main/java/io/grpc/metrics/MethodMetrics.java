@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.metrics;
+
+import io.grpc.Status;
+import io.grpc.StreamTracer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+
+/** The histograms and counters of one method, on either the client or the server. */
+final class MethodMetrics {
+  private static final int STATUS_CODES = Status.Code.values().length;
+  private static final StreamTracer.Phase[] PHASES = StreamTracer.Phase.values();
+  // Each stripe holds a count per status code followed by the count of started RPCs
+  private static final int STRIPE_LENGTH = STATUS_CODES + 1;
+
+  private final String fullMethodName;
+  private final int stripeMask;
+  private final AtomicLongArray counts;
+  private final Histogram latencyNanos;
+  private final Histogram sentBytes;
+  private final Histogram receivedBytes;
+  // Indexed by phase ordinal, or null if phase timings are not recorded
+  @Nullable
+  private final Histogram[] phaseNanos;
+
+  MethodMetrics(String fullMethodName, int stripes, boolean recordPhases) {
+    this.fullMethodName = fullMethodName;
+    this.stripeMask = stripes - 1;
+    this.counts = new AtomicLongArray(stripes * STRIPE_LENGTH);
+    this.latencyNanos = new Histogram(stripes);
+    this.sentBytes = new Histogram(stripes);
+    this.receivedBytes = new Histogram(stripes);
+    if (recordPhases) {
+      phaseNanos = new Histogram[PHASES.length];
+      for (int i = 0; i < phaseNanos.length; i++) {
+        phaseNanos[i] = new Histogram(stripes);
+      }
+    } else {
+      phaseNanos = null;
+    }
+  }
+
+  void recordStarted() {
+    counts.getAndIncrement(Histogram.stripe(stripeMask) * STRIPE_LENGTH + STATUS_CODES);
+  }
+
+  void recordFinished(Status.Code code, long latencyNanos, long sentBytes, long receivedBytes) {
+    counts.getAndIncrement(Histogram.stripe(stripeMask) * STRIPE_LENGTH + code.ordinal());
+    this.latencyNanos.record(latencyNanos);
+    this.sentBytes.record(sentBytes);
+    this.receivedBytes.record(receivedBytes);
+  }
+
+  void recordPhase(StreamTracer.Phase phase, long durationNanos) {
+    if (phaseNanos != null) {
+      phaseNanos[phase.ordinal()].record(durationNanos);
+    }
+  }
+
+  MethodMetricsSnapshot snapshot() {
+    long[] statusCounts = new long[STATUS_CODES];
+    long started = 0;
+    for (int base = 0; base < counts.length(); base += STRIPE_LENGTH) {
+      for (int i = 0; i < STATUS_CODES; i++) {
+        statusCounts[i] += counts.get(base + i);
+      }
+      started += counts.get(base + STATUS_CODES);
+    }
+    HistogramSnapshot[] phaseSnapshots = new HistogramSnapshot[PHASES.length];
+    for (int i = 0; i < phaseSnapshots.length; i++) {
+      phaseSnapshots[i] =
+          phaseNanos != null ? phaseNanos[i].snapshot() : HistogramSnapshot.EMPTY;
+    }
+    return new MethodMetricsSnapshot(
+        fullMethodName, started, statusCounts, latencyNanos.snapshot(), sentBytes.snapshot(),
+        receivedBytes.snapshot(), phaseSnapshots);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.metrics;
+
+import io.grpc.ExperimentalApi;
+import io.grpc.Status;
+import io.grpc.StreamTracer;
+
+/**
+ * The metrics of one method at the time the snapshot was taken. The histograms and counters are
+ * read one after another while RPCs may still be finishing, so they can disagree by the RPCs that
+ * finished in between.
+ */
+@ExperimentalApi("Native metrics are experimental")
+public final class MethodMetricsSnapshot {
+  private final String fullMethodName;
+  private final long startedRpcs;
+  private final long[] statusCounts;
+  private final long finishedRpcs;
+  private final HistogramSnapshot latencyNanos;
+  private final HistogramSnapshot sentBytes;
+  private final HistogramSnapshot receivedBytes;
+  private final HistogramSnapshot[] phaseNanos;
+
+  MethodMetricsSnapshot(
+      String fullMethodName, long startedRpcs, long[] statusCounts,
+      HistogramSnapshot latencyNanos, HistogramSnapshot sentBytes,
+      HistogramSnapshot receivedBytes, HistogramSnapshot[] phaseNanos) {
+    this.fullMethodName = fullMethodName;
+    this.startedRpcs = startedRpcs;
+    this.statusCounts = statusCounts;
+    long finished = 0;
+    for (long count : statusCounts) {
+      finished += count;
+    }
+    this.finishedRpcs = finished;
+    this.latencyNanos = latencyNanos;
+    this.sentBytes = sentBytes;
+    this.receivedBytes = receivedBytes;
+    this.phaseNanos = phaseNanos;
+  }
+
+  /**
+   * Returns the full name of the method, or {@link GrpcMetrics#OTHER_METHODS} for the RPCs of
+   * methods that were not tracked individually.
+   */
+  public String getFullMethodName() {
+    return fullMethodName;
+  }
+
+  /** Returns the number of RPCs that were started. */
+  public long getStartedRpcs() {
+    return startedRpcs;
+  }
+
+  /** Returns the number of RPCs that finished, with any status. */
+  public long getFinishedRpcs() {
+    return finishedRpcs;
+  }
+
+  /** Returns the number of RPCs that finished with {@code code}. */
+  public long getStatusCount(Status.Code code) {
+    return statusCounts[code.ordinal()];
+  }
+
+  /** Returns the latencies of the finished RPCs, in nanoseconds. */
+  public HistogramSnapshot getLatencyNanos() {
+    return latencyNanos;
+  }
+
+  /** Returns the total wire size of the messages sent by each finished RPC, in bytes. */
+  public HistogramSnapshot getSentBytes() {
+    return sentBytes;
+  }
+
+  /** Returns the total wire size of the messages received by each finished RPC, in bytes. */
+  public HistogramSnapshot getReceivedBytes() {
+    return receivedBytes;
+  }
+
+  /**
+   * Returns the durations of {@code phase} in the RPCs, in nanoseconds, with one value per time
+   * the phase completed. Empty unless phase timings were enabled with {@link
+   * GrpcMetrics#createWithPhaseTimings}.
+   */
+  public HistogramSnapshot getPhaseNanos(StreamTracer.Phase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    return "MethodMetricsSnapshot{method=" + fullMethodName + ", started=" + startedRpcs
+        + ", finished=" + finishedRpcs + ", latencyNanos=" + latencyNanos + "}";
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.StreamTracer;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.FakeClock;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link GrpcMetrics}. */
+@RunWith(JUnit4.class)
+public class GrpcMetricsTest {
+  private static final MethodDescriptor.Marshaller<String> STRING_MARSHALLER =
+      new MethodDescriptor.Marshaller<String>() {
+        @Override
+        public InputStream stream(String value) {
+          return new ByteArrayInputStream(value.getBytes(UTF_8));
+        }
+
+        @Override
+        public String parse(InputStream stream) {
+          try {
+            StringBuilder sb = new StringBuilder();
+            int b;
+            while ((b = stream.read()) != -1) {
+              sb.append((char) b);
+            }
+            return sb.toString();
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+  private static final MethodDescriptor<String, String> ECHO_METHOD =
+      MethodDescriptor.<String, String>newBuilder()
+          .setType(MethodDescriptor.MethodType.UNARY)
+          .setFullMethodName("service/echo")
+          .setRequestMarshaller(STRING_MARSHALLER)
+          .setResponseMarshaller(STRING_MARSHALLER)
+          .build();
+
+  @Rule
+  public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+  private final FakeClock fakeClock = new FakeClock();
+  private final GrpcMetrics metrics = new GrpcMetrics(fakeClock.getTicker(), 2, true);
+  private ManagedChannel channel;
+
+  @Before
+  public void setUp() throws Exception {
+    ServerServiceDefinition service = ServerServiceDefinition.builder("service")
+        .addMethod(ECHO_METHOD, ServerCalls.asyncUnaryCall(
+            new ServerCalls.UnaryMethod<String, String>() {
+              @Override
+              public void invoke(String request, StreamObserver<String> responseObserver) {
+                fakeClock.forwardNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                if (request.equals("fail")) {
+                  responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+                  return;
+                }
+                responseObserver.onNext(request + request);
+                responseObserver.onCompleted();
+              }
+            }))
+        .build();
+    String serverName = InProcessServerBuilder.generateName();
+    grpcCleanup.register(InProcessServerBuilder.forName(serverName)
+        .addService(service)
+        .addStreamTracerFactory(metrics.getServerStreamTracerFactory())
+        .directExecutor()
+        .build()
+        .start());
+    channel = grpcCleanup.register(
+        InProcessChannelBuilder.forName(serverName).directExecutor().build());
+  }
+
+  @Test
+  public void recordsClientAndServerRpcs() {
+    assertEquals("hellohello", call("hello"));
+    assertEquals("byebye", call("bye"));
+    try {
+      call("fail");
+      fail("Should have failed");
+    } catch (StatusRuntimeException e) {
+      assertEquals(Status.Code.NOT_FOUND, e.getStatus().getCode());
+    }
+
+    assertThat(metrics.getClientSnapshots()).hasSize(1);
+    assertThat(metrics.getServerSnapshots()).hasSize(1);
+    MethodMetricsSnapshot client = metrics.getClientSnapshots().get(0);
+    MethodMetricsSnapshot server = metrics.getServerSnapshots().get(0);
+    assertEchoRpcsRecorded(client);
+    assertEchoRpcsRecorded(server);
+  }
+
+  @Test
+  public void recordsPhases() {
+    call("hello");
+    call("bye");
+
+    MethodMetricsSnapshot client = metrics.getClientSnapshots().get(0);
+    assertEquals(2, client.getPhaseNanos(StreamTracer.Phase.PICK).getCount());
+    assertEquals(2, client.getPhaseNanos(StreamTracer.Phase.DESERIALIZATION).getCount());
+    assertThat(client.getPhaseNanos(StreamTracer.Phase.EXECUTOR_QUEUE).getCount())
+        .isAtLeast(2L);
+    MethodMetricsSnapshot server = metrics.getServerSnapshots().get(0);
+    assertEquals(2, server.getPhaseNanos(StreamTracer.Phase.DESERIALIZATION).getCount());
+    assertEquals(0, server.getPhaseNanos(StreamTracer.Phase.PICK).getCount());
+  }
+
+  @Test
+  public void phasesNotRecordedByDefault() {
+    GrpcMetrics metrics = new GrpcMetrics(fakeClock.getTicker(), 2, false);
+    ServerStreamTracer.Factory factory = metrics.getServerStreamTracerFactory();
+    assertFalse(factory.isPhaseTimingEnabled());
+    ServerStreamTracer tracer = factory.newServerStreamTracer("service/echo", new Metadata());
+    tracer.phaseCompleted(StreamTracer.Phase.DESERIALIZATION, 100);
+    tracer.streamClosed(Status.OK);
+
+    MethodMetricsSnapshot snapshot = metrics.getServerSnapshots().get(0);
+    assertEquals(0, snapshot.getPhaseNanos(StreamTracer.Phase.DESERIALIZATION).getCount());
+  }
+
+  @Test
+  public void methodsPastLimitAreRecordedAsOther() {
+    for (int i = 0; i < GrpcMetrics.MAX_METHODS + 1; i++) {
+      metrics.getServerStreamTracerFactory()
+          .newServerStreamTracer("service/method" + i, new Metadata())
+          .streamClosed(Status.OK);
+    }
+
+    List<MethodMetricsSnapshot> snapshots = metrics.getServerSnapshots();
+    assertThat(snapshots).hasSize(GrpcMetrics.MAX_METHODS + 1);
+    MethodMetricsSnapshot other = snapshots.get(GrpcMetrics.MAX_METHODS);
+    assertEquals(GrpcMetrics.OTHER_METHODS, other.getFullMethodName());
+    assertEquals(1, other.getFinishedRpcs());
+  }
+
+  @Test
+  public void serverTracerRecordsWireSizes() {
+    ServerStreamTracer tracer = metrics.getServerStreamTracerFactory()
+        .newServerStreamTracer("service/echo", new Metadata());
+    tracer.inboundWireSize(100);
+    tracer.inboundWireSize(20);
+    tracer.outboundWireSize(7);
+    tracer.streamClosed(Status.OK);
+
+    MethodMetricsSnapshot snapshot = metrics.getServerSnapshots().get(0);
+    assertEquals(120, snapshot.getReceivedBytes().getSum());
+    assertEquals(7, snapshot.getSentBytes().getSum());
+  }
+
+  @Test
+  public void streamClosedTwiceRecordsOnce() {
+    ServerStreamTracer tracer = metrics.getServerStreamTracerFactory()
+        .newServerStreamTracer("service/echo", new Metadata());
+    tracer.streamClosed(Status.OK);
+    tracer.streamClosed(Status.CANCELLED);
+
+    MethodMetricsSnapshot snapshot = metrics.getServerSnapshots().get(0);
+    assertEquals(1, snapshot.getFinishedRpcs());
+    assertEquals(0, snapshot.getStatusCount(Status.Code.CANCELLED));
+  }
+
+  private static void assertEchoRpcsRecorded(MethodMetricsSnapshot snapshot) {
+    assertEquals("service/echo", snapshot.getFullMethodName());
+    assertEquals(3, snapshot.getStartedRpcs());
+    assertEquals(3, snapshot.getFinishedRpcs());
+    assertEquals(2, snapshot.getStatusCount(Status.Code.OK));
+    assertEquals(1, snapshot.getStatusCount(Status.Code.NOT_FOUND));
+    assertEquals(3, snapshot.getLatencyNanos().getCount());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(30), snapshot.getLatencyNanos().getSum());
+    assertEquals(3, snapshot.getSentBytes().getCount());
+    assertEquals(3, snapshot.getReceivedBytes().getCount());
+  }
+
+  private String call(String request) {
+    return ClientCalls.blockingUnaryCall(
+        ClientInterceptors.intercept(channel, metrics.getClientInterceptor()),
+        ECHO_METHOD, CallOptions.DEFAULT, request);
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link Histogram}. */
+@RunWith(JUnit4.class)
+public class HistogramTest {
+
+  @Test
+  public void bucketIndex_smallValuesHaveOwnBuckets() {
+    for (int i = 0; i < Histogram.SUB_BUCKETS; i++) {
+      assertEquals(i, Histogram.bucketIndex(i));
+      assertEquals(i, Histogram.bucketLowerBound(i));
+      assertEquals(i, Histogram.bucketUpperBound(i));
+    }
+  }
+
+  @Test
+  public void bucketBounds_containTheirValues() {
+    for (int i = 0; i < Histogram.BUCKET_COUNT - 1; i++) {
+      long lower = Histogram.bucketLowerBound(i);
+      long upper = Histogram.bucketUpperBound(i);
+      assertEquals(i, Histogram.bucketIndex(lower));
+      assertEquals(i, Histogram.bucketIndex(upper));
+      assertEquals(i + 1, Histogram.bucketIndex(upper + 1));
+      // Widths are at most 1/8 of the values
+      assertThat(upper - lower).isAtMost(lower / Histogram.SUB_BUCKETS);
+    }
+  }
+
+  @Test
+  public void bucketIndex_largeValuesShareLastBucket() {
+    long lastLower = Histogram.bucketLowerBound(Histogram.BUCKET_COUNT - 1);
+    assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(lastLower));
+    assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(1L << Histogram.MAX_EXPONENT));
+    assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, Histogram.bucketUpperBound(Histogram.BUCKET_COUNT - 1));
+  }
+
+  @Test
+  public void snapshot_empty() {
+    HistogramSnapshot snapshot = new Histogram(4).snapshot();
+
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getSum());
+    assertEquals(0, snapshot.getMean(), 0);
+    assertEquals(0, snapshot.getValueAtPercentile(50));
+  }
+
+  @Test
+  public void snapshot_percentiles() {
+    Histogram histogram = new Histogram(4);
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(500500000L, snapshot.getSum());
+    assertEquals(500500, snapshot.getMean(), 0);
+    assertWithinPrecision(500000, snapshot.getValueAtPercentile(50));
+    assertWithinPrecision(990000, snapshot.getValueAtPercentile(99));
+    assertWithinPrecision(1000000, snapshot.getMax());
+    assertWithinPrecision(1000, snapshot.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void record_negativeValueCountsAsZero() {
+    Histogram histogram = new Histogram(1);
+    histogram.record(-5);
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    assertEquals(1, snapshot.getCount());
+    assertEquals(0, snapshot.getSum());
+    assertEquals(0, snapshot.getMax());
+  }
+
+  @Test
+  public void stripes_allocatedOnFirstRecord() {
+    Histogram histogram = new Histogram(8);
+    assertEquals(0, histogram.allocatedStripes());
+
+    histogram.record(1);
+    histogram.record(2);
+
+    assertEquals(1, histogram.allocatedStripes());
+    assertEquals(2, histogram.snapshot().getCount());
+  }
+
+  @Test
+  public void record_concurrentThreadsMerge() throws Exception {
+    final Histogram histogram = new Histogram(4);
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 10000; i++) {
+            histogram.record(100);
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    assertEquals(80000, snapshot.getCount());
+    assertEquals(8000000, snapshot.getSum());
+  }
+
+  private static void assertWithinPrecision(long expected, long actual) {
+    assertThat(actual).isAtLeast(expected);
+    assertThat(actual).isAtMost(expected + expected / Histogram.SUB_BUCKETS);
+  }
+}
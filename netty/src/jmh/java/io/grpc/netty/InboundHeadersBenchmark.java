@@ -19,11 +19,16 @@ package io.grpc.netty;
 import static io.grpc.netty.Utils.CONTENT_TYPE_HEADER;
 import static io.grpc.netty.Utils.TE_TRAILERS;
 
+import io.grpc.InternalMetadata;
+import io.grpc.Metadata;
+import io.grpc.internal.TransportFrameUtil;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2RequestHeaders;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2ResponseHeaders;
 import io.netty.handler.codec.http2.DefaultHttp2Headers;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.util.AsciiString;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -41,10 +46,12 @@ import org.openjdk.jmh.infra.Blackhole;
 public class InboundHeadersBenchmark {
 
   private static AsciiString[] requestHeaders;
+  private static AsciiString[] binaryRequestHeaders;
   private static AsciiString[] responseHeaders;
 
   static {
     setupRequestHeaders();
+    setupBinaryRequestHeaders();
     setupResponseHeaders();
   }
 
@@ -72,6 +79,24 @@ public class InboundHeadersBenchmark {
     requestHeaders[i] = AsciiString.of("Bearer y235.wef315yfh138vh31hv93hv8h3v");
   }
 
+  // Request headers with binary tracing and auth blobs, which servers commonly only forward.
+  private static void setupBinaryRequestHeaders() {
+    Random random = new Random(1);
+    byte[] traceContext = new byte[29];
+    random.nextBytes(traceContext);
+    byte[] authBlob = new byte[512];
+    random.nextBytes(authBlob);
+
+    binaryRequestHeaders = Arrays.copyOf(requestHeaders, requestHeaders.length + 4);
+    int i = requestHeaders.length;
+    binaryRequestHeaders[i++] = AsciiString.of("grpc-trace-bin");
+    binaryRequestHeaders[i++] =
+        AsciiString.of(InternalMetadata.BASE64_ENCODING_OMIT_PADDING.encode(traceContext));
+    binaryRequestHeaders[i++] = AsciiString.of("x-auth-context-bin");
+    binaryRequestHeaders[i] =
+        AsciiString.of(InternalMetadata.BASE64_ENCODING_OMIT_PADDING.encode(authBlob));
+  }
+
   private static void setupResponseHeaders() {
     responseHeaders = new AsciiString[4];
     int i = 0;
@@ -88,7 +113,29 @@ public class InboundHeadersBenchmark {
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.NANOSECONDS)
   public void grpcHeaders_serverHandler(Blackhole bh) {
-    serverHandler(bh, new GrpcHttp2RequestHeaders(4));
+    serverHandler(bh, new GrpcHttp2RequestHeaders(4), requestHeaders);
+  }
+
+  /**
+   * Request headers with binary values that are never read.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_serverHandler_binary(Blackhole bh) {
+    serverHandler(bh, new GrpcHttp2RequestHeaders(4), binaryRequestHeaders);
+  }
+
+  /**
+   * Request headers with binary values that are forwarded as-is on an outgoing call.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_serverHandler_binaryForwarded(Blackhole bh) {
+    Metadata metadata =
+        serverHandler(bh, new GrpcHttp2RequestHeaders(4), binaryRequestHeaders);
+    bh.consume(TransportFrameUtil.toHttp2Headers(metadata));
   }
 
   /**
@@ -98,7 +145,7 @@ public class InboundHeadersBenchmark {
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.NANOSECONDS)
   public void defaultHeaders_serverHandler(Blackhole bh) {
-    serverHandler(bh, new DefaultHttp2Headers(true, 9));
+    serverHandler(bh, new DefaultHttp2Headers(true, 9), requestHeaders);
   }
 
   /**
@@ -122,7 +169,8 @@ public class InboundHeadersBenchmark {
   }
 
   @CompilerControl(CompilerControl.Mode.INLINE)
-  private static void serverHandler(Blackhole bh, Http2Headers headers) {
+  private static Metadata serverHandler(
+      Blackhole bh, Http2Headers headers, AsciiString[] requestHeaders) {
     for (int i = 0; i < requestHeaders.length; i += 2) {
       bh.consume(headers.add(requestHeaders[i], requestHeaders[i + 1]));
     }
@@ -134,7 +182,9 @@ public class InboundHeadersBenchmark {
     bh.consume(headers.get(CONTENT_TYPE_HEADER));
     bh.consume(headers.path());
 
-    bh.consume(Utils.convertHeaders(headers));
+    Metadata metadata = Utils.convertHeaders(headers);
+    bh.consume(metadata);
+    return metadata;
   }
 
   @CompilerControl(CompilerControl.Mode.INLINE)
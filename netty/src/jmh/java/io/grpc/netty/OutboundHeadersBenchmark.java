@@ -16,6 +16,7 @@
 
 package io.grpc.netty;
 
+import io.grpc.InternalMetadata;
 import io.grpc.Metadata;
 import io.grpc.Metadata.AsciiMarshaller;
 import io.netty.buffer.ByteBuf;
@@ -24,6 +25,7 @@ import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2HeadersEncoder;
 import io.netty.util.AsciiString;
+import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -60,6 +62,10 @@ public class OutboundHeadersBenchmark {
   private final AsciiString defaultPath = new AsciiString("/Service.MethodMethodMethod");
   private final AsciiString authority = new AsciiString("authority.googleapis.bogus");
   private final AsciiString userAgent = new AsciiString("grpc-java-netty");
+  private final AsciiString[] preHeaders = GrpcHttp2OutboundHeaders.clientRequestPreHeaders(
+      authority, defaultPath, Utils.HTTP_METHOD, scheme, userAgent);
+  private final Metadata attachedHeaders = new Metadata();
+  private final Metadata preEncodedAttachedHeaders = new Metadata();
   private final Http2HeadersEncoder headersEncoder = new DefaultHttp2HeadersEncoder();
   private final ByteBuf scratchBuffer = UnpooledByteBufAllocator.DEFAULT.buffer(4096);
 
@@ -68,6 +74,15 @@ public class OutboundHeadersBenchmark {
     for (int i = 0; i < headerCount; i++) {
       metadata.put(Metadata.Key.of("key-" + i, keyMarshaller), UUID.randomUUID().toString());
     }
+    // Static headers attached to every call, like those of MetadataUtils.attachHeaders()
+    byte[] credentials = new byte[256];
+    new Random(1).nextBytes(credentials);
+    for (Metadata headers : new Metadata[] {attachedHeaders, preEncodedAttachedHeaders}) {
+      headers.put(
+          Metadata.Key.of("x-credentials-bin", Metadata.BINARY_BYTE_MARSHALLER), credentials);
+      headers.put(Metadata.Key.of("x-client-id", keyMarshaller), UUID.randomUUID().toString());
+    }
+    InternalMetadata.preEncodeBinaryValues(preEncodedAttachedHeaders);
   }
 
   @Benchmark
@@ -78,6 +93,43 @@ public class OutboundHeadersBenchmark {
         userAgent);
   }
 
+  /**
+   * Like {@link #convertClientHeaders}, with the headers preceding the metadata cached as they are
+   * for each method.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Http2Headers convertClientHeaders_cachedPreHeaders() {
+    return Utils.convertClientHeaders(metadata, preHeaders);
+  }
+
+  /**
+   * Converts per-call metadata with static headers attached, including a binary one.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Http2Headers convertClientHeaders_attachedHeaders() {
+    Metadata headers = new Metadata();
+    headers.merge(metadata);
+    headers.merge(attachedHeaders);
+    return Utils.convertClientHeaders(headers, preHeaders);
+  }
+
+  /**
+   * Like {@link #convertClientHeaders_attachedHeaders}, with binary values encoded ahead of time.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Http2Headers convertClientHeaders_preEncodedAttachedHeaders() {
+    Metadata headers = new Metadata();
+    headers.merge(metadata);
+    headers.merge(preEncodedAttachedHeaders);
+    return Utils.convertClientHeaders(headers, preHeaders);
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.SampleTime)
   @OutputTimeUnit(TimeUnit.NANOSECONDS)
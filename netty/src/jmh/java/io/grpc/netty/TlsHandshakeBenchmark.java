@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.internal.testing.TestUtils;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * New TLS connections per second, with and without session resumption, and with the server's
+ * handshake work running on the event loop or on a separate bounded executor.
+ */
+@State(Scope.Benchmark)
+public class TlsHandshakeBenchmark {
+
+  @Param({"OPENSSL", "JDK"})
+  public SslProvider sslProvider;
+
+  /** Connecting to the same authority allows resumption, a unique authority never resumes. */
+  @Param({"same", "unique"})
+  public String authority;
+
+  @Param({"eventLoop", "bounded"})
+  public String serverHandshakeExecutor;
+
+  private EventLoopGroup group;
+  private ExecutorService handshakeExecutor;
+  private Server server;
+  private InetSocketAddress address;
+  private SslContext clientContext;
+  private int connections;
+
+  @Setup
+  public void setUp() throws Exception {
+    group = new NioEventLoopGroup(2);
+    SslContext serverContext = GrpcSslContexts.configure(
+            SslContextBuilder.forServer(
+                TestUtils.loadCert("server1.pem"), TestUtils.loadCert("server1.key")),
+            sslProvider)
+        .build();
+    NettyServerBuilder serverBuilder = NettyServerBuilder.forAddress(new InetSocketAddress(0))
+        .bossEventLoopGroup(group)
+        .workerEventLoopGroup(group)
+        .channelType(NioServerSocketChannel.class)
+        .sslContext(serverContext)
+        .directExecutor();
+    if ("bounded".equals(serverHandshakeExecutor)) {
+      handshakeExecutor = Executors.newFixedThreadPool(2);
+      serverBuilder.handshakeExecutor(handshakeExecutor);
+    }
+    server = serverBuilder.build().start();
+    address = new InetSocketAddress("localhost", server.getPort());
+    clientContext = GrpcSslContexts.configure(GrpcSslContexts.forClient(), sslProvider)
+        .trustManager(TestUtils.loadCert("ca.pem"))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    server.shutdownNow();
+    if (!server.awaitTermination(1, TimeUnit.MINUTES)) {
+      throw new RuntimeException("server failed to shut down in a timely fashion");
+    }
+    if (handshakeExecutor != null) {
+      handshakeExecutor.shutdown();
+    }
+    group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+  }
+
+  /** Opens a channel and waits until its TLS handshake has completed. */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public ConnectivityState connect() throws Exception {
+    String host = "same".equals(authority)
+        ? "foo.test.google.fr" : "c" + connections++ + ".test.google.fr";
+    ManagedChannel channel = NettyChannelBuilder.forAddress(address)
+        .overrideAuthority(host + ":" + address.getPort())
+        .eventLoopGroup(group)
+        .channelType(NioSocketChannel.class)
+        .sslContext(clientContext)
+        .directExecutor()
+        .build();
+    try {
+      ConnectivityState state = awaitConnected(channel);
+      if (state != ConnectivityState.READY) {
+        throw new IllegalStateException("Failed to connect: " + state);
+      }
+      return state;
+    } finally {
+      channel.shutdownNow();
+    }
+  }
+
+  private static ConnectivityState awaitConnected(final ManagedChannel channel)
+      throws InterruptedException {
+    while (true) {
+      ConnectivityState state = channel.getState(true);
+      if (state == ConnectivityState.READY || state == ConnectivityState.TRANSIENT_FAILURE) {
+        return state;
+      }
+      final CountDownLatch changed = new CountDownLatch(1);
+      channel.notifyWhenStateChanged(state, new Runnable() {
+        @Override
+        public void run() {
+          changed.countDown();
+        }
+      });
+      if (!changed.await(10, TimeUnit.SECONDS)) {
+        return channel.getState(false);
+      }
+    }
+  }
+}
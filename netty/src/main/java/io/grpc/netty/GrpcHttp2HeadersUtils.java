@@ -39,6 +39,7 @@ import static io.netty.handler.codec.http2.Http2Exception.connectionError;
 import static io.netty.util.AsciiString.isUpperCase;
 
 import com.google.common.io.BaseEncoding;
+import io.grpc.InternalMetadata;
 import io.grpc.Metadata;
 import io.netty.handler.codec.http2.DefaultHttp2HeadersDecoder;
 import io.netty.handler.codec.http2.Http2Headers;
@@ -91,23 +92,21 @@ class GrpcHttp2HeadersUtils {
     private static final AsciiString binaryHeaderSuffix =
         new AsciiString(Metadata.BINARY_HEADER_SUFFIX.getBytes(US_ASCII));
 
-    private byte[][] namesAndValues;
+    private Object[] namesAndValues;
     private AsciiString[] values;
     private int namesAndValuesIdx;
 
     GrpcHttp2InboundHeaders(int numHeadersGuess) {
       checkArgument(numHeadersGuess > 0, "numHeadersGuess needs to be positive: %s",
           numHeadersGuess);
-      namesAndValues = new byte[numHeadersGuess * 2][];
+      namesAndValues = new Object[numHeadersGuess * 2];
       values = new AsciiString[numHeadersGuess];
     }
 
     protected Http2Headers add(AsciiString name, AsciiString value) {
       byte[] nameBytes = bytes(name);
-      byte[] valueBytes;
       if (!name.endsWith(binaryHeaderSuffix)) {
-        valueBytes = bytes(value);
-        addHeader(value, nameBytes, valueBytes);
+        addHeader(value, nameBytes, bytes(value));
         return this;
       }
       int startPos = 0;
@@ -116,27 +115,31 @@ class GrpcHttp2HeadersUtils {
         int indexOfComma = value.indexOf(',', startPos);
         endPos = indexOfComma == AsciiString.INDEX_NOT_FOUND ? value.length() : indexOfComma;
         AsciiString curVal = value.subSequence(startPos, endPos, false);
-        valueBytes = BaseEncoding.base64().decode(curVal);
+        // Decoded lazily, as many binary headers are only forwarded or never read at all. Malformed
+        // values are still rejected here, so reading the metadata later can't fail.
+        if (!BaseEncoding.base64().canDecode(curVal)) {
+          throw new IllegalArgumentException("Invalid base64 in binary header " + name);
+        }
         startPos = indexOfComma + 1;
-        addHeader(curVal, nameBytes, valueBytes);
+        addHeader(curVal, nameBytes, InternalMetadata.base64Value(bytes(curVal)));
       }
       return this;
     }
 
-    private void addHeader(AsciiString value, byte[] nameBytes, byte[] valueBytes) {
+    private void addHeader(AsciiString value, byte[] nameBytes, Object metadataValue) {
       if (namesAndValuesIdx == namesAndValues.length) {
         expandHeadersAndValues();
       }
       values[namesAndValuesIdx / 2] = value;
       namesAndValues[namesAndValuesIdx] = nameBytes;
       namesAndValuesIdx++;
-      namesAndValues[namesAndValuesIdx] = valueBytes;
+      namesAndValues[namesAndValuesIdx] = metadataValue;
       namesAndValuesIdx++;
     }
 
     protected CharSequence get(AsciiString name) {
       for (int i = 0; i < namesAndValuesIdx; i += 2) {
-        if (equals(name, namesAndValues[i])) {
+        if (equals(name, (byte[]) namesAndValues[i])) {
           return values[i / 2];
         }
       }
@@ -153,7 +156,7 @@ class GrpcHttp2HeadersUtils {
       AsciiString name = requireAsciiString(csName);
       List<CharSequence> returnValues = new ArrayList<>(4);
       for (int i = 0; i < namesAndValuesIdx; i += 2) {
-        if (equals(name, namesAndValues[i])) {
+        if (equals(name, (byte[]) namesAndValues[i])) {
           returnValues.add(values[i / 2]);
         }
       }
@@ -161,16 +164,18 @@ class GrpcHttp2HeadersUtils {
     }
 
     /**
-     * Returns the header names and values as bytes. An even numbered index contains the
-     * {@code byte[]} representation of a header name (in insertion order), and the subsequent
-     * odd index number contains the corresponding header value.
+     * Returns the header names and values. An even numbered index contains the {@code byte[]}
+     * representation of a header name (in insertion order), and the subsequent odd index number
+     * contains the corresponding header value.
      *
-     * <p>The values of binary headers (with a -bin suffix), are already base64 decoded.
+     * <p>The values of binary headers (with a -bin suffix) are still base64 encoded, and are held
+     * by {@link InternalMetadata#base64Value} to be decoded on first read. All other values are
+     * {@code byte[]}.
      *
      * <p>The array may contain several {@code null} values at the end. A {@code null} value an
      * index means that all higher numbered indices also contain {@code null} values.
      */
-    byte[][] namesAndValues() {
+    Object[] namesAndValues() {
       return namesAndValues;
     }
 
@@ -230,7 +235,7 @@ class GrpcHttp2HeadersUtils {
       int newValuesLen = Math.max(2, values.length + values.length / 2);
       int newNamesAndValuesLen = newValuesLen * 2;
 
-      byte[][] newNamesAndValues = new byte[newNamesAndValuesLen][];
+      Object[] newNamesAndValues = new Object[newNamesAndValuesLen];
       AsciiString[] newValues = new AsciiString[newValuesLen];
       System.arraycopy(namesAndValues, 0, newNamesAndValues, 0, namesAndValues.length);
       System.arraycopy(values, 0, newValues, 0, values.length);
@@ -255,7 +260,7 @@ class GrpcHttp2HeadersUtils {
       StringBuilder builder = new StringBuilder();
       boolean prependSeparator = false;
       for (int i = 0; i < namesAndValuesIdx; i += 2) {
-        String name = new String(namesAndValues[i], US_ASCII);
+        String name = new String((byte[]) namesAndValues[i], US_ASCII);
         // If binary headers, the value is base64 encoded.
         AsciiString value = values[i / 2];
         appendNameAndValue(builder, name, value, prependSeparator);
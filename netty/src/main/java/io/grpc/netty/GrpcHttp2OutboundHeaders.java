@@ -34,7 +34,17 @@ final class GrpcHttp2OutboundHeaders extends AbstractHttp2Headers {
   static GrpcHttp2OutboundHeaders clientRequestHeaders(byte[][] serializedMetadata,
       AsciiString authority, AsciiString path, AsciiString method, AsciiString scheme,
       AsciiString userAgent) {
-    AsciiString[] preHeaders = new AsciiString[] {
+    return clientRequestHeaders(
+        serializedMetadata, clientRequestPreHeaders(authority, path, method, scheme, userAgent));
+  }
+
+  /**
+   * Returns the headers that precede the metadata of a request. The returned array is never
+   * modified, so it may be shared by many requests.
+   */
+  static AsciiString[] clientRequestPreHeaders(AsciiString authority, AsciiString path,
+      AsciiString method, AsciiString scheme, AsciiString userAgent) {
+    return new AsciiString[] {
         Http2Headers.PseudoHeaderName.AUTHORITY.value(), authority,
         Http2Headers.PseudoHeaderName.PATH.value(), path,
         Http2Headers.PseudoHeaderName.METHOD.value(), method,
@@ -43,6 +53,10 @@ final class GrpcHttp2OutboundHeaders extends AbstractHttp2Headers {
         Utils.TE_HEADER, Utils.TE_TRAILERS,
         Utils.USER_AGENT, userAgent,
     };
+  }
+
+  static GrpcHttp2OutboundHeaders clientRequestHeaders(
+      byte[][] serializedMetadata, AsciiString[] preHeaders) {
     return new GrpcHttp2OutboundHeaders(preHeaders, serializedMetadata);
   }
 
@@ -122,6 +122,9 @@ public final class NettyChannelBuilder
   /**
    * Creates a new builder with the given target string that will be resolved by
    * {@link io.grpc.NameResolver}.
+   *
+   * <p>A {@code unix:/path/to/socket} target connects to a Unix domain socket, and a {@code
+   * unix-abstract:name} target to one in the Linux abstract namespace. Both need netty-epoll.
    */
   @CheckReturnValue
   public static NettyChannelBuilder forTarget(String target) {
@@ -155,7 +158,8 @@ public final class NettyChannelBuilder
 
   /**
    * Specifies the channel type to use, by default we use {@code EpollSocketChannel} if available,
-   * otherwise using {@link NioSocketChannel}.
+   * otherwise using {@link NioSocketChannel}. When epoll is available, the default for a {@code
+   * DomainSocketAddress} is {@code EpollDomainSocketChannel}.
    *
    * <p>You either use this or {@link #channelFactory(io.netty.channel.ChannelFactory)} if your
    * {@link Channel} implementation has no no-args constructor.
@@ -601,6 +605,14 @@ public final class NettyChannelBuilder
         }
       };
 
+      ChannelFactory<? extends Channel> channelFactory = this.channelFactory;
+      if (channelFactory == DEFAULT_CHANNEL_FACTORY
+          && Utils.DEFAULT_CLIENT_DOMAIN_SOCKET_CHANNEL_FACTORY != null
+          && Utils.isDomainSocketAddress(serverAddress)) {
+        // The default event loop group is epoll's whenever this factory is available.
+        channelFactory = Utils.DEFAULT_CLIENT_DOMAIN_SOCKET_CHANNEL_FACTORY;
+      }
+
       // TODO(carl-mastrangelo): Pass channelLogger in.
       NettyClientTransport transport = new NettyClientTransport(
           serverAddress, channelFactory, channelOptions, group,
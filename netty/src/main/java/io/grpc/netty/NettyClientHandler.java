@@ -27,6 +27,7 @@ import com.google.common.base.Supplier;
 import io.grpc.Attributes;
 import io.grpc.InternalChannelz;
 import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.StatusException;
 import io.grpc.internal.ClientStreamListener.RpcProgress;
@@ -79,6 +80,8 @@ import io.netty.handler.logging.LogLevel;
 import io.perfmark.PerfMark;
 import io.perfmark.Tag;
 import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -126,6 +129,8 @@ class NettyClientHandler extends AbstractNettyHandler {
       };
 
   private WriteQueue clientWriteQueue;
+  private final ConcurrentMap<MethodDescriptor<?, ?>, NettyClientStream.MethodHeaders>
+      methodHeaders = new ConcurrentHashMap<>();
   private Http2Ping ping;
   private Attributes attributes;
   private InternalChannelz.Security securityInfo;
@@ -346,6 +351,14 @@ class NettyClientHandler extends AbstractNettyHandler {
     return clientWriteQueue;
   }
 
+  /**
+   * Returns the request headers of each method used on this transport. The streams fill it in from
+   * their application threads, see {@link NettyClientStream.MethodHeaders#get}.
+   */
+  ConcurrentMap<MethodDescriptor<?, ?>, NettyClientStream.MethodHeaders> getMethodHeaders() {
+    return methodHeaders;
+  }
+
   ClientTransportLifecycleManager getLifecycleManager() {
     return lifecycleManager;
   }
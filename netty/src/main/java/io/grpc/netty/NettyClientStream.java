@@ -21,6 +21,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static io.netty.buffer.Unpooled.EMPTY_BUFFER;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.io.BaseEncoding;
 import io.grpc.Attributes;
@@ -30,6 +32,7 @@ import io.grpc.InternalMethodDescriptor;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.grpc.internal.AbstractClientStream;
 import io.grpc.internal.Http2ClientStreamTransportState;
 import io.grpc.internal.StatsTraceContext;
@@ -45,6 +48,7 @@ import io.netty.handler.codec.http2.Http2Stream;
 import io.netty.util.AsciiString;
 import io.perfmark.PerfMark;
 import io.perfmark.Tag;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nullable;
 
 /**
@@ -62,8 +66,11 @@ class NettyClientStream extends AbstractClientStream {
   private final WriteQueue writeQueue;
   private final MethodDescriptor<?, ?> method;
   private AsciiString authority;
+  /** The authority of the transport, which {@link #setAuthority} may override for this call. */
+  private final AsciiString transportAuthority;
   private final AsciiString scheme;
   private final AsciiString userAgent;
+  private final StatsTraceContext statsTraceCtx;
 
   NettyClientStream(
       TransportState state,
@@ -88,8 +95,10 @@ class NettyClientStream extends AbstractClientStream {
     this.writeQueue = state.handler.getWriteQueue();
     this.method = checkNotNull(method, "method");
     this.authority = checkNotNull(authority, "authority");
+    this.transportAuthority = authority;
     this.scheme = checkNotNull(scheme, "scheme");
     this.userAgent = userAgent;
+    this.statsTraceCtx = checkNotNull(statsTraceCtx, "statsTraceCtx");
   }
 
   @Override
@@ -131,19 +140,31 @@ class NettyClientStream extends AbstractClientStream {
         defaultPath = new AsciiString("/" + method.getFullMethodName());
         methodDescriptorAccessor.setRawMethodName(method, defaultPath);
       }
+      long encodeStartNanos = statsTraceCtx.isPhaseTimingEnabled() ? System.nanoTime() : 0;
       boolean get = (requestPayload != null);
-      AsciiString httpMethod;
+      Http2Headers http2Headers;
       if (get) {
         // Forge the query string
         // TODO(ericgribkoff) Add the key back to the query string
-        defaultPath =
-            new AsciiString(defaultPath + "?" + BaseEncoding.base64().encode(requestPayload));
-        httpMethod = Utils.HTTP_GET_METHOD;
+        AsciiString path = new AsciiString(
+            defaultPath + "?" + BaseEncoding.base64().encode(requestPayload));
+        http2Headers = Utils.convertClientHeaders(headers, scheme, path,
+            authority, Utils.HTTP_GET_METHOD, userAgent);
       } else {
-        httpMethod = Utils.HTTP_METHOD;
+        MethodHeaders methodHeaders = MethodHeaders.get(transportState().handler.getMethodHeaders(),
+            method, defaultPath, transportAuthority, scheme, userAgent);
+        if (methodHeaders.matches(authority, scheme, userAgent)) {
+          // Only the metadata differs from call to call
+          http2Headers = Utils.convertClientHeaders(headers, methodHeaders.preHeaders);
+        } else {
+          http2Headers = Utils.convertClientHeaders(headers, scheme, defaultPath,
+              authority, Utils.HTTP_METHOD, userAgent);
+        }
+      }
+      if (statsTraceCtx.isPhaseTimingEnabled()) {
+        statsTraceCtx.phaseCompleted(
+            StreamTracer.Phase.HEADERS_ENCODE, System.nanoTime() - encodeStartNanos);
       }
-      Http2Headers http2Headers = Utils.convertClientHeaders(headers, scheme, defaultPath,
-          authority, httpMethod, userAgent);
 
       ChannelFutureListener failureListener = new ChannelFutureListener() {
         @Override
@@ -219,6 +240,59 @@ class NettyClientStream extends AbstractClientStream {
     }
   }
 
+  /**
+   * The headers preceding the metadata of a method's POST requests. Cached per transport and
+   * method, for the transport's authority, scheme and user agent.
+   */
+  static final class MethodHeaders {
+    /**
+     * Bounds each transport's cache, since some applications, like generic proxies, create a new
+     * MethodDescriptor for every call.
+     */
+    @VisibleForTesting
+    static final int MAX_CACHED_METHODS = 1000;
+
+    final AsciiString authority;
+    final AsciiString scheme;
+    @Nullable
+    final AsciiString userAgent;
+    final AsciiString[] preHeaders;
+
+    MethodHeaders(AsciiString path, AsciiString authority, AsciiString scheme,
+        @Nullable AsciiString userAgent) {
+      this.authority = authority;
+      this.scheme = scheme;
+      this.userAgent = userAgent;
+      this.preHeaders = GrpcHttp2OutboundHeaders.clientRequestPreHeaders(
+          authority, path, Utils.HTTP_METHOD, scheme, userAgent);
+    }
+
+    /**
+     * Returns the method's request headers from the transport's cache, creating them if needed.
+     * The cache starts over once it holds {@link #MAX_CACHED_METHODS} methods.
+     */
+    static MethodHeaders get(ConcurrentMap<MethodDescriptor<?, ?>, MethodHeaders> cache,
+        MethodDescriptor<?, ?> method, AsciiString path, AsciiString authority,
+        AsciiString scheme, @Nullable AsciiString userAgent) {
+      MethodHeaders methodHeaders = cache.get(method);
+      if (methodHeaders == null) {
+        methodHeaders = new MethodHeaders(path, authority, scheme, userAgent);
+        if (cache.size() >= MAX_CACHED_METHODS) {
+          cache.clear();
+        }
+        // Racing streams build equal headers, so whichever lands is fine
+        cache.putIfAbsent(method, methodHeaders);
+      }
+      return methodHeaders;
+    }
+
+    boolean matches(AsciiString authority, AsciiString scheme, @Nullable AsciiString userAgent) {
+      return this.authority.equals(authority)
+          && this.scheme.equals(scheme)
+          && Objects.equal(this.userAgent, userAgent);
+    }
+  }
+
   /** This should only called from the transport thread. */
   public abstract static class TransportState extends Http2ClientStreamTransportState
       implements StreamIdHolder {
@@ -38,6 +38,7 @@ import io.grpc.internal.ConnectionClientTransport;
 import io.grpc.internal.FailingClientStream;
 import io.grpc.internal.GrpcUtil;
 import io.grpc.internal.Http2Ping;
+import io.grpc.internal.KeepAliveCoordinator;
 import io.grpc.internal.KeepAliveManager;
 import io.grpc.internal.KeepAliveManager.ClientKeepAlivePinger;
 import io.grpc.internal.StatsTraceContext;
@@ -223,8 +224,8 @@ class NettyClientTransport implements ConnectionClientTransport {
     EventLoop eventLoop = group.next();
     if (keepAliveTimeNanos != KEEPALIVE_TIME_NANOS_DISABLED) {
       keepAliveManager = new KeepAliveManager(
-          new ClientKeepAlivePinger(this), eventLoop, keepAliveTimeNanos, keepAliveTimeoutNanos,
-          keepAliveWithoutCalls);
+          new ClientKeepAlivePinger(this), eventLoop, KeepAliveCoordinator.getDefault(),
+          keepAliveTimeNanos, keepAliveTimeoutNanos, keepAliveWithoutCalls);
     }
 
     handler = NettyClientHandler.newHandler(
@@ -246,13 +247,16 @@ class NettyClientTransport implements ConnectionClientTransport {
     b.attr(LOGGER_KEY, channelLogger);
     b.group(eventLoop);
     b.channelFactory(channelFactory);
-    // For non-socket based channel, the option will be ignored.
-    b.option(SO_KEEPALIVE, true);
-    // For non-epoll based channel, the option will be ignored.
-    if (keepAliveTimeNanos != KEEPALIVE_TIME_NANOS_DISABLED) {
-      ChannelOption<Integer> tcpUserTimeout = Utils.maybeGetTcpUserTimeoutOption();
-      if (tcpUserTimeout != null) {
-        b.option(tcpUserTimeout, (int) TimeUnit.NANOSECONDS.toMillis(keepAliveTimeoutNanos));
+    // Domain sockets have no TCP options, and Netty would log a warning for each.
+    if (!Utils.isDomainSocketAddress(remoteAddress)) {
+      // For non-socket based channel, the option will be ignored.
+      b.option(SO_KEEPALIVE, true);
+      // For non-epoll based channel, the option will be ignored.
+      if (keepAliveTimeNanos != KEEPALIVE_TIME_NANOS_DISABLED) {
+        ChannelOption<Integer> tcpUserTimeout = Utils.maybeGetTcpUserTimeoutOption();
+        if (tcpUserTimeout != null) {
+          b.option(tcpUserTimeout, (int) TimeUnit.NANOSECONDS.toMillis(keepAliveTimeoutNanos));
+        }
       }
     }
     for (Map.Entry<ChannelOption<?>, ?> entry : channelOptions.entrySet()) {
@@ -406,7 +410,7 @@ class NettyClientTransport implements ConnectionClientTransport {
     assert ch.eventLoop().inEventLoop();
     return new SocketStats(
         transportTracer.getStats(),
-        channel.localAddress(),
+        Utils.getLocalAddress(channel),
         channel.remoteAddress(),
         Utils.getSocketOptions(ch),
         handler == null ? null : handler.getSecurityInfo());
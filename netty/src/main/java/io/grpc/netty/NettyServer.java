@@ -168,8 +168,11 @@ class NettyServer implements InternalServer, InternalWithLogId {
     b.childOption(ALLOCATOR, Utils.getByteBufAllocator(forceHeapBuffer));
     b.group(bossGroup, workerGroup);
     b.channelFactory(channelFactory);
-    // For non-socket based channel, the option will be ignored.
-    b.childOption(SO_KEEPALIVE, true);
+    // For non-socket based channel, the option will be ignored. Domain sockets have no TCP options,
+    // and Netty would log a warning for it.
+    if (!Utils.isDomainSocketAddress(address)) {
+      b.childOption(SO_KEEPALIVE, true);
+    }
 
     if (channelOptions != null) {
       for (Map.Entry<ChannelOption<?>, ?> entry : channelOptions.entrySet()) {
@@ -51,6 +51,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nullable;
@@ -92,6 +93,8 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
       DEFAULT_WORKER_EVENT_LOOP_GROUP_POOL;
   private boolean forceHeapBuffer;
   private SslContext sslContext;
+  @Nullable
+  private ObjectPool<? extends Executor> handshakeExecutorPool;
   private ProtocolNegotiator protocolNegotiator;
   private int maxConcurrentCallsPerConnection = Integer.MAX_VALUE;
   private boolean autoFlowControl = true;
@@ -150,7 +153,8 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
 
   /**
    * Specifies the channel type to use, by default we use {@code EpollServerSocketChannel} if
-   * available, otherwise using {@link NioServerSocketChannel}.
+   * available, otherwise using {@link NioServerSocketChannel}. When epoll is available, the default
+   * for a {@code DomainSocketAddress} is {@code EpollServerDomainSocketChannel}.
    *
    * <p>You either use this or {@link #channelFactory(io.netty.channel.ChannelFactory)} if your
    * {@link ServerChannel} implementation has no no-args constructor.
@@ -282,6 +286,23 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
     return this;
   }
 
+  /**
+   * Runs the application code of each call on the event loop of the call's connection, instead of
+   * on the server's executor. A call then stays on one thread: its messages are read, its handler
+   * runs and its responses are written with no cross-thread handoff. Callbacks and response writes
+   * are still queued as tasks of that event loop. This lowers latency for handlers that never
+   * block, such as async handlers that only wait on other non-blocking calls.
+   * Like {@link #directExecutor()}, a handler that blocks stalls every connection on its event
+   * loop.
+   *
+   * <p>When enabled, this takes precedence over {@link #executor(java.util.concurrent.Executor)},
+   * which is then only used to deliver cancellations to call contexts. Disabled by default.
+   */
+  public NettyServerBuilder eventLoopExecution(boolean enable) {
+    setTransportThreadExecution(enable);
+    return this;
+  }
+
   /**
    * Force using heap buffer when custom allocator is enabled.
    */
@@ -303,6 +324,25 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
     return this;
   }
 
+  /**
+   * Provides an executor for the CPU-heavy parts of the TLS handshake, like signing and
+   * certificate verification, so they do not run on the worker event loop. A bounded executor
+   * limits how much CPU a burst of reconnecting clients can take from in-flight RPCs. Only used
+   * when {@link #sslContext(SslContext)} is set.
+   *
+   * <p>The server won't take ownership of the given executor. It's caller's responsibility to
+   * shut down the executor when it's desired.
+   *
+   * <p>Default: the server's {@link #executor(Executor) executor}.
+   *
+   * @since 1.32.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyServerBuilder handshakeExecutor(@Nullable Executor executor) {
+    this.handshakeExecutorPool = executor != null ? new FixedObjectPool<>(executor) : null;
+    return this;
+  }
+
   /**
    * Sets the {@link ProtocolNegotiator} to be used. If non-{@code null}, overrides the value
    * specified in {@link #sslContext(SslContext)}.
@@ -571,12 +611,20 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
     ProtocolNegotiator negotiator = protocolNegotiator;
     if (negotiator == null) {
       negotiator = sslContext != null
-          ? ProtocolNegotiators.serverTls(sslContext, this.getExecutorPool())
+          ? ProtocolNegotiators.serverTls(sslContext, handshakeExecutorPool != null
+              ? handshakeExecutorPool : this.getExecutorPool())
           : ProtocolNegotiators.serverPlaintext();
     }
 
     List<NettyServer> transportServers = new ArrayList<>(listenAddresses.size());
     for (SocketAddress listenAddress : listenAddresses) {
+      ChannelFactory<? extends ServerChannel> channelFactory = this.channelFactory;
+      if (channelFactory == Utils.DEFAULT_SERVER_CHANNEL_FACTORY
+          && Utils.DEFAULT_SERVER_DOMAIN_SOCKET_CHANNEL_FACTORY != null
+          && Utils.isDomainSocketAddress(listenAddress)) {
+        // The default event loop groups are epoll's whenever this factory is available.
+        channelFactory = Utils.DEFAULT_SERVER_DOMAIN_SOCKET_CHANNEL_FACTORY;
+      }
       NettyServer transportServer = new NettyServer(
           listenAddress, channelFactory, channelOptions, childChannelOptions,
           bossEventLoopGroupPool, workerEventLoopGroupPool, forceHeapBuffer, negotiator,
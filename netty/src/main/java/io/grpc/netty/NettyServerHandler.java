@@ -397,7 +397,7 @@ class NettyServerHandler extends AbstractNettyHandler {
         return;
       }
 
-      String method = path.subSequence(1, path.length()).toString();
+      String method = methodName(path);
 
       // Verify that the Content-Type is correct in the request.
       CharSequence contentType = headers.get(CONTENT_TYPE_HEADER);
@@ -466,6 +466,22 @@ class NettyServerHandler extends AbstractNettyHandler {
     }
   }
 
+  /**
+   * Returns the method name for a path starting with '/', using the name registered with the server
+   * when there is one, so that known methods do not need a new {@code String}.
+   */
+  private String methodName(CharSequence path) {
+    if (path instanceof AsciiString) {
+      AsciiString asciiPath = (AsciiString) path;
+      String method = transportListener.lookupMethodName(
+          asciiPath.array(), asciiPath.arrayOffset() + 1, asciiPath.length() - 1);
+      if (method != null) {
+        return method;
+      }
+    }
+    return path.subSequence(1, path.length()).toString();
+  }
+
   private String getOrUpdateAuthority(AsciiString authority) {
     if (authority == null) {
       return null;
@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import io.grpc.Attributes;
 import io.grpc.Metadata;
 import io.grpc.Status;
+import io.grpc.StreamTracer;
 import io.grpc.internal.AbstractServerStream;
 import io.grpc.internal.StatsTraceContext;
 import io.grpc.internal.TransportTracer;
@@ -96,11 +97,15 @@ class NettyServerStream extends AbstractServerStream {
     public void writeHeaders(Metadata headers) {
       PerfMark.startTask("NettyServerStream$Sink.writeHeaders");
       try {
+        StatsTraceContext statsTraceCtx = statsTraceContext();
+        long encodeStartNanos = statsTraceCtx.isPhaseTimingEnabled() ? System.nanoTime() : 0;
+        Http2Headers http2Headers = Utils.convertServerHeaders(headers);
+        if (statsTraceCtx.isPhaseTimingEnabled()) {
+          statsTraceCtx.phaseCompleted(
+              StreamTracer.Phase.HEADERS_ENCODE, System.nanoTime() - encodeStartNanos);
+        }
         writeQueue.enqueue(
-            SendResponseHeadersCommand.createHeaders(
-                transportState(),
-                Utils.convertServerHeaders(headers)),
-            true);
+            SendResponseHeadersCommand.createHeaders(transportState(), http2Headers), true);
       } finally {
         PerfMark.stopTask("NettyServerStream$Sink.writeHeaders");
       }
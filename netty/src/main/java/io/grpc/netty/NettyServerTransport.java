@@ -236,7 +236,7 @@ class NettyServerTransport implements ServerTransport {
     Preconditions.checkState(ch.eventLoop().inEventLoop());
     return new SocketStats(
         transportTracer.getStats(),
-        channel.localAddress(),
+        Utils.getLocalAddress(channel),
         channel.remoteAddress(),
         Utils.getSocketOptions(ch),
         grpcHandler == null ? null : grpcHandler.getSecurityInfo());
@@ -20,6 +20,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import io.grpc.InternalChannelz.TcpInfo;
 import io.netty.channel.Channel;
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -68,7 +70,36 @@ final class NettySocketSupport {
     public NativeSocketOptions getNativeSocketOptions(Channel ch) {
       // TODO(zpencer): if netty-epoll, use reflection to call EpollSocketChannel.tcpInfo()
       // And/or if some other low level socket support library is available, call it now.
-      return null;
+      String peerCredentials = getPeerCredentials(ch);
+      if (peerCredentials == null) {
+        return null;
+      }
+      return new NativeSocketOptions(null, ImmutableMap.of("SO_PEERCRED", peerCredentials));
+    }
+
+    /**
+     * Returns the pid, uid and gids of the process at the other end of a connected domain socket,
+     * via EpollDomainSocketChannel.peerCredentials(), or null if they are not available.
+     */
+    @Nullable
+    private static String getPeerCredentials(Channel ch) {
+      if (!Utils.isDomainSocketAddress(Utils.getLocalAddress(ch))) {
+        return null;
+      }
+      try {
+        Object credentials = ch.getClass().getMethod("peerCredentials").invoke(ch);
+        Class<?> credentialsClass = credentials.getClass();
+        Method gids = credentialsClass.getMethod("gids");
+        return "pid=" + credentialsClass.getMethod("pid").invoke(credentials)
+            + ", uid=" + credentialsClass.getMethod("uid").invoke(credentials)
+            + ", gids=" + Arrays.toString((int[]) gids.invoke(credentials));
+      } catch (NoSuchMethodException e) {
+        // A listening socket, or a transport that does not expose the credentials.
+        return null;
+      } catch (Exception e) {
+        // The socket is closed.
+        return null;
+      }
     }
   }
 }
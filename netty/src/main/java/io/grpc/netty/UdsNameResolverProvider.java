@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.grpc.Attributes;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.Internal;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Collections;
+
+/**
+ * A provider for name resolvers of Unix domain socket targets, which Netty connects to with
+ * {@code EpollDomainSocketChannel}.
+ *
+ * <p>A target whose scheme is {@code "unix"} names a socket by its path, which is relative if it
+ * does not start with a slash. A target whose scheme is {@code "unix-abstract"} names a socket in
+ * the Linux abstract namespace. Example target URIs:
+ *
+ * <ul>
+ *   <li>{@code "unix:/var/run/sidecar.sock"}</li>
+ *   <li>{@code "unix:///var/run/sidecar.sock"}</li>
+ *   <li>{@code "unix:sidecar.sock"} (relative to the working directory)</li>
+ *   <li>{@code "unix-abstract:sidecar"}</li>
+ * </ul>
+ *
+ * <p>Channels to these targets use {@code "localhost"} as their authority. The provider is only
+ * available where the Netty epoll transport can be loaded.
+ */
+@Internal
+public final class UdsNameResolverProvider extends NameResolverProvider {
+
+  private static final String SCHEME = "unix";
+  private static final String ABSTRACT_SCHEME = "unix-abstract";
+  private static final String AUTHORITY = "localhost";
+
+  private final boolean available;
+
+  public UdsNameResolverProvider() {
+    // DomainSocketAddress can be loaded even where epoll cannot, like on macOS, and then channels
+    // could not connect to the resolved addresses
+    this(Utils.DEFAULT_CLIENT_DOMAIN_SOCKET_CHANNEL_FACTORY != null);
+  }
+
+  @VisibleForTesting
+  UdsNameResolverProvider(boolean available) {
+    this.available = available;
+  }
+
+  @Override
+  public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+    if (SCHEME.equals(targetUri.getScheme())) {
+      Preconditions.checkArgument(targetUri.getAuthority() == null,
+          "the authority of the target (%s) must be empty", targetUri);
+      String path = targetUri.getPath();
+      if (path == null) {
+        // An opaque URI like "unix:relative/path".
+        path = targetUri.getSchemeSpecificPart();
+      }
+      Preconditions.checkArgument(!path.isEmpty(), "the target (%s) has no path", targetUri);
+      return new UdsNameResolver(Utils.newDomainSocketAddress(path));
+    } else if (ABSTRACT_SCHEME.equals(targetUri.getScheme())) {
+      // The kernel tells abstract names apart from paths by a leading NUL byte.
+      return new UdsNameResolver(
+          Utils.newDomainSocketAddress("\0" + targetUri.getSchemeSpecificPart()));
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public String getDefaultScheme() {
+    return SCHEME;
+  }
+
+  @Override
+  protected boolean isAvailable() {
+    return available;
+  }
+
+  @Override
+  public int priority() {
+    // Below DNS, so that "unix" never becomes the default scheme for targets without one.
+    return 3;
+  }
+
+  private static final class UdsNameResolver extends NameResolver {
+    private final SocketAddress address;
+
+    UdsNameResolver(SocketAddress address) {
+      this.address = address;
+    }
+
+    @Override
+    public String getServiceAuthority() {
+      return AUTHORITY;
+    }
+
+    @Override
+    public void start(Listener2 listener) {
+      listener.onResult(
+          ResolutionResult.newBuilder()
+              .setAddresses(Collections.singletonList(new EquivalentAddressGroup(address)))
+              .setAttributes(Attributes.EMPTY)
+              .build());
+    }
+
+    @Override
+    public void shutdown() {}
+  }
+}
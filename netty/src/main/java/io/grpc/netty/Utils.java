@@ -53,6 +53,7 @@ import io.netty.util.NettyRuntime;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.UnresolvedAddressException;
 import java.util.Map;
@@ -100,6 +101,19 @@ class Utils {
   public static final ChannelFactory<? extends ServerChannel> DEFAULT_SERVER_CHANNEL_FACTORY;
   public static final Class<? extends Channel> DEFAULT_CLIENT_CHANNEL_TYPE;
 
+  /**
+   * Channel factories for {@code DomainSocketAddress}es, used instead of the defaults above when
+   * the builder was not given a channel type. Null if epoll is not available.
+   */
+  @Nullable
+  static final ChannelFactory<? extends ServerChannel> DEFAULT_SERVER_DOMAIN_SOCKET_CHANNEL_FACTORY;
+  @Nullable
+  static final ChannelFactory<? extends Channel> DEFAULT_CLIENT_DOMAIN_SOCKET_CHANNEL_FACTORY;
+
+  @Nullable
+  private static final Class<? extends SocketAddress> DOMAIN_SOCKET_ADDRESS_CLASS =
+      domainSocketAddressClass();
+
   @Nullable
   private static final Constructor<? extends EventLoopGroup> EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR;
 
@@ -108,6 +122,10 @@ class Utils {
     if (isEpollAvailable()) {
       DEFAULT_CLIENT_CHANNEL_TYPE = epollChannelType();
       DEFAULT_SERVER_CHANNEL_FACTORY = new ReflectiveChannelFactory<>(epollServerChannelType());
+      DEFAULT_CLIENT_DOMAIN_SOCKET_CHANNEL_FACTORY =
+          new ReflectiveChannelFactory<>(epollDomainSocketChannelType());
+      DEFAULT_SERVER_DOMAIN_SOCKET_CHANNEL_FACTORY =
+          new ReflectiveChannelFactory<>(epollServerDomainSocketChannelType());
       EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR = epollEventLoopGroupConstructor();
       DEFAULT_BOSS_EVENT_LOOP_GROUP
         = new DefaultEventLoopGroupResource(1, "grpc-default-boss-ELG", EventLoopGroupType.EPOLL);
@@ -117,6 +135,8 @@ class Utils {
       logger.log(Level.FINE, "Epoll is not available, using Nio.", getEpollUnavailabilityCause());
       DEFAULT_SERVER_CHANNEL_FACTORY = nioServerChannelFactory();
       DEFAULT_CLIENT_CHANNEL_TYPE = NioSocketChannel.class;
+      DEFAULT_CLIENT_DOMAIN_SOCKET_CHANNEL_FACTORY = null;
+      DEFAULT_SERVER_DOMAIN_SOCKET_CHANNEL_FACTORY = null;
       DEFAULT_BOSS_EVENT_LOOP_GROUP = NIO_BOSS_EVENT_LOOP_GROUP;
       DEFAULT_WORKER_EVENT_LOOP_GROUP = NIO_WORKER_EVENT_LOOP_GROUP;
       EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR = null;
@@ -175,7 +195,7 @@ class Utils {
   public static Metadata convertHeaders(Http2Headers http2Headers) {
     if (http2Headers instanceof GrpcHttp2InboundHeaders) {
       GrpcHttp2InboundHeaders h = (GrpcHttp2InboundHeaders) http2Headers;
-      return InternalMetadata.newMetadata(h.numHeaders(), h.namesAndValues());
+      return InternalMetadata.newMetadataWithParsedValues(h.numHeaders(), h.namesAndValues());
     }
     return InternalMetadata.newMetadata(convertHeadersToArray(http2Headers));
   }
@@ -213,18 +233,25 @@ class Utils {
     Preconditions.checkNotNull(authority, "authority");
     Preconditions.checkNotNull(method, "method");
 
+    return convertClientHeaders(headers, GrpcHttp2OutboundHeaders.clientRequestPreHeaders(
+        authority,
+        defaultPath,
+        method,
+        scheme,
+        userAgent));
+  }
+
+  /**
+   * Converts request headers, preceded by {@code preHeaders} as returned by {@link
+   * GrpcHttp2OutboundHeaders#clientRequestPreHeaders}, which may be cached across requests.
+   */
+  static Http2Headers convertClientHeaders(Metadata headers, AsciiString[] preHeaders) {
     // Discard any application supplied duplicates of the reserved headers
     headers.discardAll(CONTENT_TYPE_KEY);
     headers.discardAll(GrpcUtil.TE_HEADER);
     headers.discardAll(GrpcUtil.USER_AGENT_KEY);
 
-    return GrpcHttp2OutboundHeaders.clientRequestHeaders(
-        toHttp2Headers(headers),
-        authority,
-        defaultPath,
-        method,
-        scheme,
-        userAgent);
+    return GrpcHttp2OutboundHeaders.clientRequestHeaders(toHttp2Headers(headers), preHeaders);
   }
 
   public static Http2Headers convertServerHeaders(Metadata headers) {
@@ -239,7 +266,7 @@ class Utils {
   public static Metadata convertTrailers(Http2Headers http2Headers) {
     if (http2Headers instanceof GrpcHttp2InboundHeaders) {
       GrpcHttp2InboundHeaders h = (GrpcHttp2InboundHeaders) http2Headers;
-      return InternalMetadata.newMetadata(h.numHeaders(), h.namesAndValues());
+      return InternalMetadata.newMetadataWithParsedValues(h.numHeaders(), h.namesAndValues());
     }
     return InternalMetadata.newMetadata(convertHeadersToArray(http2Headers));
   }
@@ -345,6 +372,82 @@ class Utils {
     }
   }
 
+  // Must call when epoll is available
+  private static Class<? extends Channel> epollDomainSocketChannelType() {
+    try {
+      return Class
+          .forName("io.netty.channel.epoll.EpollDomainSocketChannel").asSubclass(Channel.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load EpollDomainSocketChannel", e);
+    }
+  }
+
+  // Must call when epoll is available
+  private static Class<? extends ServerChannel> epollServerDomainSocketChannelType() {
+    try {
+      return Class
+          .forName("io.netty.channel.epoll.EpollServerDomainSocketChannel")
+          .asSubclass(ServerChannel.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load EpollServerDomainSocketChannel", e);
+    }
+  }
+
+  @Nullable
+  private static Class<? extends SocketAddress> domainSocketAddressClass() {
+    try {
+      return Class
+          .forName("io.netty.channel.unix.DomainSocketAddress").asSubclass(SocketAddress.class);
+    } catch (ClassNotFoundException e) {
+      // this is normal if no netty native transport is on the classpath.
+      return null;
+    }
+  }
+
+  /**
+   * Returns true if Netty's {@code DomainSocketAddress} is on the classpath, which is the case when
+   * one of its native transports is.
+   */
+  static boolean isDomainSocketAddressAvailable() {
+    return DOMAIN_SOCKET_ADDRESS_CLASS != null;
+  }
+
+  /** Returns true if {@code address} is a Netty {@code DomainSocketAddress}. */
+  static boolean isDomainSocketAddress(@Nullable SocketAddress address) {
+    return DOMAIN_SOCKET_ADDRESS_CLASS != null && DOMAIN_SOCKET_ADDRESS_CLASS.isInstance(address);
+  }
+
+  /**
+   * Creates a Netty {@code DomainSocketAddress}. A path starting with {@code '\0'} names a socket
+   * in the Linux abstract namespace.
+   */
+  static SocketAddress newDomainSocketAddress(String path) {
+    checkState(DOMAIN_SOCKET_ADDRESS_CLASS != null, "DomainSocketAddress is not available");
+    try {
+      return DOMAIN_SOCKET_ADDRESS_CLASS.getConstructor(String.class).newInstance(path);
+    } catch (Exception e) {
+      throw new RuntimeException("Cannot create DomainSocketAddress", e);
+    }
+  }
+
+  /**
+   * Returns the local address of {@code channel}, which channelz requires. Netty does not record it
+   * for domain sockets that were accepted, or that connected without being bound.
+   */
+  @Nullable
+  static SocketAddress getLocalAddress(Channel channel) {
+    SocketAddress local = channel.localAddress();
+    if (local == null && channel.parent() != null) {
+      // An accepted socket has the address of the socket that listened for it.
+      local = channel.parent().localAddress();
+    }
+    if (local == null && isDomainSocketAddress(channel.remoteAddress())) {
+      // A domain socket that connected without being bound is unnamed.
+      local = newDomainSocketAddress("");
+    }
+    return local;
+  }
+
   private static EventLoopGroup createEpollEventLoopGroup(
       int parallelism,
       ThreadFactory threadFactory) {
@@ -16,12 +16,17 @@
 
 package io.grpc.netty;
 
+import static com.google.common.base.Charsets.US_ASCII;
 import static io.grpc.InternalMetadata.BASE64_ENCODING_OMIT_PADDING;
 import static io.netty.util.AsciiString.of;
 import static junit.framework.TestCase.assertNotSame;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
+import io.grpc.Metadata;
+import io.grpc.internal.TransportFrameUtil;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2InboundHeaders;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2RequestHeaders;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2ResponseHeaders;
@@ -64,20 +69,47 @@ public class GrpcHttp2InboundHeadersTest {
   }
 
   @Test
-  public void binaryHeadersShouldBeBase64Decoded() {
+  public void malformedBinaryHeaderIsRejectedWhenReceived() {
+    Http2Headers headers = new GrpcHttp2RequestHeaders(1);
+    try {
+      headers.add(of("foo-bin"), of("AAAA,not base64!"));
+      fail("Should have thrown");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    try {
+      // A single character left over can't be valid, with or without padding
+      headers.add(of("foo-bin"), of("AAAAA"));
+      fail("Should have thrown");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void binaryHeadersShouldBeBase64DecodedLazily() {
     Http2Headers headers = new GrpcHttp2RequestHeaders(1);
 
     byte[] data = new byte[100];
     new Random().nextBytes(data);
-    headers.add(of("foo-bin"), of(BASE64_ENCODING_OMIT_PADDING.encode(data)));
+    String encoded = BASE64_ENCODING_OMIT_PADDING.encode(data);
+    headers.add(of("foo-bin"), of(encoded));
 
     assertEquals(1, headers.size());
 
-    byte[][] namesAndValues = ((GrpcHttp2InboundHeaders)headers).namesAndValues();
+    Object[] namesAndValues = ((GrpcHttp2InboundHeaders)headers).namesAndValues();
+
+    assertEquals(of("foo-bin"), new AsciiString((byte[]) namesAndValues[0]));
+    assertFalse(namesAndValues[1] instanceof byte[]);
+
+    Metadata metadata = Utils.convertHeaders(headers);
+    byte[] decoded = metadata.get(Metadata.Key.of("foo-bin", Metadata.BINARY_BYTE_MARSHALLER));
+    assertNotSame(data, decoded);
+    assertArrayEquals(data, decoded);
 
-    assertEquals(of("foo-bin"), new AsciiString(namesAndValues[0]));
-    assertNotSame(data, namesAndValues[1]);
-    assertArrayEquals(data, namesAndValues[1]);
+    // Sent again as received
+    byte[][] http2Headers = TransportFrameUtil.toHttp2Headers(metadata);
+    assertEquals(encoded, new String(http2Headers[1], US_ASCII));
   }
 
 }
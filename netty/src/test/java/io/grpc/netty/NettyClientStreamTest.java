@@ -28,6 +28,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -38,6 +39,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -66,8 +68,12 @@ import io.netty.util.AsciiString;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -461,6 +467,106 @@ public class NettyClientStreamTest extends NettyStreamTestBase<NettyClientStream
         .containsEntry(Utils.USER_AGENT, AsciiString.of("good agent"));
   }
 
+  @Test
+  public void cachedRequestHeadersNotUsedForOverriddenAuthority() {
+    listener = mock(ClientStreamListener.class);
+    Mockito.reset(writeQueue);
+    ChannelPromise completedPromise = new DefaultChannelPromise(channel)
+        .setSuccess();
+    when(writeQueue.enqueue(any(QueuedCommand.class), anyBoolean())).thenReturn(completedPromise);
+
+    for (String authority : new String[] {null, "override", null}) {
+      stream = new NettyClientStream(
+          new TransportStateImpl(handler, DEFAULT_MAX_MESSAGE_SIZE),
+          methodDescriptor,
+          new Metadata(),
+          channel,
+          AsciiString.of("localhost"),
+          AsciiString.of("http"),
+          AsciiString.of("agent"),
+          StatsTraceContext.NOOP,
+          transportTracer,
+          CallOptions.DEFAULT,
+          false);
+      if (authority != null) {
+        stream.setAuthority(authority);
+      }
+      stream.start(listener);
+    }
+
+    ArgumentCaptor<CreateStreamCommand> cmdCap = ArgumentCaptor.forClass(CreateStreamCommand.class);
+    verify(writeQueue, times(3)).enqueue(cmdCap.capture(), eq(false));
+    List<CharSequence> authorities = new ArrayList<>();
+    for (CreateStreamCommand command : cmdCap.getAllValues()) {
+      ImmutableListMultimap<CharSequence, CharSequence> headers =
+          ImmutableListMultimap.copyOf(command.headers());
+      authorities.addAll(headers.get(AsciiString.of(":authority")));
+      assertThat(headers)
+          .containsEntry(AsciiString.of(":path"), AsciiString.of("/testService/test"));
+    }
+    assertThat(authorities).containsExactly(
+        AsciiString.of("localhost"), AsciiString.of("override"), AsciiString.of("localhost"))
+        .inOrder();
+  }
+
+  @Test
+  public void cachedRequestHeadersArePerTransport() {
+    listener = mock(ClientStreamListener.class);
+    Mockito.reset(writeQueue);
+    ChannelPromise completedPromise = new DefaultChannelPromise(channel)
+        .setSuccess();
+    when(writeQueue.enqueue(any(QueuedCommand.class), anyBoolean())).thenReturn(completedPromise);
+    NettyClientHandler otherHandler = mock(NettyClientHandler.class);
+    when(otherHandler.getWriteQueue()).thenReturn(writeQueue);
+    when(otherHandler.getMethodHeaders()).thenReturn(
+        new ConcurrentHashMap<MethodDescriptor<?, ?>, NettyClientStream.MethodHeaders>());
+
+    for (NettyClientHandler transportHandler : new NettyClientHandler[] {handler, otherHandler}) {
+      stream = new NettyClientStream(
+          new TransportStateImpl(transportHandler, DEFAULT_MAX_MESSAGE_SIZE),
+          methodDescriptor,
+          new Metadata(),
+          channel,
+          AsciiString.of(transportHandler == handler ? "localhost" : "otherhost"),
+          AsciiString.of("http"),
+          AsciiString.of("agent"),
+          StatsTraceContext.NOOP,
+          transportTracer,
+          CallOptions.DEFAULT,
+          false);
+      stream.start(listener);
+    }
+
+    ArgumentCaptor<CreateStreamCommand> cmdCap = ArgumentCaptor.forClass(CreateStreamCommand.class);
+    verify(writeQueue, times(2)).enqueue(cmdCap.capture(), eq(false));
+    assertThat(ImmutableListMultimap.copyOf(cmdCap.getAllValues().get(0).headers()))
+        .containsEntry(AsciiString.of(":authority"), AsciiString.of("localhost"));
+    assertThat(ImmutableListMultimap.copyOf(cmdCap.getAllValues().get(1).headers()))
+        .containsEntry(AsciiString.of(":authority"), AsciiString.of("otherhost"));
+  }
+
+  @Test
+  public void cachedRequestHeadersAreBounded() {
+    ConcurrentMap<MethodDescriptor<?, ?>, NettyClientStream.MethodHeaders> cache =
+        new ConcurrentHashMap<>();
+    NettyClientStream.MethodHeaders first = null;
+    for (int i = 0; i <= NettyClientStream.MethodHeaders.MAX_CACHED_METHODS; i++) {
+      // Like a generic proxy, which creates a descriptor per call
+      MethodDescriptor<?, ?> method = methodDescriptor.toBuilder().build();
+      NettyClientStream.MethodHeaders methodHeaders = NettyClientStream.MethodHeaders.get(
+          cache, method, AsciiString.of("/testService/test"), AsciiString.of("localhost"),
+          AsciiString.of("http"), null);
+      if (first == null) {
+        first = methodHeaders;
+        assertSame(first, NettyClientStream.MethodHeaders.get(
+            cache, method, AsciiString.of("/testService/test"), AsciiString.of("localhost"),
+            AsciiString.of("http"), null));
+      }
+      assertThat(cache.size()).isAtMost(NettyClientStream.MethodHeaders.MAX_CACHED_METHODS);
+    }
+    assertThat(cache).hasSize(1);
+  }
+
   @Test
   public void getRequestSentThroughHeader() {
     // Creating a GET method
@@ -506,6 +612,8 @@ public class NettyClientStreamTest extends NettyStreamTestBase<NettyClientStream
   @Override
   protected NettyClientStream createStream() {
     when(handler.getWriteQueue()).thenReturn(writeQueue);
+    when(handler.getMethodHeaders()).thenReturn(
+        new ConcurrentHashMap<MethodDescriptor<?, ?>, NettyClientStream.MethodHeaders>());
     NettyClientStream stream = new NettyClientStream(
         new TransportStateImpl(handler, DEFAULT_MAX_MESSAGE_SIZE),
         methodDescriptor,
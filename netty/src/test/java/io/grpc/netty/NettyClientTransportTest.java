@@ -28,6 +28,7 @@ import static io.grpc.netty.NettyServerBuilder.MAX_CONNECTION_AGE_GRACE_NANOS_IN
 import static io.grpc.netty.NettyServerBuilder.MAX_CONNECTION_AGE_NANOS_DISABLED;
 import static io.grpc.netty.NettyServerBuilder.MAX_CONNECTION_IDLE_NANOS_DISABLED;
 import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -83,6 +84,8 @@ import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http2.StreamBufferingEncoder;
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
 import io.netty.handler.ssl.SupportedCipherSuiteFilter;
 import io.netty.util.AsciiString;
 import java.io.ByteArrayInputStream;
@@ -92,6 +95,7 @@ import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -717,6 +721,54 @@ public class NettyClientTransportTest {
     assertEquals(false, serverExecutorPool.isInUse());
   }
 
+  @Test
+  public void tlsSessionResumedForSameAuthority() throws Exception {
+    // netty 4.1.48 does not support the ALPN API added in Java 8u252 (see TlsTest), so before
+    // Java 9 the JDK provider needs Jetty ALPN
+    assume().that(isJava9OrLater() || JettyTlsUtil.isJettyAlpnConfigured()).isTrue();
+    File serverCert = TestUtils.loadCert("server1.pem");
+    File serverKey = TestUtils.loadCert("server1.key");
+    // Resumed sessions keep their session ID before TLS 1.3, which makes resumption observable
+    negotiator = ProtocolNegotiators.serverTls(GrpcSslContexts.configure(
+            SslContextBuilder.forServer(serverCert, serverKey), SslProvider.JDK)
+        .protocols("TLSv1.2")
+        .build());
+    startServer();
+
+    File caCert = TestUtils.loadCert("ca.pem");
+    SslContext clientContext =
+        GrpcSslContexts.configure(GrpcSslContexts.forClient(), SslProvider.JDK)
+            .trustManager(caCert)
+            .protocols("TLSv1.2")
+            .build();
+    ProtocolNegotiator clientNegotiator = ProtocolNegotiators.tls(clientContext);
+    byte[] firstId = sslSessionId(newTransport(clientNegotiator));
+    byte[] resumedId = sslSessionId(newTransport(clientNegotiator));
+    assertArrayEquals(firstId, resumedId);
+
+    authority = GrpcUtil.authorityFromHostAndPort("bar.test.google.fr", address.getPort());
+    byte[] otherAuthorityId = sslSessionId(newTransport(clientNegotiator));
+    assertFalse(Arrays.equals(firstId, otherAuthorityId));
+    clientNegotiator.close();
+  }
+
+  private static boolean isJava9OrLater() {
+    try {
+      // Check for presence of an (ironic) class added in Java 9
+      Class.forName("java.lang.Runtime$Version");
+      return true;
+    } catch (ClassNotFoundException ignored) {
+      return false;
+    }
+  }
+
+  private byte[] sslSessionId(NettyClientTransport transport) throws Exception {
+    callMeMaybe(transport.start(clientTransportListener));
+    Rpc rpc = new Rpc(transport).halfClose();
+    rpc.waitForResponse();
+    return rpc.stream.getAttributes().get(Grpc.TRANSPORT_ATTR_SSL_SESSION).getId();
+  }
+
   private Throwable getRootCause(Throwable t) {
     if (t.getCause() == null) {
       return t;
@@ -931,6 +983,11 @@ public class NettyClientTransportTest {
           streamListeners.add(listener);
         }
 
+        @Override
+        public String lookupMethodName(byte[] methodName, int offset, int length) {
+          return null;
+        }
+
         @Override
         public Attributes transportReady(Attributes transportAttrs) {
           serverTransportAttributesList.add(transportAttrs);
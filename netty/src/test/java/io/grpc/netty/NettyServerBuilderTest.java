@@ -21,13 +21,21 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.truth.Truth;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
 import io.grpc.ServerStreamTracer.Factory;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.testing.protobuf.SimpleRequest;
+import io.grpc.testing.protobuf.SimpleResponse;
+import io.grpc.testing.protobuf.SimpleServiceGrpc;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.local.LocalServerChannel;
 import io.netty.handler.ssl.SslContext;
 import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -41,6 +49,7 @@ import org.junit.runners.JUnit4;
 public class NettyServerBuilderTest {
 
   @Rule public final ExpectedException thrown = ExpectedException.none();
+  @Rule public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
 
   private NettyServerBuilder builder = NettyServerBuilder.forPort(8080);
 
@@ -185,4 +194,28 @@ public class NettyServerBuilderTest {
 
     builder.assertEventLoopsAndChannelType();
   }
+
+  @Test
+  public void eventLoopExecution_runsCallsOnEventLoop() throws Exception {
+    final AtomicReference<String> handlerThread = new AtomicReference<>();
+    Server server = grpcCleanup.register(
+        NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+            .eventLoopExecution(true)
+            .addService(new SimpleServiceGrpc.SimpleServiceImplBase() {
+              @Override
+              public void unaryRpc(SimpleRequest request, StreamObserver<SimpleResponse> so) {
+                handlerThread.set(Thread.currentThread().getName());
+                so.onNext(SimpleResponse.getDefaultInstance());
+                so.onCompleted();
+              }
+            })
+            .build()
+            .start());
+    ManagedChannel channel = grpcCleanup.register(
+        NettyChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build());
+
+    SimpleServiceGrpc.newBlockingStub(channel).unaryRpc(SimpleRequest.getDefaultInstance());
+
+    Truth.assertThat(handlerThread.get()).startsWith("grpc-default-worker-ELG");
+  }
 }
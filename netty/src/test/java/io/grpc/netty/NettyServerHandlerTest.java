@@ -148,6 +148,11 @@ public class NettyServerHandlerTest extends NettyHandlerTestBase<NettyServerHand
       stream.setListener(streamListener);
     }
 
+    @Override
+    public String lookupMethodName(byte[] methodName, int offset, int length) {
+      return null;
+    }
+
     @Override
     public Attributes transportReady(Attributes attributes) {
       return Attributes.EMPTY;
@@ -537,6 +542,27 @@ public class NettyServerHandlerTest extends NettyHandlerTestBase<NettyServerHand
     stream = streamCaptor.getValue();
   }
 
+  @Test
+  public void headersUseMethodNameFromListener() throws Exception {
+    final String registeredName = new String("foo/bar");
+    doAnswer(new Answer<String>() {
+      @Override
+      public String answer(InvocationOnMock invocation) {
+        byte[] name = (byte[]) invocation.getArguments()[0];
+        int offset = (Integer) invocation.getArguments()[1];
+        int length = (Integer) invocation.getArguments()[2];
+        return "foo/bar".equals(new String(name, offset, length, UTF_8)) ? registeredName : null;
+      }
+    }).when(transportListener).lookupMethodName(any(byte[].class), anyInt(), anyInt());
+    manualSetUp();
+    createStream();
+
+    ArgumentCaptor<String> methodCaptor = ArgumentCaptor.forClass(String.class);
+    verify(transportListener).streamCreated(
+        any(NettyServerStream.class), methodCaptor.capture(), any(Metadata.class));
+    assertSame(registeredName, methodCaptor.getValue());
+  }
+
   @Test
   public void keepAliveManagerOnDataReceived_headersRead() throws Exception {
     manualSetUp();
@@ -294,6 +294,10 @@ public class NettyServerTest {
   private static class NoopServerTransportListener implements ServerTransportListener {
     @Override public void streamCreated(ServerStream stream, String method, Metadata headers) {}
 
+    @Override public String lookupMethodName(byte[] methodName, int offset, int length) {
+      return null;
+    }
+
     @Override public Attributes transportReady(Attributes attributes) {
       return attributes;
     }
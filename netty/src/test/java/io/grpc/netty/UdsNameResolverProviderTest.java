@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.TruthJUnit.assume;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import io.grpc.ChannelLogger;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.InternalChannelz;
+import io.grpc.InternalChannelz.SocketStats;
+import io.grpc.InternalInstrumented;
+import io.grpc.InternalServiceProviders;
+import io.grpc.InternalWithLogId;
+import io.grpc.ManagedChannel;
+import io.grpc.NameResolver;
+import io.grpc.NameResolver.ResolutionResult;
+import io.grpc.NameResolver.ServiceConfigParser;
+import io.grpc.NameResolverProvider;
+import io.grpc.NameResolverRegistry;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.testing.protobuf.SimpleRequest;
+import io.grpc.testing.protobuf.SimpleResponse;
+import io.grpc.testing.protobuf.SimpleServiceGrpc;
+import java.io.File;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link UdsNameResolverProvider}. */
+@RunWith(JUnit4.class)
+public class UdsNameResolverProviderTest {
+  @Rule
+  public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+  @Rule
+  public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final SynchronizationContext syncContext = new SynchronizationContext(
+      new Thread.UncaughtExceptionHandler() {
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+          throw new AssertionError(e);
+        }
+      });
+  private final NameResolver.Args args = NameResolver.Args.newBuilder()
+      .setDefaultPort(8080)
+      .setProxyDetector(GrpcUtil.DEFAULT_PROXY_DETECTOR)
+      .setSynchronizationContext(syncContext)
+      .setServiceConfigParser(mock(ServiceConfigParser.class))
+      .setChannelLogger(mock(ChannelLogger.class))
+      .build();
+
+  private UdsNameResolverProvider provider = new UdsNameResolverProvider();
+
+  @Before
+  public void setUp() {
+    // DomainSocketAddress comes with netty-epoll, which is only a test runtime dependency.
+    assume().that(Utils.isDomainSocketAddressAvailable()).isTrue();
+  }
+
+  @Test
+  public void provided() {
+    for (NameResolverProvider current
+        : InternalServiceProviders.getCandidatesViaServiceLoader(
+            NameResolverProvider.class, getClass().getClassLoader())) {
+      if (current instanceof UdsNameResolverProvider) {
+        return;
+      }
+    }
+    fail("ServiceLoader unable to load UdsNameResolverProvider");
+  }
+
+  @Test
+  public void basicMethods() {
+    assertThat(provider.isAvailable()).isEqualTo(Utils.isEpollAvailable());
+    assertThat(provider.getDefaultScheme()).isEqualTo("unix");
+    // Must stay below DNS, or "unix" would become the default scheme.
+    assertThat(provider.priority()).isLessThan(5);
+  }
+
+  @Test
+  public void notAvailableWithoutDomainSocketChannel() {
+    // DomainSocketAddress loaded, but the epoll native library did not
+    UdsNameResolverProvider unavailable = new UdsNameResolverProvider(false);
+    assertThat(unavailable.isAvailable()).isFalse();
+    try {
+      new NameResolverRegistry().register(unavailable);
+      fail("Should have thrown");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void newNameResolver_otherScheme() {
+    assertNull(provider.newNameResolver(URI.create("dns:///localhost:443"), args));
+  }
+
+  @Test
+  public void newNameResolver_absolutePath() {
+    assertThat(resolve("unix:/tmp/sidecar.sock")).isEqualTo(newAddress("/tmp/sidecar.sock"));
+    assertThat(resolve("unix:///tmp/sidecar.sock")).isEqualTo(newAddress("/tmp/sidecar.sock"));
+  }
+
+  @Test
+  public void newNameResolver_relativePath() {
+    assertThat(resolve("unix:sidecar.sock")).isEqualTo(newAddress("sidecar.sock"));
+  }
+
+  @Test
+  public void newNameResolver_abstract() {
+    assertThat(resolve("unix-abstract:sidecar")).isEqualTo(newAddress("\0sidecar"));
+  }
+
+  @Test
+  public void newNameResolver_authorityNotSupported() {
+    try {
+      provider.newNameResolver(URI.create("unix://localhost/tmp/sidecar.sock"), args);
+      fail("Should have failed");
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageThat().contains("authority");
+    }
+  }
+
+  @Test
+  public void serviceAuthority() {
+    NameResolver resolver =
+        provider.newNameResolver(URI.create("unix:///tmp/sidecar.sock"), args);
+    assertThat(resolver.getServiceAuthority()).isEqualTo("localhost");
+  }
+
+  @Test
+  public void endToEnd_path() throws Exception {
+    assume().that(Utils.isEpollAvailable()).isTrue();
+    String path = new File(tempFolder.getRoot(), "test.sock").getAbsolutePath();
+    Server server = startServer(newAddress(path));
+
+    ManagedChannel channel = grpcCleanup.register(
+        NettyChannelBuilder.forTarget("unix://" + path).usePlaintext().build());
+    assertThat(channel.authority()).isEqualTo("localhost");
+    SimpleServiceGrpc.newBlockingStub(channel).unaryRpc(SimpleRequest.getDefaultInstance());
+
+    // The server reports the client's credentials in channelz.
+    List<InternalWithLogId> sockets = InternalChannelz.instance()
+        .getServerSockets(((InternalInstrumented<?>) server).getLogId().getId(), 0, 10).sockets;
+    assertThat(sockets).hasSize(1);
+    @SuppressWarnings("unchecked")
+    SocketStats stats = ((InternalInstrumented<SocketStats>) sockets.get(0)).getStats().get();
+    assertThat(stats.socketOptions.others).containsKey("SO_PEERCRED");
+  }
+
+  @Test
+  public void endToEnd_abstract() throws Exception {
+    assume().that(Utils.isEpollAvailable()).isTrue();
+    String name = "grpc-test-" + System.nanoTime();
+    startServer(newAddress("\0" + name));
+
+    ManagedChannel channel = grpcCleanup.register(
+        NettyChannelBuilder.forTarget("unix-abstract:" + name).usePlaintext().build());
+    SimpleServiceGrpc.newBlockingStub(channel).unaryRpc(SimpleRequest.getDefaultInstance());
+  }
+
+  private Server startServer(SocketAddress address) throws Exception {
+    return grpcCleanup.register(
+        NettyServerBuilder.forAddress(address)
+            .addService(new SimpleServiceGrpc.SimpleServiceImplBase() {
+              @Override
+              public void unaryRpc(SimpleRequest request, StreamObserver<SimpleResponse> so) {
+                so.onNext(SimpleResponse.getDefaultInstance());
+                so.onCompleted();
+              }
+            })
+            .build()
+            .start());
+  }
+
+  private static SocketAddress newAddress(String path) {
+    return Utils.newDomainSocketAddress(path);
+  }
+
+  private SocketAddress resolve(String target) {
+    final ResolutionResult[] result = new ResolutionResult[1];
+    NameResolver resolver = provider.newNameResolver(URI.create(target), args);
+    resolver.start(new NameResolver.Listener2() {
+      @Override
+      public void onResult(ResolutionResult resolutionResult) {
+        result[0] = resolutionResult;
+      }
+
+      @Override
+      public void onError(Status error) {
+        throw new AssertionError(error);
+      }
+    });
+    resolver.shutdown();
+    List<EquivalentAddressGroup> groups = result[0].getAddresses();
+    assertThat(groups).hasSize(1);
+    assertThat(groups.get(0).getAddresses()).hasSize(1);
+    return groups.get(0).getAddresses().get(0);
+  }
+}
@@ -52,6 +52,7 @@ import io.grpc.internal.GrpcAttributes;
 import io.grpc.internal.GrpcUtil;
 import io.grpc.internal.Http2Ping;
 import io.grpc.internal.InUseStateAggregator;
+import io.grpc.internal.KeepAliveCoordinator;
 import io.grpc.internal.KeepAliveManager;
 import io.grpc.internal.KeepAliveManager.ClientKeepAlivePinger;
 import io.grpc.internal.SerializingExecutor;
@@ -481,8 +482,8 @@ class OkHttpClientTransport implements ConnectionClientTransport, TransportExcep
     if (enableKeepAlive) {
       scheduler = SharedResourceHolder.get(TIMER_SERVICE);
       keepAliveManager = new KeepAliveManager(
-          new ClientKeepAlivePinger(this), scheduler, keepAliveTimeNanos, keepAliveTimeoutNanos,
-          keepAliveWithoutCalls);
+          new ClientKeepAlivePinger(this), scheduler, KeepAliveCoordinator.getDefault(),
+          keepAliveTimeNanos, keepAliveTimeoutNanos, keepAliveWithoutCalls);
       keepAliveManager.onTransportStarted();
     }
     if (isForTest()) {
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.protobuf.services;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.MethodDescriptorProto;
+import com.google.protobuf.DescriptorProtos.ServiceDescriptorProto;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.ProtoFileDescriptorSupplier;
+import io.grpc.reflection.v1alpha.ServerReflectionGrpc;
+import io.grpc.reflection.v1alpha.ServerReflectionRequest;
+import io.grpc.reflection.v1alpha.ServerReflectionResponse;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.TestMethodDescriptors;
+import io.grpc.util.MutableHandlerRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reflection requests against a server with many services, each defined in its own file that
+ * depends on a shared file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProtoReflectionServiceBenchmark {
+
+  @Param({"100", "1000"})
+  public int serviceCount;
+
+  private final MutableHandlerRegistry mutableRegistry = new MutableHandlerRegistry();
+  private Server server;
+  private ManagedChannel channel;
+  private ServerReflectionGrpc.ServerReflectionStub stub;
+  private ServerServiceDefinition extraService;
+  private ServerReflectionRequest immutableSymbolRequest;
+  private ServerReflectionRequest mutableSymbolRequest;
+
+  @Setup
+  public void setUp() throws Exception {
+    FileDescriptor common = FileDescriptor.buildFrom(
+        FileDescriptorProto.newBuilder()
+            .setName("common.proto")
+            .setPackage("bench")
+            .addMessageType(DescriptorProto.newBuilder().setName("Common"))
+            .build(),
+        new FileDescriptor[0]);
+    InProcessServerBuilder serverBuilder = InProcessServerBuilder.forName("reflection-benchmark")
+        .directExecutor()
+        .addService(ProtoReflectionService.newInstance())
+        .fallbackHandlerRegistry(mutableRegistry);
+    for (int i = 0; i < serviceCount; i++) {
+      serverBuilder.addService(newService(common, "Immutable" + i));
+      mutableRegistry.addService(newService(common, "Mutable" + i));
+    }
+    extraService = newService(common, "Extra");
+    server = serverBuilder.build().start();
+    channel = InProcessChannelBuilder.forName("reflection-benchmark").directExecutor().build();
+    stub = ServerReflectionGrpc.newStub(channel);
+    immutableSymbolRequest = ServerReflectionRequest.newBuilder()
+        .setFileContainingSymbol("bench.Immutable" + (serviceCount / 2))
+        .build();
+    mutableSymbolRequest = ServerReflectionRequest.newBuilder()
+        .setFileContainingSymbol("bench.Mutable" + (serviceCount / 2))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    channel.shutdownNow();
+    server.shutdownNow();
+    if (!server.awaitTermination(1, TimeUnit.MINUTES)) {
+      throw new RuntimeException("server failed to shut down in a timely fashion");
+    }
+  }
+
+  /** Looks up the file of a service registered when the server was built. */
+  @Benchmark
+  public ServerReflectionResponse fileContainingSymbol() {
+    return call(immutableSymbolRequest);
+  }
+
+  /**
+   * Registers and then removes a service in the mutable registry, looking up a mutable service
+   * after each change.
+   */
+  @Benchmark
+  public ServerReflectionResponse addAndRemoveMutableService() {
+    mutableRegistry.addService(extraService);
+    call(mutableSymbolRequest);
+    mutableRegistry.removeService(extraService);
+    return call(mutableSymbolRequest);
+  }
+
+  private ServerReflectionResponse call(ServerReflectionRequest request) {
+    ResponseObserver responseObserver = new ResponseObserver();
+    StreamObserver<ServerReflectionRequest> requestObserver =
+        stub.serverReflectionInfo(responseObserver);
+    requestObserver.onNext(request);
+    requestObserver.onCompleted();
+    if (responseObserver.response == null
+        || responseObserver.response.hasErrorResponse()) {
+      throw new IllegalStateException("Symbol not found: " + request.getFileContainingSymbol());
+    }
+    return responseObserver.response;
+  }
+
+  private static ServerServiceDefinition newService(FileDescriptor common, String serviceName)
+      throws DescriptorValidationException {
+    final FileDescriptor file = FileDescriptor.buildFrom(
+        FileDescriptorProto.newBuilder()
+            .setName(serviceName + ".proto")
+            .setPackage("bench")
+            .addDependency(common.getName())
+            .addMessageType(DescriptorProto.newBuilder().setName(serviceName + "Request"))
+            .addService(ServiceDescriptorProto.newBuilder()
+                .setName(serviceName)
+                .addMethod(MethodDescriptorProto.newBuilder()
+                    .setName("Method")
+                    .setInputType(".bench." + serviceName + "Request")
+                    .setOutputType(".bench.Common")))
+            .build(),
+        new FileDescriptor[] {common});
+    MethodDescriptor<Void, Void> method = MethodDescriptor.<Void, Void>newBuilder()
+        .setType(MethodDescriptor.MethodType.UNARY)
+        .setFullMethodName(MethodDescriptor.generateFullMethodName("bench." + serviceName, "Method"))
+        .setRequestMarshaller(TestMethodDescriptors.voidMarshaller())
+        .setResponseMarshaller(TestMethodDescriptors.voidMarshaller())
+        .build();
+    ServiceDescriptor serviceDescriptor = ServiceDescriptor.newBuilder("bench." + serviceName)
+        .setSchemaDescriptor(new ProtoFileDescriptorSupplier() {
+          @Override
+          public FileDescriptor getFileDescriptor() {
+            return file;
+          }
+        })
+        .addMethod(method)
+        .build();
+    return ServerServiceDefinition.builder(serviceDescriptor)
+        .addMethod(method, new ServerCallHandler<Void, Void>() {
+          @Override
+          public ServerCall.Listener<Void> startCall(ServerCall<Void, Void> call, Metadata headers) {
+            call.close(Status.UNIMPLEMENTED, new Metadata());
+            return new ServerCall.Listener<Void>() {};
+          }
+        })
+        .build();
+  }
+
+  private static final class ResponseObserver implements StreamObserver<ServerReflectionResponse> {
+    ServerReflectionResponse response;
+
+    @Override
+    public void onNext(ServerReflectionResponse value) {
+      response = value;
+    }
+
+    @Override
+    public void onError(Throwable t) {}
+
+    @Override
+    public void onCompleted() {}
+  }
+}
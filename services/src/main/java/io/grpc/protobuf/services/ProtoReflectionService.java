@@ -19,6 +19,7 @@ package io.grpc.protobuf.services;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Descriptors.Descriptor;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.Descriptors.FileDescriptor;
@@ -51,6 +52,8 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
@@ -81,43 +84,27 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
   /**
    * Retrieves the index for services of the server that dispatches the current call. Computes
    * one if not exist. The index is updated if any changes to the server's mutable services are
-   * detected. A change is any addition or removal in the set of file descriptors attached to the
-   * mutable services or a change in the service names.
+   * detected. The immutable services are only indexed once per server, and services that were
+   * added to the mutable services are indexed incrementally.
    */
   private ServerReflectionIndex getRefreshedIndex() {
     synchronized (lock) {
       Server server = InternalServer.SERVER_CONTEXT_KEY.get();
       ServerReflectionIndex index = serverReflectionIndexes.get(server);
       if (index == null) {
-        index =
-            new ServerReflectionIndex(server.getImmutableServices(), server.getMutableServices());
+        index = new ServerReflectionIndex(
+            new FileDescriptorIndex(server.getImmutableServices()),
+            new FileDescriptorIndex(server.getMutableServices()));
         serverReflectionIndexes.put(server, index);
         return index;
       }
 
-      Set<FileDescriptor> serverFileDescriptors = new HashSet<>();
-      Set<String> serverServiceNames = new HashSet<>();
-      List<ServerServiceDefinition> serverMutableServices = server.getMutableServices();
-      for (ServerServiceDefinition mutableService : serverMutableServices) {
-        io.grpc.ServiceDescriptor serviceDescriptor = mutableService.getServiceDescriptor();
-        if (serviceDescriptor.getSchemaDescriptor() instanceof ProtoFileDescriptorSupplier) {
-          String serviceName = serviceDescriptor.getName();
-          FileDescriptor fileDescriptor =
-              ((ProtoFileDescriptorSupplier) serviceDescriptor.getSchemaDescriptor())
-                  .getFileDescriptor();
-          serverFileDescriptors.add(fileDescriptor);
-          serverServiceNames.add(serviceName);
-        }
-      }
-
-      // Replace the index if the underlying mutable services have changed. Check both the file
-      // descriptors and the service names, because one file descriptor can define multiple
-      // services.
       FileDescriptorIndex mutableServicesIndex = index.getMutableServicesIndex();
-      if (!mutableServicesIndex.getServiceFileDescriptors().equals(serverFileDescriptors)
-          || !mutableServicesIndex.getServiceNames().equals(serverServiceNames)) {
-        index =
-            new ServerReflectionIndex(server.getImmutableServices(), serverMutableServices);
+      FileDescriptorIndex updatedMutableServicesIndex =
+          mutableServicesIndex.update(server.getMutableServices());
+      if (updatedMutableServicesIndex != mutableServicesIndex) {
+        index = new ServerReflectionIndex(
+            index.getImmutableServicesIndex(), updatedMutableServicesIndex);
         serverReflectionIndexes.put(server, index);
       }
 
@@ -216,9 +203,10 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
 
     private void getFileByName(ServerReflectionRequest request) {
       String name = request.getFileByFilename();
-      FileDescriptor fd = serverReflectionIndex.getFileDescriptorByName(name);
-      if (fd != null) {
-        serverCallStreamObserver.onNext(createServerReflectionResponse(request, fd));
+      FileDescriptorResponse response =
+          serverReflectionIndex.getFileDescriptorResponseByName(name);
+      if (response != null) {
+        serverCallStreamObserver.onNext(createServerReflectionResponse(request, response));
       } else {
         sendErrorResponse(request, Status.Code.NOT_FOUND, "File not found.");
       }
@@ -226,9 +214,10 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
 
     private void getFileContainingSymbol(ServerReflectionRequest request) {
       String symbol = request.getFileContainingSymbol();
-      FileDescriptor fd = serverReflectionIndex.getFileDescriptorBySymbol(symbol);
-      if (fd != null) {
-        serverCallStreamObserver.onNext(createServerReflectionResponse(request, fd));
+      FileDescriptorResponse response =
+          serverReflectionIndex.getFileDescriptorResponseBySymbol(symbol);
+      if (response != null) {
+        serverCallStreamObserver.onNext(createServerReflectionResponse(request, response));
       } else {
         sendErrorResponse(request, Status.Code.NOT_FOUND, "Symbol not found.");
       }
@@ -238,10 +227,10 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
       ExtensionRequest extensionRequest = request.getFileContainingExtension();
       String type = extensionRequest.getContainingType();
       int extension = extensionRequest.getExtensionNumber();
-      FileDescriptor fd =
-          serverReflectionIndex.getFileDescriptorByExtensionAndNumber(type, extension);
-      if (fd != null) {
-        serverCallStreamObserver.onNext(createServerReflectionResponse(request, fd));
+      FileDescriptorResponse response =
+          serverReflectionIndex.getFileDescriptorResponseByExtensionAndNumber(type, extension);
+      if (response != null) {
+        serverCallStreamObserver.onNext(createServerReflectionResponse(request, response));
       } else {
         sendErrorResponse(request, Status.Code.NOT_FOUND, "Extension not found.");
       }
@@ -294,27 +283,11 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
     }
 
     private ServerReflectionResponse createServerReflectionResponse(
-        ServerReflectionRequest request, FileDescriptor fd) {
-      FileDescriptorResponse.Builder fdRBuilder = FileDescriptorResponse.newBuilder();
-
-      Set<String> seenFiles = new HashSet<>();
-      Queue<FileDescriptor> frontier = new ArrayDeque<>();
-      seenFiles.add(fd.getName());
-      frontier.add(fd);
-      while (!frontier.isEmpty()) {
-        FileDescriptor nextFd = frontier.remove();
-        fdRBuilder.addFileDescriptorProto(nextFd.toProto().toByteString());
-        for (FileDescriptor dependencyFd : nextFd.getDependencies()) {
-          if (!seenFiles.contains(dependencyFd.getName())) {
-            seenFiles.add(dependencyFd.getName());
-            frontier.add(dependencyFd);
-          }
-        }
-      }
+        ServerReflectionRequest request, FileDescriptorResponse response) {
       return ServerReflectionResponse.newBuilder()
           .setValidHost(request.getHost())
           .setOriginalRequest(request)
-          .setFileDescriptorResponse(fdRBuilder)
+          .setFileDescriptorResponse(response)
           .build();
     }
   }
@@ -331,11 +304,14 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
     private final FileDescriptorIndex immutableServicesIndex;
     private final FileDescriptorIndex mutableServicesIndex;
 
-    public ServerReflectionIndex(
-        List<ServerServiceDefinition> immutableServices,
-        List<ServerServiceDefinition> mutableServices) {
-      immutableServicesIndex = new FileDescriptorIndex(immutableServices);
-      mutableServicesIndex = new FileDescriptorIndex(mutableServices);
+    ServerReflectionIndex(
+        FileDescriptorIndex immutableServicesIndex, FileDescriptorIndex mutableServicesIndex) {
+      this.immutableServicesIndex = immutableServicesIndex;
+      this.mutableServicesIndex = mutableServicesIndex;
+    }
+
+    private FileDescriptorIndex getImmutableServicesIndex() {
+      return immutableServicesIndex;
     }
 
     private FileDescriptorIndex getMutableServicesIndex() {
@@ -353,31 +329,35 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
     }
 
     @Nullable
-    private FileDescriptor getFileDescriptorByName(String name) {
-      FileDescriptor fd = immutableServicesIndex.getFileDescriptorByName(name);
-      if (fd == null) {
-        fd = mutableServicesIndex.getFileDescriptorByName(name);
+    private FileDescriptorResponse getFileDescriptorResponseByName(String name) {
+      FileDescriptorResponse response =
+          immutableServicesIndex.getFileDescriptorResponseByName(name);
+      if (response == null) {
+        response = mutableServicesIndex.getFileDescriptorResponseByName(name);
       }
-      return fd;
+      return response;
     }
 
     @Nullable
-    private FileDescriptor getFileDescriptorBySymbol(String symbol) {
-      FileDescriptor fd = immutableServicesIndex.getFileDescriptorBySymbol(symbol);
-      if (fd == null) {
-        fd = mutableServicesIndex.getFileDescriptorBySymbol(symbol);
+    private FileDescriptorResponse getFileDescriptorResponseBySymbol(String symbol) {
+      FileDescriptorResponse response =
+          immutableServicesIndex.getFileDescriptorResponseBySymbol(symbol);
+      if (response == null) {
+        response = mutableServicesIndex.getFileDescriptorResponseBySymbol(symbol);
       }
-      return fd;
+      return response;
     }
 
     @Nullable
-    private FileDescriptor getFileDescriptorByExtensionAndNumber(String type, int extension) {
-      FileDescriptor fd =
-          immutableServicesIndex.getFileDescriptorByExtensionAndNumber(type, extension);
-      if (fd == null) {
-        fd = mutableServicesIndex.getFileDescriptorByExtensionAndNumber(type, extension);
+    private FileDescriptorResponse getFileDescriptorResponseByExtensionAndNumber(
+        String type, int extension) {
+      FileDescriptorResponse response =
+          immutableServicesIndex.getFileDescriptorResponseByExtensionAndNumber(type, extension);
+      if (response == null) {
+        response =
+            mutableServicesIndex.getFileDescriptorResponseByExtensionAndNumber(type, extension);
       }
-      return fd;
+      return response;
     }
 
     @Nullable
@@ -394,21 +374,61 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
    * Provides a set of methods for answering reflection queries for the file descriptors underlying
    * a set of services. Used by {@link ServerReflectionIndex} to separately index immutable and
    * mutable services.
+   *
+   * <p>The index itself is not modified once built, so it can be read without locking. Responses
+   * for a file, which include the file's transitive dependencies, are serialized on first use and
+   * then reused by every request for the file.
    */
   private static final class FileDescriptorIndex {
-    private final Set<String> serviceNames = new HashSet<>();
-    private final Set<FileDescriptor> serviceFileDescriptors = new HashSet<>();
-    private final Map<String, FileDescriptor> fileDescriptorsByName =
-        new HashMap<>();
-    private final Map<String, FileDescriptor> fileDescriptorsBySymbol =
-        new HashMap<>();
-    private final Map<String, Map<Integer, FileDescriptor>> fileDescriptorsByExtensionAndNumber =
-        new HashMap<>();
+    private final List<ServerServiceDefinition> services;
+    private final Set<String> serviceNames;
+    private final Map<String, FileDescriptor> fileDescriptorsByName;
+    private final Map<String, FileDescriptor> fileDescriptorsBySymbol;
+    private final Map<String, Map<Integer, FileDescriptor>> fileDescriptorsByExtensionAndNumber;
+    private final ConcurrentMap<FileDescriptor, ByteString> serializedFileDescriptors;
+    private final ConcurrentMap<FileDescriptor, FileDescriptorResponse> fileDescriptorResponses;
 
     FileDescriptorIndex(List<ServerServiceDefinition> services) {
+      this(services, null);
+    }
+
+    /**
+     * Indexes {@code services}. If {@code base} is not {@code null}, it must index a subset of
+     * {@code services}; its entries are copied and only the remaining services are processed.
+     */
+    private FileDescriptorIndex(
+        List<ServerServiceDefinition> services, @Nullable FileDescriptorIndex base) {
+      this.services = services;
+      Set<ServerServiceDefinition> indexedServices;
+      if (base == null) {
+        indexedServices = Collections.emptySet();
+        serviceNames = new HashSet<>();
+        fileDescriptorsByName = new HashMap<>();
+        fileDescriptorsBySymbol = new HashMap<>();
+        fileDescriptorsByExtensionAndNumber = new HashMap<>();
+        serializedFileDescriptors = new ConcurrentHashMap<>();
+        fileDescriptorResponses = new ConcurrentHashMap<>();
+      } else {
+        indexedServices = new HashSet<>(base.services);
+        serviceNames = new HashSet<>(base.serviceNames);
+        fileDescriptorsByName = new HashMap<>(base.fileDescriptorsByName);
+        fileDescriptorsBySymbol = new HashMap<>(base.fileDescriptorsBySymbol);
+        fileDescriptorsByExtensionAndNumber = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, FileDescriptor>> entry
+            : base.fileDescriptorsByExtensionAndNumber.entrySet()) {
+          fileDescriptorsByExtensionAndNumber.put(
+              entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        serializedFileDescriptors = new ConcurrentHashMap<>(base.serializedFileDescriptors);
+        fileDescriptorResponses = new ConcurrentHashMap<>(base.fileDescriptorResponses);
+      }
+
       Queue<FileDescriptor> fileDescriptorsToProcess = new ArrayDeque<>();
-      Set<String> seenFiles = new HashSet<>();
+      Set<String> seenFiles = new HashSet<>(fileDescriptorsByName.keySet());
       for (ServerServiceDefinition service : services) {
+        if (indexedServices.contains(service)) {
+          continue;
+        }
         io.grpc.ServiceDescriptor serviceDescriptor = service.getServiceDescriptor();
         if (serviceDescriptor.getSchemaDescriptor() instanceof ProtoFileDescriptorSupplier) {
           FileDescriptor fileDescriptor =
@@ -417,7 +437,6 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
           String serviceName = serviceDescriptor.getName();
           checkState(
               !serviceNames.contains(serviceName), "Service already defined: %s", serviceName);
-          serviceFileDescriptors.add(fileDescriptor);
           serviceNames.add(serviceName);
           if (!seenFiles.contains(fileDescriptor.getName())) {
             seenFiles.add(fileDescriptor.getName());
@@ -439,11 +458,34 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
     }
 
     /**
-     * Returns the file descriptors for the indexed services, but not their dependencies. This is
-     * used to check if the server's mutable services have changed.
+     * Returns an index for {@code newServices}, which is this index if the services have not
+     * changed. If services were only added, the new index extends a copy of this one; otherwise it
+     * is rebuilt, keeping the serialized responses of files that are still indexed.
      */
-    private Set<FileDescriptor> getServiceFileDescriptors() {
-      return Collections.unmodifiableSet(serviceFileDescriptors);
+    private FileDescriptorIndex update(List<ServerServiceDefinition> newServices) {
+      if (newServices.equals(services)) {
+        return this;
+      }
+      if (new HashSet<>(newServices).containsAll(services)) {
+        return new FileDescriptorIndex(newServices, this);
+      }
+      FileDescriptorIndex index = new FileDescriptorIndex(newServices, null);
+      for (Map.Entry<FileDescriptor, ByteString> entry : serializedFileDescriptors.entrySet()) {
+        if (index.isIndexed(entry.getKey())) {
+          index.serializedFileDescriptors.put(entry.getKey(), entry.getValue());
+        }
+      }
+      for (Map.Entry<FileDescriptor, FileDescriptorResponse> entry
+          : fileDescriptorResponses.entrySet()) {
+        if (index.isIndexed(entry.getKey())) {
+          index.fileDescriptorResponses.put(entry.getKey(), entry.getValue());
+        }
+      }
+      return index;
+    }
+
+    private boolean isIndexed(FileDescriptor fd) {
+      return fileDescriptorsByName.get(fd.getName()) == fd;
     }
 
     private Set<String> getServiceNames() {
@@ -451,21 +493,67 @@ public final class ProtoReflectionService extends ServerReflectionGrpc.ServerRef
     }
 
     @Nullable
-    private FileDescriptor getFileDescriptorByName(String name) {
-      return fileDescriptorsByName.get(name);
+    private FileDescriptorResponse getFileDescriptorResponseByName(String name) {
+      return getFileDescriptorResponse(fileDescriptorsByName.get(name));
     }
 
     @Nullable
-    private FileDescriptor getFileDescriptorBySymbol(String symbol) {
-      return fileDescriptorsBySymbol.get(symbol);
+    private FileDescriptorResponse getFileDescriptorResponseBySymbol(String symbol) {
+      return getFileDescriptorResponse(fileDescriptorsBySymbol.get(symbol));
     }
 
     @Nullable
-    private FileDescriptor getFileDescriptorByExtensionAndNumber(String type, int number) {
-      if (fileDescriptorsByExtensionAndNumber.containsKey(type)) {
-        return fileDescriptorsByExtensionAndNumber.get(type).get(number);
+    private FileDescriptorResponse getFileDescriptorResponseByExtensionAndNumber(
+        String type, int number) {
+      Map<Integer, FileDescriptor> fileDescriptorsByNumber =
+          fileDescriptorsByExtensionAndNumber.get(type);
+      if (fileDescriptorsByNumber == null) {
+        return null;
       }
-      return null;
+      return getFileDescriptorResponse(fileDescriptorsByNumber.get(number));
+    }
+
+    /**
+     * Returns the response for a file, containing the serialized file and its transitive
+     * dependencies.
+     */
+    @Nullable
+    private FileDescriptorResponse getFileDescriptorResponse(@Nullable FileDescriptor fd) {
+      if (fd == null) {
+        return null;
+      }
+      FileDescriptorResponse response = fileDescriptorResponses.get(fd);
+      if (response != null) {
+        return response;
+      }
+      FileDescriptorResponse.Builder fdRBuilder = FileDescriptorResponse.newBuilder();
+      Set<String> seenFiles = new HashSet<>();
+      Queue<FileDescriptor> frontier = new ArrayDeque<>();
+      seenFiles.add(fd.getName());
+      frontier.add(fd);
+      while (!frontier.isEmpty()) {
+        FileDescriptor nextFd = frontier.remove();
+        fdRBuilder.addFileDescriptorProto(serialize(nextFd));
+        for (FileDescriptor dependencyFd : nextFd.getDependencies()) {
+          if (!seenFiles.contains(dependencyFd.getName())) {
+            seenFiles.add(dependencyFd.getName());
+            frontier.add(dependencyFd);
+          }
+        }
+      }
+      response = fdRBuilder.build();
+      // Concurrent requests may serialize the same file; either result can be kept.
+      fileDescriptorResponses.putIfAbsent(fd, response);
+      return response;
+    }
+
+    private ByteString serialize(FileDescriptor fd) {
+      ByteString serialized = serializedFileDescriptors.get(fd);
+      if (serialized == null) {
+        serialized = fd.toProto().toByteString();
+        serializedFileDescriptors.putIfAbsent(fd, serialized);
+      }
+      return serialized;
     }
 
     @Nullable
@@ -138,6 +138,7 @@ final class ChannelzProtoUtil {
         .setCallsSucceeded(stats.callsSucceeded)
         .setCallsFailed(stats.callsFailed)
         .setLastCallStartedTimestamp(Timestamps.fromNanos(stats.lastCallStartedNanos))
+        .setCallsExpired(stats.callsExpired)
         .build();
   }
 
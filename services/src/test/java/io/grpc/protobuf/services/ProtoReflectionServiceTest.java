@@ -32,6 +32,7 @@ import io.grpc.internal.testing.StreamRecorder;
 import io.grpc.reflection.testing.AnotherDynamicServiceGrpc;
 import io.grpc.reflection.testing.AnotherReflectableServiceGrpc;
 import io.grpc.reflection.testing.DynamicReflectionTestDepthTwoProto;
+import io.grpc.reflection.testing.DynamicReflectionTestProto;
 import io.grpc.reflection.testing.DynamicServiceGrpc;
 import io.grpc.reflection.testing.ReflectableServiceGrpc;
 import io.grpc.reflection.testing.ReflectionTestDepthThreeProto;
@@ -334,6 +335,35 @@ public class ProtoReflectionServiceTest {
         responseObserver3.firstValue().get().getMessageResponseCase());
   }
 
+  @Test
+  public void fileContainingSymbolAfterMutableServicesAddedAndRemoved() throws Exception {
+    String dynamicSymbol = "grpc.reflection.testing.DynamicService";
+    String anotherDynamicSymbol = "grpc.reflection.testing.AnotherDynamicService";
+    ServerReflectionResponse.MessageResponseCase found =
+        ServerReflectionResponse.MessageResponseCase.FILE_DESCRIPTOR_RESPONSE;
+    ServerReflectionResponse.MessageResponseCase notFound =
+        ServerReflectionResponse.MessageResponseCase.ERROR_RESPONSE;
+
+    handlerRegistry.addService(dynamicService);
+    assertEquals(found, fileContainingSymbol(dynamicSymbol).getMessageResponseCase());
+
+    handlerRegistry.addService(anotherDynamicService);
+    assertEquals(found, fileContainingSymbol(dynamicSymbol).getMessageResponseCase());
+    ServerReflectionResponse response = fileContainingSymbol(anotherDynamicSymbol);
+    assertEquals(
+        DynamicReflectionTestProto.getDescriptor().toProto().toByteString(),
+        response.getFileDescriptorResponse().getFileDescriptorProto(0));
+
+    handlerRegistry.removeService(dynamicService);
+    // Both services are defined in the same file, which is still indexed
+    assertEquals(found, fileContainingSymbol(dynamicSymbol).getMessageResponseCase());
+    assertEquals(found, fileContainingSymbol(anotherDynamicSymbol).getMessageResponseCase());
+
+    handlerRegistry.removeService(anotherDynamicService);
+    assertEquals(notFound, fileContainingSymbol(dynamicSymbol).getMessageResponseCase());
+    assertEquals(notFound, fileContainingSymbol(anotherDynamicSymbol).getMessageResponseCase());
+  }
+
   @Test
   public void fileContainingExtension() throws Exception {
     ServerReflectionRequest request =
@@ -667,4 +697,18 @@ public class ProtoReflectionServiceTest {
     assertEquals(goldenResponse.size(), response.size());
     assertEquals(goldenResponse, new HashSet<>(response));
   }
+
+  private ServerReflectionResponse fileContainingSymbol(String symbol) throws Exception {
+    ServerReflectionRequest request =
+        ServerReflectionRequest.newBuilder()
+            .setHost(TEST_HOST)
+            .setFileContainingSymbol(symbol)
+            .build();
+    StreamRecorder<ServerReflectionResponse> responseObserver = StreamRecorder.create();
+    StreamObserver<ServerReflectionRequest> requestObserver =
+        stub.serverReflectionInfo(responseObserver);
+    requestObserver.onNext(request);
+    requestObserver.onCompleted();
+    return responseObserver.firstValue().get();
+  }
 }
@@ -147,6 +147,7 @@ public final class ChannelzProtoUtilTest {
       .setCallsSucceeded(2)
       .setCallsFailed(3)
       .setLastCallStartedTimestamp(Timestamps.fromNanos(4))
+      .setCallsExpired(5)
       .build();
   private final Server serverProto = Server
       .newBuilder()
@@ -944,6 +945,7 @@ public final class ChannelzProtoUtilTest {
         .setCallsSucceeded(stats.callsSucceeded)
         .setCallsFailed(stats.callsFailed)
         .setLastCallStartedNanos(stats.lastCallStartedNanos)
+        .setCallsExpired(stats.callsExpired)
         .addListenSockets(stats.listenSockets);
   }
 }
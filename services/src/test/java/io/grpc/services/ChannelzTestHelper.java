@@ -124,6 +124,7 @@ final class ChannelzTestHelper {
         /*callsSucceeded=*/ 2,
         /*callsFailed=*/ 3,
         /*lastCallStartedNanos=*/ 4,
+        /*callsExpired=*/ 5,
         Collections.<InternalInstrumented<SocketStats>>emptyList());
 
     @Override
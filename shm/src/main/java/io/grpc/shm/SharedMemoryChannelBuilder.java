@@ -0,0 +1,245 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.grpc.ChannelLogger;
+import io.grpc.ExperimentalApi;
+import io.grpc.Internal;
+import io.grpc.internal.AbstractManagedChannelImplBuilder;
+import io.grpc.internal.ClientTransportFactory;
+import io.grpc.internal.ConnectionClientTransport;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.SharedResourceHolder;
+import io.grpc.internal.TransportTracer;
+import java.io.File;
+import java.net.SocketAddress;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Builder for a channel that issues RPCs to a shared-memory server in another process on the same
+ * host. Clients identify the server by its directory, as given to {@link
+ * SharedMemoryServerBuilder#forPath}.
+ *
+ * <p>Messages are copied through ring buffers in a memory-mapped file instead of a socket, and
+ * each connection has a thread that polls its ring, so the transport trades some CPU for latency.
+ * Both processes must be trusted: either can corrupt the memory the other reads.
+ */
+@ExperimentalApi("The shared-memory transport is experimental")
+public final class SharedMemoryChannelBuilder extends
+    AbstractManagedChannelImplBuilder<SharedMemoryChannelBuilder> {
+  /** The default size of each of the two rings of a connection: 1 MiB. */
+  public static final int DEFAULT_RING_BUFFER_SIZE = 1024 * 1024;
+  /** The default flow control window of each stream: 1 MiB. */
+  public static final int DEFAULT_FLOW_CONTROL_WINDOW = 1024 * 1024;
+
+  /**
+   * Create a channel builder that will connect to the server serving the given directory.
+   *
+   * @param path the directory of the server
+   * @return a new builder
+   */
+  public static SharedMemoryChannelBuilder forPath(File path) {
+    return forAddress(new SharedMemorySocketAddress(path));
+  }
+
+  /**
+   * Create a channel builder that will connect to the server at the given address.
+   *
+   * @param address the address of the server
+   * @return a new builder
+   */
+  public static SharedMemoryChannelBuilder forAddress(SharedMemorySocketAddress address) {
+    return new SharedMemoryChannelBuilder(address);
+  }
+
+  /**
+   * Always fails.  Call {@link #forPath} instead.
+   */
+  public static SharedMemoryChannelBuilder forTarget(String target) {
+    throw new UnsupportedOperationException("call forPath() instead");
+  }
+
+  /**
+   * Always fails.  Call {@link #forPath} instead.
+   */
+  public static SharedMemoryChannelBuilder forAddress(String name, int port) {
+    throw new UnsupportedOperationException("call forPath() instead");
+  }
+
+  private ScheduledExecutorService scheduledExecutorService;
+  private int ringBufferSize = DEFAULT_RING_BUFFER_SIZE;
+  private int flowControlWindow = DEFAULT_FLOW_CONTROL_WINDOW;
+  private int maxInboundMetadataSize = GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE;
+
+  private SharedMemoryChannelBuilder(SharedMemorySocketAddress address) {
+    super(address, "localhost");
+  }
+
+  /**
+   * Sets the size in bytes of each of the two rings of a connection. It must be a power of two of
+   * at least 64 KiB. The server accepts any such size.
+   */
+  public SharedMemoryChannelBuilder ringBufferSize(int bytes) {
+    checkArgument(bytes >= ShmConnection.MIN_RING_SIZE && Integer.bitCount(bytes) == 1,
+        "ringBufferSize must be a power of two of at least %s: %s",
+        ShmConnection.MIN_RING_SIZE, bytes);
+    this.ringBufferSize = bytes;
+    return this;
+  }
+
+  /**
+   * Sets the number of bytes of messages the server may send on a stream before the application
+   * has read them. The default is 1 MiB.
+   */
+  public SharedMemoryChannelBuilder flowControlWindow(int bytes) {
+    checkArgument(bytes > 0, "flowControlWindow must be positive: %s", bytes);
+    this.flowControlWindow = bytes;
+    return this;
+  }
+
+  /**
+   * Sets the maximum size of metadata allowed to be received. This is cumulative size of the
+   * entries with some overhead, as defined for HTTP/2's SETTINGS_MAX_HEADER_LIST_SIZE. The default
+   * is 8 KiB.
+   */
+  @Override
+  public SharedMemoryChannelBuilder maxInboundMetadataSize(int bytes) {
+    checkArgument(bytes > 0, "maxInboundMetadataSize must be > 0");
+    this.maxInboundMetadataSize = bytes;
+    return this;
+  }
+
+  /**
+   * Does nothing. Connections do not leave the host, and the other process can read the memory
+   * they go through anyway.
+   */
+  @Override
+  public SharedMemoryChannelBuilder usePlaintext() {
+    return this;
+  }
+
+  /** Does nothing. */
+  @Override
+  public SharedMemoryChannelBuilder useTransportSecurity() {
+    return this;
+  }
+
+  /** Does nothing. The peers of a connection check each other with heartbeats instead. */
+  @Override
+  public SharedMemoryChannelBuilder keepAliveTime(long keepAliveTime, TimeUnit timeUnit) {
+    return this;
+  }
+
+  /** Does nothing. */
+  @Override
+  public SharedMemoryChannelBuilder keepAliveTimeout(long keepAliveTimeout, TimeUnit timeUnit) {
+    return this;
+  }
+
+  /** Does nothing. */
+  @Override
+  public SharedMemoryChannelBuilder keepAliveWithoutCalls(boolean enable) {
+    return this;
+  }
+
+  /**
+   * Provides a custom scheduled executor service, used for the heartbeats of the connections.
+   *
+   * <p>It's an optional parameter. If the user has not provided a scheduled executor service when
+   * the channel is built, the builder will use a static cached thread pool.
+   *
+   * @return this
+   */
+  public SharedMemoryChannelBuilder scheduledExecutorService(
+      ScheduledExecutorService scheduledExecutorService) {
+    this.scheduledExecutorService =
+        checkNotNull(scheduledExecutorService, "scheduledExecutorService");
+    return this;
+  }
+
+  @Override
+  @Internal
+  protected ClientTransportFactory buildTransportFactory() {
+    return new SharedMemoryClientTransportFactory(
+        scheduledExecutorService, ringBufferSize, flowControlWindow, maxInboundMessageSize(),
+        maxInboundMetadataSize, transportTracerFactory);
+  }
+
+  /**
+   * Creates shared-memory transports.
+   */
+  private static final class SharedMemoryClientTransportFactory implements ClientTransportFactory {
+    private final ScheduledExecutorService timerService;
+    private final boolean useSharedTimer;
+    private final int ringBufferSize;
+    private final int flowControlWindow;
+    private final int maxInboundMessageSize;
+    private final int maxInboundMetadataSize;
+    private final TransportTracer.Factory transportTracerFactory;
+    private boolean closed;
+
+    private SharedMemoryClientTransportFactory(
+        @Nullable ScheduledExecutorService scheduledExecutorService,
+        int ringBufferSize,
+        int flowControlWindow,
+        int maxInboundMessageSize,
+        int maxInboundMetadataSize,
+        TransportTracer.Factory transportTracerFactory) {
+      useSharedTimer = scheduledExecutorService == null;
+      timerService = useSharedTimer
+          ? SharedResourceHolder.get(GrpcUtil.TIMER_SERVICE) : scheduledExecutorService;
+      this.ringBufferSize = ringBufferSize;
+      this.flowControlWindow = flowControlWindow;
+      this.maxInboundMessageSize = maxInboundMessageSize;
+      this.maxInboundMetadataSize = maxInboundMetadataSize;
+      this.transportTracerFactory = transportTracerFactory;
+    }
+
+    @Override
+    public ConnectionClientTransport newClientTransport(
+        SocketAddress addr, ClientTransportOptions options, ChannelLogger channelLogger) {
+      if (closed) {
+        throw new IllegalStateException("The transport factory is closed.");
+      }
+      return new ShmClientTransport(
+          (SharedMemorySocketAddress) addr, options.getAuthority(), options.getUserAgent(),
+          options.getEagAttributes(), ringBufferSize, flowControlWindow, maxInboundMessageSize,
+          maxInboundMetadataSize, timerService, transportTracerFactory.create());
+    }
+
+    @Override
+    public ScheduledExecutorService getScheduledExecutorService() {
+      return timerService;
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (useSharedTimer) {
+        SharedResourceHolder.release(GrpcUtil.TIMER_SERVICE, timerService);
+      }
+    }
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.MoreObjects;
+import io.grpc.InternalChannelz.SocketStats;
+import io.grpc.InternalInstrumented;
+import io.grpc.ServerStreamTracer;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.InternalServer;
+import io.grpc.internal.ObjectPool;
+import io.grpc.internal.ServerListener;
+import io.grpc.internal.ServerTransportListener;
+import io.grpc.internal.TransportTracer;
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Server for the shared-memory transport. It owns its directory through an exclusive lock on a
+ * file in it, and accepts the connection files that clients create there.
+ *
+ * <p>POSIX releases all the locks of a process on a file when any descriptor of the file is
+ * closed, so the servers of this process are also kept in a registry, and clients of this process
+ * never open the lock file of a server of this process.
+ */
+final class SharedMemoryServer implements InternalServer {
+  private static final Logger log = Logger.getLogger(SharedMemoryServer.class.getName());
+
+  private static final String LOCK_FILE = "server.lock";
+  private static final int LOCK_ATTEMPTS = 20;
+  private static final long LOCK_RETRY_MILLIS = 10;
+  private static final long WATCH_POLL_MILLIS = 50;
+
+  @GuardedBy("registry")
+  private static final Map<String, SharedMemoryServer> registry = new HashMap<>();
+
+  /** Returns whether a server, in any process, is serving {@code directory}. */
+  static boolean isServing(File directory) {
+    synchronized (registry) {
+      if (registry.containsKey(key(directory))) {
+        return true;
+      }
+      File lockFile = new File(directory, LOCK_FILE);
+      if (!lockFile.exists()) {
+        return false;
+      }
+      try (FileChannel channel = FileChannel.open(
+          lockFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        FileLock lock = channel.tryLock(0, Long.MAX_VALUE, true);
+        if (lock == null) {
+          return true;
+        }
+        lock.release();
+        return false;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+  }
+
+  private static String key(File directory) {
+    return directory.getAbsoluteFile().toPath().normalize().toString();
+  }
+
+  private final File directory;
+  private final int flowControlWindow;
+  private final int maxInboundMessageSize;
+  private final int maxInboundMetadataSize;
+  private final ObjectPool<ScheduledExecutorService> schedulerPool;
+  private final TransportTracer.Factory transportTracerFactory;
+  private final List<? extends ServerStreamTracer.Factory> streamTracerFactories;
+  private ServerListener listener;
+  private FileChannel lockChannel;
+  private FileLock lock;
+  private WatchService watchService;
+  private Thread acceptThread;
+  @GuardedBy("this")
+  private boolean shutdown;
+
+  SharedMemoryServer(
+      SharedMemoryServerBuilder builder,
+      TransportTracer.Factory transportTracerFactory,
+      List<? extends ServerStreamTracer.Factory> streamTracerFactories) {
+    this.directory = builder.directory;
+    this.flowControlWindow = builder.flowControlWindow;
+    this.maxInboundMessageSize = builder.maxInboundMessageSize;
+    this.maxInboundMetadataSize = builder.maxInboundMetadataSize;
+    this.schedulerPool = builder.schedulerPool;
+    this.transportTracerFactory = checkNotNull(transportTracerFactory, "transportTracerFactory");
+    this.streamTracerFactories =
+        Collections.unmodifiableList(checkNotNull(streamTracerFactories, "streamTracerFactories"));
+  }
+
+  @Override
+  public void start(ServerListener serverListener) throws IOException {
+    checkState(listener == null, "Already started");
+    this.listener = checkNotNull(serverListener, "serverListener");
+    Path path = directory.toPath();
+    if (!Files.isDirectory(path)) {
+      if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+        // Only processes of the same user may connect.
+        Files.createDirectories(path,
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+      } else {
+        Files.createDirectories(path);
+      }
+    }
+    synchronized (registry) {
+      if (registry.containsKey(key(directory))) {
+        throw new IOException("Already serving " + directory);
+      }
+      lockChannel = FileChannel.open(path.resolve(LOCK_FILE),
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try {
+        // Clients briefly hold a shared lock while checking for a server.
+        for (int attempt = 0; attempt < LOCK_ATTEMPTS && lock == null; attempt++) {
+          if (attempt > 0) {
+            Thread.sleep(LOCK_RETRY_MILLIS);
+          }
+          lock = lockChannel.tryLock();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        if (lock == null) {
+          lockChannel.close();
+        }
+      }
+      if (lock == null) {
+        throw new IOException("Another server is serving " + directory);
+      }
+      registry.put(key(directory), this);
+    }
+    try {
+      watchService = path.getFileSystem().newWatchService();
+      path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+    } catch (IOException e) {
+      releaseDirectory();
+      throw e;
+    }
+    acceptThread = GrpcUtil.getThreadFactory("grpc-shm-accept-%d", true).newThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            acceptLoop();
+          }
+        });
+    acceptThread.start();
+  }
+
+  private void acceptLoop() {
+    while (true) {
+      File[] files = directory.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          if (file.getName().endsWith(ShmConnection.CONNECTION_SUFFIX)) {
+            accept(file);
+          }
+        }
+      }
+      try {
+        // Events only wake the loop up, as the directory is scanned anyway.
+        WatchKey key = watchService.poll(WATCH_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (key != null) {
+          key.pollEvents();
+          key.reset();
+        }
+      } catch (Exception e) {
+        // Closed by shutdown(), or interrupted.
+        return;
+      }
+    }
+  }
+
+  private void accept(File file) {
+    ByteBuffer mapping;
+    try {
+      mapping = ShmConnection.map(file);
+    } catch (IOException e) {
+      log.log(Level.FINE, "Failed to accept shared-memory connection", e);
+      return;
+    }
+    ShmServerTransport transport = new ShmServerTransport(
+        new SharedMemorySocketAddress(directory),
+        streamTracerFactories,
+        flowControlWindow,
+        maxInboundMessageSize,
+        maxInboundMetadataSize,
+        schedulerPool,
+        transportTracerFactory.create());
+    ServerTransportListener transportListener;
+    synchronized (this) {
+      if (shutdown) {
+        transportListener = null;
+      } else {
+        transportListener = listener.transportCreated(transport);
+      }
+    }
+    if (transportListener == null) {
+      // Fail the client's connect() right away instead of leaving it to the heartbeat timeout
+      ShmConnection.reject(mapping);
+      return;
+    }
+    ShmConnection.accept(mapping);
+    transport.start(transportListener, mapping);
+  }
+
+  @Override
+  public SocketAddress getListenSocketAddress() {
+    return new SharedMemorySocketAddress(directory);
+  }
+
+  @Override
+  public InternalInstrumented<SocketStats> getListenSocketStats() {
+    return null;
+  }
+
+  @Override
+  public void shutdown() {
+    synchronized (this) {
+      if (shutdown) {
+        return;
+      }
+      shutdown = true;
+    }
+    if (listener == null) {
+      return;
+    }
+    if (acceptThread != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.log(Level.FINE, "Failed to close watch service", e);
+      }
+      boolean interrupted = false;
+      while (true) {
+        try {
+          acceptThread.join();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      releaseDirectory();
+    }
+    listener.serverShutdown();
+  }
+
+  private void releaseDirectory() {
+    synchronized (registry) {
+      registry.remove(key(directory));
+      try {
+        // The lock file is left behind: removing it could race with another server locking it.
+        lock.release();
+        lockChannel.close();
+      } catch (IOException e) {
+        log.log(Level.FINE, "Failed to release server lock", e);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("directory", directory).toString();
+  }
+}
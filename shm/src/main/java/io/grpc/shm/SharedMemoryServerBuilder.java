@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.grpc.ExperimentalApi;
+import io.grpc.ServerStreamTracer;
+import io.grpc.internal.AbstractServerImplBuilder;
+import io.grpc.internal.FixedObjectPool;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.ObjectPool;
+import io.grpc.internal.SharedResourcePool;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Builder for a server that serves RPCs from other processes on the same host over shared memory.
+ * Clients identify the server by its directory, which should be on a memory-backed file system
+ * such as {@code /dev/shm}. Only one server may serve a directory at a time.
+ *
+ * <h3>Usage example</h3>
+ * <pre>
+ *   File path = new File("/dev/shm/my-service");
+ *   Server server = SharedMemoryServerBuilder.forPath(path)
+ *       .addService(&#47;* your code here *&#47;)
+ *       .build().start();
+ *   // In another process
+ *   ManagedChannel channel = SharedMemoryChannelBuilder.forPath(path).build();
+ * </pre>
+ */
+@ExperimentalApi("The shared-memory transport is experimental")
+public final class SharedMemoryServerBuilder
+    extends AbstractServerImplBuilder<SharedMemoryServerBuilder> {
+  /**
+   * Create a server builder that will serve the given directory, creating it if needed.
+   *
+   * @param path the directory that clients connect to
+   * @return a new builder
+   */
+  public static SharedMemoryServerBuilder forPath(File path) {
+    return new SharedMemoryServerBuilder(path);
+  }
+
+  /**
+   * Always fails.  Call {@link #forPath} instead.
+   */
+  public static SharedMemoryServerBuilder forPort(int port) {
+    throw new UnsupportedOperationException("call forPath() instead");
+  }
+
+  final File directory;
+  int flowControlWindow = SharedMemoryChannelBuilder.DEFAULT_FLOW_CONTROL_WINDOW;
+  int maxInboundMessageSize = GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
+  int maxInboundMetadataSize = GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE;
+  ObjectPool<ScheduledExecutorService> schedulerPool =
+      SharedResourcePool.forResource(GrpcUtil.TIMER_SERVICE);
+
+  private SharedMemoryServerBuilder(File directory) {
+    this.directory = checkNotNull(directory, "directory");
+  }
+
+  /**
+   * Provides a custom scheduled executor service, used for the heartbeats of the connections and
+   * handed to the services as the transport's scheduler.
+   *
+   * <p>It's an optional parameter. If the user has not provided a scheduled executor service when
+   * the server is built, the builder will use a static cached thread pool.
+   *
+   * @return this
+   */
+  public SharedMemoryServerBuilder scheduledExecutorService(
+      ScheduledExecutorService scheduledExecutorService) {
+    schedulerPool = new FixedObjectPool<>(
+        checkNotNull(scheduledExecutorService, "scheduledExecutorService"));
+    return this;
+  }
+
+  /**
+   * Sets the number of bytes of messages a client may send on a stream before the application has
+   * read them. The default is 1 MiB.
+   */
+  public SharedMemoryServerBuilder flowControlWindow(int bytes) {
+    checkArgument(bytes > 0, "flowControlWindow must be positive: %s", bytes);
+    this.flowControlWindow = bytes;
+    return this;
+  }
+
+  @Override
+  public SharedMemoryServerBuilder maxInboundMessageSize(int bytes) {
+    checkArgument(bytes >= 0, "bytes must be non-negative: %s", bytes);
+    this.maxInboundMessageSize = bytes;
+    return this;
+  }
+
+  /**
+   * Sets the maximum size of metadata allowed to be received. This is cumulative size of the
+   * entries with some overhead, as defined for HTTP/2's SETTINGS_MAX_HEADER_LIST_SIZE. The default
+   * is 8 KiB.
+   */
+  @Override
+  public SharedMemoryServerBuilder maxInboundMetadataSize(int bytes) {
+    checkArgument(bytes > 0, "maxInboundMetadataSize must be > 0");
+    this.maxInboundMetadataSize = bytes;
+    return this;
+  }
+
+  @Override
+  protected List<SharedMemoryServer> buildTransportServers(
+      List<? extends ServerStreamTracer.Factory> streamTracerFactories) {
+    return Collections.singletonList(new SharedMemoryServer(
+        this, getTransportTracerFactory(), streamTracerFactories));
+  }
+
+  @Override
+  public SharedMemoryServerBuilder useTransportSecurity(File certChain, File privateKey) {
+    throw new UnsupportedOperationException("TLS not supported in SharedMemoryServer");
+  }
+}
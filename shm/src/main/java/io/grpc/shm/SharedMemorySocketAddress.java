@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.grpc.ExperimentalApi;
+import java.io.File;
+import java.net.SocketAddress;
+
+/**
+ * Address of a shared-memory server: the directory where clients create their connection files.
+ * The directory should be on a memory-backed file system, such as {@code /dev/shm} on Linux.
+ */
+@ExperimentalApi("The shared-memory transport is experimental")
+public final class SharedMemorySocketAddress extends SocketAddress {
+  private static final long serialVersionUID = 7409347932498542610L;
+
+  private final File path;
+
+  public SharedMemorySocketAddress(File path) {
+    this.path = checkNotNull(path, "path");
+  }
+
+  /** Gets the directory of the server. */
+  public File getPath() {
+    return path;
+  }
+
+  @Override
+  public String toString() {
+    return path.getPath();
+  }
+
+  @Override
+  public int hashCode() {
+    return path.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof SharedMemorySocketAddress)) {
+      return false;
+    }
+    return path.equals(((SharedMemorySocketAddress) obj).path);
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.grpc.shm.ShmProtocol.DATA;
+import static io.grpc.shm.ShmProtocol.FLAG_END_STREAM;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.internal.AbstractClientStream;
+import io.grpc.internal.ReadableBuffers;
+import io.grpc.internal.StatsTraceContext;
+import io.grpc.internal.TransportTracer;
+import io.grpc.internal.WritableBuffer;
+import io.grpc.shm.ShmWritableBufferAllocator.ShmWritableBuffer;
+import javax.annotation.Nullable;
+
+/**
+ * Client stream for a shared-memory transport. Must only be called from the sending application
+ * thread.
+ */
+final class ShmClientStream extends AbstractClientStream {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final Sink sink = new Sink();
+  private final TransportState state;
+  private final ShmClientTransport transport;
+  private final MethodDescriptor<?, ?> method;
+  private String authority;
+
+  ShmClientStream(
+      TransportState state,
+      ShmClientTransport transport,
+      MethodDescriptor<?, ?> method,
+      Metadata headers,
+      String authority,
+      StatsTraceContext statsTraceCtx,
+      TransportTracer transportTracer,
+      CallOptions callOptions) {
+    super(
+        ShmWritableBufferAllocator.INSTANCE,
+        statsTraceCtx,
+        transportTracer,
+        headers,
+        callOptions,
+        false);
+    this.state = checkNotNull(state, "transportState");
+    this.transport = checkNotNull(transport, "transport");
+    this.method = checkNotNull(method, "method");
+    this.authority = checkNotNull(authority, "authority");
+  }
+
+  @Override
+  protected TransportState transportState() {
+    return state;
+  }
+
+  @Override
+  protected Sink abstractClientStreamSink() {
+    return sink;
+  }
+
+  @Override
+  public void setAuthority(String authority) {
+    this.authority = checkNotNull(authority, "authority");
+  }
+
+  @Override
+  public Attributes getAttributes() {
+    return transport.getAttributes();
+  }
+
+  private class Sink implements AbstractClientStream.Sink {
+    @Override
+    public void writeHeaders(Metadata headers, @Nullable byte[] requestPayload) {
+      final byte[] payload =
+          ShmProtocol.encodeRequestHeaders(method.getFullMethodName(), authority, headers);
+      final boolean countedForInUse = shouldBeCountedForInUse();
+      state.connection.execute(new Runnable() {
+        @Override
+        public void run() {
+          transport.startStream(state, payload, countedForInUse);
+        }
+      });
+    }
+
+    @Override
+    public void writeFrame(
+        WritableBuffer frame, final boolean endOfStream, boolean flush, final int numMessages) {
+      final byte[] payload = frame == null ? EMPTY : ((ShmWritableBuffer) frame).array();
+      final int length = frame == null ? 0 : frame.readableBytes();
+      if (length > 0) {
+        // Add the bytes to outbound flow control.
+        onSendingBytes(length);
+      }
+      state.connection.execute(new Runnable() {
+        @Override
+        public void run() {
+          if (state.isStarted()) {
+            state.flowController.send(
+                DATA, endOfStream ? FLAG_END_STREAM : 0, payload, length, numMessages);
+          }
+        }
+      });
+    }
+
+    @Override
+    public void cancel(final Status status) {
+      state.connection.execute(new Runnable() {
+        @Override
+        public void run() {
+          transport.cancelStream(state, status);
+        }
+      });
+    }
+  }
+
+  /** This should only be called from the transport thread. */
+  abstract static class TransportState extends AbstractClientStream.TransportState {
+    final ShmConnection connection;
+    final ShmFlowController flowController;
+    private boolean started;
+
+    TransportState(
+        ShmConnection connection,
+        int flowControlWindow,
+        int maxMessageSize,
+        StatsTraceContext statsTraceCtx,
+        TransportTracer transportTracer) {
+      super(maxMessageSize, statsTraceCtx, transportTracer);
+      this.connection = checkNotNull(connection, "connection");
+      this.flowController = new ShmFlowController(connection, flowControlWindow) {
+        @Override
+        void onSent(int numBytes, int numMessages) {
+          onSentBytes(numBytes);
+          getTransportTracer().reportMessageSent(numMessages);
+        }
+      };
+    }
+
+    int id() {
+      return flowController.streamId();
+    }
+
+    /** Whether the stream was assigned an id and is known to the transport. */
+    boolean isStarted() {
+      return started;
+    }
+
+    /** Called by the transport once the HEADERS frame opening the stream is written. */
+    void started(int id) {
+      flowController.setStreamId(id);
+      started = true;
+      onStreamAllocated();
+      getTransportTracer().reportLocalStreamStarted();
+    }
+
+    /** Called when the stream is over, to drop the frames waiting for the window. */
+    void closed() {
+      flowController.clear();
+    }
+
+    void transportHeadersReceived(Metadata headers) {
+      inboundHeadersReceived(headers);
+    }
+
+    void transportDataReceived(byte[] data, boolean endOfStream) {
+      inboundDataReceived(ReadableBuffers.wrap(data));
+      if (endOfStream) {
+        // Only the trailers end a response.
+        transportError(Status.INTERNAL.withDescription("Received unexpected EOS on DATA frame"));
+      }
+    }
+
+    void transportTrailersReceived(Metadata trailers) {
+      inboundTrailersReceived(trailers, ShmProtocol.statusFromTrailers(trailers));
+    }
+
+    /** Called on malformed input from the server. The transport is expected to reset the stream. */
+    abstract void transportError(Status status);
+
+    @Override
+    public void runOnTransportThread(Runnable r) {
+      if (connection.inEventLoop()) {
+        r.run();
+      } else {
+        connection.execute(r);
+      }
+    }
+
+    @Override
+    public void bytesRead(int processedBytes) {
+      flowController.bytesRead(processedBytes);
+    }
+
+    @Override
+    public void deframeFailed(Throwable cause) {
+      transportError(Status.fromThrowable(cause));
+    }
+  }
+}
@@ -0,0 +1,495 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static io.grpc.shm.ShmProtocol.DATA;
+import static io.grpc.shm.ShmProtocol.FLAG_END_STREAM;
+import static io.grpc.shm.ShmProtocol.FLAG_REFUSED;
+import static io.grpc.shm.ShmProtocol.GO_AWAY;
+import static io.grpc.shm.ShmProtocol.HEADERS;
+import static io.grpc.shm.ShmProtocol.PING;
+import static io.grpc.shm.ShmProtocol.PING_ACK;
+import static io.grpc.shm.ShmProtocol.RESPONSE_HEADERS;
+import static io.grpc.shm.ShmProtocol.RST_STREAM;
+import static io.grpc.shm.ShmProtocol.TRAILERS;
+import static io.grpc.shm.ShmProtocol.WINDOW_UPDATE;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.Grpc;
+import io.grpc.InternalChannelz.SocketStats;
+import io.grpc.InternalLogId;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.SecurityLevel;
+import io.grpc.Status;
+import io.grpc.internal.ClientStream;
+import io.grpc.internal.ClientStreamListener;
+import io.grpc.internal.ClientStreamListener.RpcProgress;
+import io.grpc.internal.ConnectionClientTransport;
+import io.grpc.internal.GrpcAttributes;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.Http2Ping;
+import io.grpc.internal.InUseStateAggregator;
+import io.grpc.internal.NoopClientStream;
+import io.grpc.internal.StatsTraceContext;
+import io.grpc.internal.TransportTracer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Client side of a shared-memory connection. Streams, frames and the transport listener are all
+ * handled on the connection's thread.
+ */
+final class ShmClientTransport implements ConnectionClientTransport, ShmConnection.Handler {
+  private static final Logger log = Logger.getLogger(ShmClientTransport.class.getName());
+
+  private final SharedMemorySocketAddress address;
+  private final String authority;
+  private final String userAgent;
+  private final int ringSize;
+  private final int flowControlWindow;
+  private final int maxInboundMessageSize;
+  private final int maxInboundMetadataSize;
+  private final ScheduledExecutorService scheduler;
+  private final TransportTracer transportTracer;
+  private final InternalLogId logId;
+  private final Attributes attributes;
+  private final ShmConnection connection;
+  private final Random random = new Random();
+
+  private final Object lock = new Object();
+  @GuardedBy("lock")
+  private Listener listener;
+  @GuardedBy("lock")
+  private Status shutdownStatus;
+  @GuardedBy("lock")
+  private boolean terminated;
+  @GuardedBy("lock")
+  @Nullable
+  private Http2Ping ping;
+
+  // Only accessed from the connection's thread.
+  private final Map<Integer, ShmClientStream.TransportState> streams = new HashMap<>();
+  private int nextStreamId = 1;
+  private boolean shutdownNotified;
+  private boolean draining;
+  private boolean goAwayReceived;
+  private boolean closed;
+  private final InUseStateAggregator<ShmClientStream.TransportState> inUseState =
+      new InUseStateAggregator<ShmClientStream.TransportState>() {
+        @Override
+        protected void handleInUse() {
+          listener().transportInUse(true);
+        }
+
+        @Override
+        protected void handleNotInUse() {
+          listener().transportInUse(false);
+        }
+      };
+
+  ShmClientTransport(
+      SharedMemorySocketAddress address,
+      String authority,
+      @Nullable String userAgent,
+      Attributes eagAttrs,
+      int ringSize,
+      int flowControlWindow,
+      int maxInboundMessageSize,
+      int maxInboundMetadataSize,
+      ScheduledExecutorService scheduler,
+      TransportTracer transportTracer) {
+    this.address = checkNotNull(address, "address");
+    this.authority = checkNotNull(authority, "authority");
+    this.userAgent = GrpcUtil.getGrpcUserAgent("shm", userAgent);
+    this.ringSize = ringSize;
+    this.flowControlWindow = flowControlWindow;
+    this.maxInboundMessageSize = maxInboundMessageSize;
+    this.maxInboundMetadataSize = maxInboundMetadataSize;
+    // A metadata payload is never larger than HTTP/2 counts its headers.
+    this.connection = new ShmConnection(true, maxInboundMetadataSize, this);
+    this.scheduler = checkNotNull(scheduler, "scheduler");
+    this.transportTracer = checkNotNull(transportTracer, "transportTracer");
+    this.logId = InternalLogId.allocate(getClass(), address.toString());
+    this.attributes = Attributes.newBuilder()
+        .set(GrpcAttributes.ATTR_SECURITY_LEVEL, SecurityLevel.PRIVACY_AND_INTEGRITY)
+        .set(GrpcAttributes.ATTR_CLIENT_EAG_ATTRS, checkNotNull(eagAttrs, "eagAttrs"))
+        .set(Grpc.TRANSPORT_ATTR_REMOTE_ADDR, address)
+        .set(Grpc.TRANSPORT_ATTR_LOCAL_ADDR, address)
+        .build();
+  }
+
+  @Override
+  public Runnable start(Listener listener) {
+    synchronized (lock) {
+      checkState(this.listener == null, "Already started");
+      this.listener = checkNotNull(listener, "listener");
+    }
+    return new Runnable() {
+      @Override
+      public void run() {
+        connection.start(new ShmConnection.Opener() {
+          @Override
+          public ByteBuffer open() throws IOException {
+            return ShmConnection.connect(address.getPath(), ringSize);
+          }
+        }, scheduler);
+      }
+    };
+  }
+
+  @Override
+  public ClientStream newStream(
+      MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions) {
+    checkNotNull(method, "method");
+    checkNotNull(headers, "headers");
+    StatsTraceContext statsTraceCtx =
+        StatsTraceContext.newClientContext(callOptions, attributes, headers);
+    synchronized (lock) {
+      if (shutdownStatus != null) {
+        return failedClientStream(statsTraceCtx, shutdownStatus);
+      }
+    }
+    headers.discardAll(GrpcUtil.USER_AGENT_KEY);
+    headers.put(GrpcUtil.USER_AGENT_KEY, userAgent);
+    ShmClientStream.TransportState state = new ShmClientStream.TransportState(
+        connection, flowControlWindow, maxInboundMessageSize, statsTraceCtx, transportTracer) {
+      @Override
+      void transportError(Status status) {
+        cancelStream(this, status);
+      }
+    };
+    return new ShmClientStream(
+        state, this, method, headers, authority, statsTraceCtx, transportTracer, callOptions);
+  }
+
+  private static ClientStream failedClientStream(
+      final StatsTraceContext statsTraceCtx, final Status status) {
+    return new NoopClientStream() {
+      @Override
+      public void start(ClientStreamListener listener) {
+        statsTraceCtx.clientOutboundHeaders();
+        statsTraceCtx.streamClosed(status);
+        listener.closed(status, new Metadata());
+      }
+    };
+  }
+
+  @Override
+  public void ping(PingCallback callback, Executor executor) {
+    final Http2Ping p;
+    synchronized (lock) {
+      if (terminated) {
+        Http2Ping.notifyFailed(callback, executor, shutdownStatus.asException());
+        return;
+      }
+      if (ping != null) {
+        ping.addCallback(callback, executor);
+        return;
+      }
+      p = ping = new Http2Ping(random.nextLong(), Stopwatch.createStarted());
+      p.addCallback(callback, executor);
+    }
+    connection.execute(new Runnable() {
+      @Override
+      public void run() {
+        connection.writeFrame(PING, (byte) 0, 0, ShmProtocol.encodeLong(p.payload()), 8);
+      }
+    });
+  }
+
+  @Override
+  public void shutdown(final Status reason) {
+    checkNotNull(reason, "reason");
+    synchronized (lock) {
+      if (shutdownStatus != null) {
+        return;
+      }
+      shutdownStatus = reason;
+    }
+    connection.execute(new Runnable() {
+      @Override
+      public void run() {
+        notifyShutdown(reason);
+        draining = true;
+        if (streams.isEmpty()) {
+          connection.close(reason, true);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void shutdownNow(final Status reason) {
+    shutdown(reason);
+    connection.execute(new Runnable() {
+      @Override
+      public void run() {
+        for (ShmClientStream.TransportState stream : new ArrayList<>(streams.values())) {
+          stream.transportReportStatus(reason, true, new Metadata());
+          removeStream(stream);
+        }
+        connection.close(reason, false);
+      }
+    });
+  }
+
+  @Override
+  public Attributes getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public InternalLogId getLogId() {
+    return logId;
+  }
+
+  @Override
+  public ListenableFuture<SocketStats> getStats() {
+    SettableFuture<SocketStats> ret = SettableFuture.create();
+    ret.set(null);
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return logId + "(" + address + ")";
+  }
+
+  /** Opens a stream. Called from the connection's thread. */
+  void startStream(
+      ShmClientStream.TransportState stream, byte[] headers, boolean countedForInUse) {
+    if (closed || goAwayReceived) {
+      stream.transportReportStatus(
+          getShutdownStatus(), RpcProgress.REFUSED, true, new Metadata());
+      return;
+    }
+    int id = nextStreamId;
+    nextStreamId += 2;
+    streams.put(id, stream);
+    if (countedForInUse) {
+      inUseState.updateObjectInUse(stream, true);
+    }
+    connection.writeFrame(HEADERS, (byte) 0, id, headers, headers.length);
+    stream.getStatsTraceContext().clientOutboundHeaders();
+    stream.started(id);
+  }
+
+  /** Cancels a stream. Called from the connection's thread. */
+  void cancelStream(ShmClientStream.TransportState stream, Status status) {
+    stream.transportReportStatus(status, true, new Metadata());
+    if (stream.isStarted() && streams.get(stream.id()) == stream) {
+      byte[] payload = ShmProtocol.encodeStatus(status);
+      connection.writeFrame(RST_STREAM, (byte) 0, stream.id(), payload, payload.length);
+      removeStream(stream);
+    }
+  }
+
+  private void removeStream(ShmClientStream.TransportState stream) {
+    streams.remove(stream.id());
+    stream.closed();
+    inUseState.updateObjectInUse(stream, false);
+    if (draining && streams.isEmpty()) {
+      connection.close(getShutdownStatus(), true);
+    }
+  }
+
+  @Override
+  public void connected() {
+    listener().transportReady();
+  }
+
+  @Override
+  public void frameRead(byte type, byte flags, int streamId, byte[] payload) {
+    switch (type) {
+      case PING:
+        connection.writeFrame(PING_ACK, (byte) 0, 0, payload, payload.length);
+        return;
+      case PING_ACK:
+        pingAckRead(ShmProtocol.decodeLong(payload));
+        return;
+      case GO_AWAY:
+        goAwayRead(ShmProtocol.decodeStatus(payload));
+        return;
+      default:
+        break;
+    }
+    ShmClientStream.TransportState stream = streams.get(streamId);
+    if (stream == null) {
+      // The stream was closed on this side, and the frame was sent before the server knew.
+      return;
+    }
+    switch (type) {
+      case RESPONSE_HEADERS: {
+        Metadata headers = ShmProtocol.decodeMetadata(payload);
+        if (checkMetadataSize(stream, headers)) {
+          stream.transportHeadersReceived(headers);
+        }
+        break;
+      }
+      case DATA:
+        stream.transportDataReceived(payload, (flags & FLAG_END_STREAM) != 0);
+        break;
+      case TRAILERS: {
+        Metadata trailers = ShmProtocol.decodeMetadata(payload);
+        if (checkMetadataSize(stream, trailers)) {
+          stream.transportTrailersReceived(trailers);
+          removeStream(stream);
+        }
+        break;
+      }
+      case RST_STREAM: {
+        Status status;
+        RpcProgress rpcProgress;
+        if ((flags & FLAG_REFUSED) != 0) {
+          status = Status.UNAVAILABLE.withDescription("Stream refused by server");
+          rpcProgress = RpcProgress.REFUSED;
+        } else {
+          status = ShmProtocol.decodeStatus(payload).augmentDescription("Received Rst Stream");
+          rpcProgress = RpcProgress.PROCESSED;
+        }
+        stream.transportReportStatus(status, rpcProgress, false, new Metadata());
+        removeStream(stream);
+        break;
+      }
+      case WINDOW_UPDATE:
+        stream.flowController.windowUpdated(ShmProtocol.decodeInt(payload));
+        break;
+      default:
+        log.log(Level.FINE, "Ignoring frame of unknown type {0}", type);
+    }
+  }
+
+  @Override
+  public void frameTooLarge(byte type, int streamId, long size) {
+    if (type != RESPONSE_HEADERS && type != TRAILERS) {
+      connection.close(Status.INTERNAL.withDescription(
+          String.format("Frame of type %d larger than %d: %d", type, maxInboundMetadataSize, size)),
+          false);
+      return;
+    }
+    ShmClientStream.TransportState stream = streams.get(streamId);
+    if (stream != null) {
+      cancelStream(stream, Status.RESOURCE_EXHAUSTED.withDescription(
+          String.format("Response metadata larger than %d: %d", maxInboundMetadataSize, size)));
+    }
+  }
+
+  /**
+   * Returns whether {@code metadata} is within the limit. If not, the stream is cancelled.
+   */
+  private boolean checkMetadataSize(ShmClientStream.TransportState stream, Metadata metadata) {
+    int metadataSize = ShmProtocol.metadataSize(metadata);
+    if (metadataSize <= maxInboundMetadataSize) {
+      return true;
+    }
+    cancelStream(stream, Status.RESOURCE_EXHAUSTED.withDescription(
+        String.format("Response metadata larger than %d: %d",
+            maxInboundMetadataSize, metadataSize)));
+    return false;
+  }
+
+  private void pingAckRead(long payload) {
+    Http2Ping p;
+    synchronized (lock) {
+      p = ping;
+      if (p == null || p.payload() != payload) {
+        log.log(Level.WARNING, "Received unexpected ping ack {0}", payload);
+        return;
+      }
+      ping = null;
+    }
+    p.complete();
+  }
+
+  private void goAwayRead(Status status) {
+    synchronized (lock) {
+      if (shutdownStatus == null) {
+        shutdownStatus = status;
+      }
+    }
+    goAwayReceived = true;
+    draining = true;
+    notifyShutdown(status);
+    if (streams.isEmpty()) {
+      connection.close(status, true);
+    }
+  }
+
+  @Override
+  public void closed(Status status) {
+    closed = true;
+    Http2Ping p;
+    synchronized (lock) {
+      if (shutdownStatus == null) {
+        shutdownStatus = status;
+      }
+      p = ping;
+      ping = null;
+    }
+    notifyShutdown(status);
+    if (p != null) {
+      p.failed(status.asException());
+    }
+    for (ShmClientStream.TransportState stream : new ArrayList<>(streams.values())) {
+      stream.transportReportStatus(status, false, new Metadata());
+      removeStream(stream);
+    }
+    Listener listener;
+    synchronized (lock) {
+      terminated = true;
+      listener = this.listener;
+    }
+    listener.transportTerminated();
+  }
+
+  private void notifyShutdown(Status status) {
+    if (shutdownNotified) {
+      return;
+    }
+    shutdownNotified = true;
+    listener().transportShutdown(status);
+  }
+
+  private Status getShutdownStatus() {
+    synchronized (lock) {
+      return shutdownStatus;
+    }
+  }
+
+  private Listener listener() {
+    synchronized (lock) {
+      return listener;
+    }
+  }
+}
@@ -0,0 +1,605 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.grpc.shm.ShmProtocol.DATA;
+import static io.grpc.shm.ShmProtocol.FLAG_END_STREAM;
+import static io.grpc.shm.ShmProtocol.FLAG_MORE;
+import static io.grpc.shm.ShmProtocol.FRAME_HEADER_SIZE;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.grpc.Status;
+import io.grpc.internal.GrpcUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * A connection between two processes over a memory-mapped file holding a ring in each direction.
+ *
+ * <p>Each connection has its own thread, which is the transport thread of the streams on it: it
+ * runs the tasks passed to {@link #execute}, hands inbound frames to the {@link Handler} and copies
+ * outbound frames into the ring. Waking a thread of the peer process would take a native doorbell,
+ * such as an eventfd or a Unix domain socket through netty-epoll, and this module only depends on
+ * grpc-core so it runs wherever memory-mapped files do. Instead, when there is nothing to do the
+ * thread spins for a while, then yields for a while, and then parks for increasingly long periods
+ * of up to {@value #MAX_PARK_NANOS} nanoseconds. Once the connection has been idle for {@value
+ * #DROWSY_NANOS} nanoseconds the parks grow to up to {@value #MAX_IDLE_PARK_NANOS} nanoseconds, so
+ * an idle connection costs about a hundred wakeups a second, at the price of that much latency for
+ * the first frame the peer sends after a lull. Tasks from this process always wake the thread
+ * immediately. Each side also bumps a heartbeat counter from a timer, and a connection whose peer
+ * has not bumped its counter for {@value #MAX_MISSED_HEARTBEATS} seconds is closed, as a crashed
+ * process leaves nothing else behind to notice.
+ *
+ * <p>The file is created by the client in the server's directory under a temporary name, and then
+ * renamed to end with {@value #CONNECTION_SUFFIX} so the server never sees it half-initialized. The
+ * server accepts it by mapping it, unlinking it and setting its state to open, or to rejected if
+ * the server is shutting down.
+ */
+final class ShmConnection implements Executor {
+  private static final Logger log = Logger.getLogger(ShmConnection.class.getName());
+
+  static final String CONNECTION_SUFFIX = ".conn";
+  static final int MIN_RING_SIZE = 64 * 1024;
+
+  private static final int MAGIC = 0x67525043;
+  private static final int VERSION = 1;
+
+  // The layout of the connection file. Fields written by different sides are kept on different
+  // cache lines.
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 4;
+  private static final int RING_SIZE_OFFSET = 8;
+  private static final int SERVER_STATE_OFFSET = 64;
+  private static final int SERVER_HEARTBEAT_OFFSET = 72;
+  private static final int CLIENT_STATE_OFFSET = 128;
+  private static final int CLIENT_HEARTBEAT_OFFSET = 136;
+  private static final int CLIENT_TO_SERVER_HEAD_OFFSET = 192;
+  private static final int CLIENT_TO_SERVER_TAIL_OFFSET = 256;
+  private static final int SERVER_TO_CLIENT_HEAD_OFFSET = 320;
+  private static final int SERVER_TO_CLIENT_TAIL_OFFSET = 384;
+  private static final int HEADER_SIZE = 4096;
+
+  private static final int STATE_CONNECTING = 0;
+  private static final int STATE_OPEN = 1;
+  private static final int STATE_CLOSED = 2;
+  private static final int STATE_REJECTED = 3;
+
+  private static final long CONNECT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(20);
+  private static final long CONNECT_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final long HEARTBEAT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int MAX_MISSED_HEARTBEATS = 10;
+
+  // Spinning only delays the peer when both share a single processor.
+  private static final long SPIN_NANOS =
+      Runtime.getRuntime().availableProcessors() > 1 ? TimeUnit.MICROSECONDS.toNanos(50) : 0;
+  private static final long YIELD_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+  private static final long MIN_PARK_NANOS = 1000;
+  private static final long MAX_PARK_NANOS = 250 * 1000;
+  private static final long DROWSY_NANOS = 100 * 1000 * 1000;
+  private static final long MAX_IDLE_PARK_NANOS = 10 * 1000 * 1000;
+  private static final int MAX_FRAMES_PER_READ = 64;
+
+  private static final byte[] EMPTY = new byte[0];
+  private static final ThreadFactory THREAD_FACTORY =
+      GrpcUtil.getThreadFactory("grpc-shm-connection-%d", true);
+
+  /** Receives the events of a connection. All methods are called from the connection's thread. */
+  interface Handler {
+    /** The connection is established. Called before any other method. */
+    void connected();
+
+    void frameRead(byte type, byte flags, int streamId, byte[] payload);
+
+    /**
+     * A payload split across several frames grew larger than the connection reassembles, so it
+     * was skipped. {@code size} is the total size of the payload.
+     */
+    void frameTooLarge(byte type, int streamId, long size);
+
+    /**
+     * The connection is closed, either by {@link #close} or because of the peer. Called exactly
+     * once, and even if the connection was never established.
+     */
+    void closed(Status status);
+  }
+
+  /** Establishes the connection, returning the mapping of the connection file. */
+  interface Opener {
+    ByteBuffer open() throws IOException;
+  }
+
+  private final boolean client;
+  private final int maxReassembledPayload;
+  private final Handler handler;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final Object drainLock = new Object();
+  private final ArrayDeque<OutboundFrame> outboundFrames = new ArrayDeque<>();
+  private Thread thread;
+  private volatile boolean parked;
+  private volatile boolean stopped;
+  private volatile boolean peerUnresponsive;
+
+  // Only accessed from the connection's thread.
+  private ByteBuffer mapping;
+  private ShmRing inbound;
+  private ShmRing outbound;
+  private int maxFramePayload;
+  private boolean peerClosed;
+  @Nullable
+  private Status closeStatus;
+  private boolean closeGracefully;
+  private long closeDeadlineNanos;
+  @Nullable
+  private byte[] partialPayload;
+  private boolean discarding;
+  private long discardedBytes;
+
+  // Only accessed from the heartbeat timer, which never runs concurrently with itself.
+  private ByteBuffer heartbeatMapping;
+  private ScheduledFuture<?> heartbeatFuture;
+  private long heartbeats;
+  private long lastPeerHeartbeat;
+  private int missedHeartbeats;
+
+  /**
+   * Creates a connection. Payloads that the peer splits across frames are skipped, and reported
+   * to {@link Handler#frameTooLarge}, once they exceed {@code maxReassembledPayload} bytes.
+   */
+  ShmConnection(boolean client, int maxReassembledPayload, Handler handler) {
+    this.client = client;
+    this.maxReassembledPayload = maxReassembledPayload;
+    this.handler = handler;
+  }
+
+  /** Starts the connection's thread, which opens the connection with {@code opener}. */
+  void start(final Opener opener, final ScheduledExecutorService scheduler) {
+    checkState(thread == null, "Already started");
+    thread = THREAD_FACTORY.newThread(new Runnable() {
+      @Override
+      public void run() {
+        ShmConnection.this.run(opener, scheduler);
+      }
+    });
+    thread.start();
+  }
+
+  /** Returns whether the caller is the connection's thread. */
+  boolean inEventLoop() {
+    return Thread.currentThread() == thread;
+  }
+
+  /**
+   * Runs {@code task} on the connection's thread. Once the connection is closed, tasks run on the
+   * thread calling this method instead, still one at a time.
+   */
+  @Override
+  public void execute(Runnable task) {
+    tasks.add(task);
+    if (stopped) {
+      drainTasks();
+    } else if (parked) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Queues a frame. {@code payload} must not be modified afterwards. Frames larger than the ring
+   * allows are split, so DATA may arrive in several frames. Must be called from the connection's
+   * thread, and does nothing once the connection is closed.
+   */
+  void writeFrame(byte type, byte flags, int streamId, byte[] payload, int length) {
+    if (stopped) {
+      return;
+    }
+    outboundFrames.add(new OutboundFrame(type, flags, streamId, payload, length));
+  }
+
+  /**
+   * Closes the connection. If {@code graceful}, the frames already queued are sent first, for up
+   * to a second. Must be called from the connection's thread.
+   */
+  void close(Status status, boolean graceful) {
+    if (closeStatus != null && (graceful || !closeGracefully)) {
+      return;
+    }
+    closeStatus = status;
+    closeGracefully = graceful;
+    closeDeadlineNanos = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+  }
+
+  private void run(Opener opener, ScheduledExecutorService scheduler) {
+    Status status;
+    try {
+      status = open(opener, scheduler);
+      if (status == null) {
+        handler.connected();
+        status = loop();
+      }
+    } catch (Throwable t) {
+      log.log(Level.WARNING, "Shared-memory connection failed", t);
+      status = Status.INTERNAL.withDescription("Shared-memory connection failed").withCause(t);
+    }
+    try {
+      if (mapping != null) {
+        outbound.publish();
+        outbound.fence();
+        mapping.putInt(client ? CLIENT_STATE_OFFSET : SERVER_STATE_OFFSET, STATE_CLOSED);
+      }
+      if (heartbeatFuture != null) {
+        heartbeatFuture.cancel(false);
+      }
+      outboundFrames.clear();
+    } finally {
+      stopped = true;
+      handler.closed(status);
+      drainTasks();
+    }
+  }
+
+  @Nullable
+  private Status open(Opener opener, ScheduledExecutorService scheduler) {
+    ByteBuffer mapping;
+    try {
+      mapping = opener.open();
+    } catch (IOException e) {
+      return Status.UNAVAILABLE.withDescription("Could not open shared-memory connection")
+          .withCause(e);
+    }
+    int ringSize = mapping.getInt(RING_SIZE_OFFSET);
+    ShmRing clientToServer = new ShmRing(mapping, CLIENT_TO_SERVER_HEAD_OFFSET,
+        CLIENT_TO_SERVER_TAIL_OFFSET, HEADER_SIZE, ringSize);
+    ShmRing serverToClient = new ShmRing(mapping, SERVER_TO_CLIENT_HEAD_OFFSET,
+        SERVER_TO_CLIENT_TAIL_OFFSET, HEADER_SIZE + ringSize, ringSize);
+    this.mapping = mapping;
+    this.inbound = client ? serverToClient : clientToServer;
+    this.outbound = client ? clientToServer : serverToClient;
+    // Leave room for several frames in the ring, so one side does not wait for the other to
+    // consume each frame before writing the next.
+    this.maxFramePayload = ringSize / 4 - FRAME_HEADER_SIZE;
+    this.heartbeatMapping = mapping.duplicate();
+    heartbeatFuture = scheduler.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        heartbeat();
+      }
+    }, HEARTBEAT_INTERVAL_NANOS, HEARTBEAT_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+    return null;
+  }
+
+  private Status loop() {
+    boolean idle = false;
+    long idleSinceNanos = 0;
+    int parks = 0;
+    while (true) {
+      boolean busy = runTasks();
+      busy |= readFrames();
+      busy |= writeFrames();
+      if (closeStatus != null
+          && (!closeGracefully || outboundFrames.isEmpty()
+              || System.nanoTime() - closeDeadlineNanos > 0)) {
+        return closeStatus;
+      }
+      if (peerClosed) {
+        return Status.UNAVAILABLE.withDescription("Shared-memory connection closed by peer");
+      }
+      if (peerUnresponsive) {
+        return Status.UNAVAILABLE.withDescription("Shared-memory peer stopped responding");
+      }
+      if (busy) {
+        idle = false;
+        continue;
+      }
+      long now = System.nanoTime();
+      if (!idle) {
+        idle = true;
+        idleSinceNanos = now;
+        parks = 0;
+      }
+      long idleNanos = now - idleSinceNanos;
+      if (idleNanos < SPIN_NANOS) {
+        continue;
+      }
+      if (idleNanos < SPIN_NANOS + YIELD_NANOS) {
+        Thread.yield();
+        continue;
+      }
+      long maxParkNanos = idleNanos < DROWSY_NANOS ? MAX_PARK_NANOS : MAX_IDLE_PARK_NANOS;
+      park(Math.min(maxParkNanos, MIN_PARK_NANOS << Math.min(parks++, 20)));
+    }
+  }
+
+  private boolean runTasks() {
+    boolean ran = false;
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      runTask(task);
+      ran = true;
+    }
+    return ran;
+  }
+
+  private void drainTasks() {
+    synchronized (drainLock) {
+      Runnable task;
+      while ((task = tasks.poll()) != null) {
+        runTask(task);
+      }
+    }
+  }
+
+  private static void runTask(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException e) {
+      log.log(Level.SEVERE, "Exception while executing runnable " + task, e);
+    }
+  }
+
+  private boolean readFrames() {
+    int peerState = mapping.getInt(client ? SERVER_STATE_OFFSET : CLIENT_STATE_OFFSET);
+    // The peer closes only after publishing its last frame, so if it was closed before the ring is
+    // found empty, it is done.
+    inbound.fence();
+    boolean read = false;
+    for (int frames = 0; frames < MAX_FRAMES_PER_READ; frames++) {
+      if (inbound.readableBytes() < FRAME_HEADER_SIZE) {
+        break;
+      }
+      int length = inbound.readInt();
+      byte type = inbound.readByte();
+      byte flags = inbound.readByte();
+      inbound.readByte();
+      inbound.readByte();
+      int streamId = inbound.readInt();
+      if (length < 0 || length > inbound.readableBytes()) {
+        throw new IllegalStateException("Corrupt frame of length " + length);
+      }
+      read = true;
+      boolean more = (flags & FLAG_MORE) != 0;
+      if (!discarding && (more || partialPayload != null)) {
+        long reassembled = (partialPayload == null ? 0L : partialPayload.length) + length;
+        if (reassembled > maxReassembledPayload) {
+          discarding = true;
+          discardedBytes = partialPayload == null ? 0 : partialPayload.length;
+          partialPayload = null;
+        }
+      }
+      if (discarding) {
+        // The peer's frames are never interleaved, so the rest of the payload follows directly.
+        inbound.skip(length);
+        discardedBytes += length;
+        if (!more) {
+          discarding = false;
+          handler.frameTooLarge(type, streamId, discardedBytes);
+        }
+        continue;
+      }
+      byte[] payload = length == 0 ? EMPTY : new byte[length];
+      inbound.read(payload, 0, length);
+      if (partialPayload != null) {
+        payload = concat(partialPayload, payload);
+        partialPayload = null;
+      }
+      if (more) {
+        partialPayload = payload;
+        continue;
+      }
+      handler.frameRead(type, flags, streamId, payload);
+    }
+    inbound.release();
+    if (!read && peerState == STATE_CLOSED && inbound.readableBytes() == 0) {
+      peerClosed = true;
+    }
+    return read;
+  }
+
+  private boolean writeFrames() {
+    boolean wrote = false;
+    OutboundFrame frame;
+    while ((frame = outboundFrames.peek()) != null) {
+      int chunk = Math.min(frame.length - frame.offset, maxFramePayload);
+      boolean last = frame.offset + chunk == frame.length;
+      if (!outbound.hasRoomFor(FRAME_HEADER_SIZE + chunk)) {
+        break;
+      }
+      byte flags = frame.flags;
+      if (!last) {
+        flags = frame.type == DATA
+            ? (byte) (flags & ~FLAG_END_STREAM) : (byte) (flags | FLAG_MORE);
+      }
+      outbound.writeInt(chunk);
+      outbound.writeByte(frame.type);
+      outbound.writeByte(flags);
+      outbound.writeByte((byte) 0);
+      outbound.writeByte((byte) 0);
+      outbound.writeInt(frame.streamId);
+      outbound.write(frame.payload, frame.offset, chunk);
+      frame.offset += chunk;
+      if (last) {
+        outboundFrames.poll();
+      }
+      wrote = true;
+    }
+    outbound.publish();
+    return wrote;
+  }
+
+  private void park(long parkNanos) {
+    parked = true;
+    if (tasks.isEmpty()) {
+      LockSupport.parkNanos(this, parkNanos);
+    }
+    parked = false;
+  }
+
+  private void heartbeat() {
+    heartbeatMapping.putLong(
+        client ? CLIENT_HEARTBEAT_OFFSET : SERVER_HEARTBEAT_OFFSET, ++heartbeats);
+    long peerHeartbeat =
+        heartbeatMapping.getLong(client ? SERVER_HEARTBEAT_OFFSET : CLIENT_HEARTBEAT_OFFSET);
+    if (peerHeartbeat != lastPeerHeartbeat) {
+      lastPeerHeartbeat = peerHeartbeat;
+      missedHeartbeats = 0;
+    } else if (++missedHeartbeats >= MAX_MISSED_HEARTBEATS) {
+      peerUnresponsive = true;
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  /**
+   * Creates a connection file in {@code directory} and waits for the server to accept it. Returns
+   * the mapping of the file.
+   */
+  static ByteBuffer connect(File directory, int ringSize) throws IOException {
+    if (!SharedMemoryServer.isServing(directory)) {
+      throw new IOException("No server listening on " + directory);
+    }
+    String name = UUID.randomUUID().toString();
+    File tempFile = new File(directory, name + ".tmp");
+    File file = new File(directory, name + CONNECTION_SUFFIX);
+    MappedByteBuffer mapping;
+    try (RandomAccessFile raf = new RandomAccessFile(tempFile, "rw")) {
+      long size = mappingSize(ringSize);
+      raf.setLength(size);
+      mapping = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    initialize(mapping, ringSize);
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      throw new IOException("Could not create " + file);
+    }
+    boolean accepted = false;
+    try {
+      long deadline = System.nanoTime() + CONNECT_TIMEOUT_NANOS;
+      for (int polls = 1; ; polls++) {
+        int state = mapping.getInt(SERVER_STATE_OFFSET);
+        if (state == STATE_OPEN) {
+          accepted = true;
+          mapping.putInt(CLIENT_STATE_OFFSET, STATE_OPEN);
+          return mapping;
+        }
+        if (state == STATE_REJECTED) {
+          throw new IOException("Connection rejected by server on " + directory);
+        }
+        if (System.nanoTime() - deadline > 0) {
+          throw new IOException("Timed out waiting for server on " + directory);
+        }
+        if (polls % 1000 == 0 && !SharedMemoryServer.isServing(directory)) {
+          throw new IOException("No server listening on " + directory);
+        }
+        LockSupport.parkNanos(CONNECT_POLL_NANOS);
+      }
+    } finally {
+      if (!accepted) {
+        file.delete();
+      }
+    }
+  }
+
+  /** Returns the size of a connection file with rings of {@code ringSize} bytes. */
+  static long mappingSize(int ringSize) {
+    return HEADER_SIZE + 2L * ringSize;
+  }
+
+  /** Writes the header of a new connection file, which must be zeroed. */
+  @VisibleForTesting
+  static void initialize(ByteBuffer mapping, int ringSize) {
+    mapping.putInt(VERSION_OFFSET, VERSION);
+    mapping.putInt(RING_SIZE_OFFSET, ringSize);
+    mapping.putInt(MAGIC_OFFSET, MAGIC);
+  }
+
+  /**
+   * Maps a connection file created by {@link #connect} and unlinks it. The client keeps waiting
+   * until the mapping is passed to {@link #accept} or {@link #reject}.
+   */
+  static ByteBuffer map(File file) throws IOException {
+    MappedByteBuffer mapping;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      long size = raf.length();
+      if (size < HEADER_SIZE) {
+        throw new IOException("Not a connection file: " + file);
+      }
+      mapping = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } finally {
+      file.delete();
+    }
+    int ringSize = mapping.getInt(RING_SIZE_OFFSET);
+    if (mapping.getInt(MAGIC_OFFSET) != MAGIC
+        || mapping.getInt(VERSION_OFFSET) != VERSION
+        || ringSize < MIN_RING_SIZE
+        || Integer.bitCount(ringSize) != 1
+        || mapping.capacity() != mappingSize(ringSize)) {
+      mapping.putInt(SERVER_STATE_OFFSET, STATE_REJECTED);
+      throw new IOException("Incompatible connection file: " + file);
+    }
+    return mapping;
+  }
+
+  /** Tells the client that the connection mapped by {@link #map} is accepted. */
+  static void accept(ByteBuffer mapping) {
+    mapping.putInt(SERVER_STATE_OFFSET, STATE_OPEN);
+  }
+
+  /** Tells the client that the connection mapped by {@link #map} is refused. */
+  static void reject(ByteBuffer mapping) {
+    mapping.putInt(SERVER_STATE_OFFSET, STATE_REJECTED);
+  }
+
+  private static final class OutboundFrame {
+    final byte type;
+    final byte flags;
+    final int streamId;
+    final byte[] payload;
+    final int length;
+    int offset;
+
+    OutboundFrame(byte type, byte flags, int streamId, byte[] payload, int length) {
+      this.type = type;
+      this.flags = flags;
+      this.streamId = streamId;
+      this.payload = payload;
+      this.length = length;
+    }
+  }
+}
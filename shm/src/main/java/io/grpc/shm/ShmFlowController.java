@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static io.grpc.shm.ShmProtocol.DATA;
+import static io.grpc.shm.ShmProtocol.WINDOW_UPDATE;
+
+import java.util.ArrayDeque;
+
+/**
+ * Flow control of one stream, in the manner of HTTP/2. The peer grants a window of bytes of DATA,
+ * and frames beyond it wait, along with any frame queued after them, until the peer grants more.
+ * Unlike HTTP/2, a DATA frame is never split to fit the window: it is sent as soon as the window is
+ * positive, so a stream may overrun its window by at most one frame.
+ *
+ * <p>Must only be used from the connection's thread.
+ */
+abstract class ShmFlowController {
+  private final ShmConnection connection;
+  private final int initialWindow;
+  private final ArrayDeque<PendingFrame> pendingFrames = new ArrayDeque<>();
+  private int streamId;
+  private int sendWindow;
+  private int unacknowledgedBytes;
+
+  ShmFlowController(ShmConnection connection, int initialWindow) {
+    this.connection = connection;
+    this.initialWindow = initialWindow;
+    this.sendWindow = initialWindow;
+  }
+
+  /** Called when {@code numBytes} bytes of DATA carrying {@code numMessages} are sent. */
+  abstract void onSent(int numBytes, int numMessages);
+
+  final void setStreamId(int streamId) {
+    this.streamId = streamId;
+  }
+
+  final int streamId() {
+    return streamId;
+  }
+
+  /** Sends a frame, after the frames already waiting for the window. */
+  final void send(byte type, byte flags, byte[] payload, int length, int numMessages) {
+    if (pendingFrames.isEmpty() && (type != DATA || length == 0 || sendWindow > 0)) {
+      write(type, flags, payload, length, numMessages);
+    } else {
+      pendingFrames.add(new PendingFrame(type, flags, payload, length, numMessages));
+    }
+  }
+
+  /** Handles a WINDOW_UPDATE from the peer. */
+  final void windowUpdated(int delta) {
+    sendWindow += delta;
+    PendingFrame frame;
+    while ((frame = pendingFrames.peek()) != null) {
+      if (frame.type == DATA && frame.length > 0 && sendWindow <= 0) {
+        return;
+      }
+      pendingFrames.poll();
+      write(frame.type, frame.flags, frame.payload, frame.length, frame.numMessages);
+    }
+  }
+
+  /**
+   * Acknowledges {@code numBytes} bytes of DATA processed by the application, granting the peer a
+   * larger window once half of it has been used.
+   */
+  final void bytesRead(int numBytes) {
+    unacknowledgedBytes += numBytes;
+    if (unacknowledgedBytes >= initialWindow / 2) {
+      connection.writeFrame(WINDOW_UPDATE, (byte) 0, streamId,
+          ShmProtocol.encodeInt(unacknowledgedBytes), 4);
+      unacknowledgedBytes = 0;
+    }
+  }
+
+  /** Drops the frames waiting for the window, as the stream is closed. */
+  final void clear() {
+    pendingFrames.clear();
+  }
+
+  private void write(byte type, byte flags, byte[] payload, int length, int numMessages) {
+    connection.writeFrame(type, flags, streamId, payload, length);
+    if (type == DATA) {
+      sendWindow -= length;
+      if (length > 0) {
+        onSent(length, numMessages);
+      }
+    }
+  }
+
+  private static final class PendingFrame {
+    final byte type;
+    final byte flags;
+    final byte[] payload;
+    final int length;
+    final int numMessages;
+
+    PendingFrame(byte type, byte flags, byte[] payload, int length, int numMessages) {
+      this.type = type;
+      this.flags = flags;
+      this.payload = payload;
+      this.length = length;
+      this.numMessages = numMessages;
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import io.grpc.InternalMetadata;
+import io.grpc.InternalStatus;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Frames exchanged over a shared-memory connection. They take the place of HTTP/2 frames, but
+ * there is no header compression or connection-level flow control: both ends run gRPC, so
+ * metadata is sent in its serialized form, and the rings already bound what a peer can queue.
+ *
+ * <p>Each frame is a 12-byte header followed by its payload: the payload length (4 bytes), the
+ * type, the flags, two reserved bytes and the stream id (4 bytes).
+ */
+final class ShmProtocol {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static final int FRAME_HEADER_SIZE = 12;
+
+  /** Client to server: opens a stream. Payload is the method, the authority and the metadata. */
+  static final byte HEADERS = 1;
+  /** Server to client: the response headers. Payload is the metadata. */
+  static final byte RESPONSE_HEADERS = 2;
+  /** Payload is bytes of gRPC-framed messages. */
+  static final byte DATA = 3;
+  /** Server to client: closes a stream. Payload is the metadata, including the status. */
+  static final byte TRAILERS = 4;
+  /** Closes a stream abruptly. Payload is a status. */
+  static final byte RST_STREAM = 5;
+  /** Lets the peer send more DATA on a stream. Payload is the number of bytes. */
+  static final byte WINDOW_UPDATE = 6;
+  /** Payload is 8 opaque bytes to return in a {@link #PING_ACK}. */
+  static final byte PING = 7;
+  static final byte PING_ACK = 8;
+  /** No new streams will be accepted. Payload is a status. */
+  static final byte GO_AWAY = 9;
+
+  /** On DATA: the sender will not send any more DATA on the stream. */
+  static final byte FLAG_END_STREAM = 0x1;
+  /** On RST_STREAM: the stream was refused before the application saw it. */
+  static final byte FLAG_REFUSED = 0x2;
+  /** On anything but DATA: the payload continues in the next frame. */
+  static final byte FLAG_MORE = 0x4;
+
+  private ShmProtocol() {}
+
+  /** Returns the payload of a {@link #HEADERS} frame. */
+  static byte[] encodeRequestHeaders(String method, String authority, Metadata headers) {
+    byte[] methodBytes = method.getBytes(UTF_8);
+    byte[] authorityBytes = authority.getBytes(UTF_8);
+    byte[][] serialized = serialize(headers);
+    ByteBuffer buffer = ByteBuffer.allocate(
+        8 + methodBytes.length + authorityBytes.length + serializedSize(serialized));
+    putBytes(buffer, methodBytes);
+    putBytes(buffer, authorityBytes);
+    putMetadata(buffer, serialized);
+    return buffer.array();
+  }
+
+  /** Returns the payload of a {@link #RESPONSE_HEADERS} or {@link #TRAILERS} frame. */
+  static byte[] encodeMetadata(Metadata metadata) {
+    byte[][] serialized = serialize(metadata);
+    ByteBuffer buffer = ByteBuffer.allocate(serializedSize(serialized));
+    putMetadata(buffer, serialized);
+    return buffer.array();
+  }
+
+  /** Returns the payload of a {@link #RST_STREAM} or {@link #GO_AWAY} frame. */
+  static byte[] encodeStatus(Status status) {
+    byte[] description =
+        status.getDescription() == null ? new byte[0] : status.getDescription().getBytes(UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(8 + description.length);
+    buffer.putInt(status.getCode().value());
+    putBytes(buffer, description);
+    return buffer.array();
+  }
+
+  static byte[] encodeInt(int value) {
+    return ByteBuffer.allocate(4).putInt(value).array();
+  }
+
+  static byte[] encodeLong(long value) {
+    return ByteBuffer.allocate(8).putLong(value).array();
+  }
+
+  static int decodeInt(byte[] payload) {
+    return ByteBuffer.wrap(payload).getInt();
+  }
+
+  static long decodeLong(byte[] payload) {
+    return ByteBuffer.wrap(payload).getLong();
+  }
+
+  static Status decodeStatus(byte[] payload) {
+    ByteBuffer buffer = ByteBuffer.wrap(payload);
+    Status status = Status.fromCodeValue(buffer.getInt());
+    String description = new String(getBytes(buffer), UTF_8);
+    return description.isEmpty() ? status : status.withDescription(description);
+  }
+
+  static Metadata decodeMetadata(byte[] payload) {
+    return getMetadata(ByteBuffer.wrap(payload));
+  }
+
+  /** The decoded payload of a {@link #HEADERS} frame. */
+  static final class RequestHeaders {
+    final String method;
+    final String authority;
+    final Metadata metadata;
+
+    RequestHeaders(byte[] payload) {
+      ByteBuffer buffer = ByteBuffer.wrap(payload);
+      method = new String(getBytes(buffer), UTF_8);
+      authority = new String(getBytes(buffer), UTF_8);
+      metadata = getMetadata(buffer);
+    }
+  }
+
+  /**
+   * Extracts the status from received trailers and removes it from them, as the HTTP/2 transports
+   * do.
+   */
+  static Status statusFromTrailers(Metadata trailers) {
+    Status status = trailers.get(InternalStatus.CODE_KEY);
+    if (status == null) {
+      status = Status.UNKNOWN.withDescription("missing GRPC status in response");
+    } else {
+      status = status.withDescription(trailers.get(InternalStatus.MESSAGE_KEY));
+    }
+    trailers.discardAll(InternalStatus.CODE_KEY);
+    trailers.discardAll(InternalStatus.MESSAGE_KEY);
+    return status;
+  }
+
+  /**
+   * Returns the size of {@code metadata} as HTTP/2 would count it for SETTINGS_MAX_HEADER_LIST_SIZE
+   * (RFC 7540 §6.5.2), so the limits mean the same as on the other transports.
+   */
+  static int metadataSize(Metadata metadata) {
+    byte[][] serialized = InternalMetadata.serialize(metadata);
+    if (serialized == null) {
+      return 0;
+    }
+    long size = 0;
+    for (int i = 0; i < serialized.length; i += 2) {
+      size += 32 + serialized[i].length + serialized[i + 1].length;
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  private static byte[][] serialize(Metadata metadata) {
+    byte[][] serialized = InternalMetadata.serialize(metadata);
+    return serialized == null ? new byte[0][] : serialized;
+  }
+
+  private static int serializedSize(byte[][] serialized) {
+    int size = 4;
+    for (byte[] bytes : serialized) {
+      size += 4 + bytes.length;
+    }
+    return size;
+  }
+
+  private static void putMetadata(ByteBuffer buffer, byte[][] serialized) {
+    buffer.putInt(serialized.length);
+    for (byte[] bytes : serialized) {
+      putBytes(buffer, bytes);
+    }
+  }
+
+  private static Metadata getMetadata(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    // Each name and value takes at least its 4-byte length
+    if (count < 0 || count % 2 != 0 || count > buffer.remaining() / 4) {
+      throw new IllegalStateException("Corrupt metadata with " + count + " names and values");
+    }
+    byte[][] serialized = new byte[count][];
+    for (int i = 0; i < serialized.length; i++) {
+      serialized[i] = getBytes(buffer);
+    }
+    return InternalMetadata.newMetadata(serialized);
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalStateException("Corrupt field of length " + length);
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A single-producer, single-consumer byte ring in a region of a memory-mapped file that is shared
+ * with another process. One process only ever writes to a given ring and the other only ever reads
+ * from it, so the only shared state is the pair of 64-bit positions, each owned by one side.
+ *
+ * <p>Positions only ever grow; the index of a byte is its position modulo the capacity, which is a
+ * power of two. The producer may write up to {@code capacity - (tail - head)} bytes before it has
+ * to wait for the consumer.
+ *
+ * <p>Java offers no fences for memory shared with another process, so {@link #fence} orders the
+ * plain accesses to the mapping with a store and then a load of a volatile field. HotSpot emits
+ * those as hardware barriers on both x86 and ARM, which is all a reader in the other process needs
+ * to see the bytes of a frame before the position that publishes it.
+ *
+ * <p>Not thread-safe: the writing and reading methods must each be called from a single thread.
+ */
+final class ShmRing {
+  private final ByteBuffer data;
+  private final ByteBuffer control;
+  private final int headOffset;
+  private final int tailOffset;
+  private final int capacity;
+  private final int mask;
+
+  /** Producer state. */
+  private long tail;
+  private long publishedTail;
+  private long cachedHead;
+
+  /** Consumer state. */
+  private long head;
+  private long releasedHead;
+  private long cachedTail;
+
+  private volatile int fence;
+
+  /**
+   * Creates a view of the ring whose bytes start at {@code dataOffset} and whose head and tail
+   * positions are the longs at {@code headOffset} and {@code tailOffset} of {@code mapping}.
+   */
+  ShmRing(ByteBuffer mapping, int headOffset, int tailOffset, int dataOffset, int capacity) {
+    checkArgument(Integer.bitCount(capacity) == 1, "capacity must be a power of two: %s", capacity);
+    this.control = mapping.duplicate();
+    ByteBuffer data = mapping.duplicate();
+    data.position(dataOffset);
+    data.limit(dataOffset + capacity);
+    this.data = data.slice();
+    this.headOffset = headOffset;
+    this.tailOffset = tailOffset;
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.head = this.releasedHead = control.getLong(headOffset);
+    this.tail = this.publishedTail = this.cachedTail = control.getLong(tailOffset);
+    this.cachedHead = head;
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns whether {@code length} more bytes can be written without overwriting bytes the
+   * consumer has not released yet.
+   */
+  boolean hasRoomFor(int length) {
+    if (capacity - (tail - cachedHead) >= length) {
+      return true;
+    }
+    cachedHead = control.getLong(headOffset);
+    fence();
+    return capacity - (tail - cachedHead) >= length;
+  }
+
+  /** Writes an int. The caller must have checked {@link #hasRoomFor}. */
+  void writeInt(int value) {
+    writeByte((byte) (value >>> 24));
+    writeByte((byte) (value >>> 16));
+    writeByte((byte) (value >>> 8));
+    writeByte((byte) value);
+  }
+
+  /** Writes a byte. The caller must have checked {@link #hasRoomFor}. */
+  void writeByte(byte value) {
+    data.put((int) (tail & mask), value);
+    tail++;
+  }
+
+  /** Writes bytes. The caller must have checked {@link #hasRoomFor}. */
+  void write(byte[] src, int offset, int length) {
+    int index = (int) (tail & mask);
+    int first = Math.min(length, capacity - index);
+    data.position(index);
+    data.put(src, offset, first);
+    if (first < length) {
+      data.position(0);
+      data.put(src, offset + first, length - first);
+    }
+    tail += length;
+  }
+
+  /**
+   * Makes everything written so far visible to the consumer. Returns {@code false} if there was
+   * nothing to publish.
+   */
+  boolean publish() {
+    if (tail == publishedTail) {
+      return false;
+    }
+    fence();
+    control.putLong(tailOffset, tail);
+    publishedTail = tail;
+    return true;
+  }
+
+  /** Returns the number of published bytes that have not been read yet. */
+  int readableBytes() {
+    if (cachedTail == head) {
+      cachedTail = control.getLong(tailOffset);
+      fence();
+    }
+    return (int) (cachedTail - head);
+  }
+
+  /** Reads an int. The caller must have checked {@link #readableBytes}. */
+  int readInt() {
+    return (readByte() & 0xff) << 24
+        | (readByte() & 0xff) << 16
+        | (readByte() & 0xff) << 8
+        | (readByte() & 0xff);
+  }
+
+  /** Reads a byte. The caller must have checked {@link #readableBytes}. */
+  byte readByte() {
+    byte value = data.get((int) (head & mask));
+    head++;
+    return value;
+  }
+
+  /** Reads bytes. The caller must have checked {@link #readableBytes}. */
+  void read(byte[] dst, int offset, int length) {
+    int index = (int) (head & mask);
+    int first = Math.min(length, capacity - index);
+    data.position(index);
+    data.get(dst, offset, first);
+    if (first < length) {
+      data.position(0);
+      data.get(dst, offset + first, length - first);
+    }
+    head += length;
+  }
+
+  /** Skips bytes. The caller must have checked {@link #readableBytes}. */
+  void skip(int length) {
+    head += length;
+  }
+
+  /** Hands the bytes read so far back to the producer. */
+  void release() {
+    if (head == releasedHead) {
+      return;
+    }
+    fence();
+    control.putLong(headOffset, head);
+    releasedHead = head;
+  }
+
+  /**
+   * Keeps the accesses to the mapping before the call from being reordered with those after it,
+   * by the compiler or by the processor. The connection also uses it to order its state flags
+   * against the positions.
+   */
+  void fence() {
+    fence = 0;
+    if (fence != 0) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.grpc.shm.ShmProtocol.DATA;
+import static io.grpc.shm.ShmProtocol.RESPONSE_HEADERS;
+import static io.grpc.shm.ShmProtocol.TRAILERS;
+
+import io.grpc.Attributes;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.internal.AbstractServerStream;
+import io.grpc.internal.ReadableBuffers;
+import io.grpc.internal.StatsTraceContext;
+import io.grpc.internal.TransportTracer;
+import io.grpc.internal.WritableBuffer;
+import io.grpc.shm.ShmWritableBufferAllocator.ShmWritableBuffer;
+
+/**
+ * Server stream for a shared-memory transport. Must only be called from the sending application
+ * thread.
+ */
+final class ShmServerStream extends AbstractServerStream {
+  private final Sink sink = new Sink();
+  private final TransportState state;
+  private final Attributes attributes;
+  private final String authority;
+  private final TransportTracer transportTracer;
+
+  ShmServerStream(
+      TransportState state,
+      Attributes transportAttrs,
+      String authority,
+      StatsTraceContext statsTraceCtx,
+      TransportTracer transportTracer) {
+    super(ShmWritableBufferAllocator.INSTANCE, statsTraceCtx);
+    this.state = checkNotNull(state, "transportState");
+    this.attributes = checkNotNull(transportAttrs, "transportAttrs");
+    this.authority = authority;
+    this.transportTracer = checkNotNull(transportTracer, "transportTracer");
+  }
+
+  @Override
+  protected TransportState transportState() {
+    return state;
+  }
+
+  @Override
+  protected Sink abstractServerStreamSink() {
+    return sink;
+  }
+
+  @Override
+  public Attributes getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public String getAuthority() {
+    return authority;
+  }
+
+  @Override
+  public int streamId() {
+    return state.id();
+  }
+
+  private class Sink implements AbstractServerStream.Sink {
+    @Override
+    public void writeHeaders(Metadata headers) {
+      final byte[] payload = ShmProtocol.encodeMetadata(headers);
+      state.connection.execute(new Runnable() {
+        @Override
+        public void run() {
+          state.flowController.send(RESPONSE_HEADERS, (byte) 0, payload, payload.length, 0);
+        }
+      });
+    }
+
+    @Override
+    public void writeFrame(WritableBuffer frame, boolean flush, final int numMessages) {
+      if (frame == null) {
+        return;
+      }
+      final byte[] payload = ((ShmWritableBuffer) frame).array();
+      final int length = frame.readableBytes();
+      if (length == 0) {
+        return;
+      }
+      // Add the bytes to outbound flow control.
+      onSendingBytes(length);
+      state.connection.execute(new Runnable() {
+        @Override
+        public void run() {
+          state.flowController.send(DATA, (byte) 0, payload, length, numMessages);
+        }
+      });
+    }
+
+    @Override
+    public void writeTrailers(Metadata trailers, boolean headersSent, Status status) {
+      final byte[] payload = ShmProtocol.encodeMetadata(trailers);
+      state.connection.execute(new Runnable() {
+        @Override
+        public void run() {
+          state.flowController.send(TRAILERS, (byte) 0, payload, payload.length, 0);
+          state.transport.streamClosed(state);
+          state.complete();
+        }
+      });
+    }
+
+    @Override
+    public void cancel(final Status status) {
+      state.connection.execute(new Runnable() {
+        @Override
+        public void run() {
+          state.transport.cancelStream(state, status);
+        }
+      });
+    }
+  }
+
+  /** This should only be called from the transport thread. */
+  static final class TransportState extends AbstractServerStream.TransportState {
+    final ShmServerTransport transport;
+    final ShmConnection connection;
+    final ShmFlowController flowController;
+
+    TransportState(
+        ShmServerTransport transport,
+        ShmConnection connection,
+        int id,
+        int flowControlWindow,
+        int maxMessageSize,
+        StatsTraceContext statsTraceCtx,
+        TransportTracer transportTracer) {
+      super(maxMessageSize, statsTraceCtx, transportTracer);
+      this.transport = checkNotNull(transport, "transport");
+      this.connection = checkNotNull(connection, "connection");
+      this.flowController = new ShmFlowController(connection, flowControlWindow) {
+        @Override
+        void onSent(int numBytes, int numMessages) {
+          onSentBytes(numBytes);
+          getTransportTracer().reportMessageSent(numMessages);
+        }
+      };
+      flowController.setStreamId(id);
+    }
+
+    int id() {
+      return flowController.streamId();
+    }
+
+    void inboundDataReceived(byte[] data, boolean endOfStream) {
+      inboundDataReceived(ReadableBuffers.wrap(data), endOfStream);
+    }
+
+    @Override
+    public void runOnTransportThread(Runnable r) {
+      if (connection.inEventLoop()) {
+        r.run();
+      } else {
+        connection.execute(r);
+      }
+    }
+
+    @Override
+    public void bytesRead(int processedBytes) {
+      flowController.bytesRead(processedBytes);
+    }
+
+    @Override
+    public void deframeFailed(Throwable cause) {
+      transport.cancelStream(this, Status.fromThrowable(cause));
+    }
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.grpc.shm.ShmProtocol.DATA;
+import static io.grpc.shm.ShmProtocol.FLAG_END_STREAM;
+import static io.grpc.shm.ShmProtocol.FLAG_REFUSED;
+import static io.grpc.shm.ShmProtocol.GO_AWAY;
+import static io.grpc.shm.ShmProtocol.HEADERS;
+import static io.grpc.shm.ShmProtocol.PING;
+import static io.grpc.shm.ShmProtocol.PING_ACK;
+import static io.grpc.shm.ShmProtocol.RST_STREAM;
+import static io.grpc.shm.ShmProtocol.WINDOW_UPDATE;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Attributes;
+import io.grpc.Grpc;
+import io.grpc.InternalChannelz.SocketStats;
+import io.grpc.InternalLogId;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+import io.grpc.internal.ObjectPool;
+import io.grpc.internal.ServerTransport;
+import io.grpc.internal.ServerTransportListener;
+import io.grpc.internal.StatsTraceContext;
+import io.grpc.internal.TransportTracer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Server side of a shared-memory connection. Streams, frames and the transport listener are all
+ * handled on the connection's thread.
+ */
+final class ShmServerTransport implements ServerTransport, ShmConnection.Handler {
+  private static final Logger log = Logger.getLogger(ShmServerTransport.class.getName());
+
+  private final SharedMemorySocketAddress address;
+  private final List<? extends ServerStreamTracer.Factory> streamTracerFactories;
+  private final int flowControlWindow;
+  private final int maxInboundMessageSize;
+  private final int maxInboundMetadataSize;
+  private final ObjectPool<ScheduledExecutorService> schedulerPool;
+  private final ScheduledExecutorService scheduler;
+  private final TransportTracer transportTracer;
+  private final InternalLogId logId;
+  private final ShmConnection connection;
+  private ServerTransportListener listener;
+
+  // Only accessed from the connection's thread.
+  private final Map<Integer, ShmServerStream.TransportState> streams = new HashMap<>();
+  private Attributes attributes = Attributes.EMPTY;
+  private int lastStreamId;
+  private boolean goAwaySent;
+
+  ShmServerTransport(
+      SharedMemorySocketAddress address,
+      List<? extends ServerStreamTracer.Factory> streamTracerFactories,
+      int flowControlWindow,
+      int maxInboundMessageSize,
+      int maxInboundMetadataSize,
+      ObjectPool<ScheduledExecutorService> schedulerPool,
+      TransportTracer transportTracer) {
+    this.address = checkNotNull(address, "address");
+    this.streamTracerFactories = checkNotNull(streamTracerFactories, "streamTracerFactories");
+    this.flowControlWindow = flowControlWindow;
+    this.maxInboundMessageSize = maxInboundMessageSize;
+    this.maxInboundMetadataSize = maxInboundMetadataSize;
+    // A HEADERS payload is never larger than HTTP/2 counts its headers, pseudo-headers included.
+    this.connection = new ShmConnection(false, maxInboundMetadataSize, this);
+    this.schedulerPool = checkNotNull(schedulerPool, "schedulerPool");
+    this.scheduler = schedulerPool.getObject();
+    this.transportTracer = checkNotNull(transportTracer, "transportTracer");
+    this.logId = InternalLogId.allocate(getClass(), address.toString());
+  }
+
+  /** Starts serving the connection mapped by {@code mapping}, which is already accepted. */
+  void start(ServerTransportListener listener, final ByteBuffer mapping) {
+    this.listener = checkNotNull(listener, "listener");
+    connection.start(new ShmConnection.Opener() {
+      @Override
+      public ByteBuffer open() {
+        return mapping;
+      }
+    }, scheduler);
+  }
+
+  @Override
+  public void shutdown() {
+    connection.execute(new Runnable() {
+      @Override
+      public void run() {
+        goAway();
+        if (streams.isEmpty()) {
+          connection.close(Status.UNAVAILABLE.withDescription("Server shutdown"), true);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void shutdownNow(final Status reason) {
+    checkNotNull(reason, "reason");
+    connection.execute(new Runnable() {
+      @Override
+      public void run() {
+        goAway();
+        for (ShmServerStream.TransportState stream : new ArrayList<>(streams.values())) {
+          stream.transportReportStatus(reason);
+          removeStream(stream);
+        }
+        connection.close(reason, false);
+      }
+    });
+  }
+
+  @Override
+  public ScheduledExecutorService getScheduledExecutorService() {
+    return scheduler;
+  }
+
+  @Override
+  public InternalLogId getLogId() {
+    return logId;
+  }
+
+  @Override
+  public ListenableFuture<SocketStats> getStats() {
+    SettableFuture<SocketStats> ret = SettableFuture.create();
+    ret.set(null);
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return logId + "(" + address + ")";
+  }
+
+  private void goAway() {
+    if (goAwaySent) {
+      return;
+    }
+    goAwaySent = true;
+    byte[] payload =
+        ShmProtocol.encodeStatus(Status.UNAVAILABLE.withDescription("Server shutdown"));
+    connection.writeFrame(GO_AWAY, (byte) 0, 0, payload, payload.length);
+  }
+
+  /** Closes a stream abruptly. Called from the connection's thread. */
+  void cancelStream(ShmServerStream.TransportState stream, Status status) {
+    stream.transportReportStatus(status);
+    if (streams.get(stream.id()) == stream) {
+      // Like HTTP/2, only tell the client that the stream was cancelled.
+      resetStream(stream.id(), (byte) 0, Status.CANCELLED);
+      removeStream(stream);
+    }
+  }
+
+  /** Called from the connection's thread once the trailers of a stream are written. */
+  void streamClosed(ShmServerStream.TransportState stream) {
+    if (streams.get(stream.id()) == stream) {
+      removeStream(stream);
+    }
+  }
+
+  private void removeStream(ShmServerStream.TransportState stream) {
+    streams.remove(stream.id());
+    stream.flowController.clear();
+    if (goAwaySent && streams.isEmpty()) {
+      connection.close(Status.UNAVAILABLE.withDescription("Server shutdown"), true);
+    }
+  }
+
+  private void resetStream(int streamId, byte flags, Status status) {
+    byte[] payload = ShmProtocol.encodeStatus(status);
+    connection.writeFrame(RST_STREAM, flags, streamId, payload, payload.length);
+  }
+
+  @Override
+  public void connected() {
+    attributes = listener.transportReady(Attributes.newBuilder()
+        .set(Grpc.TRANSPORT_ATTR_REMOTE_ADDR, address)
+        .set(Grpc.TRANSPORT_ATTR_LOCAL_ADDR, address)
+        .build());
+  }
+
+  @Override
+  public void frameRead(byte type, byte flags, int streamId, byte[] payload) {
+    switch (type) {
+      case HEADERS:
+        headersRead(streamId, payload);
+        return;
+      case PING:
+        connection.writeFrame(PING_ACK, (byte) 0, 0, payload, payload.length);
+        return;
+      default:
+        break;
+    }
+    ShmServerStream.TransportState stream = streams.get(streamId);
+    if (stream == null) {
+      // The stream was closed on this side, and the frame was sent before the client knew.
+      return;
+    }
+    switch (type) {
+      case DATA:
+        stream.inboundDataReceived(payload, (flags & FLAG_END_STREAM) != 0);
+        break;
+      case RST_STREAM: {
+        Status status = ShmProtocol.decodeStatus(payload);
+        stream.transportReportStatus(
+            Status.CANCELLED.withDescription("RST_STREAM received for code " + status.getCode()));
+        removeStream(stream);
+        break;
+      }
+      case WINDOW_UPDATE:
+        stream.flowController.windowUpdated(ShmProtocol.decodeInt(payload));
+        break;
+      default:
+        log.log(Level.FINE, "Ignoring frame of unknown type {0}", type);
+    }
+  }
+
+  @Override
+  public void frameTooLarge(byte type, int streamId, long size) {
+    if (type != HEADERS) {
+      connection.close(Status.INTERNAL.withDescription(
+          String.format("Frame of type %d larger than %d: %d", type, maxInboundMetadataSize, size)),
+          false);
+      return;
+    }
+    if (acceptNewStream(streamId)) {
+      resetStream(streamId, (byte) 0, Status.RESOURCE_EXHAUSTED.withDescription(
+          String.format("Request metadata larger than %d: %d", maxInboundMetadataSize, size)));
+    }
+  }
+
+  /** Returns whether HEADERS for {@code streamId} may start a new stream. */
+  private boolean acceptNewStream(int streamId) {
+    if (streamId <= lastStreamId || (streamId & 1) == 0) {
+      log.log(Level.WARNING, "Ignoring HEADERS for invalid stream {0}", streamId);
+      return false;
+    }
+    lastStreamId = streamId;
+    if (goAwaySent) {
+      resetStream(streamId, FLAG_REFUSED, Status.UNAVAILABLE);
+      return false;
+    }
+    return true;
+  }
+
+  private void headersRead(int streamId, byte[] payload) {
+    if (!acceptNewStream(streamId)) {
+      return;
+    }
+    ShmProtocol.RequestHeaders headers = new ShmProtocol.RequestHeaders(payload);
+    int metadataSize = ShmProtocol.metadataSize(headers.metadata);
+    if (metadataSize > maxInboundMetadataSize) {
+      resetStream(streamId, (byte) 0, Status.RESOURCE_EXHAUSTED.withDescription(
+          String.format("Request metadata larger than %d: %d",
+              maxInboundMetadataSize, metadataSize)));
+      return;
+    }
+    StatsTraceContext statsTraceCtx = StatsTraceContext.newServerContext(
+        streamTracerFactories, headers.method, headers.metadata);
+    ShmServerStream.TransportState state = new ShmServerStream.TransportState(
+        this,
+        connection,
+        streamId,
+        flowControlWindow,
+        maxInboundMessageSize,
+        statsTraceCtx,
+        transportTracer);
+    ShmServerStream stream = new ShmServerStream(
+        state, attributes, headers.authority, statsTraceCtx, transportTracer);
+    streams.put(streamId, state);
+    listener.streamCreated(stream, headers.method, headers.metadata);
+    state.onStreamAllocated();
+  }
+
+  @Override
+  public void closed(Status status) {
+    if (status.isOk()) {
+      status = Status.UNAVAILABLE.withDescription("Shared-memory connection closed");
+    }
+    for (ShmServerStream.TransportState stream : new ArrayList<>(streams.values())) {
+      stream.transportReportStatus(status);
+    }
+    streams.clear();
+    schedulerPool.returnObject(scheduler);
+    listener.transportTerminated();
+  }
+}
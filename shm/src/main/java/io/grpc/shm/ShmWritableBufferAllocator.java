@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import io.grpc.internal.WritableBuffer;
+import io.grpc.internal.WritableBufferAllocator;
+
+/**
+ * Allocates heap buffers for outbound frames. The frames are copied into the ring by the
+ * connection's thread, so there is nothing to gain from direct buffers.
+ */
+final class ShmWritableBufferAllocator implements WritableBufferAllocator {
+  // Set the maximum buffer size to 1MB
+  private static final int MAX_BUFFER = 1024 * 1024;
+
+  static final ShmWritableBufferAllocator INSTANCE = new ShmWritableBufferAllocator();
+
+  private ShmWritableBufferAllocator() {}
+
+  @Override
+  public WritableBuffer allocate(int capacityHint) {
+    return new ShmWritableBuffer(new byte[Math.min(MAX_BUFFER, Math.max(capacityHint, 0))]);
+  }
+
+  static final class ShmWritableBuffer implements WritableBuffer {
+    private final byte[] array;
+    private int size;
+
+    ShmWritableBuffer(byte[] array) {
+      this.array = array;
+    }
+
+    @Override
+    public void write(byte[] src, int srcIndex, int length) {
+      System.arraycopy(src, srcIndex, array, size, length);
+      size += length;
+    }
+
+    @Override
+    public void write(byte b) {
+      array[size++] = b;
+    }
+
+    @Override
+    public int writableBytes() {
+      return array.length - size;
+    }
+
+    @Override
+    public int readableBytes() {
+      return size;
+    }
+
+    @Override
+    public void release() {
+    }
+
+    byte[] array() {
+      return array;
+    }
+  }
+}
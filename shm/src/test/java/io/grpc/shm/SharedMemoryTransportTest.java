@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import com.google.common.collect.ImmutableList;
+import io.grpc.ServerStreamTracer;
+import io.grpc.internal.AbstractTransportTest;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.InternalServer;
+import io.grpc.internal.ManagedClientTransport;
+import io.grpc.internal.SharedResourcePool;
+import io.grpc.internal.TransportTracer;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for the shared-memory transport. */
+@RunWith(JUnit4.class)
+public class SharedMemoryTransportTest extends AbstractTransportTest {
+  private static final String AUTHORITY = "a-testing-authority";
+  private static final String USER_AGENT = "a-testing-user-agent";
+
+  @Rule
+  public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File path;
+
+  @Override
+  protected List<? extends InternalServer> newServer(
+      List<ServerStreamTracer.Factory> streamTracerFactories) {
+    try {
+      path = new File(tempFolder.newFolder(), "server");
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return newServer(0, streamTracerFactories);
+  }
+
+  @Override
+  protected List<? extends InternalServer> newServer(
+      int port, List<ServerStreamTracer.Factory> streamTracerFactories) {
+    SharedMemoryServerBuilder builder = SharedMemoryServerBuilder
+        .forPath(path)
+        .maxInboundMetadataSize(GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE);
+    return ImmutableList.of(new SharedMemoryServer(
+        builder, TransportTracer.getDefaultFactory(), streamTracerFactories));
+  }
+
+  @Override
+  protected String testAuthority(InternalServer server) {
+    return AUTHORITY;
+  }
+
+  @Override
+  protected ManagedClientTransport newClientTransport(InternalServer server) {
+    return new ShmClientTransport(
+        (SharedMemorySocketAddress) server.getListenSocketAddress(),
+        testAuthority(server),
+        USER_AGENT,
+        eagAttrs(),
+        SharedMemoryChannelBuilder.DEFAULT_RING_BUFFER_SIZE,
+        SharedMemoryChannelBuilder.DEFAULT_FLOW_CONTROL_WINDOW,
+        GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE,
+        GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE,
+        SharedResourcePool.forResource(GrpcUtil.TIMER_SERVICE).getObject(),
+        new TransportTracer());
+  }
+
+  @Test
+  @Ignore
+  @Override
+  public void socketStats() throws Exception {
+    // test does not apply to shared memory
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static io.grpc.shm.ShmProtocol.DATA;
+import static io.grpc.shm.ShmProtocol.FLAG_END_STREAM;
+import static io.grpc.shm.ShmProtocol.FLAG_MORE;
+import static io.grpc.shm.ShmProtocol.HEADERS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import io.grpc.Status;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ShmConnection}. */
+@RunWith(JUnit4.class)
+public class ShmConnectionTest {
+  private static final int RING_SIZE = ShmConnection.MIN_RING_SIZE;
+  /** Larger than a ring, so it is split across several frames and wraps around the ring. */
+  private static final int LARGE_PAYLOAD = RING_SIZE + 1000;
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final ByteBuffer mapping =
+      ByteBuffer.allocate((int) ShmConnection.mappingSize(RING_SIZE));
+  private final RecordingHandler clientHandler = new RecordingHandler();
+  private final RecordingHandler serverHandler = new RecordingHandler();
+  private ShmConnection client;
+  private ShmConnection server;
+
+  private void start(int maxReassembledPayload) {
+    ShmConnection.initialize(mapping, RING_SIZE);
+    ShmConnection.accept(mapping);
+    ShmConnection.Opener opener = new ShmConnection.Opener() {
+      @Override
+      public ByteBuffer open() {
+        return mapping;
+      }
+    };
+    client = new ShmConnection(true, maxReassembledPayload, clientHandler);
+    server = new ShmConnection(false, maxReassembledPayload, serverHandler);
+    client.start(opener, scheduler);
+    server.start(opener, scheduler);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (client != null) {
+      close(client);
+      close(server);
+      assertTrue(clientHandler.closed.await(5, TimeUnit.SECONDS));
+      assertTrue(serverHandler.closed.await(5, TimeUnit.SECONDS));
+    }
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void largePayloadsAreReassembled() throws Exception {
+    start(Integer.MAX_VALUE);
+    byte[] first = randomBytes(LARGE_PAYLOAD);
+    byte[] second = randomBytes(LARGE_PAYLOAD);
+    writeFrame(client, HEADERS, (byte) 0, 1, first);
+    writeFrame(client, HEADERS, (byte) 0, 3, second);
+
+    Frame frame = serverHandler.nextFrame();
+    assertEquals(HEADERS, frame.type);
+    assertEquals(0, frame.flags);
+    assertEquals(1, frame.streamId);
+    assertArrayEquals(first, frame.payload);
+    frame = serverHandler.nextFrame();
+    assertEquals(3, frame.streamId);
+    assertArrayEquals(second, frame.payload);
+  }
+
+  @Test
+  public void largeDataIsSplitWithEndStreamOnLastFrame() throws Exception {
+    start(Integer.MAX_VALUE);
+    byte[] data = randomBytes(LARGE_PAYLOAD);
+    writeFrame(server, DATA, FLAG_END_STREAM, 1, data);
+
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    int frames = 0;
+    while (true) {
+      Frame frame = clientHandler.nextFrame();
+      frames++;
+      assertEquals(DATA, frame.type);
+      assertEquals(0, frame.flags & FLAG_MORE);
+      received.write(frame.payload);
+      if ((frame.flags & FLAG_END_STREAM) != 0) {
+        break;
+      }
+    }
+    assertTrue(frames > 1);
+    assertArrayEquals(data, received.toByteArray());
+  }
+
+  @Test
+  public void payloadOverLimitIsSkipped() throws Exception {
+    start(LARGE_PAYLOAD - 1);
+    writeFrame(client, HEADERS, (byte) 0, 1, randomBytes(LARGE_PAYLOAD));
+    byte[] small = randomBytes(10);
+    writeFrame(client, HEADERS, (byte) 0, 3, small);
+
+    Frame frame = serverHandler.nextFrame();
+    assertEquals(HEADERS, frame.type);
+    assertEquals(1, frame.streamId);
+    assertEquals(LARGE_PAYLOAD, frame.tooLargeSize);
+    frame = serverHandler.nextFrame();
+    assertEquals(3, frame.streamId);
+    assertArrayEquals(small, frame.payload);
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random().nextBytes(bytes);
+    return bytes;
+  }
+
+  private static void writeFrame(
+      final ShmConnection connection, final byte type, final byte flags, final int streamId,
+      final byte[] payload) {
+    connection.execute(new Runnable() {
+      @Override
+      public void run() {
+        connection.writeFrame(type, flags, streamId, payload, payload.length);
+      }
+    });
+  }
+
+  private static void close(final ShmConnection connection) {
+    connection.execute(new Runnable() {
+      @Override
+      public void run() {
+        connection.close(Status.UNAVAILABLE, false);
+      }
+    });
+  }
+
+  private static final class Frame {
+    final byte type;
+    final byte flags;
+    final int streamId;
+    final byte[] payload;
+    final long tooLargeSize;
+
+    Frame(byte type, byte flags, int streamId, byte[] payload, long tooLargeSize) {
+      this.type = type;
+      this.flags = flags;
+      this.streamId = streamId;
+      this.payload = payload;
+      this.tooLargeSize = tooLargeSize;
+    }
+  }
+
+  private static final class RecordingHandler implements ShmConnection.Handler {
+    final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+    final CountDownLatch closed = new CountDownLatch(1);
+
+    Frame nextFrame() throws InterruptedException {
+      Frame frame = frames.poll(5, TimeUnit.SECONDS);
+      assertNotNull("Timed out waiting for a frame", frame);
+      return frame;
+    }
+
+    @Override
+    public void connected() {}
+
+    @Override
+    public void frameRead(byte type, byte flags, int streamId, byte[] payload) {
+      frames.add(new Frame(type, flags, streamId, payload, -1));
+    }
+
+    @Override
+    public void frameTooLarge(byte type, int streamId, long size) {
+      frames.add(new Frame(type, (byte) 0, streamId, null, size));
+    }
+
+    @Override
+    public void closed(Status status) {
+      closed.countDown();
+    }
+  }
+}
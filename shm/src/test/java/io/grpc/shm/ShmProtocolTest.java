@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import io.grpc.Metadata;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ShmProtocol}. */
+@RunWith(JUnit4.class)
+public class ShmProtocolTest {
+  private static final Metadata.Key<String> KEY =
+      Metadata.Key.of("key", Metadata.ASCII_STRING_MARSHALLER);
+
+  @Test
+  public void requestHeadersRoundTrip() {
+    Metadata metadata = new Metadata();
+    metadata.put(KEY, "value");
+
+    ShmProtocol.RequestHeaders headers = new ShmProtocol.RequestHeaders(
+        ShmProtocol.encodeRequestHeaders("service/method", "authority", metadata));
+
+    assertEquals("service/method", headers.method);
+    assertEquals("authority", headers.authority);
+    assertEquals("value", headers.metadata.get(KEY));
+  }
+
+  @Test
+  public void decodeMetadata_rejectsCountLargerThanPayload() {
+    byte[] payload = ByteBuffer.allocate(12).putInt(Integer.MAX_VALUE - 1).array();
+    try {
+      ShmProtocol.decodeMetadata(payload);
+      fail("Should have thrown");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void decodeMetadata_rejectsOddCount() {
+    byte[] payload = ByteBuffer.allocate(12).putInt(1).putInt(0).array();
+    try {
+      ShmProtocol.decodeMetadata(payload);
+      fail("Should have thrown");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void decodeMetadata_rejectsLengthLargerThanPayload() {
+    byte[] payload = ByteBuffer.allocate(12).putInt(2).putInt(Integer.MAX_VALUE).array();
+    try {
+      ShmProtocol.decodeMetadata(payload);
+      fail("Should have thrown");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+  }
+}
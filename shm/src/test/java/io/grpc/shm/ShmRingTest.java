@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.shm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ShmRing}. */
+@RunWith(JUnit4.class)
+public class ShmRingTest {
+  private static final int HEAD_OFFSET = 0;
+  private static final int TAIL_OFFSET = 8;
+  private static final int DATA_OFFSET = 64;
+  private static final int CAPACITY = 16;
+
+  private final ByteBuffer mapping = ByteBuffer.allocate(DATA_OFFSET + CAPACITY);
+  private final ShmRing producer =
+      new ShmRing(mapping, HEAD_OFFSET, TAIL_OFFSET, DATA_OFFSET, CAPACITY);
+  private final ShmRing consumer =
+      new ShmRing(mapping, HEAD_OFFSET, TAIL_OFFSET, DATA_OFFSET, CAPACITY);
+
+  @Test
+  public void bytesAreOnlyReadableOncePublished() {
+    producer.writeInt(0x01020304);
+    assertEquals(0, consumer.readableBytes());
+
+    assertTrue(producer.publish());
+    assertFalse(producer.publish());
+    assertEquals(4, consumer.readableBytes());
+    assertEquals(0x01020304, consumer.readInt());
+    assertEquals(0, consumer.readableBytes());
+  }
+
+  @Test
+  public void roomIsOnlyReclaimedOnceReleased() {
+    assertTrue(producer.hasRoomFor(CAPACITY));
+    assertFalse(producer.hasRoomFor(CAPACITY + 1));
+    producer.write(new byte[12], 0, 12);
+    producer.publish();
+    assertFalse(producer.hasRoomFor(5));
+
+    assertEquals(12, consumer.readableBytes());
+    consumer.read(new byte[12], 0, 12);
+    assertFalse(producer.hasRoomFor(5));
+    consumer.release();
+    assertTrue(producer.hasRoomFor(CAPACITY));
+  }
+
+  @Test
+  public void writesAndReadsWrapAround() {
+    byte[] filler = new byte[10];
+    producer.write(filler, 0, filler.length);
+    producer.publish();
+    assertEquals(filler.length, consumer.readableBytes());
+    consumer.read(new byte[filler.length], 0, filler.length);
+    consumer.release();
+
+    // Starts 10 bytes into the 16-byte ring, so the int and the array both cross the end
+    byte[] data = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    assertTrue(producer.hasRoomFor(14));
+    producer.writeByte((byte) 42);
+    producer.writeInt(0xcafebabe);
+    producer.write(data, 1, 9);
+    producer.publish();
+
+    assertEquals(14, consumer.readableBytes());
+    assertEquals(42, consumer.readByte());
+    assertEquals(0xcafebabe, consumer.readInt());
+    byte[] read = new byte[9];
+    consumer.read(read, 0, read.length);
+    assertArrayEquals(new byte[] {2, 3, 4, 5, 6, 7, 8, 9, 10}, read);
+    consumer.release();
+    assertTrue(producer.hasRoomFor(CAPACITY));
+  }
+
+  @Test
+  public void skip() {
+    producer.write(new byte[] {1, 2, 3}, 0, 3);
+    producer.publish();
+
+    assertEquals(3, consumer.readableBytes());
+    consumer.skip(2);
+    assertEquals(1, consumer.readableBytes());
+    assertEquals(3, consumer.readByte());
+  }
+}
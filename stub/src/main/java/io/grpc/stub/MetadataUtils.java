@@ -25,6 +25,7 @@ import io.grpc.ClientInterceptor;
 import io.grpc.ExperimentalApi;
 import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
 import io.grpc.ForwardingClientCallListener.SimpleForwardingClientCallListener;
+import io.grpc.InternalMetadata;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
@@ -62,12 +63,26 @@ public final class MetadataUtils {
   private static final class HeaderAttachingClientInterceptor implements ClientInterceptor {
 
     private final Metadata extraHeaders;
+    private volatile EncodedHeaders encodedHeaders;
 
     // Non private to avoid synthetic class
     HeaderAttachingClientInterceptor(Metadata extraHeaders) {
       this.extraHeaders = checkNotNull(extraHeaders, "extraHeaders");
     }
 
+    /**
+     * Returns a copy of the extra headers with their binary values already base64 encoded, since
+     * they are sent with every call. The copy is rebuilt if the caller changed the headers.
+     */
+    Metadata encodedHeaders() {
+      EncodedHeaders encoded = encodedHeaders;
+      if (encoded == null || !InternalMetadata.hasEntries(extraHeaders, encoded.entries)) {
+        encoded = new EncodedHeaders(extraHeaders);
+        encodedHeaders = encoded;
+      }
+      return encoded.headers;
+    }
+
     @Override
     public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
         MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
@@ -84,12 +99,26 @@ public final class MetadataUtils {
 
       @Override
       public void start(Listener<RespT> responseListener, Metadata headers) {
-        headers.merge(extraHeaders);
+        headers.merge(encodedHeaders());
         super.start(responseListener, headers);
       }
     }
   }
 
+  private static final class EncodedHeaders {
+    // The entries of the caller's headers the copy was made from
+    final Object[] entries;
+    // Never modified once built
+    final Metadata headers = new Metadata();
+
+    // Non private to avoid synthetic class
+    EncodedHeaders(Metadata source) {
+      entries = InternalMetadata.entries(source);
+      headers.merge(source);
+      InternalMetadata.preEncodeBinaryValues(headers);
+    }
+  }
+
   /**
    * Captures the last received metadata for a stub. Useful for testing
    *
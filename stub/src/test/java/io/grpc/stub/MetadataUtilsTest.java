@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.stub;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.InternalMetadata;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.internal.NoopClientCall;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link MetadataUtils}. */
+@RunWith(JUnit4.class)
+public class MetadataUtilsTest {
+  private static final Metadata.Key<byte[]> BINARY_KEY =
+      Metadata.Key.of("test-bin", Metadata.BINARY_BYTE_MARSHALLER);
+  private static final Metadata.Key<String> ASCII_KEY =
+      Metadata.Key.of("test", Metadata.ASCII_STRING_MARSHALLER);
+
+  private final AtomicReference<Metadata> sentHeaders = new AtomicReference<>();
+  private final Channel channel = new Channel() {
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+      return new NoopClientCall<ReqT, RespT>() {
+        @Override
+        public void start(ClientCall.Listener<RespT> listener, Metadata headers) {
+          sentHeaders.set(headers);
+        }
+      };
+    }
+
+    @Override
+    public String authority() {
+      return "localhost";
+    }
+  };
+
+  @Test
+  public void attachHeadersInterceptor_leavesCallerHeadersUntouched() {
+    byte[] bytes = new byte[] {1, 2, 3};
+    Metadata extraHeaders = new Metadata();
+    extraHeaders.put(BINARY_KEY, bytes);
+    extraHeaders.put(ASCII_KEY, "value");
+
+    ClientInterceptor interceptor = MetadataUtils.newAttachHeadersInterceptor(extraHeaders);
+    interceptor.interceptCall(null, CallOptions.DEFAULT, channel)
+        .start(new ClientCall.Listener<Object>() {}, new Metadata());
+
+    Metadata sent = sentHeaders.get();
+    assertSame(bytes, sent.get(BINARY_KEY));
+    assertThat(sent.get(ASCII_KEY)).isEqualTo("value");
+    // The sent copy is encoded once, up front
+    assertSame(
+        InternalMetadata.serializeBase64Binary(sent)[1],
+        InternalMetadata.serializeBase64Binary(sent)[1]);
+    // The caller's headers are not
+    assertNotSame(
+        InternalMetadata.serializeBase64Binary(extraHeaders)[1],
+        InternalMetadata.serializeBase64Binary(extraHeaders)[1]);
+    assertArrayEquals(bytes, extraHeaders.get(BINARY_KEY));
+  }
+
+  @Test
+  public void attachHeadersInterceptor_seesLaterChangesToCallerHeaders() {
+    Metadata extraHeaders = new Metadata();
+    extraHeaders.put(BINARY_KEY, new byte[] {1, 2, 3});
+    ClientInterceptor interceptor = MetadataUtils.newAttachHeadersInterceptor(extraHeaders);
+    interceptor.interceptCall(null, CallOptions.DEFAULT, channel)
+        .start(new ClientCall.Listener<Object>() {}, new Metadata());
+    byte[] encoded = InternalMetadata.serializeBase64Binary(sentHeaders.get())[1];
+
+    // Unchanged headers are not encoded again
+    interceptor.interceptCall(null, CallOptions.DEFAULT, channel)
+        .start(new ClientCall.Listener<Object>() {}, new Metadata());
+    assertSame(encoded, InternalMetadata.serializeBase64Binary(sentHeaders.get())[1]);
+
+    extraHeaders.put(ASCII_KEY, "later");
+    interceptor.interceptCall(null, CallOptions.DEFAULT, channel)
+        .start(new ClientCall.Listener<Object>() {}, new Metadata());
+    assertThat(sentHeaders.get().getAll(ASCII_KEY)).containsExactly("later");
+    assertArrayEquals(new byte[] {1, 2, 3}, sentHeaders.get().get(BINARY_KEY));
+  }
+}